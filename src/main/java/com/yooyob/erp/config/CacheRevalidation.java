@@ -0,0 +1,318 @@
+package com.yooyob.erp.config;
+
+import com.yooyob.erp.util.DependancesStatistique;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Cache à revalidation en arrière-plan, posé sur un cache partagé.
+ * Vider le cache ou périmer une clé ne supprime plus les entrées : elles sont marquées périmées. Pendant la péremption maximale,
+ * une entrée périmée reste servie tandis qu'un seul recalcul par clé tourne en arrière-plan ; au-delà,
+ * l'appelant recalcule, les appels concurrents sur la même clé attendant ce même calcul.
+ * Le recalcul unique vaut pour le nœud ; le marqueur de péremption est partagé via le cache sous-jacent.
+ * Chaque valeur est inscrite sous les dépendances déclarées par son calcul avant d'être écrite : une valeur
+ * dont l'inscription échoue n'est pas mise en cache, faute de pouvoir être périmée.
+ */
+@Slf4j
+public class CacheRevalidation implements Cache {
+
+    public static final String CLE_INVALIDATION = "__invalidation__";
+
+    private final Cache delegue;
+    private final long peremptionMaxMs;
+    private final InscriptionDependances inscription;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> calculsEnCours = new ConcurrentHashMap<>();
+
+    private final Counter servisFrais;
+    private final Counter servisPerimes;
+    private final Counter recalculs;
+    private final Counter recalculsEvites;
+
+    public CacheRevalidation(Cache delegue, Duration peremptionMax, InscriptionDependances inscription,
+                             MeterRegistry registre) {
+        this.delegue = delegue;
+        this.peremptionMaxMs = peremptionMax.toMillis();
+        this.inscription = inscription;
+        this.servisFrais = compteur(registre, "frais");
+        this.servisPerimes = compteur(registre, "perime");
+        this.recalculs = compteur(registre, "recalcul");
+        this.recalculsEvites = compteur(registre, "recalcul_evite");
+    }
+
+    @Override
+    public String getName() {
+        return delegue.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegue.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Entree entree = lire(key);
+        if (entree == null) {
+            return null;
+        }
+        long perimeeDepuis = entree.perimeeDepuis(lireInvalidation());
+        if (perimeeDepuis == 0) {
+            servisFrais.increment();
+            return new SimpleValueWrapper(entree.valeur);
+        }
+        if (isPeremptionTolerable(perimeeDepuis)) {
+            servisPerimes.increment();
+            return new SimpleValueWrapper(entree.valeur);
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valeur = get(key);
+        if (valeur == null || valeur.get() == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(valeur.get())) {
+            throw new IllegalStateException("Valeur en cache de type inattendu pour la clé " + key);
+        }
+        return (T) valeur.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entree entree = lire(key);
+        long perimeeDepuis = entree != null ? entree.perimeeDepuis(lireInvalidation()) : -1;
+
+        if (perimeeDepuis == 0) {
+            servisFrais.increment();
+            return (T) entree.valeur;
+        }
+        if (entree != null && isPeremptionTolerable(perimeeDepuis)) {
+            servisPerimes.increment();
+            revaliderEnArrierePlan(key, valueLoader);
+            return (T) entree.valeur;
+        }
+        try {
+            return (T) calculerUneFois(key, valueLoader).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Valeur encore fraîche uniquement : une entrée périmée n'est pas servie, même pendant la péremption maximale
+     */
+    public ValueWrapper getFrais(Object key) {
+        Entree entree = lire(key);
+        if (entree == null || entree.perimeeDepuis(lireInvalidation()) != 0) {
+            return null;
+        }
+        servisFrais.increment();
+        return new SimpleValueWrapper(entree.valeur);
+    }
+
+    /**
+     * Écrit une valeur dont le calcul a commencé à l'instant donné, sauf si le cache ou la clé ont été invalidés depuis
+     *
+     * @return vrai si la valeur a été écrite
+     */
+    public boolean putSiInchangee(Object key, Object value, long calculeLe, DependancesStatistique dependances) {
+        if (isInvalideeDepuis(key, calculeLe) || !inscrire(key, dependances)) {
+            return false;
+        }
+        delegue.put(key, new Entree(value, calculeLe, 0L));
+        return true;
+    }
+
+    /**
+     * Écriture sans calcul connu : la valeur est supposée dépendre de tout
+     */
+    @Override
+    public void put(Object key, Object value) {
+        if (inscrire(key, DependancesStatistique.TOUT)) {
+            delegue.put(key, new Entree(value, System.currentTimeMillis(), 0L));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegue.evict(key);
+    }
+
+    /**
+     * Marque une seule entrée comme périmée sans la supprimer
+     *
+     * @return vrai si une entrée encore fraîche a été périmée
+     */
+    public boolean perimer(Object key) {
+        Entree entree = lire(key);
+        if (entree == null || entree.perimeeDepuis(lireInvalidation()) != 0) {
+            return false;
+        }
+        delegue.put(key, new Entree(entree.valeur, entree.calculeLe, System.currentTimeMillis()));
+        return true;
+    }
+
+    /**
+     * Marque toutes les entrées comme périmées sans les supprimer
+     */
+    @Override
+    public void clear() {
+        delegue.put(CLE_INVALIDATION, System.currentTimeMillis());
+    }
+
+    /**
+     * Suppression immédiate, sans service d'entrées périmées
+     */
+    @Override
+    public boolean invalidate() {
+        return delegue.invalidate();
+    }
+
+    // Méthodes privées utilitaires
+
+    private void revaliderEnArrierePlan(Object key, Callable<?> valueLoader) {
+        // Le calcul est réservé avant le lancement du fil : deux lectures périmées simultanées n'en lancent qu'un
+        CompletableFuture<Object> calcul = new CompletableFuture<>();
+        if (calculsEnCours.putIfAbsent(key, calcul) != null) {
+            recalculsEvites.increment();
+            return;
+        }
+        Thread.ofVirtual().name("revalidation-" + getName()).start(() -> {
+            try {
+                calculer(key, valueLoader, calcul).join();
+            } catch (CompletionException e) {
+                log.warn("Échec de la revalidation en arrière-plan - Cache: {}, Clé: {}", getName(), key, e.getCause());
+            }
+        });
+    }
+
+    /**
+     * Un seul calcul par clé : le premier appelant l'exécute, les suivants attendent son résultat
+     */
+    private CompletableFuture<Object> calculerUneFois(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> calcul = new CompletableFuture<>();
+        CompletableFuture<Object> existant = calculsEnCours.putIfAbsent(key, calcul);
+        if (existant != null) {
+            recalculsEvites.increment();
+            return existant;
+        }
+        return calculer(key, valueLoader, calcul);
+    }
+
+    /**
+     * Exécute le calcul réservé pour la clé, écrit son résultat et libère la réservation
+     */
+    private CompletableFuture<Object> calculer(Object key, Callable<?> valueLoader, CompletableFuture<Object> calcul) {
+        recalculs.increment();
+        try {
+            long debut = System.currentTimeMillis();
+            DependancesStatistique[] dependances = {DependancesStatistique.TOUT};
+            Object valeur = DependancesStatistique.calculer(valueLoader, declarees -> dependances[0] = declarees);
+            // Un résultat invalidé en cours de calcul n'est pas écrit : il paraîtrait frais une fois le marqueur expiré
+            if (valeur != null && !isInvalideeDepuis(key, debut) && inscrire(key, dependances[0])) {
+                delegue.put(key, new Entree(valeur, debut, 0L));
+            }
+            calcul.complete(valeur);
+        } catch (Exception e) {
+            calcul.completeExceptionally(new ValueRetrievalException(key, valueLoader, e));
+        } finally {
+            calculsEnCours.remove(key, calcul);
+        }
+        return calcul;
+    }
+
+    private boolean inscrire(Object key, DependancesStatistique dependances) {
+        try {
+            inscription.inscrire(key, dependances);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Dépendances non inscrites, valeur non mise en cache - Cache: {}, Clé: {}", getName(), key, e);
+            return false;
+        }
+    }
+
+    private Entree lire(Object key) {
+        ValueWrapper valeur = delegue.get(key);
+        return valeur != null && valeur.get() instanceof Entree entree ? entree : null;
+    }
+
+    private long lireInvalidation() {
+        ValueWrapper valeur = delegue.get(CLE_INVALIDATION);
+        return valeur != null && valeur.get() instanceof Long instant ? instant : 0L;
+    }
+
+    private boolean isInvalideeDepuis(Object key, long instant) {
+        if (lireInvalidation() >= instant) {
+            return true;
+        }
+        Entree entree = lire(key);
+        return entree != null && entree.perimeeLe >= instant;
+    }
+
+    private boolean isPeremptionTolerable(long perimeeDepuis) {
+        return System.currentTimeMillis() - perimeeDepuis <= peremptionMaxMs;
+    }
+
+    private Counter compteur(MeterRegistry registre, String resultat) {
+        return Counter.builder("cache.revalidation")
+                .description("Lectures du cache à revalidation en arrière-plan, par issue")
+                .tag("cache", delegue.getName())
+                .tag("resultat", resultat)
+                .register(registre);
+    }
+
+    /**
+     * Inscription d'une clé sous les dépendances de sa valeur, au moment de la mise en cache
+     */
+    @FunctionalInterface
+    public interface InscriptionDependances {
+        void inscrire(Object cle, DependancesStatistique dependances);
+    }
+
+    static final class Entree implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Serializable valeur;
+        private final long calculeLe;
+        // Instant où l'entrée seule a été périmée, 0 si elle ne l'a pas été
+        private final long perimeeLe;
+
+        private Entree(Object valeur, long calculeLe, long perimeeLe) {
+            // Le cache sous-jacent sérialise les entrées : une valeur non sérialisable y échouerait de toute façon
+            if (valeur != null && !(valeur instanceof Serializable)) {
+                throw new IllegalArgumentException("Valeur de cache non sérialisable: " + valeur.getClass().getName());
+            }
+            this.valeur = (Serializable) valeur;
+            this.calculeLe = calculeLe;
+            this.perimeeLe = perimeeLe;
+        }
+
+        /**
+         * Premier instant connu de péremption de l'entrée, par elle-même ou par le marqueur global ; 0 si fraîche
+         */
+        private long perimeeDepuis(long invalidation) {
+            if (calculeLe > invalidation) {
+                return perimeeLe;
+            }
+            return perimeeLe != 0 ? Math.min(perimeeLe, invalidation) : invalidation;
+        }
+    }
+}
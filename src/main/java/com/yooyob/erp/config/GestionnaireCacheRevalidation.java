@@ -0,0 +1,48 @@
+package com.yooyob.erp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Gestionnaire de caches qui pose la revalidation en arrière-plan sur les caches désignés
+ * et laisse les autres caches inchangés
+ */
+public class GestionnaireCacheRevalidation implements CacheManager {
+
+    private final CacheManager delegue;
+    private final Set<String> cachesRevalides;
+    private final Duration peremptionMax;
+    private final CacheRevalidation.InscriptionDependances inscription;
+    private final MeterRegistry registre;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public GestionnaireCacheRevalidation(CacheManager delegue, Set<String> cachesRevalides, Duration peremptionMax,
+                                         CacheRevalidation.InscriptionDependances inscription, MeterRegistry registre) {
+        this.delegue = delegue;
+        this.cachesRevalides = cachesRevalides;
+        this.peremptionMax = peremptionMax;
+        this.inscription = inscription;
+        this.registre = registre;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = delegue.getCache(name);
+        if (cache == null || !cachesRevalides.contains(name)) {
+            return cache;
+        }
+        return caches.computeIfAbsent(name, nom -> new CacheRevalidation(cache, peremptionMax, inscription, registre));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegue.getCacheNames();
+    }
+}
@@ -5,6 +5,11 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.yooyob.erp.repository.custom.IndexDependancesStatistiquesRepository;
+import com.yooyob.erp.util.CacheUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -15,6 +20,7 @@ import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import java.time.Duration;
+import java.util.Set;
 
 @Configuration
 @EnableCaching
@@ -46,13 +52,23 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, MeterRegistry meterRegistry,
+                                     IndexDependancesStatistiquesRepository indexDependances,
+                                     @Value("${app.widgets.cache-ttl-minutes:5}") long ttlWidgetsMinutes,
+                                     @Value("${app.statistiques.peremption-max-secondes:300}") long peremptionMaxSecondes) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1))
+                .entryTtl(CacheUtil.DUREE_VIE_DEFAUT)
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
+                .withCacheConfiguration(CacheUtil.WIDGET_CACHE, config.entryTtl(Duration.ofMinutes(ttlWidgetsMinutes)))
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // Les statistiques invalidées à chaque écriture de facture restent servies pendant leur recalcul
+        return new GestionnaireCacheRevalidation(redisCacheManager, Set.of(CacheUtil.STATISTIQUE_CACHE),
+                Duration.ofSeconds(peremptionMaxSecondes),
+                (cle, dependances) -> indexDependances.enregistrer(String.valueOf(cle), dependances), meterRegistry);
     }
 }
@@ -4,6 +4,7 @@ import com.yooyob.erp.dto.request.ClientCreateRequest;
 import com.yooyob.erp.dto.request.ClientUpdateRequest;
 import com.yooyob.erp.dto.response.ApiResponse;
 import com.yooyob.erp.dto.response.ClientResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.model.enums.TypeClient;
 import com.yooyob.erp.service.ClientService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -103,6 +104,16 @@ public class ClientController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/curseur")
+    @Operation(summary = "Parcourir les clients par curseur")
+    public ResponseEntity<ApiResponse<PageCurseurResponse<ClientResponse>>> getClientsParCurseur(
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "20") int taille) {
+
+        PageCurseurResponse<ClientResponse> response = clientService.getClientsParCurseur(curseur, taille);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @GetMapping("/active")
     @Operation(summary = "Récupérer tous les clients actifs")
     public ResponseEntity<ApiResponse<List<ClientResponse>>> getAllActiveClients() {
@@ -2,6 +2,7 @@ package com.yooyob.erp.controller;
 
 import com.yooyob.erp.dto.request.DevisCreateRequest;
 import com.yooyob.erp.dto.response.DevisResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.model.enums.StatutDevis;
 import com.yooyob.erp.service.DevisService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -67,6 +68,17 @@ public class DevisController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/curseur")
+    @Operation(summary = "Parcourir les devis par curseur")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('COMMERCIAL')")
+    public ResponseEntity<PageCurseurResponse<DevisResponse>> getDevisParCurseur(
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "20") int taille) {
+        log.debug("Récupération des devis par curseur");
+        PageCurseurResponse<DevisResponse> response = devisService.getDevisParCurseur(curseur, taille);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/client/{clientId}")
     @Operation(summary = "Lister les devis d'un client")
     @PreAuthorize("hasRole('ADMIN') or hasRole('COMMERCIAL') or (hasRole('CLIENT') and #clientId == authentication.principal.id)")
@@ -5,6 +5,7 @@ import com.yooyob.erp.dto.request.FactureUpdateRequest;
 import com.yooyob.erp.dto.response.ApiResponse;
 import com.yooyob.erp.dto.response.FactureResponse;
 import com.yooyob.erp.dto.response.FactureDetailsResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.model.enums.StatutFacture;
 import com.yooyob.erp.service.FactureService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -99,6 +100,16 @@ public class FactureController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/curseur")
+    @Operation(summary = "Parcourir les factures par curseur")
+    public ResponseEntity<ApiResponse<PageCurseurResponse<FactureResponse>>> getFacturesParCurseur(
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "20") int taille) {
+
+        PageCurseurResponse<FactureResponse> response = factureService.getFacturesParCurseur(curseur, taille);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @GetMapping("/client/{clientId}")
     @Operation(summary = "Récupérer les factures d'un client")
     public ResponseEntity<ApiResponse<List<FactureResponse>>> getFacturesByClient(
@@ -108,6 +119,17 @@ public class FactureController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/client/{clientId}/curseur")
+    @Operation(summary = "Parcourir les factures d'un client par curseur")
+    public ResponseEntity<ApiResponse<PageCurseurResponse<FactureResponse>>> getFacturesByClientParCurseur(
+            @Parameter(description = "ID du client") @PathVariable UUID clientId,
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "20") int taille) {
+
+        PageCurseurResponse<FactureResponse> response = factureService.getFacturesByClientParCurseur(clientId, curseur, taille);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @GetMapping("/etat/{etat}")
     @Operation(summary = "Récupérer les factures par statut")
     public ResponseEntity<ApiResponse<List<FactureResponse>>> getFacturesByEtat(
@@ -117,6 +139,17 @@ public class FactureController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/etat/{etat}/curseur")
+    @Operation(summary = "Parcourir les factures par statut par curseur")
+    public ResponseEntity<ApiResponse<PageCurseurResponse<FactureResponse>>> getFacturesByEtatParCurseur(
+            @Parameter(description = "Statut de la facture") @PathVariable @NotNull StatutFacture etat,
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "20") int taille) {
+
+        PageCurseurResponse<FactureResponse> response = factureService.getFacturesByEtatParCurseur(etat, curseur, taille);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @GetMapping("/client/{clientId}/etat/{etat}")
     @Operation(summary = "Récupérer les factures d'un client avec un statut donné")
     public ResponseEntity<ApiResponse<List<FactureResponse>>> getFacturesByClientAndEtat(
@@ -184,7 +217,7 @@ public class FactureController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Rechercher des factures avec filtres multiples")
+    @Operation(summary = "Rechercher des factures avec filtres multiples (au moins un critère requis)")
     public ResponseEntity<ApiResponse<List<FactureResponse>>> searchFactures(
             @Parameter(description = "ID du client") @RequestParam(required = false) UUID clientId,
             @Parameter(description = "Statut de la facture") @RequestParam(required = false) StatutFacture etat,
@@ -220,6 +253,26 @@ public class FactureController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/search/curseur")
+    @Operation(summary = "Recherche des factures avec filtres par curseur")
+    public ResponseEntity<ApiResponse<PageCurseurResponse<FactureResponse>>> searchFacturesParCurseur(
+            @Parameter(description = "ID du client") @RequestParam(required = false) UUID clientId,
+            @Parameter(description = "Statut de la facture") @RequestParam(required = false) StatutFacture etat,
+            @Parameter(description = "Date de début") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateStart,
+            @Parameter(description = "Date de fin") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateEnd,
+            @Parameter(description = "Montant minimum") @RequestParam(required = false) BigDecimal montantMin,
+            @Parameter(description = "Montant maximum") @RequestParam(required = false) BigDecimal montantMax,
+            @Parameter(description = "Code devise") @RequestParam(required = false) String devise,
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "20") int taille) {
+
+        PageCurseurResponse<FactureResponse> response = factureService.searchFacturesParCurseur(
+                clientId, etat, dateStart, dateEnd, montantMin, montantMax, devise, curseur, taille);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @PatchMapping("/{id}/statut")
     @Operation(summary = "Changer le statut d'une facture")
     public ResponseEntity<ApiResponse<FactureResponse>> changeStatutFacture(
@@ -341,6 +394,13 @@ public class FactureController {
         return ResponseEntity.ok(ApiResponse.success(statistics));
     }
 
+    @PostMapping("/index/reconstruire")
+    @Operation(summary = "Régénérer les tables d'index des factures")
+    public ResponseEntity<ApiResponse<Long>> reconstruireIndexFactures() {
+        Long nombreFactures = factureService.reconstruireIndexFactures();
+        return ResponseEntity.ok(ApiResponse.success(nombreFactures, "Index de factures reconstruits avec succès"));
+    }
+
     @GetMapping("/chiffre-affaires/{year}")
     @Operation(summary = "Obtenir le chiffre d'affaires par mois")
     public ResponseEntity<ApiResponse<Map<String, BigDecimal>>> getChiffreAffairesByMonth(
@@ -4,6 +4,7 @@ import com.yooyob.erp.dto.request.PaiementCreateRequest;
 import com.yooyob.erp.dto.request.PaiementUpdateRequest;
 import com.yooyob.erp.dto.response.ApiResponse;
 import com.yooyob.erp.dto.response.PaiementResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.mapper.PaiementMapper;
 import com.yooyob.erp.model.entity.Paiement;
 import com.yooyob.erp.model.enums.TypePaiement;
@@ -84,6 +85,16 @@ public class PaiementController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/curseur")
+    @Operation(summary = "Parcourir les paiements par curseur")
+    public ResponseEntity<ApiResponse<PageCurseurResponse<PaiementResponse>>> getPaiementsParCurseur(
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "20") int taille) {
+
+        PageCurseurResponse<PaiementResponse> response = paiementService.getPaiementsParCurseur(curseur, taille);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @GetMapping("/client/{clientId}")
     @Operation(summary = "Récupérer les paiements d'un client")
     public ResponseEntity<ApiResponse<List<PaiementResponse>>> getPaiementsByClient(
@@ -1,8 +1,45 @@
 package com.yooyob.erp.controller;
 
+import com.yooyob.erp.dto.response.AnomalieResponse;
 import com.yooyob.erp.dto.response.ApiResponse;
+import com.yooyob.erp.dto.response.BacktestPrevisionResponse;
+import com.yooyob.erp.dto.response.BalanceAgeeResponse;
+import com.yooyob.erp.dto.response.ClientsActifsResponse;
+import com.yooyob.erp.dto.response.DistributionResponse;
+import com.yooyob.erp.dto.response.DonneesWidgetResponse;
+import com.yooyob.erp.dto.response.MetriquesTempsReelResponse;
+import com.yooyob.erp.dto.response.CohortesClientsResponse;
+import com.yooyob.erp.dto.response.PerformanceRecouvrementResponse;
+import com.yooyob.erp.dto.response.PrechargementTableauResponse;
+import com.yooyob.erp.dto.response.PrevisionVentesResponse;
+import com.yooyob.erp.dto.response.SegmentClientResponse;
+import com.yooyob.erp.dto.response.SommesPeriodeResponse;
+import com.yooyob.erp.dto.response.SegmentationClientsResponse;
 import com.yooyob.erp.dto.response.StatistiqueResponse;
+import com.yooyob.erp.dto.response.TacheRapportResponse;
+import com.yooyob.erp.exception.ValidationException;
+import com.yooyob.erp.model.enums.CanalTempsReel;
+import com.yooyob.erp.model.enums.DimensionRollup;
+import com.yooyob.erp.model.enums.DistributionMesuree;
+import com.yooyob.erp.model.enums.MetriqueAnomalie;
 import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeRapport;
+import com.yooyob.erp.repository.custom.CompilateurWidget;
+import com.yooyob.erp.service.AnomaliesService;
+import com.yooyob.erp.service.BalanceAgeeService;
+import com.yooyob.erp.service.ClientsActifsService;
+import com.yooyob.erp.service.DistributionsService;
+import com.yooyob.erp.service.DonneesWidgetService;
+import com.yooyob.erp.service.EvaluationAlertesService;
+import com.yooyob.erp.service.IndexJournalierService;
+import com.yooyob.erp.service.MetriquesTempsReelService;
+import com.yooyob.erp.service.CohortesClientsService;
+import com.yooyob.erp.service.PerformanceRecouvrementService;
+import com.yooyob.erp.service.PrechargementTableauxService;
+import com.yooyob.erp.service.PrevisionVentesService;
+import com.yooyob.erp.service.RapportAsynchroneService;
+import com.yooyob.erp.service.RollupFactureService;
+import com.yooyob.erp.service.SegmentationClientsService;
 import com.yooyob.erp.service.StatistiqueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,15 +47,22 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -30,6 +74,21 @@ import java.util.UUID;
 public class StatistiqueController {
 
     private final StatistiqueService statistiqueService;
+    private final RollupFactureService rollupFactureService;
+    private final BalanceAgeeService balanceAgeeService;
+    private final ClientsActifsService clientsActifsService;
+    private final PrevisionVentesService previsionVentesService;
+    private final SegmentationClientsService segmentationClientsService;
+    private final CohortesClientsService cohortesClientsService;
+    private final AnomaliesService anomaliesService;
+    private final DonneesWidgetService donneesWidgetService;
+    private final EvaluationAlertesService evaluationAlertesService;
+    private final MetriquesTempsReelService metriquesTempsReelService;
+    private final PrechargementTableauxService prechargementTableauxService;
+    private final IndexJournalierService indexJournalierService;
+    private final DistributionsService distributionsService;
+    private final PerformanceRecouvrementService performanceRecouvrementService;
+    private final RapportAsynchroneService rapportAsynchroneService;
 
     @GetMapping("/globales")
     @Operation(summary = "Obtenir les statistiques globales")
@@ -282,8 +341,9 @@ public class StatistiqueController {
             @Parameter(description = "Date de fin") @RequestParam 
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         log.info("Génération du rapport de performance pour la période {} - {}", startDate, endDate);
-        
-        Map<String, Object> rapport = statistiqueService.genererRapportPerformance(startDate, endDate);
+
+        // Passe par le moteur de rapports : résultat en cache ou génération partagée avec les demandes identiques
+        Map<String, Object> rapport = rapportAsynchroneService.attendre(TypeRapport.PERFORMANCE, startDate, endDate);
         return ResponseEntity.ok(ApiResponse.success(rapport));
     }
 
@@ -305,4 +365,335 @@ public class StatistiqueController {
                 startDate1, endDate1, startDate2, endDate2);
         return ResponseEntity.ok(ApiResponse.success(comparaison));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/rollups/reconstruire")
+    @Operation(summary = "Régénérer les rollups de factures à partir de la table des factures")
+    public ResponseEntity<ApiResponse<Long>> reconstruireRollups() {
+        log.info("Reconstruction des rollups de factures demandée");
+
+        Long nombreFactures = rollupFactureService.reconstruireRollups();
+        return ResponseEntity.ok(ApiResponse.success(nombreFactures, "Rollups reconstruits avec succès"));
+    }
+
+    @GetMapping("/balance-agee")
+    @Operation(summary = "Obtenir la balance âgée des créances clients")
+    public ResponseEntity<ApiResponse<BalanceAgeeResponse>> getBalanceAgee() {
+        BalanceAgeeResponse balance = balanceAgeeService.getBalanceAgee();
+        return ResponseEntity.ok(ApiResponse.success(balance));
+    }
+
+    @GetMapping("/balance-agee/client/{clientId}")
+    @Operation(summary = "Obtenir la balance âgée d'un client")
+    public ResponseEntity<ApiResponse<BalanceAgeeResponse.BalanceClient>> getBalanceAgeeClient(
+            @Parameter(description = "ID du client") @PathVariable UUID clientId) {
+
+        BalanceAgeeResponse.BalanceClient balance = balanceAgeeService.getBalanceAgeeClient(clientId);
+        return ResponseEntity.ok(ApiResponse.success(balance));
+    }
+
+    @PostMapping("/balance-agee/reconstruire")
+    @Operation(summary = "Régénérer la balance âgée à partir de la table des factures")
+    public ResponseEntity<ApiResponse<Long>> reconstruireBalanceAgee() {
+        log.info("Reconstruction de la balance âgée demandée");
+
+        Long nombreFactures = balanceAgeeService.reconstruireBalances();
+        return ResponseEntity.ok(ApiResponse.success(nombreFactures, "Balance âgée reconstruite avec succès"));
+    }
+
+    @GetMapping("/clients/actifs/periode")
+    @Operation(summary = "Obtenir le nombre de clients distincts facturés sur une période")
+    public ResponseEntity<ApiResponse<ClientsActifsResponse>> getClientsActifsParPeriode(
+            @Parameter(description = "Date de début") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Date de fin") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        ClientsActifsResponse clientsActifs = clientsActifsService.compterClientsActifs(startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(clientsActifs));
+    }
+
+    @PostMapping("/clients/actifs/reconstruire")
+    @Operation(summary = "Régénérer les esquisses de clients actifs à partir de la table des factures")
+    public ResponseEntity<ApiResponse<Long>> reconstruireSketchesClientsActifs() {
+        log.info("Reconstruction des esquisses de clients actifs demandée");
+
+        Long nombreSketches = clientsActifsService.reconstruireSketches();
+        return ResponseEntity.ok(ApiResponse.success(nombreSketches, "Esquisses de clients actifs reconstruites avec succès"));
+    }
+
+    @GetMapping("/previsions")
+    @Operation(summary = "Obtenir les prévisions mensuelles de ventes d'une série (globale, client ou devise)")
+    public ResponseEntity<ApiResponse<PrevisionVentesResponse>> getPrevisionsVentes(
+            @Parameter(description = "Dimension de la série") @RequestParam(defaultValue = "GLOBAL") DimensionRollup dimension,
+            @Parameter(description = "ID du client ou code devise") @RequestParam(required = false) String valeur,
+            @Parameter(description = "Nombre de mois à prévoir") @RequestParam(defaultValue = "6") @Positive int horizon) {
+
+        PrevisionVentesResponse previsions = previsionVentesService.getPrevisions(dimension, valeur, horizon);
+        return ResponseEntity.ok(ApiResponse.success(previsions));
+    }
+
+    @GetMapping("/previsions/backtest")
+    @Operation(summary = "Mesurer la précision des prévisions sur les derniers mois clos")
+    public ResponseEntity<ApiResponse<BacktestPrevisionResponse>> backtesterPrevisions(
+            @Parameter(description = "Dimension de la série") @RequestParam(defaultValue = "GLOBAL") DimensionRollup dimension,
+            @Parameter(description = "ID du client ou code devise") @RequestParam(required = false) String valeur,
+            @Parameter(description = "Nombre de mois de test") @RequestParam(defaultValue = "6") @Positive int moisTest) {
+
+        BacktestPrevisionResponse backtest = previsionVentesService.backtester(dimension, valeur, moisTest);
+        return ResponseEntity.ok(ApiResponse.success(backtest));
+    }
+
+    @PostMapping("/previsions/reconstruire")
+    @Operation(summary = "Réinitialiser les états de prévision à partir des rollups mensuels")
+    public ResponseEntity<ApiResponse<Integer>> reconstruirePrevisions() {
+        log.info("Reconstruction des états de prévision demandée");
+
+        Integer nombreSeries = previsionVentesService.reconstruireEtats();
+        return ResponseEntity.ok(ApiResponse.success(nombreSeries, "États de prévision reconstruits avec succès"));
+    }
+
+    @GetMapping("/segmentation")
+    @Operation(summary = "Obtenir la répartition des clients par segment RFM et par classe ABC")
+    public ResponseEntity<ApiResponse<SegmentationClientsResponse>> getSegmentation() {
+
+        SegmentationClientsResponse segmentation = segmentationClientsService.getSegmentation();
+        return ResponseEntity.ok(ApiResponse.success(segmentation));
+    }
+
+    @GetMapping("/segmentation/client/{clientId}")
+    @Operation(summary = "Obtenir les scores RFM, le segment et la classe ABC d'un client")
+    public ResponseEntity<ApiResponse<SegmentClientResponse>> getSegmentClient(
+            @Parameter(description = "ID du client") @PathVariable UUID clientId) {
+
+        SegmentClientResponse segment = segmentationClientsService.getSegmentClient(clientId);
+        return ResponseEntity.ok(ApiResponse.success(segment));
+    }
+
+    @PostMapping("/segmentation/recalculer")
+    @Operation(summary = "Recalculer la segmentation RFM et ABC de tous les clients")
+    public ResponseEntity<ApiResponse<Integer>> recalculerSegmentation() {
+        log.info("Recalcul de la segmentation des clients demandé");
+
+        Integer nombreClients = segmentationClientsService.recalculerSegmentation();
+        return ResponseEntity.ok(ApiResponse.success(nombreClients, "Segmentation des clients recalculée avec succès"));
+    }
+
+    @GetMapping("/cohortes")
+    @Operation(summary = "Obtenir la matrice de rétention des cohortes mensuelles de clients")
+    public ResponseEntity<ApiResponse<CohortesClientsResponse>> getMatriceCohortes(
+            @Parameter(description = "Premier mois (yyyy-MM)") @RequestParam
+            @DateTimeFormat(pattern = "yyyy-MM") YearMonth moisDebut,
+            @Parameter(description = "Dernier mois (yyyy-MM)") @RequestParam
+            @DateTimeFormat(pattern = "yyyy-MM") YearMonth moisFin) {
+
+        CohortesClientsResponse cohortes = cohortesClientsService.getMatriceCohortes(moisDebut, moisFin);
+        return ResponseEntity.ok(ApiResponse.success(cohortes));
+    }
+
+    @PostMapping("/cohortes/reconstruire")
+    @Operation(summary = "Reconstruire les bitmaps mensuels de clients à partir des factures")
+    public ResponseEntity<ApiResponse<Integer>> reconstruireCohortes() {
+        log.info("Reconstruction des bitmaps de cohortes demandée");
+
+        Integer nombreMois = cohortesClientsService.reconstruireBitmaps();
+        return ResponseEntity.ok(ApiResponse.success(nombreMois, "Bitmaps de cohortes reconstruits avec succès"));
+    }
+
+    @GetMapping("/anomalies")
+    @Operation(summary = "Obtenir les anomalies relevées sur le chiffre d'affaires, les avoirs et les encaissements")
+    public ResponseEntity<ApiResponse<List<AnomalieResponse>>> getAnomalies(
+            @Parameter(description = "Métrique (toutes si absente)") @RequestParam(required = false) MetriqueAnomalie metrique,
+            @Parameter(description = "Date de début") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Date de fin") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        List<AnomalieResponse> anomalies = anomaliesService.getAnomalies(metrique, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(anomalies));
+    }
+
+    @PostMapping("/anomalies/detecter")
+    @Operation(summary = "Intégrer aux détecteurs d'anomalies les jours clos non encore traités")
+    public ResponseEntity<ApiResponse<Integer>> detecterAnomalies() {
+        log.info("Détection des anomalies demandée");
+
+        Integer nombreAnomalies = anomaliesService.detecterJoursClos();
+        return ResponseEntity.ok(ApiResponse.success(nombreAnomalies, "Détection des anomalies terminée"));
+    }
+
+    @GetMapping("/tableaux/{tableauId}/widgets/{widgetId}/donnees")
+    @Operation(summary = "Obtenir les données d'un widget de tableau de bord")
+    public ResponseEntity<ApiResponse<DonneesWidgetResponse>> getDonneesWidget(
+            @Parameter(description = "ID du tableau de bord") @PathVariable UUID tableauId,
+            @Parameter(description = "ID du widget") @PathVariable UUID widgetId,
+            @Parameter(description = "Date de début") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Date de fin") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        Map<String, Object> filtres = new HashMap<>();
+        filtres.put(CompilateurWidget.FILTRE_DATE_DEBUT, startDate);
+        filtres.put(CompilateurWidget.FILTRE_DATE_FIN, endDate);
+
+        DonneesWidgetResponse donnees = donneesWidgetService.getDonneesWidget(tableauId, widgetId, filtres);
+        return ResponseEntity.ok(ApiResponse.success(donnees));
+    }
+
+    @PostMapping("/tableaux/precharger")
+    @Operation(summary = "Précharger en cache les données des widgets des tableaux de bord (tous les tableaux actifs par défaut)")
+    public ResponseEntity<ApiResponse<List<PrechargementTableauResponse>>> prechargerTableaux(
+            @RequestBody(required = false) List<UUID> idsTableaux) {
+        log.info("Préchargement des tableaux de bord demandé: {}", idsTableaux);
+
+        List<PrechargementTableauResponse> bilans = prechargementTableauxService.prechargerDonnees(idsTableaux);
+        return ResponseEntity.ok(ApiResponse.success(bilans, "Préchargement des tableaux de bord terminé"));
+    }
+
+    @PostMapping("/tableaux/{tableauId}/actualiser")
+    @Operation(summary = "Recalculer et remettre en cache les données de tous les widgets d'un tableau de bord")
+    public ResponseEntity<ApiResponse<PrechargementTableauResponse>> actualiserCacheTableau(
+            @Parameter(description = "ID du tableau de bord") @PathVariable UUID tableauId) {
+
+        PrechargementTableauResponse bilan = prechargementTableauxService.actualiserCacheTableau(tableauId);
+        return ResponseEntity.ok(ApiResponse.success(bilan, "Tableau de bord actualisé"));
+    }
+
+    @PostMapping("/tableaux/{tableauId}/widgets/{widgetId}/actualiser")
+    @Operation(summary = "Recalculer et remettre en cache les données d'un widget")
+    public ResponseEntity<ApiResponse<DonneesWidgetResponse>> actualiserCacheWidget(
+            @Parameter(description = "ID du tableau de bord") @PathVariable UUID tableauId,
+            @Parameter(description = "ID du widget") @PathVariable UUID widgetId) {
+
+        DonneesWidgetResponse donnees = prechargementTableauxService.actualiserCacheWidget(tableauId, widgetId);
+        return ResponseEntity.ok(ApiResponse.success(donnees, "Widget actualisé"));
+    }
+
+    @PostMapping("/alertes/recharger")
+    @Operation(summary = "Replanifier les alertes de tableau de bord après modification de leur configuration")
+    public ResponseEntity<ApiResponse<Integer>> rechargerAlertes() {
+        log.info("Replanification des alertes de tableau de bord demandée");
+
+        Integer nombreAlertes = evaluationAlertesService.recharger();
+        return ResponseEntity.ok(ApiResponse.success(nombreAlertes, "Alertes replanifiées"));
+    }
+
+    @GetMapping(value = "/temps-reel", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "S'abonner aux variations des compteurs temps réel (Server-Sent Events)")
+    public SseEmitter abonnerMetriquesTempsReel(
+            @Parameter(description = "Canaux suivis, par exemple le canal d'un widget temps réel (tous par défaut)")
+            @RequestParam(required = false) List<String> canaux) {
+
+        Set<CanalTempsReel> canauxSuivis = EnumSet.noneOf(CanalTempsReel.class);
+        if (canaux != null) {
+            for (String nom : canaux) {
+                CanalTempsReel canal = CanalTempsReel.depuis(nom);
+                if (canal == null) {
+                    throw new ValidationException("Canal temps réel inconnu: " + nom);
+                }
+                canauxSuivis.add(canal);
+            }
+        }
+        return metriquesTempsReelService.abonner(canauxSuivis);
+    }
+
+    @GetMapping("/temps-reel/compteurs")
+    @Operation(summary = "Obtenir les compteurs temps réel cumulés depuis le démarrage")
+    public ResponseEntity<ApiResponse<List<MetriquesTempsReelResponse>>> getCompteursTempsReel() {
+        List<MetriquesTempsReelResponse> compteurs = metriquesTempsReelService.getCompteurs();
+        return ResponseEntity.ok(ApiResponse.success(compteurs));
+    }
+
+    @GetMapping("/sommes")
+    @Operation(summary = "Obtenir le nombre et le montant des factures émises et le montant encaissé sur une période")
+    public ResponseEntity<ApiResponse<SommesPeriodeResponse>> getSommesPeriode(
+            @Parameter(description = "Date de début") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Date de fin") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        SommesPeriodeResponse sommes = indexJournalierService.sommer(startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(sommes));
+    }
+
+    @PostMapping("/sommes/reconstruire")
+    @Operation(summary = "Reconstruire l'index journalier des factures et des encaissements")
+    public ResponseEntity<ApiResponse<Long>> reconstruireIndexJournalier() {
+        log.info("Reconstruction de l'index journalier demandée");
+
+        Long nombreDocuments = indexJournalierService.reconstruire();
+        return ResponseEntity.ok(ApiResponse.success(nombreDocuments, "Index journalier reconstruit"));
+    }
+
+    @GetMapping("/distributions")
+    @Operation(summary = "Obtenir les quantiles et l'histogramme des montants de factures ou des délais de paiement")
+    public ResponseEntity<ApiResponse<DistributionResponse>> getDistribution(
+            @Parameter(description = "Distribution mesurée") @RequestParam DistributionMesuree mesure,
+            @Parameter(description = "Premier mois (yyyy-MM), toutes périodes si les deux bornes sont absentes")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth moisDebut,
+            @Parameter(description = "Dernier mois (yyyy-MM)")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth moisFin,
+            @Parameter(description = "ID du client") @RequestParam(required = false) UUID idClient,
+            @Parameter(description = "Quantiles entre 0 et 1 (0.5, 0.9 et 0.99 par défaut)")
+            @RequestParam(required = false) List<Double> quantiles,
+            @Parameter(description = "Bornes des tranches de l'histogramme") @RequestParam(required = false) List<Double> bornes) {
+
+        DistributionResponse distribution = distributionsService.getDistribution(mesure, moisDebut, moisFin,
+                idClient, quantiles, bornes);
+        return ResponseEntity.ok(ApiResponse.success(distribution));
+    }
+
+    @PostMapping("/distributions/reconstruire")
+    @Operation(summary = "Régénérer les esquisses de distribution à partir des factures et des paiements")
+    public ResponseEntity<ApiResponse<Long>> reconstruireDistributions() {
+        log.info("Reconstruction des distributions demandée");
+
+        Long nombreDigests = distributionsService.reconstruireDigests();
+        return ResponseEntity.ok(ApiResponse.success(nombreDigests, "Distributions reconstruites avec succès"));
+    }
+
+    @GetMapping("/recouvrement")
+    @Operation(summary = "Obtenir le DSO, le délai moyen pondéré et le taux de recouvrement d'une période")
+    public ResponseEntity<ApiResponse<PerformanceRecouvrementResponse>> getPerformanceRecouvrement(
+            @Parameter(description = "Date de début (90 jours avant la fin par défaut)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Date de fin (aujourd'hui par défaut)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        PerformanceRecouvrementResponse performance = performanceRecouvrementService.calculer(startDate,
+                endDate != null ? endDate : LocalDate.now());
+        return ResponseEntity.ok(ApiResponse.success(performance));
+    }
+
+    @PostMapping("/recouvrement/reconstruire")
+    @Operation(summary = "Régénérer le suivi du recouvrement à partir des factures et des paiements")
+    public ResponseEntity<ApiResponse<Long>> reconstruireSuiviRecouvrement() {
+        log.info("Reconstruction du suivi du recouvrement demandée");
+
+        Long nombreLignes = performanceRecouvrementService.reconstruire();
+        return ResponseEntity.ok(ApiResponse.success(nombreLignes, "Suivi du recouvrement reconstruit avec succès"));
+    }
+
+    @PostMapping("/rapports")
+    @Operation(summary = "Soumettre la génération asynchrone d'un rapport")
+    public ResponseEntity<ApiResponse<TacheRapportResponse>> soumettreRapport(
+            @Parameter(description = "Type de rapport") @RequestParam TypeRapport type,
+            @Parameter(description = "Date de début") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Date de fin") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("Soumission du rapport {} pour la période {} - {}", type, startDate, endDate);
+
+        TacheRapportResponse tache = rapportAsynchroneService.soumettre(type, startDate, endDate);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(tache, "Rapport soumis"));
+    }
+
+    @GetMapping("/rapports/{idTache}")
+    @Operation(summary = "Obtenir l'état, l'avancement et le résultat d'une tâche de rapport")
+    public ResponseEntity<ApiResponse<TacheRapportResponse>> getTacheRapport(
+            @Parameter(description = "ID de la tâche") @PathVariable UUID idTache) {
+
+        TacheRapportResponse tache = rapportAsynchroneService.getTache(idTache);
+        return ResponseEntity.ok(ApiResponse.success(tache));
+    }
+}
@@ -0,0 +1,27 @@
+package com.yooyob.erp.dto.response;
+
+import com.yooyob.erp.model.enums.MetriqueAnomalie;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnomalieResponse {
+
+    private MetriqueAnomalie metrique;
+    private String libelleMetrique;
+    private LocalDate jour;
+    private BigDecimal valeur;
+    private BigDecimal valeurAttendue;
+    private Double scoreZ;
+    private String sens; // "HAUSSE", "BAISSE"
+    private String niveauCriticite;
+    private String description;
+}
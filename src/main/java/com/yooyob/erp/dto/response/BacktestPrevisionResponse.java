@@ -0,0 +1,26 @@
+package com.yooyob.erp.dto.response;
+
+import com.yooyob.erp.model.enums.DimensionRollup;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BacktestPrevisionResponse {
+
+    private DimensionRollup dimension;
+    private String valeurDimension;
+    private Integer moisApprentissage;
+    private Integer moisTest;
+    private BigDecimal erreurAbsolueMoyenne;
+    private Double erreurRelative;
+    private Double erreurRelativeNaive;
+    private List<PrevisionVentesResponse.PointPrevision> points;
+}
@@ -0,0 +1,45 @@
+package com.yooyob.erp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceAgeeResponse {
+
+    private LocalDate dateReference;
+    private BigDecimal totalNonEchu;
+    private BigDecimal total0a30;
+    private BigDecimal total31a60;
+    private BigDecimal total61a90;
+    private BigDecimal totalPlus90;
+    private BigDecimal totalEncours;
+    private Integer nombreClients;
+    private List<BalanceClient> clients;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class BalanceClient {
+        private UUID idClient;
+        private String nomClient;
+        private BigDecimal montantNonEchu;
+        private BigDecimal montant0a30;
+        private BigDecimal montant31a60;
+        private BigDecimal montant61a90;
+        private BigDecimal montantPlus90;
+        private BigDecimal montantTotal;
+        private Long nombreFactures;
+        private LocalDate dateCalcul;
+    }
+}
@@ -0,0 +1,21 @@
+package com.yooyob.erp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClientsActifsResponse {
+
+    private LocalDate dateDebut;
+    private LocalDate dateFin;
+    private Long nombreClients;
+    private Boolean exact;
+    private Double erreurRelative;
+}
@@ -0,0 +1,34 @@
+package com.yooyob.erp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CohortesClientsResponse {
+
+    private String moisDebut;
+    private String moisFin;
+    private List<LigneCohorte> cohortes;
+
+    /**
+     * Clients acquis sur un mois et part d'entre eux encore facturés les mois suivants (décalage 0, 1, 2...)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class LigneCohorte {
+        private String cohorte;
+        private Integer taille;
+        private List<Integer> clientsRetenus;
+        private List<BigDecimal> tauxRetention;
+    }
+}
@@ -0,0 +1,30 @@
+package com.yooyob.erp.dto.response;
+
+import com.yooyob.erp.model.enums.DistributionMesuree;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DistributionResponse {
+
+    private DistributionMesuree mesure;
+    private String moisDebut;
+    private String moisFin;
+    private UUID idClient;
+    private Long nombre;
+    private Double moyenne;
+    private Double minimum;
+    private Double maximum;
+    // Clés "p50", "p90", "p99"...
+    private Map<String, Double> quantiles;
+    // Clés "borneInf-borneSup" (dernière tranche "borneInf+"), dans l'ordre des bornes
+    private Map<String, Long> histogramme;
+}
@@ -0,0 +1,29 @@
+package com.yooyob.erp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DonneesWidgetResponse {
+
+    private UUID idWidget;
+    private String nomWidget;
+    private String typeWidget;
+    private String strategie; // "ROLLUP", "INDEX:<champ>", "PARCOURS"
+    private List<String> colonnes;
+    private List<Map<String, Object>> lignes;
+    private Long nombreLignesLues;
+    private Long dureeCalculMs;
+    private LocalDateTime calculeLe;
+    private Boolean depuisCache;
+}
@@ -0,0 +1,28 @@
+package com.yooyob.erp.dto.response;
+
+import com.yooyob.erp.model.enums.CanalTempsReel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetriquesTempsReelResponse {
+
+    private CanalTempsReel canal;
+    private LocalDateTime horodatage;
+
+    // Variation depuis la diffusion précédente
+    private Long nombre;
+    private BigDecimal montant;
+
+    // Cumul depuis le démarrage de l'application
+    private Long nombreCumule;
+    private BigDecimal montantCumule;
+}
@@ -0,0 +1,24 @@
+package com.yooyob.erp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page de résultats parcourue par curseur : le curseur suivant est à renvoyer tel quel
+ * pour obtenir la page d'après, sans relire les lignes déjà parcourues
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageCurseurResponse<T> {
+
+    private List<T> contenu;
+    private Integer taille;
+    private Boolean pageSuivante;
+    private String curseurSuivant;
+}
@@ -0,0 +1,30 @@
+package com.yooyob.erp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PerformanceRecouvrementResponse {
+
+    private LocalDate dateDebut;
+    private LocalDate dateFin;
+    private Long nombreJours;
+    private BigDecimal montantFacture;
+    private BigDecimal montantEncaisse;
+    // Encours client à la fin de la période
+    private BigDecimal encoursFin;
+    // Days sales outstanding : encours de fin / facturé de la période × nombre de jours
+    private BigDecimal dso;
+    // Délai moyen des encaissements de la période, pondéré par les montants
+    private BigDecimal delaiMoyenPondere;
+    // Part (%) du facturé de la période encaissée sur la période
+    private BigDecimal tauxRecouvrement;
+}
@@ -0,0 +1,23 @@
+package com.yooyob.erp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PrechargementTableauResponse {
+
+    private UUID idTableau;
+    private String nomTableau;
+    private Integer nombreWidgets;
+    private Integer widgetsPrecharges;
+    private Integer widgetsEnEchec;
+    private Integer widgetsHorsDelai;
+    private Long dureeMs;
+}
@@ -0,0 +1,35 @@
+package com.yooyob.erp.dto.response;
+
+import com.yooyob.erp.model.enums.DimensionRollup;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PrevisionVentesResponse {
+
+    private DimensionRollup dimension;
+    private String valeurDimension;
+    private String dernierMoisObserve;
+    private Integer nombreObservations;
+    private BigDecimal erreurAbsolueMoyenne;
+    private Double erreurRelative;
+    private List<PointPrevision> previsions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class PointPrevision {
+        private String periode;
+        private BigDecimal montantPrevu;
+        private BigDecimal montantReel;
+    }
+}
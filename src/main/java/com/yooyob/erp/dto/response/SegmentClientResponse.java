@@ -0,0 +1,36 @@
+package com.yooyob.erp.dto.response;
+
+import com.yooyob.erp.model.enums.ClasseAbc;
+import com.yooyob.erp.model.enums.SegmentRfm;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SegmentClientResponse {
+
+    private UUID idClient;
+    private String nomClient;
+    private Long nombreFactures;
+    private BigDecimal montantTotal;
+    private BigDecimal montantEncaisse;
+    private LocalDate premierAchat;
+    private LocalDate dernierAchat;
+    private Integer scoreRecence;
+    private Integer scoreFrequence;
+    private Integer scoreMontant;
+    private String scoreRfm;
+    private SegmentRfm segment;
+    private String libelleSegment;
+    private ClasseAbc classeAbc;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,29 @@
+package com.yooyob.erp.dto.response;
+
+import com.yooyob.erp.model.enums.ClasseAbc;
+import com.yooyob.erp.model.enums.SegmentRfm;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SegmentationClientsResponse {
+
+    private LocalDate dateCalcul;
+    private Long dureeCalculMs;
+    private Long nombreClients;
+    private Map<SegmentRfm, Long> clientsParSegment;
+    private Map<SegmentRfm, BigDecimal> chiffreAffairesParSegment;
+    private Map<ClasseAbc, Long> clientsParClasse;
+    private Map<ClasseAbc, BigDecimal> chiffreAffairesParClasse;
+    private BigDecimal seuilClasseA;
+    private BigDecimal seuilClasseB;
+}
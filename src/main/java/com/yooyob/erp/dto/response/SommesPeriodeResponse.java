@@ -0,0 +1,22 @@
+package com.yooyob.erp.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SommesPeriodeResponse {
+
+    private LocalDate dateDebut;
+    private LocalDate dateFin;
+    private Long nombreFactures;
+    private BigDecimal montantTotal;
+    private BigDecimal montantEncaisse;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -14,7 +15,10 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class StatistiqueResponse {
+public class StatistiqueResponse implements Serializable {
+
+    // Mis en cache dans Redis par sérialisation Java, avec ses lignes mensuelles et ses meilleurs clients
+    private static final long serialVersionUID = 1L;
 
     private BigDecimal chiffreAffairesTotal;
     private BigDecimal chiffreAffairesMois;
@@ -27,12 +31,17 @@ public class StatistiqueResponse {
     private List<TopClient> topClients;
     private Map<String, BigDecimal> repartitionParDevise;
     private LocalDate derniereMiseAJour;
+    private Long lignesAnalysees;
+    private Long dureeCalculMs;
 
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
     @Builder
-    public static class ChiffreAffairesMensuel {
+    public static class ChiffreAffairesMensuel implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
         private String mois;
         private BigDecimal montant;
         private Integer nombreFactures;
@@ -42,7 +51,10 @@ public class StatistiqueResponse {
     @NoArgsConstructor
     @AllArgsConstructor
     @Builder
-    public static class TopClient {
+    public static class TopClient implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
         private String nomClient;
         private BigDecimal montantTotal;
         private Integer nombreFactures;
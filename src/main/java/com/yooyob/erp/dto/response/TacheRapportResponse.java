@@ -0,0 +1,34 @@
+package com.yooyob.erp.dto.response;
+
+import com.yooyob.erp.model.enums.StatutTacheRapport;
+import com.yooyob.erp.model.enums.TypeRapport;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TacheRapportResponse {
+
+    private UUID idTache;
+    private TypeRapport type;
+    private LocalDate dateDebut;
+    private LocalDate dateFin;
+    private StatutTacheRapport statut;
+    // Avancement en pourcentage
+    private Integer progression;
+    // Résultat déjà en cache au moment de la demande, sans nouvelle génération
+    private Boolean depuisCache;
+    private LocalDateTime soumiseLe;
+    private LocalDateTime termineeLe;
+    private String erreur;
+    private Map<String, Object> resultat;
+}
@@ -0,0 +1,37 @@
+package com.yooyob.erp.event;
+
+import com.yooyob.erp.model.entity.Facture;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Événement publié après chaque écriture d'une facture.
+ * L'état avant est null à la création, l'état après est null à la suppression.
+ */
+@Getter
+@RequiredArgsConstructor
+public class FactureEvent {
+
+    private final Facture avant;
+    private final Facture apres;
+
+    public static FactureEvent creation(Facture facture) {
+        return new FactureEvent(null, facture);
+    }
+
+    public static FactureEvent modification(Facture avant, Facture apres) {
+        return new FactureEvent(avant, apres);
+    }
+
+    public static FactureEvent suppression(Facture facture) {
+        return new FactureEvent(facture, null);
+    }
+
+    public boolean isCreation() {
+        return avant == null && apres != null;
+    }
+
+    public boolean isSuppression() {
+        return avant != null && apres == null;
+    }
+}
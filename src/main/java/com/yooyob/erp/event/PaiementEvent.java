@@ -0,0 +1,37 @@
+package com.yooyob.erp.event;
+
+import com.yooyob.erp.model.entity.Paiement;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Événement publié après chaque écriture d'un paiement.
+ * L'état avant est null à la création, l'état après est null à la suppression.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PaiementEvent {
+
+    private final Paiement avant;
+    private final Paiement apres;
+
+    public static PaiementEvent creation(Paiement paiement) {
+        return new PaiementEvent(null, paiement);
+    }
+
+    public static PaiementEvent modification(Paiement avant, Paiement apres) {
+        return new PaiementEvent(avant, apres);
+    }
+
+    public static PaiementEvent suppression(Paiement paiement) {
+        return new PaiementEvent(paiement, null);
+    }
+
+    public boolean isCreation() {
+        return avant == null && apres != null;
+    }
+
+    public boolean isSuppression() {
+        return avant != null && apres == null;
+    }
+}
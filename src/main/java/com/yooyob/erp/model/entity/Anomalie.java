@@ -0,0 +1,41 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Valeur journalière d'une métrique jugée anormale par son détecteur
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("anomalies")
+public class Anomalie {
+
+    @PrimaryKey
+    private AnomalieKey key;
+
+    @Column("valeur")
+    private BigDecimal valeur;
+
+    @Column("valeur_attendue")
+    private BigDecimal valeurAttendue;
+
+    @Column("score_z")
+    private Double scoreZ;
+
+    @Column("niveau_criticite")
+    private String niveauCriticite; // "WARNING", "CRITICAL"
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+}
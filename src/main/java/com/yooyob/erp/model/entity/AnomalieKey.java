@@ -0,0 +1,30 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.MetriqueAnomalie;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.Ordering;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class AnomalieKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @PrimaryKeyColumn(name = "metrique", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private MetriqueAnomalie metrique;
+
+    @PrimaryKeyColumn(name = "jour", ordinal = 1, type = PrimaryKeyType.CLUSTERED, ordering = Ordering.DESCENDING)
+    private LocalDate jour;
+}
@@ -0,0 +1,29 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.util.UUID;
+
+/**
+ * Nœud qui applique un shard du journal des mises à jour aux agrégats. La ligne est écrite avec une durée
+ * de vie et prolongée par son titulaire : un nœud arrêté libère ses shards à l'expiration du bail.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("baux_shards_agregats")
+public class BailShardAgregats {
+
+    @PrimaryKey
+    private Integer shard;
+
+    @Column("noeud")
+    private UUID noeud;
+}
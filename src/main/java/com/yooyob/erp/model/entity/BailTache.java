@@ -0,0 +1,29 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.util.UUID;
+
+/**
+ * Nœud désigné pour exécuter une tâche planifiée qui ne doit tourner qu'une fois dans la grappe. La ligne est
+ * écrite avec une durée de vie et prolongée par son titulaire : un nœud arrêté cède la tâche à l'expiration du bail.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("baux_taches")
+public class BailTache {
+
+    @PrimaryKey
+    private String tache;
+
+    @Column("noeud")
+    private UUID noeud;
+}
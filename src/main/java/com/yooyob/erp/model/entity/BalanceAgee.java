@@ -0,0 +1,67 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Encours d'un client réparti par tranche d'ancienneté, calculé à la date de calcul, dans une génération de l'agrégat
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("balances_agees")
+public class BalanceAgee implements LigneAgregat {
+
+    @PrimaryKey
+    private BalanceAgeeKey key;
+
+    @Column("nom_client")
+    private String nomClient;
+
+    @Column("montant_non_echu")
+    @Builder.Default
+    private BigDecimal montantNonEchu = BigDecimal.ZERO;
+
+    @Column("montant_0_30")
+    @Builder.Default
+    private BigDecimal montant0a30 = BigDecimal.ZERO;
+
+    @Column("montant_31_60")
+    @Builder.Default
+    private BigDecimal montant31a60 = BigDecimal.ZERO;
+
+    @Column("montant_61_90")
+    @Builder.Default
+    private BigDecimal montant61a90 = BigDecimal.ZERO;
+
+    @Column("montant_plus_90")
+    @Builder.Default
+    private BigDecimal montantPlus90 = BigDecimal.ZERO;
+
+    @Column("montant_total")
+    @Builder.Default
+    private BigDecimal montantTotal = BigDecimal.ZERO;
+
+    @Column("nombre_factures")
+    @Builder.Default
+    private Long nombreFactures = 0L;
+
+    @Column("date_calcul")
+    private LocalDate dateCalcul;
+
+    @Column("revision")
+    private Long revision;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * Bitmap compressé (Roaring) des numéros des clients facturés sur un mois, dans une génération de l'agrégat
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("bitmaps_clients_mois")
+public class BitmapClientsMois implements LigneAgregat {
+
+    @PrimaryKey
+    private BitmapClientsMoisKey key;
+
+    @Column("clients")
+    private ByteBuffer clients;
+
+    @Column("nombre_clients")
+    private Integer nombreClients;
+
+    @Column("revision")
+    private Long revision;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class BitmapClientsMoisKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @PrimaryKeyColumn(name = "generation", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private Integer generation;
+
+    // Mois au format yyyy-MM
+    @PrimaryKeyColumn(name = "mois", ordinal = 1, type = PrimaryKeyType.CLUSTERED)
+    private String mois;
+}
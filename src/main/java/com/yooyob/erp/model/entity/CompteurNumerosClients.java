@@ -0,0 +1,39 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Prochain numéro de client libre : chaque instance s'en réserve des plages par écriture conditionnelle,
+ * pour que deux nœuds n'attribuent jamais le même numéro
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("compteurs_numeros_clients")
+public class CompteurNumerosClients implements LigneAgregat {
+
+    public static final String CLE_UNIQUE = "*";
+
+    @PrimaryKey
+    @Column("cle")
+    private String cle;
+
+    @Column("prochain_numero")
+    @Builder.Default
+    private Integer prochainNumero = 0;
+
+    @Column("revision")
+    private Long revision;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
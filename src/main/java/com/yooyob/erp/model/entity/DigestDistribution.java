@@ -0,0 +1,39 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * Esquisse t-digest d'une distribution (montants ou délais de paiement) sur un mois, pour un client ou pour tous,
+ * dans une génération de l'agrégat
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("digests_distributions")
+public class DigestDistribution implements LigneAgregat {
+
+    @PrimaryKey
+    private DigestDistributionKey key;
+
+    @Column("centroides")
+    private ByteBuffer centroides;
+
+    @Column("nombre")
+    private Long nombre;
+
+    @Column("revision")
+    private Long revision;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.DistributionMesuree;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class DigestDistributionKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String TOUS_CLIENTS = "*";
+
+    @PrimaryKeyColumn(name = "generation", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private Integer generation;
+
+    @PrimaryKeyColumn(name = "mesure", ordinal = 1, type = PrimaryKeyType.PARTITIONED)
+    private DistributionMesuree mesure;
+
+    // Mois "yyyy-MM", ou "*" pour l'esquisse toutes périodes
+    @PrimaryKeyColumn(name = "periode", ordinal = 2, type = PrimaryKeyType.PARTITIONED)
+    private String periode;
+
+    // Identifiant du client, ou "*" pour tous les clients
+    @PrimaryKeyColumn(name = "client", ordinal = 3, type = PrimaryKeyType.CLUSTERED)
+    private String client;
+}
@@ -0,0 +1,41 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Montant restant dû par un client pour une date d'échéance donnée,
+ * base du calcul de la balance âgée, dans une génération de l'agrégat
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("encours_echeances")
+public class EncoursEcheance implements LigneAgregat {
+
+    @PrimaryKey
+    private EncoursEcheanceKey key;
+
+    @Column("montant_restant")
+    @Builder.Default
+    private BigDecimal montantRestant = BigDecimal.ZERO;
+
+    @Column("nombre_factures")
+    @Builder.Default
+    private Long nombreFactures = 0L;
+
+    @Column("revision")
+    private Long revision;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
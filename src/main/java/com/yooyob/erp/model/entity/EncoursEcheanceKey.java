@@ -0,0 +1,32 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class EncoursEcheanceKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @PrimaryKeyColumn(name = "generation", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private Integer generation;
+
+    @PrimaryKeyColumn(name = "id_client", ordinal = 1, type = PrimaryKeyType.PARTITIONED)
+    private UUID idClient;
+
+    @PrimaryKeyColumn(name = "date_echeance", ordinal = 2, type = PrimaryKeyType.CLUSTERED)
+    private LocalDate dateEcheance;
+}
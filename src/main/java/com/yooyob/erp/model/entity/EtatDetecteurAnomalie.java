@@ -0,0 +1,48 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.MetriqueAnomalie;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * État du détecteur d'anomalies d'une métrique journalière (niveau, variance, écarts par jour de la semaine)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("etats_detecteurs_anomalies")
+public class EtatDetecteurAnomalie {
+
+    @PrimaryKey
+    @Column("metrique")
+    private MetriqueAnomalie metrique;
+
+    @Column("moyenne")
+    private Double moyenne;
+
+    @Column("variance")
+    private Double variance;
+
+    @Column("saisons")
+    private List<Double> saisons;
+
+    @Column("nombre_observations")
+    private Integer nombreObservations;
+
+    // Dernier jour clos intégré
+    @Column("dernier_jour")
+    private LocalDate dernierJour;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,55 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * État de lissage exponentiel (Holt-Winters) d'une série mensuelle de ventes :
+ * globale, par client ou par devise.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("etats_prevision")
+public class EtatPrevision {
+
+    @PrimaryKey
+    private EtatPrevisionKey key;
+
+    @Column("niveau")
+    private Double niveau;
+
+    @Column("tendance")
+    private Double tendance;
+
+    @Column("saisons")
+    private List<Double> saisons;
+
+    // Dernier mois intégré (yyyy-MM)
+    @Column("dernier_mois")
+    private String dernierMois;
+
+    @Column("nombre_observations")
+    private Integer nombreObservations;
+
+    @Column("somme_erreurs_absolues")
+    private Double sommeErreursAbsolues;
+
+    @Column("somme_valeurs_absolues")
+    private Double sommeValeursAbsolues;
+
+    @Column("nombre_erreurs")
+    private Integer nombreErreurs;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.DimensionRollup;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class EtatPrevisionKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @PrimaryKeyColumn(name = "dimension", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private DimensionRollup dimension;
+
+    @PrimaryKeyColumn(name = "valeur_dimension", ordinal = 1, type = PrimaryKeyType.PARTITIONED)
+    private String valeurDimension;
+}
@@ -0,0 +1,36 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Nombre de factures émises d'un client sur un mois, dans une génération de l'agrégat des cohortes :
+ * le client reste dans le bitmap du mois tant que ce nombre est positif
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("factures_clients_mois")
+public class FacturesClientMois implements LigneAgregat {
+
+    @PrimaryKey
+    private FacturesClientMoisKey key;
+
+    @Column("nombre_factures")
+    @Builder.Default
+    private Long nombreFactures = 0L;
+
+    @Column("revision")
+    private Long revision;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,57 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.TypeAgregat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Génération lue d'un agrégat et, pendant une reconstruction, génération en cours de construction.
+ * Les lecteurs ne voient que la génération active ; la reconstruction bascule le pointeur une fois terminée.
+ * Chaque nœud publie la révision du pointeur qu'il a chargée : une transition n'est suivie d'effets
+ * (parcours, purge) qu'une fois acquittée par tous les nœuds vivants.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("generations_agregats")
+public class GenerationAgregat implements LigneAgregat {
+
+    @PrimaryKey
+    private TypeAgregat agregat;
+
+    @Column("generation_active")
+    @Builder.Default
+    private Integer generationActive = 0;
+
+    @Column("generation_construction")
+    private Integer generationConstruction;
+
+    // Plus grand numéro attribué, pour ne jamais réutiliser celui d'une construction abandonnée
+    @Column("derniere_generation")
+    @Builder.Default
+    private Integer derniereGeneration = 0;
+
+    @Column("debut_construction")
+    private LocalDateTime debutConstruction;
+
+    // Générations remplacées ou abandonnées que plus aucun nœud ne doit écrire, en attente de purge
+    @Column("generations_obsoletes")
+    @Builder.Default
+    private Set<Integer> generationsObsoletes = new HashSet<>();
+
+    @Column("revision")
+    private Long revision;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,46 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.StatutFacture;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Entrée d'index des factures, partitionnée par génération, clé d'accès et bucket
+ * (mois pour les dates, mois de facturation pour les clients, mois de facturation et shard pour les valeurs
+ * peu sélectives).
+ * Porte les colonnes nécessaires au filtrage pour ne charger que les factures retenues.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("index_factures")
+public class IndexFacture {
+
+    @PrimaryKey
+    private IndexFactureKey key;
+
+    @Column("id_client")
+    private UUID idClient;
+
+    @Column("etat")
+    private StatutFacture etat;
+
+    @Column("montant_total")
+    private BigDecimal montantTotal;
+
+    @Column("montant_restant")
+    private BigDecimal montantRestant;
+
+    @Column("date_echeance")
+    private LocalDate dateEcheance;
+}
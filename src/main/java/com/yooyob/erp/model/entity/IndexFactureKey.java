@@ -0,0 +1,43 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.TypeIndexFacture;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.Ordering;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class IndexFactureKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @PrimaryKeyColumn(name = "generation", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private Integer generation;
+
+    @PrimaryKeyColumn(name = "type_index", ordinal = 1, type = PrimaryKeyType.PARTITIONED)
+    private TypeIndexFacture typeIndex;
+
+    @PrimaryKeyColumn(name = "valeur", ordinal = 2, type = PrimaryKeyType.PARTITIONED)
+    private String valeur;
+
+    @PrimaryKeyColumn(name = "bucket", ordinal = 3, type = PrimaryKeyType.PARTITIONED)
+    private String bucket;
+
+    @PrimaryKeyColumn(name = "date_reference", ordinal = 4, type = PrimaryKeyType.CLUSTERED, ordering = Ordering.DESCENDING)
+    private LocalDate dateReference;
+
+    @PrimaryKeyColumn(name = "id_facture", ordinal = 5, type = PrimaryKeyType.CLUSTERED)
+    private UUID idFacture;
+}
@@ -0,0 +1,12 @@
+package com.yooyob.erp.model.entity;
+
+/**
+ * Ligne d'une table d'agrégats modifiée par lecture-modification-écriture conditionnelle :
+ * la révision est comparée à celle lue (IF revision = ?) pour détecter une écriture concurrente d'un autre nœud.
+ */
+public interface LigneAgregat {
+
+    Long getRevision();
+
+    void setRevision(Long revision);
+}
@@ -0,0 +1,40 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.util.UUID;
+
+/**
+ * Modification d'une facture ou d'un paiement publiée pour les agrégats. Le journal n'est jamais modifié :
+ * chaque agrégat le relit dans l'ordre à partir de sa propre progression, et les entrées expirent après
+ * la durée de rétention.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("mises_a_jour_agregats")
+public class MiseAJourAgregat {
+
+    @PrimaryKey
+    private MiseAJourAgregatKey key;
+
+    @Column("source")
+    private String source;
+
+    @Column("id_source")
+    private UUID idSource;
+
+    // États JSON avant et après la modification, absents à la création et à la suppression
+    @Column("avant")
+    private String avant;
+
+    @Column("apres")
+    private String apres;
+}
@@ -0,0 +1,35 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.CassandraType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class MiseAJourAgregatKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Répartit les sources entre les nœuds qui appliquent le journal ; une source reste toujours dans le même shard
+    @PrimaryKeyColumn(name = "shard", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private Integer shard;
+
+    // Tranche de temps de l'identifiant, pour borner la taille des partitions
+    @PrimaryKeyColumn(name = "tranche", ordinal = 1, type = PrimaryKeyType.PARTITIONED)
+    private Long tranche;
+
+    @PrimaryKeyColumn(name = "id", ordinal = 2, type = PrimaryKeyType.CLUSTERED)
+    @CassandraType(type = CassandraType.Name.TIMEUUID)
+    private UUID id;
+}
@@ -0,0 +1,40 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Présence d'un nœud, réécrite à chaque cycle avec une durée de vie : révision du pointeur de génération
+ * qu'il a chargée pour chaque agrégat, et instant avant lequel toutes ses mises à jour sont dans le journal.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("noeuds_agregats")
+public class NoeudAgregats {
+
+    @PrimaryKey
+    private UUID noeud;
+
+    @Column("revisions")
+    @Builder.Default
+    private Map<String, Long> revisions = new HashMap<>();
+
+    // Millisecondes depuis l'epoch, comparées à l'horodatage des identifiants du journal
+    @Column("publiees_jusqua")
+    private Long publieesJusqua;
+
+    @Column("vu_le")
+    private LocalDateTime vuLe;
+}
@@ -0,0 +1,29 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.util.UUID;
+
+/**
+ * Numéro entier dense attribué à un client pour l'indexer dans les bitmaps de cohortes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("numeros_clients")
+public class NumeroClient {
+
+    @PrimaryKey
+    @Column("id_client")
+    private UUID idClient;
+
+    @Column("numero")
+    private Integer numero;
+}
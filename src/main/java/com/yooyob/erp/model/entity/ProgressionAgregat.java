@@ -0,0 +1,46 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.CassandraType;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Position d'une génération d'agrégat dans un shard du journal des mises à jour : toutes les entrées
+ * jusqu'au curseur inclus y sont appliquées. Un échec laisse le curseur en place et retarde le prochain essai.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("progressions_agregats")
+public class ProgressionAgregat {
+
+    @PrimaryKey
+    private ProgressionAgregatKey key;
+
+    @Column("curseur")
+    @CassandraType(type = CassandraType.Name.TIMEUUID)
+    private UUID curseur;
+
+    // Échecs consécutifs sur l'entrée qui suit le curseur
+    @Column("tentatives")
+    @Builder.Default
+    private Integer tentatives = 0;
+
+    @Column("derniere_erreur")
+    private String derniereErreur;
+
+    @Column("prochain_essai")
+    private LocalDateTime prochainEssai;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,31 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.TypeAgregat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class ProgressionAgregatKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @PrimaryKeyColumn(name = "agregat", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private TypeAgregat agregat;
+
+    @PrimaryKeyColumn(name = "generation", ordinal = 1, type = PrimaryKeyType.PARTITIONED)
+    private Integer generation;
+
+    @PrimaryKeyColumn(name = "shard", ordinal = 2, type = PrimaryKeyType.CLUSTERED)
+    private Integer shard;
+}
@@ -0,0 +1,51 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.CassandraType;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Agrégat pré-calculé des factures par période (jour, mois, total),
+ * par dimension (global, client, devise) et par statut, dans une génération de l'agrégat.
+ * Chaque shard du journal des mises à jour tient sa propre ligne, que seul le nœud titulaire du shard écrit :
+ * les lecteurs additionnent les lignes des shards (voir {@link com.yooyob.erp.repository.RollupFactureRepository}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("rollups_factures")
+public class RollupFacture {
+
+    @PrimaryKey
+    private RollupFactureKey key;
+
+    @Column("nombre_factures")
+    @Builder.Default
+    private Long nombreFactures = 0L;
+
+    @Column("montant_total")
+    @Builder.Default
+    private BigDecimal montantTotal = BigDecimal.ZERO;
+
+    @Column("montant_restant")
+    @Builder.Default
+    private BigDecimal montantRestant = BigDecimal.ZERO;
+
+    // Dernière entrée du journal intégrée, pour ne pas appliquer deux fois un lot rejoué
+    @Column("derniere_mise_a_jour")
+    @CassandraType(type = CassandraType.Name.TIMEUUID)
+    private UUID derniereMiseAJour;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,46 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.DimensionRollup;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import com.yooyob.erp.model.enums.StatutFacture;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class RollupFactureKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @PrimaryKeyColumn(name = "generation", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private Integer generation;
+
+    @PrimaryKeyColumn(name = "granularite", ordinal = 1, type = PrimaryKeyType.PARTITIONED)
+    private GranulariteRollup granularite;
+
+    @PrimaryKeyColumn(name = "periode", ordinal = 2, type = PrimaryKeyType.PARTITIONED)
+    private String periode;
+
+    @PrimaryKeyColumn(name = "dimension", ordinal = 3, type = PrimaryKeyType.CLUSTERED)
+    private DimensionRollup dimension;
+
+    @PrimaryKeyColumn(name = "valeur_dimension", ordinal = 4, type = PrimaryKeyType.CLUSTERED)
+    private String valeurDimension;
+
+    @PrimaryKeyColumn(name = "statut", ordinal = 5, type = PrimaryKeyType.CLUSTERED)
+    private StatutFacture statut;
+
+    // Shard du journal des mises à jour qui écrit la ligne, ou celui de la reconstruction
+    @PrimaryKeyColumn(name = "shard", ordinal = 6, type = PrimaryKeyType.CLUSTERED)
+    private Integer shard;
+}
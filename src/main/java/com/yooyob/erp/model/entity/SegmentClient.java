@@ -0,0 +1,69 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.ClasseAbc;
+import com.yooyob.erp.model.enums.SegmentRfm;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Instantané de segmentation d'un client : métriques RFM, scores en quintiles et classe ABC,
+ * dans une génération de l'agrégat
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("segments_clients")
+public class SegmentClient implements LigneAgregat {
+
+    @PrimaryKey
+    private SegmentClientKey key;
+
+    @Column("nom_client")
+    private String nomClient;
+
+    @Column("nombre_factures")
+    private Long nombreFactures;
+
+    @Column("montant_total")
+    private BigDecimal montantTotal;
+
+    @Column("montant_encaisse")
+    private BigDecimal montantEncaisse;
+
+    @Column("premier_achat")
+    private LocalDate premierAchat;
+
+    @Column("dernier_achat")
+    private LocalDate dernierAchat;
+
+    @Column("score_recence")
+    private Integer scoreRecence;
+
+    @Column("score_frequence")
+    private Integer scoreFrequence;
+
+    @Column("score_montant")
+    private Integer scoreMontant;
+
+    @Column("segment")
+    private SegmentRfm segment;
+
+    @Column("classe_abc")
+    private ClasseAbc classeAbc;
+
+    @Column("revision")
+    private Long revision;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
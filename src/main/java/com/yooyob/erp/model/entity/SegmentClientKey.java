@@ -0,0 +1,41 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class SegmentClientKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Répartit une génération sur plusieurs partitions, relues ensemble pour la répartition par segment
+    public static final int NOMBRE_BUCKETS = 16;
+    public static final List<Integer> BUCKETS = IntStream.range(0, NOMBRE_BUCKETS).boxed().toList();
+
+    @PrimaryKeyColumn(name = "generation", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private Integer generation;
+
+    @PrimaryKeyColumn(name = "bucket", ordinal = 1, type = PrimaryKeyType.PARTITIONED)
+    private Integer bucket;
+
+    @PrimaryKeyColumn(name = "id_client", ordinal = 2, type = PrimaryKeyType.CLUSTERED)
+    private UUID idClient;
+
+    public static SegmentClientKey pour(int generation, UUID idClient) {
+        return new SegmentClientKey(generation, Math.floorMod(idClient.hashCode(), NOMBRE_BUCKETS), idClient);
+    }
+}
@@ -0,0 +1,60 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bornes de quintiles et de classes ABC issues du dernier calcul complet,
+ * réutilisées pour noter incrémentalement les clients modifiés entre deux calculs
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("seuils_segmentation")
+public class SeuilsSegmentation {
+
+    public static final String CLE_UNIQUE = "*";
+
+    @PrimaryKey
+    @Column("cle")
+    private String cle;
+
+    // Dates de dernier achat (jours epoch)
+    @Column("bornes_recence")
+    private List<Long> bornesRecence;
+
+    @Column("bornes_frequence")
+    private List<Long> bornesFrequence;
+
+    // Montants en centimes
+    @Column("bornes_montant")
+    private List<Long> bornesMontant;
+
+    @Column("seuil_classe_a")
+    private Long seuilClasseA;
+
+    @Column("seuil_classe_b")
+    private Long seuilClasseB;
+
+    @Column("nombre_clients")
+    private Integer nombreClients;
+
+    @Column("date_calcul")
+    private LocalDate dateCalcul;
+
+    @Column("duree_calcul_ms")
+    private Long dureeCalculMs;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
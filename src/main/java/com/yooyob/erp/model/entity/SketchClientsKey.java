@@ -0,0 +1,31 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyClass;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@PrimaryKeyClass
+public class SketchClientsKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @PrimaryKeyColumn(name = "generation", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private Integer generation;
+
+    @PrimaryKeyColumn(name = "granularite", ordinal = 1, type = PrimaryKeyType.PARTITIONED)
+    private GranulariteRollup granularite;
+
+    @PrimaryKeyColumn(name = "periode", ordinal = 2, type = PrimaryKeyType.PARTITIONED)
+    private String periode;
+}
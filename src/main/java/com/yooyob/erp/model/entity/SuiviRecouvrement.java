@@ -0,0 +1,47 @@
+package com.yooyob.erp.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Mouvements des créances clients sur une période (jour, mois, total) : montant facturé à la date
+ * des factures émises, montant encaissé à la date d'imputation des paiements, et encaissements
+ * pondérés par leur délai depuis la facturation, dans une génération de l'agrégat.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("suivi_recouvrement")
+public class SuiviRecouvrement implements LigneAgregat {
+
+    @PrimaryKey
+    private SuiviRecouvrementKey key;
+
+    @Column("montant_facture")
+    @Builder.Default
+    private BigDecimal montantFacture = BigDecimal.ZERO;
+
+    @Column("montant_encaisse")
+    @Builder.Default
+    private BigDecimal montantEncaisse = BigDecimal.ZERO;
+
+    // Somme des montants encaissés multipliés par leur délai en jours
+    @Column("encaisse_pondere")
+    @Builder.Default
+    private BigDecimal encaissePondere = BigDecimal.ZERO;
+
+    @Column("revision")
+    private Long revision;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,58 @@
+package com.yooyob.erp.model.entity;
+
+import com.yooyob.erp.model.enums.StatutTacheRapport;
+import com.yooyob.erp.model.enums.TypeRapport;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKey;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * État d'une tâche de génération de rapport, consultable depuis n'importe quel nœud. La ligne est réécrite à
+ * chaque changement d'état par le nœud qui exécute la tâche et expire après la durée de rétention.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("taches_rapports")
+public class TacheRapport {
+
+    @PrimaryKey
+    private UUID idTache;
+
+    @Column("type")
+    private TypeRapport type;
+
+    @Column("date_debut")
+    private LocalDate dateDebut;
+
+    @Column("date_fin")
+    private LocalDate dateFin;
+
+    @Column("statut")
+    private StatutTacheRapport statut;
+
+    @Column("progression")
+    private Integer progression;
+
+    @Column("soumise_le")
+    private LocalDateTime soumiseLe;
+
+    @Column("terminee_le")
+    private LocalDateTime termineeLe;
+
+    @Column("erreur")
+    private String erreur;
+
+    // Rapport JSON, présent une fois la tâche terminée
+    @Column("resultat")
+    private String resultat;
+}
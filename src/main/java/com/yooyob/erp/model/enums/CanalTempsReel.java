@@ -0,0 +1,27 @@
+package com.yooyob.erp.model.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum CanalTempsReel {
+    FACTURES("Factures créées"),
+    PAIEMENTS("Paiements reçus");
+
+    private final String libelle;
+
+    CanalTempsReel(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public static CanalTempsReel depuis(String nom) {
+        if (nom == null) {
+            return null;
+        }
+        for (CanalTempsReel canal : values()) {
+            if (canal.name().equalsIgnoreCase(nom.trim())) {
+                return canal;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.yooyob.erp.model.enums;
+
+public enum ClasseAbc {
+    A("Clients réalisant 80 % du chiffre d'affaires"),
+    B("Clients réalisant les 15 % suivants"),
+    C("Clients réalisant les 5 % restants");
+
+    /**
+     * Parts cumulées du chiffre d'affaires fermant les classes A et B
+     */
+    public static final double PART_CUMULEE_A = 0.80;
+    public static final double PART_CUMULEE_B = 0.95;
+
+    private final String libelle;
+
+    ClasseAbc(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+}
@@ -0,0 +1,19 @@
+package com.yooyob.erp.model.enums;
+
+public enum DimensionRollup {
+    GLOBAL("Global"),
+    CLIENT("Client"),
+    DEVISE("Devise");
+
+    public static final String VALEUR_GLOBALE = "*";
+
+    private final String libelle;
+
+    DimensionRollup(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+}
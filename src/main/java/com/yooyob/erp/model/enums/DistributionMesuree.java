@@ -0,0 +1,15 @@
+package com.yooyob.erp.model.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum DistributionMesuree {
+    MONTANT_FACTURE("Montant des factures émises"),
+    DELAI_PAIEMENT("Délai de paiement en jours");
+
+    private final String libelle;
+
+    DistributionMesuree(String libelle) {
+        this.libelle = libelle;
+    }
+}
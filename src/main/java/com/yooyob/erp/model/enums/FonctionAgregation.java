@@ -0,0 +1,18 @@
+package com.yooyob.erp.model.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum FonctionAgregation {
+    SUM("Somme"),
+    AVG("Moyenne"),
+    COUNT("Nombre"),
+    MIN("Minimum"),
+    MAX("Maximum");
+
+    private final String libelle;
+
+    FonctionAgregation(String libelle) {
+        this.libelle = libelle;
+    }
+}
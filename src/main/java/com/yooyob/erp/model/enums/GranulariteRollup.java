@@ -0,0 +1,35 @@
+package com.yooyob.erp.model.enums;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+public enum GranulariteRollup {
+    JOUR("Jour"),
+    MOIS("Mois"),
+    TOUT("Toutes périodes");
+
+    public static final String PERIODE_TOUT = "*";
+
+    private static final DateTimeFormatter FORMAT_MOIS = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final String libelle;
+
+    GranulariteRollup(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    /**
+     * Clé de période du rollup contenant la date donnée
+     */
+    public String periode(LocalDate date) {
+        return switch (this) {
+            case JOUR -> date.toString();
+            case MOIS -> date.format(FORMAT_MOIS);
+            case TOUT -> PERIODE_TOUT;
+        };
+    }
+}
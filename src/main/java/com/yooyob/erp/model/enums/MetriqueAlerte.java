@@ -0,0 +1,33 @@
+package com.yooyob.erp.model.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum MetriqueAlerte {
+    CHIFFRE_AFFAIRES_JOUR("Chiffre d'affaires facturé du jour", true),
+    CHIFFRE_AFFAIRES_MOIS("Chiffre d'affaires facturé du mois en cours", true),
+    NOMBRE_FACTURES_JOUR("Nombre de factures émises du jour", true),
+    MONTANT_IMPAYE("Montant restant dû", false),
+    NOMBRE_FACTURES_EN_RETARD("Nombre de factures en retard", false);
+
+    private final String libelle;
+    // Métrique calculée sur une fenêtre de dates (comparable à la période précédente) ou sur tout l'encours
+    private final boolean fenetree;
+
+    MetriqueAlerte(String libelle, boolean fenetree) {
+        this.libelle = libelle;
+        this.fenetree = fenetree;
+    }
+
+    public static MetriqueAlerte depuis(String nom) {
+        if (nom == null) {
+            return null;
+        }
+        for (MetriqueAlerte metrique : values()) {
+            if (metrique.name().equals(nom)) {
+                return metrique;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.yooyob.erp.model.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum MetriqueAnomalie {
+    CHIFFRE_AFFAIRES("Chiffre d'affaires facturé", true, true),
+    AVOIRS("Montant des avoirs émis", true, false),
+    PAIEMENTS("Montant des encaissements", false, true);
+
+    private final String libelle;
+    // Sens d'écart signalés pour la métrique
+    private final boolean hausseSurveillee;
+    private final boolean baisseSurveillee;
+
+    MetriqueAnomalie(String libelle, boolean hausseSurveillee, boolean baisseSurveillee) {
+        this.libelle = libelle;
+        this.hausseSurveillee = hausseSurveillee;
+        this.baisseSurveillee = baisseSurveillee;
+    }
+
+    public boolean isSurveille(double scoreZ) {
+        return scoreZ > 0 ? hausseSurveillee : baisseSurveillee;
+    }
+}
@@ -0,0 +1,40 @@
+package com.yooyob.erp.model.enums;
+
+public enum SegmentRfm {
+    CHAMPIONS("Champions"),
+    FIDELES("Fidèles"),
+    NOUVEAUX("Nouveaux"),
+    POTENTIELS("Potentiels"),
+    A_NE_PAS_PERDRE("À ne pas perdre"),
+    A_RISQUE("À risque"),
+    EN_SOMMEIL("En sommeil");
+
+    private final String libelle;
+
+    SegmentRfm(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    /**
+     * Segment correspondant aux scores de récence et de fréquence (1 à 5)
+     */
+    public static SegmentRfm pour(int scoreRecence, int scoreFrequence) {
+        if (scoreRecence >= 4) {
+            if (scoreFrequence >= 4) {
+                return CHAMPIONS;
+            }
+            return scoreFrequence <= 1 ? NOUVEAUX : POTENTIELS;
+        }
+        if (scoreRecence == 3) {
+            return scoreFrequence >= 3 ? FIDELES : POTENTIELS;
+        }
+        if (scoreFrequence >= 4) {
+            return A_NE_PAS_PERDRE;
+        }
+        return scoreFrequence >= 2 ? A_RISQUE : EN_SOMMEIL;
+    }
+}
@@ -0,0 +1,21 @@
+package com.yooyob.erp.model.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum StatutTacheRapport {
+    EN_ATTENTE("En attente d'un travailleur"),
+    EN_COURS("En cours"),
+    TERMINEE("Terminée"),
+    ECHOUEE("Échouée");
+
+    private final String libelle;
+
+    StatutTacheRapport(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public boolean isFinie() {
+        return this == TERMINEE || this == ECHOUEE;
+    }
+}
@@ -0,0 +1,47 @@
+package com.yooyob.erp.model.enums;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public enum TrancheAge {
+    NON_ECHU("Non échu"),
+    JOURS_0_30("0-30 jours"),
+    JOURS_31_60("31-60 jours"),
+    JOURS_61_90("61-90 jours"),
+    PLUS_90("Plus de 90 jours");
+
+    /**
+     * Retards (en jours) à partir desquels une échéance entre dans la tranche suivante
+     */
+    public static final int[] SEUILS_JOURS = {1, 31, 61, 91};
+
+    private final String libelle;
+
+    TrancheAge(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    /**
+     * Tranche d'une échéance à la date de référence donnée
+     */
+    public static TrancheAge pour(LocalDate dateEcheance, LocalDate dateReference) {
+        long joursRetard = ChronoUnit.DAYS.between(dateEcheance, dateReference);
+        if (joursRetard < SEUILS_JOURS[0]) {
+            return NON_ECHU;
+        }
+        if (joursRetard < SEUILS_JOURS[1]) {
+            return JOURS_0_30;
+        }
+        if (joursRetard < SEUILS_JOURS[2]) {
+            return JOURS_31_60;
+        }
+        if (joursRetard < SEUILS_JOURS[3]) {
+            return JOURS_61_90;
+        }
+        return PLUS_90;
+    }
+}
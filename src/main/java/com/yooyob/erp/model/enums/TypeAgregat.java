@@ -0,0 +1,47 @@
+package com.yooyob.erp.model.enums;
+
+import com.yooyob.erp.model.entity.BalanceAgee;
+import com.yooyob.erp.model.entity.BitmapClientsMois;
+import com.yooyob.erp.model.entity.DigestDistribution;
+import com.yooyob.erp.model.entity.EncoursEcheance;
+import com.yooyob.erp.model.entity.FacturesClientMois;
+import com.yooyob.erp.model.entity.IndexFacture;
+import com.yooyob.erp.model.entity.RollupFacture;
+import com.yooyob.erp.model.entity.SegmentClient;
+import com.yooyob.erp.model.entity.SketchClients;
+import com.yooyob.erp.model.entity.SuiviRecouvrement;
+
+import java.util.List;
+
+/**
+ * Tables d'agrégats tenues à jour par événements et reconstruites par génération
+ */
+public enum TypeAgregat {
+    ROLLUPS_FACTURES("Rollups de factures", RollupFacture.class),
+    BALANCE_AGEE("Balance âgée", EncoursEcheance.class, BalanceAgee.class),
+    CLIENTS_ACTIFS("Esquisses de clients actifs", SketchClients.class),
+    SEGMENTATION_CLIENTS("Segmentation des clients", SegmentClient.class),
+    COHORTES_CLIENTS("Bitmaps de cohortes de clients", BitmapClientsMois.class, FacturesClientMois.class),
+    DISTRIBUTIONS("Distributions de montants et de délais de paiement", DigestDistribution.class),
+    SUIVI_RECOUVREMENT("Suivi du recouvrement", SuiviRecouvrement.class),
+    INDEX_FACTURES("Index des factures", IndexFacture.class);
+
+    private final String libelle;
+    private final List<Class<?>> tables;
+
+    TypeAgregat(String libelle, Class<?>... tables) {
+        this.libelle = libelle;
+        this.tables = List.of(tables);
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    /**
+     * Entités dont la clé de partition commence par la génération, purgées quand une génération est remplacée
+     */
+    public List<Class<?>> getTables() {
+        return tables;
+    }
+}
@@ -0,0 +1,29 @@
+package com.yooyob.erp.model.enums;
+
+import java.util.UUID;
+
+public enum TypeIndexFacture {
+    CLIENT("Par client"),
+    ETAT("Par état"),
+    DEVISE("Par devise"),
+    EMAIL("Par envoi email"),
+    DATE_FACTURATION("Par date de facturation"),
+    DATE_ECHEANCE("Par date d'échéance"),
+    MONTANT("Par tranche de montant"),
+    MOIS("Mois de facturation indexés");
+
+    public static final String VALEUR_TOUTES = "*";
+    public static final String BUCKET_UNIQUE = "*";
+    // Identifiant des entrées du registre des mois, qui ne désignent aucune facture
+    public static final UUID ID_REGISTRE = new UUID(0L, 0L);
+
+    private final String libelle;
+
+    TypeIndexFacture(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+}
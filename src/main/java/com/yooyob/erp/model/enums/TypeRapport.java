@@ -0,0 +1,18 @@
+package com.yooyob.erp.model.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum TypeRapport {
+    PERFORMANCE("Rapport de performance", false),
+    FINANCIER("Rapport financier", true);
+
+    private final String libelle;
+    // Rapport dépendant des seuls mois antérieurs ou égaux à la fin de période (sinon de tout l'historique)
+    private final boolean borneParFin;
+
+    TypeRapport(String libelle, boolean borneParFin) {
+        this.libelle = libelle;
+        this.borneParFin = borneParFin;
+    }
+}
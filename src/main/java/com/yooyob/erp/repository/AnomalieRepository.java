@@ -0,0 +1,17 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.Anomalie;
+import com.yooyob.erp.model.entity.AnomalieKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AnomalieRepository extends CassandraRepository<Anomalie, AnomalieKey> {
+
+    @Query("SELECT * FROM anomalies WHERE metrique = ?0 AND jour >= ?1 AND jour <= ?2")
+    List<Anomalie> findByMetriqueAndPeriode(String metrique, LocalDate dateDebut, LocalDate dateFin);
+}
@@ -0,0 +1,16 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.BalanceAgee;
+import com.yooyob.erp.model.entity.BalanceAgeeKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BalanceAgeeRepository extends CassandraRepository<BalanceAgee, BalanceAgeeKey> {
+
+    @Query("SELECT * FROM balances_agees WHERE generation = ?0 AND bucket IN ?1")
+    List<BalanceAgee> findByGeneration(int generation, List<Integer> buckets);
+}
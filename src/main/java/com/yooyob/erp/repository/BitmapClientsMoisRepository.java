@@ -0,0 +1,16 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.BitmapClientsMois;
+import com.yooyob.erp.model.entity.BitmapClientsMoisKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BitmapClientsMoisRepository extends CassandraRepository<BitmapClientsMois, BitmapClientsMoisKey> {
+
+    @Query("SELECT * FROM bitmaps_clients_mois WHERE generation = ?0 AND mois <= ?1")
+    List<BitmapClientsMois> findJusquA(int generation, String moisFin);
+}
@@ -0,0 +1,16 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.DigestDistribution;
+import com.yooyob.erp.model.entity.DigestDistributionKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DigestDistributionRepository extends CassandraRepository<DigestDistribution, DigestDistributionKey> {
+
+    @Query("SELECT * FROM digests_distributions WHERE generation = ?0 AND mesure = ?1 AND periode IN ?2 AND client = ?3")
+    List<DigestDistribution> findByPeriodes(int generation, String mesure, List<String> periodes, String client);
+}
@@ -0,0 +1,17 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.EncoursEcheance;
+import com.yooyob.erp.model.entity.EncoursEcheanceKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EncoursEcheanceRepository extends CassandraRepository<EncoursEcheance, EncoursEcheanceKey> {
+
+    @Query("SELECT * FROM encours_echeances WHERE generation = ?0 AND id_client = ?1")
+    List<EncoursEcheance> findByIdClient(int generation, UUID idClient);
+}
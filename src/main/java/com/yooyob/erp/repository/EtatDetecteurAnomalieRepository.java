@@ -0,0 +1,10 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.EtatDetecteurAnomalie;
+import com.yooyob.erp.model.enums.MetriqueAnomalie;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EtatDetecteurAnomalieRepository extends CassandraRepository<EtatDetecteurAnomalie, MetriqueAnomalie> {
+}
@@ -0,0 +1,10 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.EtatPrevision;
+import com.yooyob.erp.model.entity.EtatPrevisionKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EtatPrevisionRepository extends CassandraRepository<EtatPrevision, EtatPrevisionKey> {
+}
@@ -0,0 +1,10 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.FacturesClientMois;
+import com.yooyob.erp.model.entity.FacturesClientMoisKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FacturesClientMoisRepository extends CassandraRepository<FacturesClientMois, FacturesClientMoisKey> {
+}
@@ -0,0 +1,32 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.IndexFacture;
+import com.yooyob.erp.model.entity.IndexFactureKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface IndexFactureRepository extends CassandraRepository<IndexFacture, IndexFactureKey> {
+
+    @Query("SELECT * FROM index_factures WHERE generation = ?0 AND type_index = ?1 AND valeur = ?2 AND bucket IN ?3")
+    List<IndexFacture> findByBuckets(int generation, String typeIndex, String valeur, List<String> buckets);
+
+    @Query("SELECT * FROM index_factures WHERE generation = ?0 AND type_index = ?1 AND valeur = ?2 AND bucket IN ?3 " +
+            "AND date_reference >= ?4 AND date_reference <= ?5")
+    List<IndexFacture> findByBucketsAndDateBetween(int generation, String typeIndex, String valeur, List<String> buckets,
+                                                   LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT * FROM index_factures WHERE generation = ?0 AND type_index = ?1 AND valeur = ?2 AND bucket = ?3")
+    Slice<IndexFacture> findByBucket(int generation, String typeIndex, String valeur, String bucket, Pageable pageable);
+
+    @Query("SELECT * FROM index_factures WHERE generation = ?0 AND type_index = ?1 AND valeur = ?2 AND bucket = ?3 " +
+            "AND date_reference >= ?4 AND date_reference <= ?5")
+    Slice<IndexFacture> findByBucketAndDateBetween(int generation, String typeIndex, String valeur, String bucket,
+                                                   LocalDate startDate, LocalDate endDate, Pageable pageable);
+}
@@ -0,0 +1,11 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.NumeroClient;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface NumeroClientRepository extends CassandraRepository<NumeroClient, UUID> {
+}
@@ -0,0 +1,64 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.RollupFacture;
+import com.yooyob.erp.model.entity.RollupFactureKey;
+import com.yooyob.erp.util.NumberUtil;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public interface RollupFactureRepository extends CassandraRepository<RollupFacture, RollupFactureKey> {
+
+    @Query("SELECT * FROM rollups_factures WHERE generation = ?0 AND granularite = ?1 AND periode IN ?2 AND dimension = ?3")
+    List<RollupFacture> findShardsByPeriodesAndDimension(int generation, String granularite, List<String> periodes, String dimension);
+
+    @Query("SELECT * FROM rollups_factures WHERE generation = ?0 AND granularite = ?1 AND periode = ?2 AND dimension = ?3 AND valeur_dimension = ?4")
+    List<RollupFacture> findShardsByPeriodeAndValeurDimension(int generation, String granularite, String periode, String dimension,
+                                                              String valeurDimension);
+
+    /**
+     * Rollups des périodes pour une dimension, une ligne par valeur et par statut, shards additionnés
+     */
+    default List<RollupFacture> findByPeriodesAndDimension(int generation, String granularite, List<String> periodes,
+                                                          String dimension) {
+        return additionnerShards(findShardsByPeriodesAndDimension(generation, granularite, periodes, dimension));
+    }
+
+    /**
+     * Rollups d'une période pour une valeur de dimension, une ligne par statut, shards additionnés
+     */
+    default List<RollupFacture> findByPeriodeAndValeurDimension(int generation, String granularite, String periode,
+                                                               String dimension, String valeurDimension) {
+        return additionnerShards(findShardsByPeriodeAndValeurDimension(generation, granularite, periode, dimension,
+                valeurDimension));
+    }
+
+    private static List<RollupFacture> additionnerShards(List<RollupFacture> shards) {
+        Map<RollupFactureKey, RollupFacture> lignes = new LinkedHashMap<>();
+        for (RollupFacture shard : shards) {
+            RollupFactureKey cle = RollupFactureKey.builder()
+                    .generation(shard.getKey().getGeneration())
+                    .granularite(shard.getKey().getGranularite())
+                    .periode(shard.getKey().getPeriode())
+                    .dimension(shard.getKey().getDimension())
+                    .valeurDimension(shard.getKey().getValeurDimension())
+                    .statut(shard.getKey().getStatut())
+                    .build();
+            RollupFacture cumul = lignes.computeIfAbsent(cle, k -> RollupFacture.builder().key(k).build());
+            cumul.setNombreFactures(cumul.getNombreFactures() + shard.getNombreFactures());
+            cumul.setMontantTotal(NumberUtil.safeAdd(cumul.getMontantTotal(), shard.getMontantTotal()));
+            cumul.setMontantRestant(NumberUtil.safeAdd(cumul.getMontantRestant(), shard.getMontantRestant()));
+            if (cumul.getUpdatedAt() == null
+                    || (shard.getUpdatedAt() != null && shard.getUpdatedAt().isAfter(cumul.getUpdatedAt()))) {
+                cumul.setUpdatedAt(shard.getUpdatedAt());
+            }
+        }
+        return new ArrayList<>(lignes.values());
+    }
+}
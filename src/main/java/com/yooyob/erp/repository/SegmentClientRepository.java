@@ -0,0 +1,16 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.SegmentClient;
+import com.yooyob.erp.model.entity.SegmentClientKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SegmentClientRepository extends CassandraRepository<SegmentClient, SegmentClientKey> {
+
+    @Query("SELECT * FROM segments_clients WHERE generation = ?0 AND bucket = ?1")
+    List<SegmentClient> findByBucket(int generation, int bucket);
+}
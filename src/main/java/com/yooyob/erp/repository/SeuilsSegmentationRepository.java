@@ -0,0 +1,9 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.SeuilsSegmentation;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SeuilsSegmentationRepository extends CassandraRepository<SeuilsSegmentation, String> {
+}
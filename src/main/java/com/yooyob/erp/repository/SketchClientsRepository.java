@@ -0,0 +1,16 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.SketchClients;
+import com.yooyob.erp.model.entity.SketchClientsKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SketchClientsRepository extends CassandraRepository<SketchClients, SketchClientsKey> {
+
+    @Query("SELECT * FROM sketches_clients WHERE generation = ?0 AND granularite = ?1 AND periode IN ?2")
+    List<SketchClients> findByPeriodes(int generation, String granularite, List<String> periodes);
+}
@@ -0,0 +1,16 @@
+package com.yooyob.erp.repository;
+
+import com.yooyob.erp.model.entity.SuiviRecouvrement;
+import com.yooyob.erp.model.entity.SuiviRecouvrementKey;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.data.cassandra.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SuiviRecouvrementRepository extends CassandraRepository<SuiviRecouvrement, SuiviRecouvrementKey> {
+
+    @Query("SELECT * FROM suivi_recouvrement WHERE generation = ?0 AND granularite = ?1 AND periode IN ?2")
+    List<SuiviRecouvrement> findByPeriodes(int generation, String granularite, List<String> periodes);
+}
@@ -0,0 +1,113 @@
+package com.yooyob.erp.repository.custom;
+
+import java.util.*;
+
+/**
+ * Agrégation groupée d'un widget : chaque groupe occupe une case dans des tableaux primitifs
+ * (nombre de lignes, puis somme, minimum et maximum de chaque mesure, en centimes).
+ * La mémoire est proportionnelle au nombre de groupes, pas au nombre de lignes lues.
+ */
+public class AgregateurWidget {
+
+    private static final int CAPACITE_INITIALE = 64;
+
+    private final int nombreMesures;
+    private final Map<List<Object>, Integer> indexGroupes = new HashMap<>();
+    private final List<List<Object>> clesGroupes = new ArrayList<>();
+    private long[] nombres = new long[CAPACITE_INITIALE];
+    private long[] sommes;
+    private long[] minimums;
+    private long[] maximums;
+    private long nombreLignesLues;
+
+    public AgregateurWidget(int nombreMesures) {
+        this.nombreMesures = nombreMesures;
+        this.sommes = new long[CAPACITE_INITIALE * nombreMesures];
+        this.minimums = new long[CAPACITE_INITIALE * nombreMesures];
+        this.maximums = new long[CAPACITE_INITIALE * nombreMesures];
+    }
+
+    /**
+     * Index du groupe de la clé, créé à la première ligne rencontrée
+     */
+    public int groupe(List<Object> cle) {
+        return indexGroupes.computeIfAbsent(cle, this::nouveauGroupe);
+    }
+
+    public void compter(int groupe, long nombre) {
+        nombres[groupe] += nombre;
+    }
+
+    public void ajouter(int groupe, int mesure, long valeur) {
+        int i = groupe * nombreMesures + mesure;
+        sommes[i] = Math.addExact(sommes[i], valeur);
+        minimums[i] = Math.min(minimums[i], valeur);
+        maximums[i] = Math.max(maximums[i], valeur);
+    }
+
+    public void compterLigneLue() {
+        nombreLignesLues++;
+    }
+
+    /**
+     * Intègre les groupes d'un agrégateur partiel (parcours d'une autre plage de la table)
+     */
+    public AgregateurWidget fusionner(AgregateurWidget autre) {
+        for (int g = 0; g < autre.clesGroupes.size(); g++) {
+            int groupe = groupe(autre.clesGroupes.get(g));
+            nombres[groupe] += autre.nombres[g];
+            for (int m = 0; m < nombreMesures; m++) {
+                int i = groupe * nombreMesures + m;
+                int j = g * nombreMesures + m;
+                sommes[i] = Math.addExact(sommes[i], autre.sommes[j]);
+                minimums[i] = Math.min(minimums[i], autre.minimums[j]);
+                maximums[i] = Math.max(maximums[i], autre.maximums[j]);
+            }
+        }
+        nombreLignesLues += autre.nombreLignesLues;
+        return this;
+    }
+
+    public int getNombreGroupes() {
+        return clesGroupes.size();
+    }
+
+    public List<Object> getCle(int groupe) {
+        return clesGroupes.get(groupe);
+    }
+
+    public long getNombre(int groupe) {
+        return nombres[groupe];
+    }
+
+    public long getSomme(int groupe, int mesure) {
+        return sommes[groupe * nombreMesures + mesure];
+    }
+
+    public long getMinimum(int groupe, int mesure) {
+        return minimums[groupe * nombreMesures + mesure];
+    }
+
+    public long getMaximum(int groupe, int mesure) {
+        return maximums[groupe * nombreMesures + mesure];
+    }
+
+    public long getNombreLignesLues() {
+        return nombreLignesLues;
+    }
+
+    private int nouveauGroupe(List<Object> cle) {
+        int groupe = clesGroupes.size();
+        if (groupe == nombres.length) {
+            int capacite = groupe * 2;
+            nombres = Arrays.copyOf(nombres, capacite);
+            sommes = Arrays.copyOf(sommes, capacite * nombreMesures);
+            minimums = Arrays.copyOf(minimums, capacite * nombreMesures);
+            maximums = Arrays.copyOf(maximums, capacite * nombreMesures);
+        }
+        Arrays.fill(minimums, groupe * nombreMesures, (groupe + 1) * nombreMesures, Long.MAX_VALUE);
+        Arrays.fill(maximums, groupe * nombreMesures, (groupe + 1) * nombreMesures, Long.MIN_VALUE);
+        clesGroupes.add(cle);
+        return groupe;
+    }
+}
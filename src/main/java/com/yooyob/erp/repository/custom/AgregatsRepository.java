@@ -0,0 +1,144 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.LigneAgregat;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Écritures des tables d'agrégats tenues à jour à partir des modifications de factures et de paiements.
+ *
+ * <p>Une modification est seulement publiée dans le journal des mises à jour, par une insertion simple :
+ * aucune table d'agrégat n'est écrite pendant la requête. Le journal est réparti en shards par ligne source ;
+ * chaque shard est appliqué par un seul nœud à la fois (bail), dans l'ordre, à chaque agrégat abonné, qui
+ * y conserve sa progression. Un échec laisse la progression en place : l'entrée est rejouée au cycle suivant.
+ * Les applications par modification modifient leurs lignes par écriture conditionnelle sur la révision (voir
+ * {@link #modifier}) ; les applications par lot écrivent des lignes propres au shard, sans condition.
+ *
+ * <p>Les lignes portent une génération en tête de clé de partition. Une reconstruction remplit une nouvelle
+ * génération pendant que les lecteurs continuent de lire l'active, rapproche son parcours du journal, puis
+ * bascule le pointeur. Chaque transition du pointeur attend l'acquittement de tous les nœuds avant d'être
+ * suivie d'effets : les lectures ne voient jamais de table vide ni de génération purgée.
+ */
+public interface AgregatsRepository {
+
+    /**
+     * Génération que les lectures doivent interroger
+     */
+    int generationLue(TypeAgregat agregat);
+
+    /**
+     * Générations qu'une écriture idempotente et synchrone doit alimenter directement : l'active et, pendant
+     * une reconstruction, celle en construction. Réservé aux tables dont les écritures ne dépendent pas de
+     * leur ordre d'arrivée, les autres s'abonnent au journal.
+     */
+    List<Integer> generationsEcrites(TypeAgregat agregat);
+
+    /**
+     * Publie dans le journal le passage d'une ligne source de l'état avant à l'état après (null à la création
+     * ou à la suppression). Une publication en échec est conservée et republiée par le nœud, dont les
+     * agrégats n'avancent pas au-delà tant qu'elle n'a pas abouti ; l'écriture de la source n'échoue pas.
+     */
+    <S> void publier(SourceAgregat<S> source, S avant, S apres);
+
+    /**
+     * Applique à l'agrégat, modification par modification, les entrées du journal de la source
+     */
+    <S> void abonner(TypeAgregat agregat, SourceAgregat<S> source, Application<S> application);
+
+    /**
+     * Applique à l'agrégat, par lots, les entrées du journal de la source
+     */
+    <S> void abonnerParLot(TypeAgregat agregat, SourceAgregat<S> source, ApplicationLot<S> application);
+
+    /**
+     * Cycle d'un nœud : republie ses publications en échec, recharge les pointeurs de génération, signale
+     * sa présence, répartit les shards entre les nœuds vivants et applique le journal de ceux qu'il détient
+     */
+    void traiterMisesAJour();
+
+    /**
+     * Libère les shards détenus par le nœud, repris sans attendre l'expiration de leur bail
+     */
+    void quitter();
+
+    /**
+     * Lecture-modification-écriture conditionnelle d'une ligne. La modification reçoit la ligne courante
+     * (null si absente) et renvoie la ligne à écrire, ou null pour la supprimer ; elle peut être rejouée
+     * après un conflit et ne doit donc dépendre que de la ligne reçue.
+     */
+    <T extends LigneAgregat> void modifier(Class<T> type, Object cle, UnaryOperator<T> modification);
+
+    /**
+     * Construit une nouvelle génération de l'agrégat puis la rend lisible. Une seule reconstruction par
+     * agrégat peut être en cours dans tout le cluster.
+     */
+    <R> R reconstruire(TypeAgregat agregat, Function<Construction, R> construction);
+
+    /**
+     * Effet sur une génération du passage d'une ligne source de l'état avant à l'état après
+     */
+    @FunctionalInterface
+    interface Application<S> {
+        void appliquer(int generation, S avant, S apres);
+    }
+
+    /**
+     * Effet sur une génération d'un lot d'entrées du journal, dans l'ordre, écrit dans les lignes du shard.
+     * Un lot peut être rejoué après un échec : l'application ignore les entrées que ses lignes intègrent déjà.
+     */
+    @FunctionalInterface
+    interface ApplicationLot<S> {
+
+        // Shard des lignes écrites par une reconstruction, en dehors de ceux du journal
+        int SHARD_RECONSTRUCTION = -1;
+
+        void appliquer(int generation, int shard, List<Changement<S>> changements);
+    }
+
+    /**
+     * Modification d'une ligne source, identifiée par sa position dans le journal
+     */
+    @Value
+    class Changement<S> {
+        UUID id;
+        S avant;
+        S apres;
+    }
+
+    /**
+     * Génération en cours de construction
+     */
+    interface Construction {
+
+        int getGeneration();
+
+        /**
+         * Parcourt toute la source en parallèle. Les modifications publiées pendant le parcours sont ensuite
+         * rapprochées des versions lues et celles que le parcours n'a pas vues sont appliquées à la génération,
+         * modification par modification, par l'application donnée. Chaque source n'est parcourue qu'une fois
+         * par construction.
+         */
+        <S, A> A parcourir(SourceAgregat<S> source, Application<S> application, Supplier<A> creerPartiel,
+                           BiConsumer<A, ? super S> accumuler, BinaryOperator<A> fusionner);
+
+        /**
+         * Comme {@link #parcourir}, les modifications rapprochées étant appliquées en un lot
+         */
+        <S, A> A parcourirParLot(SourceAgregat<S> source, ApplicationLot<S> application, Supplier<A> creerPartiel,
+                                 BiConsumer<A, ? super S> accumuler, BinaryOperator<A> fusionner);
+
+        /**
+         * Écrit dans la génération les lignes calculées par le parcours
+         */
+        <T> void ecrire(Collection<T> lignes);
+    }
+}
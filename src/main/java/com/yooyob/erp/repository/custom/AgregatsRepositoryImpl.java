@@ -0,0 +1,944 @@
+package com.yooyob.erp.repository.custom;
+
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yooyob.erp.exception.BusinessException;
+import com.yooyob.erp.model.entity.GenerationAgregat;
+import com.yooyob.erp.model.entity.LigneAgregat;
+import com.yooyob.erp.model.entity.MiseAJourAgregat;
+import com.yooyob.erp.model.entity.MiseAJourAgregatKey;
+import com.yooyob.erp.model.entity.NoeudAgregats;
+import com.yooyob.erp.model.entity.ProgressionAgregat;
+import com.yooyob.erp.model.entity.ProgressionAgregatKey;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.cassandra.core.CassandraTemplate;
+import org.springframework.data.cassandra.core.DeleteOptions;
+import org.springframework.data.cassandra.core.InsertOptions;
+import org.springframework.data.cassandra.core.UpdateOptions;
+import org.springframework.data.cassandra.core.query.Criteria;
+import org.springframework.data.cassandra.core.query.CriteriaDefinition;
+import org.springframework.data.cassandra.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static com.yooyob.erp.repository.custom.JournalAgregatsRepository.NOMBRE_SHARDS;
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class AgregatsRepositoryImpl implements AgregatsRepository {
+
+    private static final int NOMBRE_VERROUS = 64;
+    private static final String COLONNE_REVISION = "revision";
+    private static final String COLONNE_GENERATION = "generation";
+    private static final InsertOptions INSERTION_SI_ABSENTE = InsertOptions.builder().withIfNotExists().build();
+    // Une progression inactive n'est réécrite que lorsqu'elle a pris ce retard sur l'horizon du journal
+    private static final long AVANCE_MINIMALE_MS = 60_000L;
+    private static final long DELAI_MAX_ESSAI_SECONDES = 300L;
+
+    private final CassandraTemplate cassandraTemplate;
+    private final ParcoursParalleleRepository parcoursParalleleRepository;
+    private final JournalAgregatsRepository journalAgregatsRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry registre;
+
+    // Évite que les fils d'un même nœud se disputent une ligne ; entre nœuds, la révision fait foi
+    private final Lock[] verrous = creerVerrous();
+    private final UUID noeud = UUID.randomUUID();
+    private final Map<TypeAgregat, GenerationAgregat> pointeurs = new ConcurrentHashMap<>();
+    private final Map<TypeAgregat, Map<String, Abonnement<?>>> abonnements = new ConcurrentHashMap<>();
+    // Début des publications en cours ou en échec, avec leur nombre : le journal est complet avant le plus ancien
+    private final TreeMap<Long, Integer> publicationsEnCours = new TreeMap<>();
+    private final Queue<PublicationEnEchec> publicationsEnEchec = new ConcurrentLinkedQueue<>();
+    // Expiration locale des baux de shards détenus par le nœud
+    private final Map<Integer, Long> baux = new ConcurrentHashMap<>();
+
+    @Value("${app.agregats.tentatives-max:20}")
+    private int tentativesMax;
+
+    @Value("${app.agregats.bail-reconstruction-minutes:120}")
+    private long bailReconstructionMinutes;
+
+    @Value("${app.agregats.cycle-ms:1000}")
+    private long cycleMs;
+
+    @Value("${app.agregats.marge-horloge-ms:2000}")
+    private long margeHorlogeMs;
+
+    @Value("${app.agregats.bail-shard-secondes:30}")
+    private long bailShardSecondes;
+
+    @Value("${app.agregats.delai-acquittement-ms:120000}")
+    private long delaiAcquittementMs;
+
+    @Value("${app.agregats.journal.retention-heures:72}")
+    private long retentionHeures;
+
+    @Value("${app.agregats.journal.taille-lot:500}")
+    private int tailleLot;
+
+    @Override
+    public int generationLue(TypeAgregat agregat) {
+        return pointeur(agregat).getGenerationActive();
+    }
+
+    @Override
+    public List<Integer> generationsEcrites(TypeAgregat agregat) {
+        GenerationAgregat pointeur = pointeur(agregat);
+        Integer construction = pointeur.getGenerationConstruction();
+        return construction == null ? List.of(pointeur.getGenerationActive())
+                : List.of(pointeur.getGenerationActive(), construction);
+    }
+
+    @Override
+    public <S> void publier(SourceAgregat<S> source, S avant, S apres) {
+        if (avant == null && apres == null) {
+            return;
+        }
+        long debut = debuterPublication();
+        MiseAJourAgregat miseAJour;
+        try {
+            UUID idSource = source.id(apres != null ? apres : avant);
+            miseAJour = MiseAJourAgregat.builder()
+                    // Identifiant attribué après l'enregistrement du début : il n'est jamais antérieur
+                    .key(new MiseAJourAgregatKey(JournalAgregatsRepository.shard(idSource), null, Uuids.timeBased()))
+                    .source(source.getNom())
+                    .idSource(idSource)
+                    .avant(serialiser(avant))
+                    .apres(serialiser(apres))
+                    .build();
+        } catch (RuntimeException e) {
+            terminerPublication(debut);
+            registre.counter("agregats.publications.rejetees", "source", source.getNom()).increment();
+            log.error("Modification de {} non publiable dans le journal des agrégats", source.getNom().toLowerCase(), e);
+            return;
+        }
+
+        try {
+            journalAgregatsRepository.consigner(miseAJour);
+            terminerPublication(debut);
+        } catch (RuntimeException e) {
+            // Republiée à chaque cycle ; d'ici là, les agrégats n'appliquent pas le journal au-delà de son début
+            publicationsEnEchec.add(new PublicationEnEchec(miseAJour, debut));
+            registre.counter("agregats.publications.echecs", "source", source.getNom()).increment();
+            log.error("Erreur lors de la publication d'une modification de {}, republiée au prochain cycle",
+                    source.getNom().toLowerCase(), e);
+        }
+    }
+
+    @Override
+    public <S> void abonner(TypeAgregat agregat, SourceAgregat<S> source, Application<S> application) {
+        enregistrerAbonnement(agregat, new Abonnement<>(source, application, null));
+    }
+
+    @Override
+    public <S> void abonnerParLot(TypeAgregat agregat, SourceAgregat<S> source, ApplicationLot<S> application) {
+        enregistrerAbonnement(agregat, new Abonnement<>(source, null, application));
+    }
+
+    @Override
+    public void traiterMisesAJour() {
+        republier();
+        rafraichirPointeurs();
+
+        long publiees = publieesJusqua();
+        journalAgregatsRepository.signalerPresence(NoeudAgregats.builder()
+                .noeud(noeud)
+                .revisions(revisionsChargees())
+                .publieesJusqua(publiees)
+                .vuLe(LocalDateTime.now())
+                .build());
+
+        // Les entrées antérieures à l'horizon sont toutes dans le journal : aucune ne s'intercalera après lecture
+        List<NoeudAgregats> noeuds = journalAgregatsRepository.noeuds();
+        long horizon = publiees;
+        for (NoeudAgregats autre : noeuds) {
+            if (autre.getPublieesJusqua() != null) {
+                horizon = Math.min(horizon, autre.getPublieesJusqua());
+            }
+        }
+        UUID borne = Uuids.startOf(horizon - margeHorlogeMs);
+
+        List<Integer> shards = repartirShards(Math.max(1, noeuds.size()));
+        if (!abonnements.isEmpty() && !shards.isEmpty()) {
+            parcoursParalleleRepository.traiter(shards, shard -> traiterShard(shard, borne));
+        }
+    }
+
+    @Override
+    public void quitter() {
+        for (Integer shard : new ArrayList<>(baux.keySet())) {
+            try {
+                journalAgregatsRepository.liberer(shard, noeud);
+            } catch (RuntimeException e) {
+                log.warn("Bail du shard {} non libéré, repris à son expiration", shard, e);
+            }
+            baux.remove(shard);
+        }
+    }
+
+    @Override
+    public <T extends LigneAgregat> void modifier(Class<T> type, Object cle, UnaryOperator<T> modification) {
+        Lock verrou = verrous[Math.floorMod(cle.hashCode(), NOMBRE_VERROUS)];
+        verrou.lock();
+        try {
+            for (int tentative = 0; tentative < tentativesMax; tentative++) {
+                T existante = cassandraTemplate.selectOneById(cle, type);
+                Long revision = existante != null ? existante.getRevision() : null;
+                if (ecrireSiInchangee(existante, revision, modification.apply(existante))) {
+                    return;
+                }
+                registre.counter("agregats.conflits", "table", type.getSimpleName()).increment();
+            }
+        } finally {
+            verrou.unlock();
+        }
+        throw new BusinessException("Écritures concurrentes répétées sur " + type.getSimpleName() + " " + cle,
+                "AGREGAT_CONFLIT", HttpStatus.CONFLICT);
+    }
+
+    @Override
+    public <R> R reconstruire(TypeAgregat agregat, Function<Construction, R> construction) {
+        GenerationAgregat ouvert = transition(agregat, etat -> TransitionsGeneration.ouvrir(etat, agregat,
+                LocalDateTime.now(), bailReconstructionMinutes));
+        int generation = ouvert.getGenerationConstruction();
+        log.info("Reconstruction de l'agrégat {} dans la génération {}", agregat.getLibelle(), generation);
+
+        R resultat;
+        int[] ancienne = new int[1];
+        GenerationAgregat bascule;
+        try {
+            // Une fois l'ouverture acquittée, aucun nœud n'utilise plus les générations obsolètes et tous
+            // alimentent directement celle en construction
+            attendreAcquittement(agregat, ouvert.getRevision());
+            purgerObsoletes(agregat, obsoletes(ouvert));
+
+            ConstructionGeneration enCours = new ConstructionGeneration(agregat, generation);
+            resultat = construction.apply(enCours);
+            enCours.rapprocher();
+
+            bascule = transition(agregat, etat -> {
+                ancienne[0] = TransitionsGeneration.basculer(etat, agregat, generation);
+                return etat;
+            });
+        } catch (RuntimeException e) {
+            abandonner(agregat, generation);
+            throw e;
+        }
+
+        try {
+            attendreAcquittement(agregat, bascule.getRevision());
+            purgerObsoletes(agregat, List.of(ancienne[0]));
+        } catch (RuntimeException e) {
+            log.warn("Génération {} de l'agrégat {} laissée obsolète, purgée à la prochaine reconstruction",
+                    ancienne[0], agregat.getLibelle(), e);
+        }
+        log.info("Agrégat {} basculé de la génération {} à la génération {}", agregat.getLibelle(), ancienne[0], generation);
+        return resultat;
+    }
+
+    // Méthodes privées utilitaires
+
+    private GenerationAgregat pointeur(TypeAgregat agregat) {
+        GenerationAgregat pointeur = pointeurs.get(agregat);
+        if (pointeur == null) {
+            GenerationAgregat etat = cassandraTemplate.selectOneById(agregat, GenerationAgregat.class);
+            pointeur = etat != null ? etat : GenerationAgregat.builder().agregat(agregat).build();
+            pointeurs.put(agregat, pointeur);
+        }
+        return pointeur;
+    }
+
+    private void rafraichirPointeurs() {
+        for (GenerationAgregat etat : cassandraTemplate.select(Query.empty(), GenerationAgregat.class)) {
+            pointeurs.put(etat.getAgregat(), etat);
+        }
+    }
+
+    private Map<String, Long> revisionsChargees() {
+        Map<String, Long> revisions = new HashMap<>();
+        pointeurs.forEach((agregat, etat) -> {
+            if (etat.getRevision() != null) {
+                revisions.put(agregat.name(), etat.getRevision());
+            }
+        });
+        return revisions;
+    }
+
+    private <T extends LigneAgregat> boolean ecrireSiInchangee(T existante, Long revision, T nouvelle) {
+        if (existante == null) {
+            if (nouvelle == null) {
+                return true;
+            }
+            nouvelle.setRevision(1L);
+            return cassandraTemplate.insert(nouvelle, INSERTION_SI_ABSENTE).wasApplied();
+        }
+
+        CriteriaDefinition condition = Criteria.where(COLONNE_REVISION).is(revision);
+        if (nouvelle == null) {
+            return cassandraTemplate.delete(existante, DeleteOptions.builder().ifCondition(condition).build()).wasApplied();
+        }
+        nouvelle.setRevision(revision + 1);
+        return cassandraTemplate.update(nouvelle, UpdateOptions.builder().ifCondition(condition).build()).wasApplied();
+    }
+
+    private void enregistrerAbonnement(TypeAgregat agregat, Abonnement<?> abonnement) {
+        Map<String, Abonnement<?>> parSource = abonnements.computeIfAbsent(agregat, a -> new ConcurrentHashMap<>());
+        if (parSource.putIfAbsent(abonnement.source.getNom(), abonnement) != null) {
+            throw new IllegalStateException("L'agrégat " + agregat.getLibelle() + " est déjà abonné aux "
+                    + abonnement.source.getNom().toLowerCase());
+        }
+    }
+
+    // Publications
+
+    private long debuterPublication() {
+        synchronized (publicationsEnCours) {
+            long debut = System.currentTimeMillis();
+            publicationsEnCours.merge(debut, 1, Integer::sum);
+            return debut;
+        }
+    }
+
+    private void terminerPublication(long debut) {
+        synchronized (publicationsEnCours) {
+            publicationsEnCours.computeIfPresent(debut, (instant, nombre) -> nombre > 1 ? nombre - 1 : null);
+        }
+    }
+
+    /**
+     * Instant avant lequel toutes les publications du nœud sont dans le journal
+     */
+    private long publieesJusqua() {
+        synchronized (publicationsEnCours) {
+            long maintenant = System.currentTimeMillis();
+            return publicationsEnCours.isEmpty() ? maintenant : Math.min(publicationsEnCours.firstKey(), maintenant);
+        }
+    }
+
+    private void republier() {
+        for (int restantes = publicationsEnEchec.size(); restantes > 0; restantes--) {
+            PublicationEnEchec publication = publicationsEnEchec.poll();
+            if (publication == null) {
+                return;
+            }
+            try {
+                journalAgregatsRepository.consigner(publication.miseAJour);
+                terminerPublication(publication.debut);
+            } catch (RuntimeException e) {
+                publicationsEnEchec.add(publication);
+                log.warn("Publication de {} {} toujours en échec", publication.miseAJour.getSource().toLowerCase(),
+                        publication.miseAJour.getIdSource(), e);
+                return;
+            }
+        }
+    }
+
+    // Répartition et application du journal
+
+    /**
+     * Prolonge les baux du nœud, rend ceux qui dépassent sa part et prend des shards libres pour l'atteindre
+     *
+     * @return les shards dont le bail laisse le temps de traiter un lot
+     */
+    private List<Integer> repartirShards(int nombreNoeuds) {
+        long maintenant = System.currentTimeMillis();
+        long bailMs = bailShardSecondes * 1000;
+        int part = (NOMBRE_SHARDS + nombreNoeuds - 1) / nombreNoeuds;
+
+        Map<Integer, UUID> titulaires = new HashMap<>();
+        journalAgregatsRepository.baux().forEach(bail -> titulaires.put(bail.getShard(), bail.getNoeud()));
+        baux.keySet().removeIf(shard -> !noeud.equals(titulaires.get(shard)));
+
+        for (Integer shard : new ArrayList<>(baux.keySet())) {
+            if (baux.size() > part) {
+                journalAgregatsRepository.liberer(shard, noeud);
+                baux.remove(shard);
+            } else if (baux.get(shard) - maintenant < 2 * bailMs / 3) {
+                if (journalAgregatsRepository.prolonger(shard, noeud)) {
+                    baux.put(shard, maintenant + bailMs);
+                } else {
+                    baux.remove(shard);
+                }
+            }
+        }
+        for (int shard = 0; shard < NOMBRE_SHARDS && baux.size() < part; shard++) {
+            if (!titulaires.containsKey(shard) && journalAgregatsRepository.acquerir(shard, noeud)) {
+                baux.put(shard, maintenant + bailMs);
+            }
+        }
+
+        List<Integer> shards = new ArrayList<>();
+        baux.keySet().forEach(shard -> {
+            if (isBailValide(shard)) {
+                shards.add(shard);
+            }
+        });
+        return shards;
+    }
+
+    /**
+     * Vrai tant que le bail laisse le temps d'appliquer un lot avant qu'un autre nœud puisse reprendre le shard
+     */
+    private boolean isBailValide(int shard) {
+        Long expiration = baux.get(shard);
+        return expiration != null && expiration - System.currentTimeMillis() > bailShardSecondes * 1000 / 3;
+    }
+
+    /**
+     * Applique le journal du shard à la génération active de chaque agrégat abonné. Les agrégats au même
+     * curseur partagent leurs lectures ; ceux en attente d'un nouvel essai sont ignorés.
+     */
+    private void traiterShard(int shard, UUID borne) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        Map<UUID, List<Suivi>> parCurseur = new LinkedHashMap<>();
+        for (TypeAgregat agregat : abonnements.keySet()) {
+            int generation = generationLue(agregat);
+            ProgressionAgregat progression = journalAgregatsRepository.progression(agregat, generation, shard);
+            if (progression == null) {
+                progression = ProgressionAgregat.builder()
+                        .key(new ProgressionAgregatKey(agregat, generation, shard))
+                        .curseur(Uuids.startOf(System.currentTimeMillis() - Duration.ofHours(retentionHeures).toMillis()))
+                        .build();
+            } else if (progression.getProchainEssai() != null && progression.getProchainEssai().isAfter(maintenant)) {
+                continue;
+            } else {
+                verifierRetention(progression);
+            }
+            parCurseur.computeIfAbsent(progression.getCurseur(), c -> new ArrayList<>())
+                    .add(new Suivi(agregat, generation, shard, progression));
+        }
+        parCurseur.forEach((curseur, suivis) -> avancer(shard, curseur, borne, suivis));
+    }
+
+    private void avancer(int shard, UUID curseur, UUID borne, List<Suivi> suivis) {
+        List<Suivi> actifs = new ArrayList<>(suivis);
+        UUID position = curseur;
+        boolean complet = false;
+
+        while (!actifs.isEmpty() && isBailValide(shard)) {
+            List<MiseAJourAgregat> lot = journalAgregatsRepository.lire(shard, position, borne, tailleLot);
+            if (lot.isEmpty()) {
+                complet = true;
+                break;
+            }
+            List<Entree> entrees;
+            try {
+                entrees = decoder(lot);
+            } catch (RuntimeException e) {
+                UUID echec = position;
+                actifs.forEach(suivi -> echouer(suivi, echec, e));
+                return;
+            }
+            actifs.removeIf(suivi -> !appliquer(suivi, entrees));
+            position = lot.get(lot.size() - 1).getKey().getId();
+            if (lot.size() < tailleLot) {
+                complet = true;
+                break;
+            }
+        }
+
+        // Tout ce qui précède la borne est lu : le curseur peut la rejoindre
+        UUID atteinte = complet ? borne : position;
+        for (Suivi suivi : actifs) {
+            long retard = Uuids.unixTimestamp(atteinte) - Uuids.unixTimestamp(suivi.progression.getCurseur());
+            if (suivi.applique || retard > AVANCE_MINIMALE_MS) {
+                enregistrerAvancement(suivi, atteinte);
+            }
+        }
+    }
+
+    /**
+     * Applique un lot à l'agrégat : d'abord ses applications par lot, rejouables, puis ses applications par
+     * modification, dans l'ordre. En cas d'échec, la progression s'arrête après la dernière entrée appliquée.
+     *
+     * @return faux si l'agrégat a échoué et ne doit pas lire la suite
+     */
+    private boolean appliquer(Suivi suivi, List<Entree> entrees) {
+        Map<String, Abonnement<?>> parSource = abonnements.get(suivi.agregat);
+        UUID appliquee = suivi.atteinte;
+        try {
+            for (Abonnement<?> abonnement : parSource.values()) {
+                abonnement.appliquerLot(suivi.generation, suivi.shard, entrees);
+            }
+            for (Entree entree : entrees) {
+                Abonnement<?> abonnement = parSource.get(entree.source);
+                if (abonnement != null) {
+                    abonnement.appliquer(suivi.generation, entree.changement);
+                }
+                appliquee = entree.changement.getId();
+            }
+        } catch (RuntimeException e) {
+            echouer(suivi, appliquee, e);
+            return false;
+        }
+
+        UUID derniere = entrees.get(entrees.size() - 1).changement.getId();
+        suivi.atteinte = derniere;
+        suivi.applique = true;
+        registre.timer("agregats.retard", "agregat", suivi.agregat.name())
+                .record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - Uuids.unixTimestamp(derniere))));
+        return true;
+    }
+
+    private void enregistrerAvancement(Suivi suivi, UUID curseur) {
+        ProgressionAgregat progression = suivi.progression;
+        progression.setCurseur(curseur);
+        progression.setTentatives(0);
+        progression.setDerniereErreur(null);
+        progression.setProchainEssai(null);
+        progression.setUpdatedAt(LocalDateTime.now());
+        journalAgregatsRepository.enregistrer(progression);
+    }
+
+    /**
+     * Conserve la progression jusqu'à la dernière entrée appliquée et retarde le prochain essai, de plus en plus
+     */
+    private void echouer(Suivi suivi, UUID curseur, RuntimeException erreur) {
+        ProgressionAgregat progression = suivi.progression;
+        int tentatives = (progression.getTentatives() != null ? progression.getTentatives() : 0) + 1;
+        long delai = Math.min(DELAI_MAX_ESSAI_SECONDES, 1L << Math.min(tentatives, 9));
+        progression.setCurseur(curseur);
+        progression.setTentatives(tentatives);
+        progression.setDerniereErreur(String.valueOf(erreur.getMessage()));
+        progression.setProchainEssai(LocalDateTime.now().plusSeconds(delai));
+        progression.setUpdatedAt(LocalDateTime.now());
+        registre.counter("agregats.echecs", "agregat", suivi.agregat.name()).increment();
+        log.error("Erreur lors de l'application du journal à l'agrégat {} (shard {}, tentative {}), nouvel essai dans {} s",
+                suivi.agregat.getLibelle(), suivi.shard, tentatives, delai, erreur);
+        try {
+            journalAgregatsRepository.enregistrer(progression);
+        } catch (RuntimeException e) {
+            log.error("Progression de l'agrégat {} (shard {}) non enregistrée", suivi.agregat.getLibelle(), suivi.shard, e);
+        }
+    }
+
+    private void verifierRetention(ProgressionAgregat progression) {
+        long age = System.currentTimeMillis() - Uuids.unixTimestamp(progression.getCurseur());
+        if (age > Duration.ofHours(retentionHeures).toMillis()) {
+            registre.counter("agregats.derives", "agregat", progression.getKey().getAgregat().name()).increment();
+            log.error("Agrégat {} (shard {}) en retard au-delà de la rétention du journal : des entrées ont expiré, "
+                            + "une reconstruction est nécessaire", progression.getKey().getAgregat().getLibelle(),
+                    progression.getKey().getShard());
+        }
+    }
+
+    private List<Entree> decoder(List<MiseAJourAgregat> lot) {
+        List<Entree> entrees = new ArrayList<>(lot.size());
+        for (MiseAJourAgregat miseAJour : lot) {
+            entrees.add(new Entree(miseAJour.getSource(), changement(SourceAgregat.parNom(miseAJour.getSource()), miseAJour)));
+        }
+        return entrees;
+    }
+
+    private <S> Changement<S> changement(SourceAgregat<S> source, MiseAJourAgregat miseAJour) {
+        return new Changement<>(miseAJour.getKey().getId(), deserialiser(miseAJour.getAvant(), source.getType()),
+                deserialiser(miseAJour.getApres(), source.getType()));
+    }
+
+    // Transitions de génération
+
+    private GenerationAgregat transition(TypeAgregat agregat, UnaryOperator<GenerationAgregat> transition) {
+        GenerationAgregat[] ecrit = new GenerationAgregat[1];
+        modifier(GenerationAgregat.class, agregat, etat -> ecrit[0] = transition.apply(etat));
+        pointeurs.put(agregat, ecrit[0]);
+        return ecrit[0];
+    }
+
+    private void abandonner(TypeAgregat agregat, int generation) {
+        try {
+            transition(agregat, etat -> {
+                TransitionsGeneration.abandonner(etat, generation);
+                return etat;
+            });
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de l'abandon de la génération {} de l'agrégat {}", generation, agregat.getLibelle(), e);
+        }
+    }
+
+    private void attendreAcquittement(TypeAgregat agregat, long revision) {
+        attendre(() -> TransitionsGeneration.acquittee(journalAgregatsRepository.noeuds(), noeud, agregat, revision),
+                "l'acquittement de la révision " + revision + " du pointeur de l'agrégat " + agregat.getLibelle());
+    }
+
+    /**
+     * Attend que tous les nœuds aient publié leurs modifications antérieures à l'instant donné
+     */
+    private void attendrePublications(long instant) {
+        attendre(() -> {
+            List<NoeudAgregats> noeuds = journalAgregatsRepository.noeuds();
+            return noeuds.stream().anyMatch(n -> noeud.equals(n.getNoeud()))
+                    && noeuds.stream().allMatch(n -> n.getPublieesJusqua() != null && n.getPublieesJusqua() >= instant);
+        }, "la publication des modifications en cours");
+    }
+
+    private void attendre(BooleanSupplier condition, String motif) {
+        long limite = System.currentTimeMillis() + delaiAcquittementMs;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() >= limite) {
+                throw new BusinessException("Délai dépassé en attendant " + motif, "RECONSTRUCTION_SANS_ACQUITTEMENT",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            try {
+                Thread.sleep(cycleMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException("Reconstruction interrompue", "RECONSTRUCTION_INTERROMPUE",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        }
+    }
+
+    private void purgerObsoletes(TypeAgregat agregat, Collection<Integer> generations) {
+        if (generations.isEmpty()) {
+            return;
+        }
+        for (int generation : generations) {
+            long partitions = 0;
+            for (Class<?> table : agregat.getTables()) {
+                partitions += parcoursParalleleRepository.purgerPartitions(table, COLONNE_GENERATION, generation);
+            }
+            journalAgregatsRepository.supprimerProgressions(agregat, generation);
+            log.info("Génération {} de l'agrégat {} purgée: {} partitions", generation, agregat.getLibelle(), partitions);
+        }
+        transition(agregat, etat -> {
+            TransitionsGeneration.purgees(etat, generations);
+            return etat;
+        });
+    }
+
+    private static Set<Integer> obsoletes(GenerationAgregat etat) {
+        return etat.getGenerationsObsoletes() != null ? new HashSet<>(etat.getGenerationsObsoletes()) : Set.of();
+    }
+
+    private String serialiser(Object etat) {
+        if (etat == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(etat);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("État non sérialisable pour le journal des agrégats", e);
+        }
+    }
+
+    private <S> S deserialiser(String json, Class<S> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("État illisible dans le journal des agrégats", e);
+        }
+    }
+
+    private static Lock[] creerVerrous() {
+        Lock[] verrous = new Lock[NOMBRE_VERROUS];
+        for (int i = 0; i < NOMBRE_VERROUS; i++) {
+            verrous[i] = new ReentrantLock();
+        }
+        return verrous;
+    }
+
+    private static final class PublicationEnEchec {
+        private final MiseAJourAgregat miseAJour;
+        private final long debut;
+
+        private PublicationEnEchec(MiseAJourAgregat miseAJour, long debut) {
+            this.miseAJour = miseAJour;
+            this.debut = debut;
+        }
+    }
+
+    private static final class Entree {
+        private final String source;
+        private final Changement<?> changement;
+
+        private Entree(String source, Changement<?> changement) {
+            this.source = source;
+            this.changement = changement;
+        }
+    }
+
+    /**
+     * Progression d'une génération d'agrégat dans un shard pendant un cycle
+     */
+    private static final class Suivi {
+        private final TypeAgregat agregat;
+        private final int generation;
+        private final int shard;
+        private final ProgressionAgregat progression;
+        // Dernière entrée appliquée pendant le cycle
+        private UUID atteinte;
+        private boolean applique;
+
+        private Suivi(TypeAgregat agregat, int generation, int shard, ProgressionAgregat progression) {
+            this.agregat = agregat;
+            this.generation = generation;
+            this.shard = shard;
+            this.progression = progression;
+            this.atteinte = progression.getCurseur();
+        }
+    }
+
+    private static final class Abonnement<S> {
+        private final SourceAgregat<S> source;
+        private final Application<S> application;
+        private final ApplicationLot<S> lot;
+
+        private Abonnement(SourceAgregat<S> source, Application<S> application, ApplicationLot<S> lot) {
+            this.source = source;
+            this.application = application;
+            this.lot = lot;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void appliquer(int generation, Changement<?> changement) {
+            if (application != null) {
+                application.appliquer(generation, (S) changement.getAvant(), (S) changement.getApres());
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void appliquerLot(int generation, int shard, List<Entree> entrees) {
+            if (lot == null) {
+                return;
+            }
+            List<Changement<S>> changements = new ArrayList<>();
+            for (Entree entree : entrees) {
+                if (source.getNom().equals(entree.source)) {
+                    changements.add((Changement<S>) entree.changement);
+                }
+            }
+            if (!changements.isEmpty()) {
+                lot.appliquer(generation, shard, changements);
+            }
+        }
+    }
+
+    /**
+     * Génération en construction et, pour chaque source parcourue, ce qu'il faut pour la rapprocher du journal
+     */
+    private final class ConstructionGeneration implements Construction {
+
+        private final TypeAgregat agregat;
+        private final int generation;
+        private final long debut = System.currentTimeMillis();
+        // Lignes écrites depuis ce seuil : leur version exacte est conservée pour le rapprochement
+        private final LocalDateTime seuil = LocalDateTime.now().minus(Duration.ofMillis(margeHorlogeMs));
+        private final Map<String, SourceParcourue<?>> parcourues = new LinkedHashMap<>();
+
+        private ConstructionGeneration(TypeAgregat agregat, int generation) {
+            this.agregat = agregat;
+            this.generation = generation;
+        }
+
+        @Override
+        public int getGeneration() {
+            return generation;
+        }
+
+        @Override
+        public <S, A> A parcourir(SourceAgregat<S> source, Application<S> application, Supplier<A> creerPartiel,
+                                  BiConsumer<A, ? super S> accumuler, BinaryOperator<A> fusionner) {
+            return parcourir(source, application, null, creerPartiel, accumuler, fusionner);
+        }
+
+        @Override
+        public <S, A> A parcourirParLot(SourceAgregat<S> source, ApplicationLot<S> application, Supplier<A> creerPartiel,
+                                        BiConsumer<A, ? super S> accumuler, BinaryOperator<A> fusionner) {
+            return parcourir(source, null, application, creerPartiel, accumuler, fusionner);
+        }
+
+        @Override
+        public <T> void ecrire(Collection<T> lignes) {
+            for (T ligne : lignes) {
+                if (ligne instanceof LigneAgregat ligneAgregat) {
+                    ligneAgregat.setRevision(1L);
+                }
+            }
+            parcoursParalleleRepository.ecrire(lignes);
+        }
+
+        private <S, A> A parcourir(SourceAgregat<S> source, Application<S> application, ApplicationLot<S> lot,
+                                   Supplier<A> creerPartiel, BiConsumer<A, ? super S> accumuler,
+                                   BinaryOperator<A> fusionner) {
+            if (parcourues.containsKey(source.getNom())) {
+                throw new IllegalStateException("Les " + source.getNom().toLowerCase()
+                        + " sont déjà parcourues pour l'agrégat " + agregat.getLibelle());
+            }
+            Parcours<A> parcours = parcoursParalleleRepository.parcourir(source.getType(),
+                    () -> new Parcours<A>(creerPartiel.get()),
+                    (partiel, ligne) -> {
+                        UUID id = source.id(ligne);
+                        partiel.ajouterEmpreinte(Rapprochement.empreinte(id));
+                        LocalDateTime version = source.version(ligne);
+                        if (version != null && !version.isBefore(seuil)) {
+                            partiel.recentes.put(id, version);
+                        }
+                        accumuler.accept(partiel.agregat, ligne);
+                    },
+                    (a, b) -> a.fusionner(b, fusionner));
+
+            parcourues.put(source.getNom(), new SourceParcourue<>(
+                    new Rapprochement<>(source, parcours.empreintesTriees(), parcours.recentes, seuil), application, lot));
+            return parcours.agregat;
+        }
+
+        /**
+         * Applique les modifications publiées pendant les parcours que ceux-ci n'ont pas lues, puis place la
+         * génération dans le journal juste après elles : les nœuds l'y reprendront après la bascule
+         */
+        private void rapprocher() {
+            Map<String, Abonnement<?>> abonnees = abonnements.getOrDefault(agregat, Map.of());
+            for (String source : abonnees.keySet()) {
+                if (!parcourues.containsKey(source)) {
+                    throw new IllegalStateException("L'agrégat " + agregat.getLibelle() + " est abonné aux "
+                            + source.toLowerCase() + " sans les avoir parcourues");
+                }
+            }
+
+            long fin = System.currentTimeMillis() + margeHorlogeMs;
+            attendrePublications(fin);
+            List<MiseAJourAgregat> journal = lireJournal(Uuids.startOf(debut - margeHorlogeMs), Uuids.startOf(fin + 1));
+            journal.sort((a, b) -> JournalAgregatsRepository.comparer(a.getKey().getId(), b.getKey().getId()));
+            for (SourceParcourue<?> parcourue : parcourues.values()) {
+                rapprocher(parcourue, journal);
+            }
+
+            if (!abonnees.isEmpty()) {
+                UUID curseur = Uuids.endOf(fin);
+                for (int shard = 0; shard < NOMBRE_SHARDS; shard++) {
+                    journalAgregatsRepository.enregistrer(ProgressionAgregat.builder()
+                            .key(new ProgressionAgregatKey(agregat, generation, shard))
+                            .curseur(curseur)
+                            .updatedAt(LocalDateTime.now())
+                            .build());
+                }
+            }
+        }
+
+        private <S> void rapprocher(SourceParcourue<S> parcourue, List<MiseAJourAgregat> journal) {
+            SourceAgregat<S> source = parcourue.rapprochement.getSource();
+            List<Changement<S>> changements = new ArrayList<>();
+            for (MiseAJourAgregat miseAJour : journal) {
+                if (source.getNom().equals(miseAJour.getSource())) {
+                    changements.add(changement(source, miseAJour));
+                }
+            }
+
+            Map<UUID, List<Changement<S>>> retenus = parcourue.rapprochement.retenir(changements);
+            if (parcourue.lot != null) {
+                List<Changement<S>> lot = new ArrayList<>();
+                retenus.values().forEach(lot::addAll);
+                lot.sort((a, b) -> JournalAgregatsRepository.comparer(a.getId(), b.getId()));
+                if (!lot.isEmpty()) {
+                    parcourue.lot.appliquer(generation, ApplicationLot.SHARD_RECONSTRUCTION, lot);
+                }
+            } else {
+                parcoursParalleleRepository.traiter(retenus.values(), parLigne -> parLigne.forEach(changement ->
+                        parcourue.application.appliquer(generation, changement.getAvant(), changement.getApres())));
+            }
+
+            log.info("Reconstruction de l'agrégat {}: {} {} rapprochées du journal ({} entrées lues)",
+                    agregat.getLibelle(), retenus.size(), source.getNom().toLowerCase(), changements.size());
+        }
+
+        private List<MiseAJourAgregat> lireJournal(UUID apres, UUID avant) {
+            List<MiseAJourAgregat> journal = new ArrayList<>();
+            for (int shard = 0; shard < NOMBRE_SHARDS; shard++) {
+                UUID position = apres;
+                List<MiseAJourAgregat> lot;
+                do {
+                    lot = journalAgregatsRepository.lire(shard, position, avant, tailleLot);
+                    journal.addAll(lot);
+                    if (!lot.isEmpty()) {
+                        position = lot.get(lot.size() - 1).getKey().getId();
+                    }
+                } while (lot.size() == tailleLot);
+            }
+            return journal;
+        }
+    }
+
+    private static final class SourceParcourue<S> {
+        private final Rapprochement<S> rapprochement;
+        private final Application<S> application;
+        private final ApplicationLot<S> lot;
+
+        private SourceParcourue(Rapprochement<S> rapprochement, Application<S> application, ApplicationLot<S> lot) {
+            this.rapprochement = rapprochement;
+            this.application = application;
+            this.lot = lot;
+        }
+    }
+
+    /**
+     * Agrégat partiel d'une plage, avec l'empreinte des identifiants lus et la version des lignes récentes
+     */
+    private static final class Parcours<A> {
+        private A agregat;
+        private long[] empreintes = new long[256];
+        private int nombreEmpreintes;
+        private final Map<UUID, LocalDateTime> recentes = new HashMap<>();
+
+        private Parcours(A agregat) {
+            this.agregat = agregat;
+        }
+
+        private void ajouterEmpreinte(long empreinte) {
+            if (nombreEmpreintes == empreintes.length) {
+                empreintes = Arrays.copyOf(empreintes, empreintes.length * 2);
+            }
+            empreintes[nombreEmpreintes++] = empreinte;
+        }
+
+        private Parcours<A> fusionner(Parcours<A> autre, BinaryOperator<A> fusionnerAgregats) {
+            agregat = fusionnerAgregats.apply(agregat, autre.agregat);
+            if (nombreEmpreintes + autre.nombreEmpreintes > empreintes.length) {
+                empreintes = Arrays.copyOf(empreintes, nombreEmpreintes + autre.nombreEmpreintes);
+            }
+            System.arraycopy(autre.empreintes, 0, empreintes, nombreEmpreintes, autre.nombreEmpreintes);
+            nombreEmpreintes += autre.nombreEmpreintes;
+            recentes.putAll(autre.recentes);
+            return this;
+        }
+
+        private long[] empreintesTriees() {
+            long[] triees = Arrays.copyOf(empreintes, nombreEmpreintes);
+            Arrays.sort(triees);
+            return triees;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.yooyob.erp.repository.custom;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tranches de montant de l'index des factures, en série 1-2-5 : [0, 1), [1, 2), [2, 5), [5, 10), [10, 20)...
+ * Une recherche par intervalle de montants ne lit que les tranches qui le chevauchent, soit trois par décade.
+ * Les montants négatifs partagent la première tranche ; au-delà de 10^12 tout est compté dans la dernière.
+ */
+final class BandesMontant {
+
+    static final int BANDE_NEGATIVE = 0;
+    private static final int BANDE_INFERIEURE_A_UN = 1;
+    private static final int EXPOSANT_MAX = 11;
+    static final int BANDE_MAX = bande(EXPOSANT_MAX, 2);
+
+    private BandesMontant() {
+    }
+
+    static int bande(BigDecimal montant) {
+        if (montant.signum() < 0) {
+            return BANDE_NEGATIVE;
+        }
+        if (montant.compareTo(BigDecimal.ONE) < 0) {
+            return BANDE_INFERIEURE_A_UN;
+        }
+        // Nombre de chiffres de la partie entière moins un : la décade du montant
+        int exposant = montant.precision() - montant.scale() - 1;
+        if (exposant > EXPOSANT_MAX) {
+            return BANDE_MAX;
+        }
+        BigDecimal mantisse = montant.movePointLeft(exposant);
+        int rang = mantisse.compareTo(BigDecimal.valueOf(2)) < 0 ? 0 : mantisse.compareTo(BigDecimal.valueOf(5)) < 0 ? 1 : 2;
+        return bande(exposant, rang);
+    }
+
+    /**
+     * Tranches qui chevauchent l'intervalle, bornes incluses et facultatives
+     */
+    static List<Integer> bandes(BigDecimal minimum, BigDecimal maximum) {
+        int premiere = minimum != null ? bande(minimum) : BANDE_NEGATIVE;
+        int derniere = maximum != null ? bande(maximum) : BANDE_MAX;
+        List<Integer> bandes = new ArrayList<>(Math.max(0, derniere - premiere + 1));
+        for (int bande = premiere; bande <= derniere; bande++) {
+            bandes.add(bande);
+        }
+        return bandes;
+    }
+
+    private static int bande(int exposant, int rang) {
+        return BANDE_INFERIEURE_A_UN + 1 + 3 * exposant + rang;
+    }
+}
@@ -0,0 +1,26 @@
+package com.yooyob.erp.repository.custom;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Baux des tâches planifiées exécutées par un seul nœud de la grappe
+ */
+public interface BauxTachesRepository {
+
+    /**
+     * Prend le bail d'une tâche libre
+     *
+     * @return faux si un autre nœud le détient
+     */
+    boolean acquerir(String tache, UUID noeud, Duration duree);
+
+    /**
+     * Prolonge le bail d'une tâche que le nœud détient encore
+     *
+     * @return faux si le bail a expiré et a été repris
+     */
+    boolean prolonger(String tache, UUID noeud, Duration duree);
+
+    void liberer(String tache, UUID noeud);
+}
@@ -0,0 +1,45 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.BailTache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.cassandra.core.CassandraTemplate;
+import org.springframework.data.cassandra.core.DeleteOptions;
+import org.springframework.data.cassandra.core.InsertOptions;
+import org.springframework.data.cassandra.core.UpdateOptions;
+import org.springframework.data.cassandra.core.query.Criteria;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class BauxTachesRepositoryImpl implements BauxTachesRepository {
+
+    private static final String COLONNE_NOEUD = "noeud";
+
+    private final CassandraTemplate cassandraTemplate;
+
+    @Override
+    public boolean acquerir(String tache, UUID noeud, Duration duree) {
+        return cassandraTemplate.insert(new BailTache(tache, noeud), InsertOptions.builder()
+                .withIfNotExists()
+                .ttl(duree)
+                .build()).wasApplied();
+    }
+
+    @Override
+    public boolean prolonger(String tache, UUID noeud, Duration duree) {
+        return cassandraTemplate.update(new BailTache(tache, noeud), UpdateOptions.builder()
+                .ifCondition(Criteria.where(COLONNE_NOEUD).is(noeud))
+                .ttl(duree)
+                .build()).wasApplied();
+    }
+
+    @Override
+    public void liberer(String tache, UUID noeud) {
+        cassandraTemplate.delete(new BailTache(tache, noeud), DeleteOptions.builder()
+                .ifCondition(Criteria.where(COLONNE_NOEUD).is(noeud))
+                .build());
+    }
+}
@@ -0,0 +1,532 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.util.NumberUtil;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Instantané colonnaire des factures, stocké hors tas dans des tampons directs.
+ * Une ligne par facture : identifiant (2 longs), montant total et restant en centimes (long),
+ * dates de facturation et d'échéance en jours epoch (int), mois de facturation (int),
+ * statut (byte) et client sous forme d'index de dictionnaire (int).
+ * Soit environ 57 octets hors tas par facture, table d'adressage comprise ; seul le
+ * dictionnaire des clients vit sur le tas.
+ * <p>
+ * Les requêtes sont des boucles sur les colonnes, sans allocation par ligne. Une suppression
+ * laisse une ligne marquée ; dès qu'elles dépassent le quart des lignes, les lignes marquées sont
+ * compactées pour que les parcours ne s'allongent pas entre deux rechargements.
+ * La classe n'est pas thread-safe : l'appelant sérialise écritures et lectures.
+ */
+public class ColonnesFactures {
+
+    public static final byte STATUT_SUPPRIME = -1;
+    public static final int DATE_ABSENTE = Integer.MIN_VALUE;
+
+    private static final int CAPACITE_INITIALE = 1 << 12;
+    private static final int NOMBRE_STATUTS = StatutFacture.values().length;
+    private static final int SEUIL_COMPACTAGE = 1 << 10;
+
+    private int capacite;
+    private int nombreLignes;
+    private int nombreSupprimees;
+
+    private LongBuffer idsPoidsFort;
+    private LongBuffer idsPoidsFaible;
+    private LongBuffer montants;
+    private LongBuffer restants;
+    private IntBuffer datesFacturation;
+    private IntBuffer datesEcheance;
+    private IntBuffer moisFacturation;
+    private IntBuffer clients;
+    private ByteBuffer statuts;
+
+    // Table à adressage ouvert (sondage linéaire) : numéro de ligne + 1, 0 pour une case vide
+    private IntBuffer table;
+    private int masqueTable;
+
+    private final Map<UUID, Integer> indexClients = new HashMap<>();
+    private final List<UUID> idsClients = new ArrayList<>();
+    private final List<String> nomsClients = new ArrayList<>();
+
+    public ColonnesFactures() {
+        allouer(CAPACITE_INITIALE);
+        allouerTable(CAPACITE_INITIALE * 2);
+    }
+
+    // Écritures
+
+    /**
+     * Insère ou remplace la ligne de la facture
+     */
+    public void enregistrer(Facture facture) {
+        if (facture.getIdFacture() == null || facture.getEtat() == null) {
+            return;
+        }
+
+        int ligne = chercherLigne(facture.getIdFacture());
+        if (ligne < 0) {
+            ligne = nouvelleLigne(facture.getIdFacture());
+        } else if (statuts.get(ligne) == STATUT_SUPPRIME) {
+            nombreSupprimees--;
+        }
+
+        montants.put(ligne, NumberUtil.toCentimes(facture.getMontantTotal()));
+        restants.put(ligne, NumberUtil.toCentimes(facture.getMontantRestant()));
+        datesFacturation.put(ligne, versJour(facture.getDateFacturation()));
+        datesEcheance.put(ligne, versJour(facture.getDateEcheance()));
+        moisFacturation.put(ligne, versMois(facture.getDateFacturation()));
+        clients.put(ligne, indexClient(facture.getIdClient(), facture.getNomClient()));
+        statuts.put(ligne, (byte) facture.getEtat().ordinal());
+    }
+
+    /**
+     * Marque la ligne de la facture comme supprimée, et compacte les colonnes quand les lignes
+     * marquées dépassent le quart des lignes
+     */
+    public void supprimer(UUID idFacture) {
+        int ligne = chercherLigne(idFacture);
+        if (ligne >= 0 && statuts.get(ligne) != STATUT_SUPPRIME) {
+            statuts.put(ligne, STATUT_SUPPRIME);
+            nombreSupprimees++;
+            if (nombreSupprimees >= SEUIL_COMPACTAGE && nombreSupprimees * 4 > nombreLignes) {
+                compacter();
+            }
+        }
+    }
+
+    /**
+     * Retire les lignes marquées supprimées en décalant les suivantes, puis reconstruit la table d'adressage
+     */
+    public void compacter() {
+        if (nombreSupprimees == 0) {
+            return;
+        }
+
+        int cible = 0;
+        for (int ligne = 0; ligne < nombreLignes; ligne++) {
+            if (statuts.get(ligne) == STATUT_SUPPRIME) {
+                continue;
+            }
+            if (cible != ligne) {
+                idsPoidsFort.put(cible, idsPoidsFort.get(ligne));
+                idsPoidsFaible.put(cible, idsPoidsFaible.get(ligne));
+                montants.put(cible, montants.get(ligne));
+                restants.put(cible, restants.get(ligne));
+                datesFacturation.put(cible, datesFacturation.get(ligne));
+                datesEcheance.put(cible, datesEcheance.get(ligne));
+                moisFacturation.put(cible, moisFacturation.get(ligne));
+                clients.put(cible, clients.get(ligne));
+                statuts.put(cible, statuts.get(ligne));
+            }
+            cible++;
+        }
+
+        nombreLignes = cible;
+        nombreSupprimees = 0;
+        allouerTable(table.capacity());
+    }
+
+    // Lectures
+
+    public int getNombreLignes() {
+        return nombreLignes;
+    }
+
+    public int getNombreSupprimees() {
+        return nombreSupprimees;
+    }
+
+    public int getNombreClients() {
+        return idsClients.size();
+    }
+
+    public UUID getIdClient(int indexClient) {
+        return idsClients.get(indexClient);
+    }
+
+    public String getNomClient(int indexClient) {
+        return nomsClients.get(indexClient);
+    }
+
+    /**
+     * Index du client dans le dictionnaire, -1 s'il est inconnu
+     */
+    public int chercherClient(UUID idClient) {
+        Integer index = idClient != null ? indexClients.get(idClient) : null;
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Nombre de factures, montants et restants dus par statut sur la période de facturation
+     *
+     * @param indexClient index du client, ou -1 pour tous les clients
+     */
+    public Resume resumer(int jourDebut, int jourFin, int indexClient) {
+        long[] nombres = new long[NOMBRE_STATUTS];
+        long[] totaux = new long[NOMBRE_STATUTS];
+        long[] restes = new long[NOMBRE_STATUTS];
+
+        for (int ligne = 0; ligne < nombreLignes; ligne++) {
+            byte statut = statuts.get(ligne);
+            if (statut == STATUT_SUPPRIME) {
+                continue;
+            }
+            int jour = datesFacturation.get(ligne);
+            if (jour < jourDebut || jour > jourFin) {
+                continue;
+            }
+            if (indexClient >= 0 && clients.get(ligne) != indexClient) {
+                continue;
+            }
+            nombres[statut]++;
+            totaux[statut] = Math.addExact(totaux[statut], montants.get(ligne));
+            restes[statut] = Math.addExact(restes[statut], restants.get(ligne));
+        }
+
+        return new Resume(nombres, totaux, restes);
+    }
+
+    /**
+     * Montants en centimes par mois de facturation, pour les statuts du masque
+     *
+     * @return un tableau indexé par mois depuis {@code moisDebut} (année * 12 + mois - 1)
+     */
+    public long[] montantsParMois(int jourDebut, int jourFin, int moisDebut, int nombreMois, int masqueStatuts) {
+        long[] resultat = new long[nombreMois];
+
+        for (int ligne = 0; ligne < nombreLignes; ligne++) {
+            byte statut = statuts.get(ligne);
+            if (statut == STATUT_SUPPRIME || (masqueStatuts & (1 << statut)) == 0) {
+                continue;
+            }
+            int jour = datesFacturation.get(ligne);
+            if (jour < jourDebut || jour > jourFin) {
+                continue;
+            }
+            int index = moisFacturation.get(ligne) - moisDebut;
+            if (index >= 0 && index < nombreMois) {
+                resultat[index] = Math.addExact(resultat[index], montants.get(ligne));
+            }
+        }
+
+        return resultat;
+    }
+
+    /**
+     * Nombre de factures par mois de facturation, pour les statuts du masque
+     */
+    public long[] nombresParMois(int jourDebut, int jourFin, int moisDebut, int nombreMois, int masqueStatuts) {
+        long[] resultat = new long[nombreMois];
+
+        for (int ligne = 0; ligne < nombreLignes; ligne++) {
+            byte statut = statuts.get(ligne);
+            if (statut == STATUT_SUPPRIME || (masqueStatuts & (1 << statut)) == 0) {
+                continue;
+            }
+            int jour = datesFacturation.get(ligne);
+            if (jour < jourDebut || jour > jourFin) {
+                continue;
+            }
+            int index = moisFacturation.get(ligne) - moisDebut;
+            if (index >= 0 && index < nombreMois) {
+                resultat[index]++;
+            }
+        }
+
+        return resultat;
+    }
+
+    /**
+     * Montants en centimes par client (indexés par index de dictionnaire), pour les statuts du masque
+     */
+    public long[] montantsParClient(int jourDebut, int jourFin, int masqueStatuts) {
+        long[] resultat = new long[idsClients.size()];
+
+        for (int ligne = 0; ligne < nombreLignes; ligne++) {
+            byte statut = statuts.get(ligne);
+            if (statut == STATUT_SUPPRIME || (masqueStatuts & (1 << statut)) == 0) {
+                continue;
+            }
+            int jour = datesFacturation.get(ligne);
+            if (jour < jourDebut || jour > jourFin) {
+                continue;
+            }
+            int client = clients.get(ligne);
+            if (client >= 0) {
+                resultat[client] = Math.addExact(resultat[client], montants.get(ligne));
+            }
+        }
+
+        return resultat;
+    }
+
+    /**
+     * Nombre de clients distincts ayant au moins une facture des statuts du masque sur la période
+     */
+    public int nombreClientsActifs(int jourDebut, int jourFin, int masqueStatuts) {
+        BitSet actifs = new BitSet(idsClients.size());
+
+        for (int ligne = 0; ligne < nombreLignes; ligne++) {
+            byte statut = statuts.get(ligne);
+            if (statut == STATUT_SUPPRIME || (masqueStatuts & (1 << statut)) == 0) {
+                continue;
+            }
+            int jour = datesFacturation.get(ligne);
+            if (jour < jourDebut || jour > jourFin) {
+                continue;
+            }
+            int client = clients.get(ligne);
+            if (client >= 0) {
+                actifs.set(client);
+            }
+        }
+
+        return actifs.cardinality();
+    }
+
+    // Conversions
+
+    public static int versJour(LocalDate date) {
+        return date != null ? (int) date.toEpochDay() : DATE_ABSENTE;
+    }
+
+    public static int versMois(LocalDate date) {
+        return date != null ? date.getYear() * 12 + date.getMonthValue() - 1 : DATE_ABSENTE;
+    }
+
+    public static int masque(StatutFacture... statutsRetenus) {
+        int masque = 0;
+        for (StatutFacture statut : statutsRetenus) {
+            masque |= 1 << statut.ordinal();
+        }
+        return masque;
+    }
+
+    public static BigDecimal versMontant(long centimes) {
+        return NumberUtil.fromCentimes(centimes);
+    }
+
+    // Sélection
+
+    /**
+     * Index des k plus grandes valeurs strictement positives, par ordre décroissant.
+     * Tas min borné à k sur un tableau d'entiers : pas de tri complet ni d'index boxés.
+     */
+    public static int[] meilleurs(long[] valeurs, int k) {
+        int[] tas = new int[Math.max(0, Math.min(k, valeurs.length))];
+        int taille = 0;
+
+        for (int i = 0; i < valeurs.length && tas.length > 0; i++) {
+            if (valeurs[i] <= 0) {
+                continue;
+            }
+            if (taille < tas.length) {
+                tas[taille] = i;
+                remonter(tas, taille++, valeurs);
+            } else if (valeurs[i] > valeurs[tas[0]]) {
+                tas[0] = i;
+                descendre(tas, taille, valeurs);
+            }
+        }
+
+        // Le minimum sort en premier : il prend la dernière place du classement
+        int[] classement = new int[taille];
+        while (taille > 0) {
+            classement[taille - 1] = tas[0];
+            tas[0] = tas[--taille];
+            descendre(tas, taille, valeurs);
+        }
+        return classement;
+    }
+
+    private static void remonter(int[] tas, int position, long[] valeurs) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (valeurs[tas[position]] >= valeurs[tas[parent]]) {
+                return;
+            }
+            echanger(tas, position, parent);
+            position = parent;
+        }
+    }
+
+    private static void descendre(int[] tas, int taille, long[] valeurs) {
+        int position = 0;
+        while (true) {
+            int enfant = 2 * position + 1;
+            if (enfant >= taille) {
+                return;
+            }
+            if (enfant + 1 < taille && valeurs[tas[enfant + 1]] < valeurs[tas[enfant]]) {
+                enfant++;
+            }
+            if (valeurs[tas[enfant]] >= valeurs[tas[position]]) {
+                return;
+            }
+            echanger(tas, position, enfant);
+            position = enfant;
+        }
+    }
+
+    private static void echanger(int[] tas, int i, int j) {
+        int valeur = tas[i];
+        tas[i] = tas[j];
+        tas[j] = valeur;
+    }
+
+    // Gestion des lignes et de la table d'adressage
+
+    private int indexClient(UUID idClient, String nomClient) {
+        if (idClient == null) {
+            return -1;
+        }
+        Integer index = indexClients.get(idClient);
+        if (index == null) {
+            index = idsClients.size();
+            indexClients.put(idClient, index);
+            idsClients.add(idClient);
+            nomsClients.add(nomClient);
+        } else if (nomClient != null) {
+            nomsClients.set(index, nomClient);
+        }
+        return index;
+    }
+
+    private int chercherLigne(UUID idFacture) {
+        long poidsFort = idFacture.getMostSignificantBits();
+        long poidsFaible = idFacture.getLeastSignificantBits();
+
+        for (int position = hacher(poidsFort, poidsFaible) & masqueTable; ; position = (position + 1) & masqueTable) {
+            int entree = table.get(position);
+            if (entree == 0) {
+                return -1;
+            }
+            int ligne = entree - 1;
+            if (idsPoidsFort.get(ligne) == poidsFort && idsPoidsFaible.get(ligne) == poidsFaible) {
+                return ligne;
+            }
+        }
+    }
+
+    private int nouvelleLigne(UUID idFacture) {
+        if (nombreLignes == capacite) {
+            allouer(capacite * 2);
+        }
+        if ((nombreLignes + 1) * 2 > table.capacity()) {
+            allouerTable(table.capacity() * 2);
+        }
+
+        int ligne = nombreLignes++;
+        idsPoidsFort.put(ligne, idFacture.getMostSignificantBits());
+        idsPoidsFaible.put(ligne, idFacture.getLeastSignificantBits());
+        insererDansTable(ligne);
+        return ligne;
+    }
+
+    private void insererDansTable(int ligne) {
+        int position = hacher(idsPoidsFort.get(ligne), idsPoidsFaible.get(ligne)) & masqueTable;
+        while (table.get(position) != 0) {
+            position = (position + 1) & masqueTable;
+        }
+        table.put(position, ligne + 1);
+    }
+
+    private static int hacher(long poidsFort, long poidsFaible) {
+        long h = poidsFort ^ (poidsFaible * 0x9E3779B97F4A7C15L);
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    private void allouer(int nouvelleCapacite) {
+        idsPoidsFort = copier(idsPoidsFort, nouvelleCapacite);
+        idsPoidsFaible = copier(idsPoidsFaible, nouvelleCapacite);
+        montants = copier(montants, nouvelleCapacite);
+        restants = copier(restants, nouvelleCapacite);
+        datesFacturation = copier(datesFacturation, nouvelleCapacite);
+        datesEcheance = copier(datesEcheance, nouvelleCapacite);
+        moisFacturation = copier(moisFacturation, nouvelleCapacite);
+        clients = copier(clients, nouvelleCapacite);
+
+        ByteBuffer nouveauxStatuts = ByteBuffer.allocateDirect(nouvelleCapacite);
+        if (statuts != null) {
+            nouveauxStatuts.put(0, statuts, 0, nombreLignes);
+        }
+        statuts = nouveauxStatuts;
+        capacite = nouvelleCapacite;
+    }
+
+    private void allouerTable(int taille) {
+        table = directInts(taille);
+        masqueTable = taille - 1;
+        for (int ligne = 0; ligne < nombreLignes; ligne++) {
+            insererDansTable(ligne);
+        }
+    }
+
+    private LongBuffer copier(LongBuffer source, int nouvelleCapacite) {
+        LongBuffer copie = ByteBuffer.allocateDirect(nouvelleCapacite * Long.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asLongBuffer();
+        if (source != null) {
+            copie.put(0, source, 0, nombreLignes);
+        }
+        return copie;
+    }
+
+    private IntBuffer copier(IntBuffer source, int nouvelleCapacite) {
+        IntBuffer copie = directInts(nouvelleCapacite);
+        if (source != null) {
+            copie.put(0, source, 0, nombreLignes);
+        }
+        return copie;
+    }
+
+    private static IntBuffer directInts(int taille) {
+        return ByteBuffer.allocateDirect(taille * Integer.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+    }
+
+    /**
+     * Totaux par statut (indexés par ordinal de {@link StatutFacture}), montants en centimes
+     */
+    @Value
+    public static class Resume {
+        long[] nombres;
+        long[] montants;
+        long[] restants;
+
+        public long nombre(StatutFacture... statutsRetenus) {
+            long somme = 0;
+            for (StatutFacture statut : statutsRetenus) {
+                somme += nombres[statut.ordinal()];
+            }
+            return somme;
+        }
+
+        public long montant(StatutFacture... statutsRetenus) {
+            long somme = 0;
+            for (StatutFacture statut : statutsRetenus) {
+                somme = Math.addExact(somme, montants[statut.ordinal()]);
+            }
+            return somme;
+        }
+
+        public long restant(StatutFacture... statutsRetenus) {
+            long somme = 0;
+            for (StatutFacture statut : statutsRetenus) {
+                somme = Math.addExact(somme, restants[statut.ordinal()]);
+            }
+            return somme;
+        }
+    }
+}
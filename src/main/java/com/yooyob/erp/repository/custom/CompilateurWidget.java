@@ -0,0 +1,224 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.exception.ValidationException;
+import com.yooyob.erp.model.entity.Widget;
+import com.yooyob.erp.model.enums.DimensionRollup;
+import com.yooyob.erp.model.enums.FonctionAgregation;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import lombok.experimental.UtilityClass;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Compilation de la définition déclarative d'un widget en plan d'exécution.
+ * Les filtres sont poussés vers le chemin d'accès le plus sélectif disponible :
+ * rollups pré-agrégés si le widget s'y prête, sinon table d'index sur le filtre le plus
+ * discriminant, à défaut parcours parallèle de la table avec filtrage à la lecture.
+ * Les agrégations sont décrites par champ : {"montantTotal": "SUM", "*": "COUNT"}.
+ */
+@UtilityClass
+public class CompilateurWidget {
+
+    public static final String FILTRE_DATE_DEBUT = "dateDebut";
+    public static final String FILTRE_DATE_FIN = "dateFin";
+    // Clé d'accès désignant l'index par date de la source
+    public static final String ACCES_PERIODE = "periode";
+
+    private static final String CHAMP_TOUS = "*";
+    private static final String COLONNE_NOMBRE = "nombre";
+    private static final int JOURS_ROLLUP_MAX = 366;
+    private static final Set<String> CHAMPS_ROLLUP = Set.of(SourceWidget.CHAMP_JOUR, SourceWidget.CHAMP_MOIS,
+            SourceWidget.CHAMP_ANNEE, "etat", "devise", "idClient");
+    private static final Set<String> MESURES_ROLLUP = Set.of("montantTotal", "montantRestant");
+    private static final Set<FonctionAgregation> FONCTIONS_ROLLUP = EnumSet.of(FonctionAgregation.SUM,
+            FonctionAgregation.AVG, FonctionAgregation.COUNT);
+
+    // Clés d'accès indexées par source, de la plus sélective à la moins sélective
+    private static final Map<String, List<String>> ACCES_INDEXES = Map.of(
+            SourceWidget.FACTURES.getNom(), List.of("idClient", ACCES_PERIODE, "devise", "etat"),
+            SourceWidget.PAIEMENTS.getNom(), List.of("idClient", ACCES_PERIODE),
+            SourceWidget.AVOIRS.getNom(), List.of("idClient", ACCES_PERIODE));
+
+    public static PlanWidget<?> compiler(Widget widget, Map<String, Object> filtresExecution) {
+        SourceWidget<?> source = SourceWidget.pour(widget.getSourceDonnees());
+        if (source == null) {
+            throw new ValidationException("Source de données de widget inconnue: " + widget.getSourceDonnees());
+        }
+        return compiler(source, widget, filtresExecution);
+    }
+
+    private static <T> PlanWidget<T> compiler(SourceWidget<T> source, Widget widget, Map<String, Object> filtresExecution) {
+        Map<String, Object> tousFiltres = new TreeMap<>();
+        if (widget.getFiltresWidget() != null) {
+            tousFiltres.putAll(widget.getFiltresWidget());
+        }
+        if (filtresExecution != null) {
+            filtresExecution.forEach((champ, valeur) -> {
+                if (valeur != null) {
+                    tousFiltres.put(champ, valeur);
+                }
+            });
+        }
+
+        LocalDate dateDebut = date(tousFiltres.remove(FILTRE_DATE_DEBUT));
+        LocalDate dateFin = date(tousFiltres.remove(FILTRE_DATE_FIN));
+        Map<String, Set<String>> filtres = new TreeMap<>();
+        tousFiltres.forEach((champ, valeur) -> {
+            verifierChamp(source, champ);
+            filtres.put(champ, valeurs(valeur));
+        });
+
+        List<String> groupement = widget.getGroupement() != null ? List.copyOf(widget.getGroupement()) : List.of();
+        groupement.forEach(champ -> verifierChamp(source, champ));
+
+        List<PlanWidget.Mesure> mesures = mesures(source, widget.getAgregations());
+
+        List<String> colonnes = new ArrayList<>(groupement);
+        mesures.forEach(mesure -> colonnes.add(mesure.getColonne()));
+        if (widget.getTri() != null) {
+            widget.getTri().keySet().stream()
+                    .filter(colonne -> !colonnes.contains(colonne))
+                    .findFirst()
+                    .ifPresent(colonne -> {
+                        throw new ValidationException("Colonne de tri absente du résultat du widget: " + colonne);
+                    });
+        }
+
+        PlanWidget.PlanWidgetBuilder<T> plan = PlanWidget.<T>builder()
+                .source(source)
+                .dateDebut(dateDebut)
+                .dateFin(dateFin)
+                .filtres(filtres)
+                .groupement(groupement)
+                .mesures(mesures)
+                .tri(widget.getTri())
+                .limite(widget.getLimiteResultats())
+                .signature(String.join("|", source.getNom(), String.valueOf(dateDebut), String.valueOf(dateFin),
+                        filtres.toString(), groupement.toString(), mesures.toString(),
+                        String.valueOf(widget.getTri()), String.valueOf(widget.getLimiteResultats())));
+
+        if (source == SourceWidget.FACTURES && planifierRollup(plan, dateDebut, dateFin, filtres, groupement, mesures)) {
+            return plan.strategie(PlanWidget.Strategie.ROLLUP).build();
+        }
+
+        for (String acces : ACCES_INDEXES.getOrDefault(source.getNom(), List.of())) {
+            boolean utilisable = ACCES_PERIODE.equals(acces)
+                    ? dateDebut != null && dateFin != null
+                    : filtres.containsKey(acces) && filtres.get(acces).size() == 1;
+            if (utilisable) {
+                return plan.strategie(PlanWidget.Strategie.INDEX).champAcces(acces).build();
+            }
+        }
+        return plan.strategie(PlanWidget.Strategie.PARCOURS).build();
+    }
+
+    /**
+     * Les rollups ne croisent ni client et devise, ni mesures autres que les montants total et restant :
+     * le widget ne s'y prête que s'il reste dans ces dimensions
+     */
+    private static boolean planifierRollup(PlanWidget.PlanWidgetBuilder<?> plan, LocalDate dateDebut, LocalDate dateFin,
+                                           Map<String, Set<String>> filtres, List<String> groupement,
+                                           List<PlanWidget.Mesure> mesures) {
+        Set<String> champs = new HashSet<>(groupement);
+        champs.addAll(filtres.keySet());
+        if (!CHAMPS_ROLLUP.containsAll(champs) || (champs.contains("devise") && champs.contains("idClient"))) {
+            return false;
+        }
+        for (PlanWidget.Mesure mesure : mesures) {
+            if (!FONCTIONS_ROLLUP.contains(mesure.getFonction())
+                    || (mesure.getChamp() != null && !MESURES_ROLLUP.contains(mesure.getChamp()))) {
+                return false;
+            }
+        }
+
+        boolean parJour = groupement.contains(SourceWidget.CHAMP_JOUR);
+        boolean groupementCalendaire = parJour || groupement.contains(SourceWidget.CHAMP_MOIS)
+                || groupement.contains(SourceWidget.CHAMP_ANNEE);
+        GranulariteRollup granularite;
+        List<String> periodes = new ArrayList<>();
+        if (dateDebut == null && dateFin == null) {
+            if (groupementCalendaire) {
+                return false;
+            }
+            granularite = GranulariteRollup.TOUT;
+            periodes.add(GranulariteRollup.PERIODE_TOUT);
+        } else if (dateDebut == null || dateFin == null || dateDebut.isAfter(dateFin)) {
+            return false;
+        } else if (!parJour && dateDebut.getDayOfMonth() == 1 && dateFin.equals(dateFin.withDayOfMonth(dateFin.lengthOfMonth()))) {
+            granularite = GranulariteRollup.MOIS;
+            for (YearMonth mois = YearMonth.from(dateDebut); !mois.isAfter(YearMonth.from(dateFin)); mois = mois.plusMonths(1)) {
+                periodes.add(mois.toString());
+            }
+        } else if (ChronoUnit.DAYS.between(dateDebut, dateFin) < JOURS_ROLLUP_MAX) {
+            granularite = GranulariteRollup.JOUR;
+            for (LocalDate jour = dateDebut; !jour.isAfter(dateFin); jour = jour.plusDays(1)) {
+                periodes.add(GranulariteRollup.JOUR.periode(jour));
+            }
+        } else {
+            return false;
+        }
+
+        plan.granularite(granularite)
+                .periodes(periodes)
+                .dimension(champs.contains("idClient") ? DimensionRollup.CLIENT
+                        : champs.contains("devise") ? DimensionRollup.DEVISE : DimensionRollup.GLOBAL)
+                // Les périodes lues couvrent exactement l'intervalle : les bornes ne filtrent plus
+                .dateDebut(null)
+                .dateFin(null);
+        return true;
+    }
+
+    private static List<PlanWidget.Mesure> mesures(SourceWidget<?> source, Map<String, String> agregations) {
+        if (agregations == null || agregations.isEmpty()) {
+            return List.of(new PlanWidget.Mesure(COLONNE_NOMBRE, null, FonctionAgregation.COUNT));
+        }
+
+        List<PlanWidget.Mesure> mesures = new ArrayList<>();
+        new TreeMap<>(agregations).forEach((champ, nomFonction) -> {
+            FonctionAgregation fonction;
+            try {
+                fonction = FonctionAgregation.valueOf(nomFonction.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Fonction d'agrégation inconnue: " + nomFonction);
+            }
+            if (fonction == FonctionAgregation.COUNT) {
+                mesures.add(new PlanWidget.Mesure(CHAMP_TOUS.equals(champ) ? COLONNE_NOMBRE : champ, null, fonction));
+            } else if (source.mesure(champ) == null) {
+                throw new ValidationException("Mesure inconnue pour la source " + source.getNom() + ": " + champ);
+            } else {
+                mesures.add(new PlanWidget.Mesure(champ, champ, fonction));
+            }
+        });
+        return mesures;
+    }
+
+    private static void verifierChamp(SourceWidget<?> source, String champ) {
+        if (source.champ(champ) == null) {
+            throw new ValidationException("Champ inconnu pour la source " + source.getNom() + ": " + champ);
+        }
+    }
+
+    private static Set<String> valeurs(Object valeur) {
+        Set<String> valeurs = new TreeSet<>();
+        if (valeur instanceof Collection<?> collection) {
+            collection.forEach(element -> valeurs.add(String.valueOf(element)));
+        } else {
+            valeurs.add(String.valueOf(valeur));
+        }
+        return valeurs;
+    }
+
+    private static LocalDate date(Object valeur) {
+        if (valeur == null || valeur instanceof LocalDate) {
+            return (LocalDate) valeur;
+        }
+        try {
+            return LocalDate.parse(valeur.toString());
+        } catch (RuntimeException e) {
+            throw new ValidationException("Date de filtre invalide: " + valeur);
+        }
+    }
+}
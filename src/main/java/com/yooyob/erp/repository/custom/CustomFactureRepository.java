@@ -4,6 +4,7 @@ import com.yooyob.erp.model.entity.Facture;
 import com.yooyob.erp.model.enums.StatutFacture;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -14,7 +15,9 @@ import java.util.UUID;
 public interface CustomFactureRepository {
 
     /**
-     * Recherche de factures avec filtres multiples
+     * Recherche de factures avec filtres multiples, lue sur l'index du critère le plus sélectif.
+     * Au moins un critère indexé est requis (client, période complète, statut, montant ou devise) :
+     * une recherche sans critère relirait toute la table.
      */
     List<Facture> findFacturesWithFilters(
             UUID clientId,
@@ -27,7 +30,9 @@ public interface CustomFactureRepository {
     );
 
     /**
-     * Recherche paginée avec filtres
+     * Recherche paginée avec filtres. Les tranches de la recherche par curseur sont lues jusqu'à la page demandée,
+     * plus une facture pour savoir s'il en reste : le total renvoyé ne dépasse la page que d'une facture quand
+     * une page suivante existe, le décompte exact demanderait de tout lire.
      */
     Page<Facture> findFacturesWithFiltersAndPagination(
             UUID clientId,
@@ -40,6 +45,20 @@ public interface CustomFactureRepository {
             Pageable pageable
     );
 
+    /**
+     * Recherche par tranches avec filtres, reprise à l'état de pagination de la requête de page
+     */
+    Slice<Facture> findFacturesWithFiltersParCurseur(
+            UUID clientId,
+            StatutFacture etat,
+            LocalDate dateStart,
+            LocalDate dateEnd,
+            BigDecimal montantMin,
+            BigDecimal montantMax,
+            String devise,
+            Pageable pageable
+    );
+
     /**
      * Statistiques des factures par période
      */
@@ -50,11 +69,26 @@ public interface CustomFactureRepository {
      */
     Map<String, BigDecimal> getChiffreAffairesByMonth(int year);
 
+    /**
+     * Nombre de factures émises par mois
+     */
+    Map<String, Long> getNombreFacturesByMonth(int year);
+
+    /**
+     * Calcule toutes les statistiques globales en un seul parcours des factures
+     */
+    StatistiquesGlobalesAgregateur calculerStatistiquesGlobales(LocalDate dateReference);
+
     /**
      * Top clients par chiffre d'affaires
      */
     List<Map<String, Object>> getTopClientsByChiffreAffaires(int limit);
 
+    /**
+     * Top clients par chiffre d'affaires sur une période de facturation
+     */
+    List<Map<String, Object>> getTopClientsByChiffreAffaires(LocalDate startDate, LocalDate endDate, int limit);
+
     /**
      * Factures en retard
      */
@@ -76,7 +110,7 @@ public interface CustomFactureRepository {
     List<Facture> getFacturesApprochantEcheance(int nombreJours);
 
     /**
-     * Répartition des factures par statut
+     * Répartition des factures par statut, lue sur le rollup total
      */
     Map<StatutFacture, Long> getFactureCountByStatut();
 
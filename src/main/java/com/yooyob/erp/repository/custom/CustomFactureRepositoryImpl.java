@@ -1,22 +1,40 @@
 package com.yooyob.erp.repository.custom;
 
+import com.yooyob.erp.exception.ValidationException;
+import com.yooyob.erp.model.entity.BalanceAgee;
+import com.yooyob.erp.model.entity.BalanceAgeeKey;
 import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.RollupFacture;
+import com.yooyob.erp.model.enums.DimensionRollup;
+import com.yooyob.erp.model.enums.GranulariteRollup;
 import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.model.enums.TypeIndexFacture;
+import com.yooyob.erp.repository.BalanceAgeeRepository;
+import com.yooyob.erp.repository.RollupFactureRepository;
+import com.yooyob.erp.util.CumulMontant;
+import com.yooyob.erp.util.CumulMontantsParCle;
+import com.yooyob.erp.util.CurseurUtil;
+import com.yooyob.erp.util.NumberUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.cassandra.core.CassandraTemplate;
-import org.springframework.data.cassandra.core.query.Criteria;
+import org.springframework.data.cassandra.core.query.CassandraPageRequest;
 import org.springframework.data.cassandra.core.query.Query;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Repository
@@ -25,213 +43,374 @@ import java.util.stream.Collectors;
 public class CustomFactureRepositoryImpl implements CustomFactureRepository {
 
     private final CassandraTemplate cassandraTemplate;
+    private final RollupFactureRepository rollupFactureRepository;
+    private final FactureIndexeeRepository factureIndexeeRepository;
+    private final BalanceAgeeRepository balanceAgeeRepository;
+    private final ParcoursParalleleRepository parcoursParalleleRepository;
+    private final AgregatsRepository agregatsRepository;
 
     @Override
     public List<Facture> findFacturesWithFilters(UUID clientId, StatutFacture etat,
                                                  LocalDate dateStart, LocalDate dateEnd, BigDecimal montantMin,
                                                  BigDecimal montantMax, String devise) {
 
-        Query query = Query.empty();
+        Predicate<Facture> filtre = construireFiltre(clientId, etat, dateStart, dateEnd, montantMin, montantMax, devise);
 
+        // Lecture de l'index le plus sélectif parmi les critères fournis ; les autres sont vérifiés sur les factures lues
+        List<Facture> candidates;
         if (clientId != null) {
-            query = query.and(Criteria.where("id_client").is(clientId));
+            candidates = factureIndexeeRepository.findByIdClient(clientId);
+        } else if (dateStart != null && dateEnd != null) {
+            candidates = factureIndexeeRepository.findByDateFacturationBetween(dateStart, dateEnd);
+        } else if (etat != null) {
+            candidates = factureIndexeeRepository.findByEtat(etat);
+        } else if (montantMin != null || montantMax != null) {
+            candidates = factureIndexeeRepository.findByMontantTotalBetween(montantMin, montantMax);
+        } else if (devise != null && !devise.isEmpty()) {
+            candidates = factureIndexeeRepository.findByDevise(devise);
+        } else {
+            throw new ValidationException("Au moins un critère de recherche est requis : client, statut, période complète,"
+                    + " montant ou devise", "CRITERE_RECHERCHE_REQUIS");
         }
 
+        return candidates.stream()
+                .filter(filtre)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Page<Facture> findFacturesWithFiltersAndPagination(UUID clientId, StatutFacture etat,
+                                                              LocalDate dateStart, LocalDate dateEnd, BigDecimal montantMin,
+                                                              BigDecimal montantMax, String devise, Pageable pageable) {
+        long aSauter = pageable.getOffset();
+        int taille = pageable.getPageSize();
+        List<Facture> factures = new ArrayList<>(taille);
+        boolean pageSuivante = false;
+
+        // Lecture arrêtée dès la première facture au-delà de la page
+        Pageable tranche = CassandraPageRequest.first(Math.min(CurseurUtil.TAILLE_MAX, taille + 1));
+        while (true) {
+            Slice<Facture> lues = findFacturesWithFiltersParCurseur(clientId, etat, dateStart, dateEnd,
+                    montantMin, montantMax, devise, tranche);
+            for (Facture facture : lues) {
+                if (aSauter > 0) {
+                    aSauter--;
+                } else if (factures.size() < taille) {
+                    factures.add(facture);
+                } else {
+                    pageSuivante = true;
+                    break;
+                }
+            }
+            if (pageSuivante || !lues.hasNext()) {
+                break;
+            }
+            tranche = lues.getPageable();
+        }
+
+        return new PageImpl<>(factures, pageable, pageable.getOffset() + factures.size() + (pageSuivante ? 1 : 0));
+    }
+
+    @Override
+    public Slice<Facture> findFacturesWithFiltersParCurseur(UUID clientId, StatutFacture etat,
+                                                            LocalDate dateStart, LocalDate dateEnd, BigDecimal montantMin,
+                                                            BigDecimal montantMax, String devise, Pageable pageable) {
+
+        Predicate<Facture> filtre = construireFiltre(clientId, etat, dateStart, dateEnd, montantMin, montantMax, devise);
+        boolean periode = dateStart != null && dateEnd != null;
+        LocalDate debut = periode ? dateStart : null;
+        LocalDate fin = periode ? dateEnd : null;
+
+        // Parcours de la partition d'index la plus sélective, restreinte à la période de facturation ;
+        // les autres critères sont vérifiés sur les factures chargées
+        if (clientId != null) {
+            return factureIndexeeRepository.parcourir(TypeIndexFacture.CLIENT, clientId.toString(), debut, fin,
+                    filtre, pageable);
+        }
         if (etat != null) {
-            query = query.and(Criteria.where("etat").is(etat));
+            return factureIndexeeRepository.parcourir(TypeIndexFacture.ETAT, etat.name(), debut, fin, filtre, pageable);
+        }
+        if (devise != null && !devise.isEmpty()) {
+            return factureIndexeeRepository.parcourir(TypeIndexFacture.DEVISE, devise, debut, fin, filtre, pageable);
+        }
+        if (periode) {
+            return factureIndexeeRepository.parcourir(TypeIndexFacture.DATE_FACTURATION, TypeIndexFacture.VALEUR_TOUTES,
+                    debut, fin, filtre, pageable);
+        }
+        return parcourirTable(filtre, pageable);
+    }
+
+    /**
+     * Sans critère indexé, parcours de la table des factures repris à l'état de pagination reçu. Seules les lignes
+     * manquantes à la tranche sont demandées au driver, pour que l'état renvoyé reprenne exactement après la
+     * dernière ligne lue.
+     */
+    private Slice<Facture> parcourirTable(Predicate<Facture> filtre, Pageable pageable) {
+        int taille = pageable.getPageSize();
+        ByteBuffer etat = pageable instanceof CassandraPageRequest requete ? requete.getPagingState() : null;
+
+        List<Facture> factures = new ArrayList<>(taille);
+        boolean trancheSuivante = true;
+        while (factures.size() < taille && trancheSuivante) {
+            int restantes = taille - factures.size();
+            CassandraPageRequest page = etat != null ? CassandraPageRequest.of(PageRequest.of(0, restantes), etat)
+                    : CassandraPageRequest.first(restantes);
+            Slice<Facture> lues = CurseurUtil.lire(page,
+                    requete -> cassandraTemplate.slice(Query.empty().pageRequest(requete), Facture.class));
+            lues.forEach(facture -> {
+                if (filtre.test(facture)) {
+                    factures.add(facture);
+                }
+            });
+
+            trancheSuivante = lues.hasNext() && lues.getPageable() instanceof CassandraPageRequest;
+            etat = trancheSuivante ? ((CassandraPageRequest) lues.getPageable()).getPagingState() : null;
+        }
+
+        Pageable suivante = trancheSuivante ? CassandraPageRequest.of(PageRequest.of(0, taille), etat)
+                : CassandraPageRequest.first(taille);
+        return new SliceImpl<>(factures, suivante, trancheSuivante);
+    }
+
+    private Predicate<Facture> construireFiltre(UUID clientId, StatutFacture etat,
+                                                LocalDate dateStart, LocalDate dateEnd, BigDecimal montantMin,
+                                                BigDecimal montantMax, String devise) {
+        Predicate<Facture> filtre = f -> true;
+
+        if (clientId != null) {
+            filtre = filtre.and(f -> clientId.equals(f.getIdClient()));
+        }
+
+        if (etat != null) {
+            filtre = filtre.and(f -> f.getEtat() == etat);
         }
 
         if (dateStart != null && dateEnd != null) {
-            query = query.and(Criteria.where("date_facturation").gte(dateStart));
-            query = query.and(Criteria.where("date_facturation").lte(dateEnd));
+            filtre = filtre.and(f -> isDansPeriode(f.getDateFacturation(), dateStart, dateEnd));
         }
 
         if (montantMin != null) {
-            query = query.and(Criteria.where("montant_total").gte(montantMin));
+            filtre = filtre.and(f -> f.getMontantTotal() != null && f.getMontantTotal().compareTo(montantMin) >= 0);
         }
 
         if (montantMax != null) {
-            query = query.and(Criteria.where("montant_total").lte(montantMax));
+            filtre = filtre.and(f -> f.getMontantTotal() != null && f.getMontantTotal().compareTo(montantMax) <= 0);
         }
 
         if (devise != null && !devise.isEmpty()) {
-            query = query.and(Criteria.where("devise").is(devise));
+            filtre = filtre.and(f -> devise.equals(f.getDevise()));
         }
 
-        return cassandraTemplate.select(query, Facture.class);
+        return filtre;
     }
 
     @Override
-    public Page<Facture> findFacturesWithFiltersAndPagination(UUID clientId, StatutFacture etat,
-                                                              LocalDate dateStart, LocalDate dateEnd, BigDecimal montantMin,
-                                                              BigDecimal montantMax, String devise, Pageable pageable) {
-
-        List<Facture> factures = findFacturesWithFilters(clientId, etat, dateStart,
-                dateEnd, montantMin, montantMax, devise);
+    public Map<String, Object> getFactureStatisticsByPeriod(LocalDate startDate, LocalDate endDate) {
+        List<RollupFacture> rollups = getRollupsGlobaux(startDate, endDate);
+
+        long nombreFactures = 0;
+        CumulMontant montantTotal = new CumulMontant();
+        Map<StatutFacture, Long> repartitionStatut = new HashMap<>();
+
+        for (RollupFacture rollup : rollups) {
+            nombreFactures += rollup.getNombreFactures();
+            montantTotal.ajouter(rollup.getMontantTotal());
+            if (rollup.getNombreFactures() > 0) {
+                repartitionStatut.merge(rollup.getKey().getStatut(), rollup.getNombreFactures(), Long::sum);
+            }
+        }
 
-        // Implémentation manuelle de la pagination pour Cassandra
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), factures.size());
+        Map<String, Object> stats = new HashMap<>();
 
-        List<Facture> pageContent = factures.subList(start, end);
+        stats.put("nombreFactures", nombreFactures);
+        stats.put("montantTotal", montantTotal.getMontant());
+        stats.put("montantMoyen", nombreFactures == 0 ? BigDecimal.ZERO :
+                montantTotal.getMontant().divide(BigDecimal.valueOf(nombreFactures), 2, RoundingMode.HALF_UP));
+        stats.put("repartitionStatut", repartitionStatut);
 
-        return new PageImpl<>(pageContent, pageable, factures.size());
+        return stats;
     }
 
     @Override
-    public Map<String, Object> getFactureStatisticsByPeriod(LocalDate startDate, LocalDate endDate) {
-        List<Facture> factures = findFacturesWithFilters(null, null, startDate, endDate, null, null, null);
+    public Map<String, BigDecimal> getChiffreAffairesByMonth(int year) {
+        CumulMontantsParCle<String> chiffreAffaires = new CumulMontantsParCle<>();
 
-        Map<String, Object> stats = new HashMap<>();
+        getRollupsMensuels(year).stream()
+                .filter(r -> isStatutEncaisse(r.getKey().getStatut()) && r.getNombreFactures() > 0)
+                .forEach(r -> chiffreAffaires.ajouter(r.getKey().getPeriode(), r.getMontantTotal()));
 
-        stats.put("nombreFactures", (long) factures.size());
-        stats.put("montantTotal", factures.stream()
-                .map(Facture::getMontantTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        return new HashMap<>(chiffreAffaires.versMap());
+    }
 
-        stats.put("montantMoyen", factures.isEmpty() ? BigDecimal.ZERO :
-                factures.stream()
-                        .map(Facture::getMontantTotal)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add)
-                        .divide(BigDecimal.valueOf(factures.size()), 2, RoundingMode.HALF_UP));
+    @Override
+    public Map<String, Long> getNombreFacturesByMonth(int year) {
+        Map<String, Long> nombreFactures = new HashMap<>();
 
-        Map<StatutFacture, Long> repartitionStatut = factures.stream()
-                .collect(Collectors.groupingBy(Facture::getEtat, Collectors.counting()));
-        stats.put("repartitionStatut", repartitionStatut);
+        getRollupsMensuels(year).forEach(rollup ->
+                nombreFactures.merge(rollup.getKey().getPeriode(), rollup.getNombreFactures(), Long::sum));
 
-        return stats;
+        return nombreFactures;
     }
 
     @Override
-    public Map<String, BigDecimal> getChiffreAffairesByMonth(int year) {
-        LocalDate startDate = LocalDate.of(year, 1, 1);
-        LocalDate endDate = LocalDate.of(year, 12, 31);
-
-        List<Facture> factures = findFacturesWithFilters(null, null, startDate, endDate, null, null, null);
-
-        return factures.stream()
-                .filter(f -> f.getEtat() == StatutFacture.PAYE || f.getEtat() == StatutFacture.PARTIELLEMENT_PAYE)
-                .collect(Collectors.groupingBy(
-                        f -> f.getDateFacturation().format(DateTimeFormatter.ofPattern("yyyy-MM")),
-                        Collectors.reducing(BigDecimal.ZERO, Facture::getMontantTotal, BigDecimal::add)
-                ));
+    public StatistiquesGlobalesAgregateur calculerStatistiquesGlobales(LocalDate dateReference) {
+        long debut = System.nanoTime();
+        StatistiquesGlobalesAgregateur agregateur = parcoursParalleleRepository.parcourir(Facture.class,
+                () -> new StatistiquesGlobalesAgregateur(dateReference),
+                StatistiquesGlobalesAgregateur::accumuler,
+                StatistiquesGlobalesAgregateur::fusionner);
+
+        agregateur.terminer(debut);
+        log.info("Statistiques globales calculées en une passe: {} lignes analysées en {} ms",
+                agregateur.getLignesAnalysees(), agregateur.getDureeCalculMs());
+        return agregateur;
     }
 
     @Override
     public List<Map<String, Object>> getTopClientsByChiffreAffaires(int limit) {
-        List<Facture> factures = cassandraTemplate.select(Query.empty(), Facture.class);
-
-        // Group invoices by client
-        Map<Map<String, Object>, List<Facture>> facturesParClient = factures.stream()
-                .filter(f -> f.getEtat() == StatutFacture.PAYE || f.getEtat() == StatutFacture.PARTIELLEMENT_PAYE)
-                .collect(Collectors.groupingBy(
-                        f -> Map.of("idClient", f.getIdClient(), "nomClient", f.getNomClient())
-                ));
-
-        // Process the grouped invoices to calculate stats
-        return facturesParClient.entrySet().stream()
-                .map(entry -> {
-                    Map<String, Object> clientInfo = entry.getKey();
-                    List<Facture> clientFactures = entry.getValue();
-
-                    BigDecimal chiffreAffaires = clientFactures.stream()
-                            .map(Facture::getMontantTotal)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    long nombreFactures = clientFactures.size();
-
-                    Map<String, Object> clientData = new HashMap<>(clientInfo);
-                    clientData.put("chiffreAffaires", chiffreAffaires);
-                    clientData.put("nombreFactures", nombreFactures);
-                    return clientData;
-                })
-                .sorted((m1, m2) -> ((BigDecimal) m2.get("chiffreAffaires")).compareTo((BigDecimal) m1.get("chiffreAffaires")))
-                .limit(limit)
+        return getTopClientsByChiffreAffaires(null, null, limit);
+    }
+
+    @Override
+    public List<Map<String, Object>> getTopClientsByChiffreAffaires(LocalDate startDate, LocalDate endDate, int limit) {
+        // Un cumul primitif par client et par plage, sans conserver les factures en mémoire
+        TopClientsAgregateur agregateur = parcoursParalleleRepository.parcourir(Facture.class,
+                TopClientsAgregateur::new,
+                (partiel, f) -> {
+                    if (isStatutEncaisse(f.getEtat()) && f.getIdClient() != null
+                            && isDansPeriode(f.getDateFacturation(), startDate, endDate)) {
+                        partiel.accumuler(f.getIdClient(), f.getNomClient(), f.getMontantTotal(), f.getDateFacturation());
+                    }
+                },
+                TopClientsAgregateur::fusionner);
+
+        return agregateur.top(limit).stream()
+                .map(TopClientsAgregateur.ClientClasse::toMap)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Facture> getOverdueFactures() {
-        LocalDate today = LocalDate.now();
-
-        return cassandraTemplate.select(Query.empty(), Facture.class)
-                .stream()
-                .filter(f -> f.getDateEcheance().isBefore(today) &&
-                        (f.getEtat() == StatutFacture.ENVOYE || f.getEtat() == StatutFacture.PARTIELLEMENT_PAYE))
-                .collect(Collectors.toList());
+        return factureIndexeeRepository.findOverdueFactures(LocalDate.now());
     }
 
     @Override
     public Map<UUID, BigDecimal> getMontantImpayeByClient() {
-        List<Facture> facturesImpayes = cassandraTemplate.select(Query.empty(), Facture.class)
-                .stream()
-                .filter(f -> f.getMontantRestant().compareTo(BigDecimal.ZERO) > 0)
-                .collect(Collectors.toList());
-
-        return facturesImpayes.stream()
-                .collect(Collectors.groupingBy(
-                        Facture::getIdClient,
-                        Collectors.reducing(BigDecimal.ZERO, Facture::getMontantRestant, BigDecimal::add)
-                ));
+        // Lu depuis la balance âgée, tenue à jour à chaque écriture de facture
+        return balanceAgeeRepository.findByGeneration(agregatsRepository.generationLue(TypeAgregat.BALANCE_AGEE),
+                        BalanceAgeeKey.BUCKETS).stream()
+                .collect(Collectors.toMap(balance -> balance.getKey().getIdClient(), BalanceAgee::getMontantTotal));
     }
 
     @Override
     public Map<String, BigDecimal> getChiffreAffairesByQuarter(int year) {
-        LocalDate startDate = LocalDate.of(year, 1, 1);
-        LocalDate endDate = LocalDate.of(year, 12, 31);
-
-        List<Facture> factures = findFacturesWithFilters(null, null, startDate, endDate, null, null, null);
-
-        Map<String, BigDecimal> quarterlyCA = new LinkedHashMap<>();
-        quarterlyCA.put("Q1", BigDecimal.ZERO);
-        quarterlyCA.put("Q2", BigDecimal.ZERO);
-        quarterlyCA.put("Q3", BigDecimal.ZERO);
-        quarterlyCA.put("Q4", BigDecimal.ZERO);
-
-        factures.stream()
-                .filter(f -> f.getEtat() == StatutFacture.PAYE || f.getEtat() == StatutFacture.PARTIELLEMENT_PAYE)
-                .forEach(facture -> {
-                    int month = facture.getDateFacturation().getMonthValue();
-                    String quarter = "Q" + ((month - 1) / 3 + 1);
-                    quarterlyCA.merge(quarter, facture.getMontantTotal(), BigDecimal::add);
+        long[] quarterlyCA = new long[4];
+
+        getRollupsMensuels(year).stream()
+                .filter(r -> isStatutEncaisse(r.getKey().getStatut()))
+                .forEach(rollup -> {
+                    int month = Integer.parseInt(rollup.getKey().getPeriode().substring(5));
+                    int quarter = (month - 1) / 3;
+                    quarterlyCA[quarter] = Math.addExact(quarterlyCA[quarter], NumberUtil.toCentimes(rollup.getMontantTotal()));
                 });
 
-        return quarterlyCA;
+        Map<String, BigDecimal> resultat = new LinkedHashMap<>();
+        for (int i = 0; i < quarterlyCA.length; i++) {
+            resultat.put("Q" + (i + 1), NumberUtil.fromCentimes(quarterlyCA[i]));
+        }
+        return resultat;
     }
 
     @Override
     public List<Facture> getFacturesApprochantEcheance(int nombreJours) {
-        LocalDate dateLimit = LocalDate.now().plusDays(nombreJours);
+        LocalDate today = LocalDate.now();
+        LocalDate dateLimit = today.plusDays(nombreJours);
+
+        if (nombreJours < 2) {
+            return new ArrayList<>();
+        }
 
-        return cassandraTemplate.select(Query.empty(), Facture.class)
+        return factureIndexeeRepository.findByDateEcheanceBetween(today.plusDays(1), dateLimit.minusDays(1))
                 .stream()
-                .filter(f -> f.getDateEcheance().isBefore(dateLimit) &&
-                        f.getDateEcheance().isAfter(LocalDate.now()) &&
-                        (f.getEtat() == StatutFacture.ENVOYE || f.getEtat() == StatutFacture.PARTIELLEMENT_PAYE))
+                .filter(f -> f.getEtat() == StatutFacture.ENVOYE || f.getEtat() == StatutFacture.PARTIELLEMENT_PAYE)
                 .sorted(Comparator.comparing(Facture::getDateEcheance))
                 .collect(Collectors.toList());
     }
 
     @Override
     public Map<StatutFacture, Long> getFactureCountByStatut() {
-        List<Facture> factures = cassandraTemplate.select(Query.empty(), Facture.class);
-
-        return factures.stream()
-                .collect(Collectors.groupingBy(Facture::getEtat, Collectors.counting()));
+        // Le rollup total compte chaque facture sous son statut, avec ou sans date de facturation
+        Map<StatutFacture, Long> repartition = new EnumMap<>(StatutFacture.class);
+        for (RollupFacture rollup : getRollupsGlobaux(null, null)) {
+            if (rollup.getNombreFactures() > 0) {
+                repartition.merge(rollup.getKey().getStatut(), rollup.getNombreFactures(), Long::sum);
+            }
+        }
+        return repartition;
     }
 
     @Override
     public BigDecimal getMontantMoyenFactures(LocalDate startDate, LocalDate endDate) {
-        List<Facture> factures = findFacturesWithFilters(null, null, startDate, endDate, null, null, null);
+        return (BigDecimal) getFactureStatisticsByPeriod(startDate, endDate).get("montantMoyen");
+    }
+
+    // Lecture des rollups
+
+    /**
+     * Découpe la période en mois complets et en jours isolés aux bornes,
+     * puis lit les lignes globales correspondantes. Sans bornes, lit le rollup total.
+     */
+    private List<RollupFacture> getRollupsGlobaux(LocalDate startDate, LocalDate endDate) {
+        int generation = agregatsRepository.generationLue(TypeAgregat.ROLLUPS_FACTURES);
+        if (startDate == null || endDate == null) {
+            return rollupFactureRepository.findByPeriodesAndDimension(generation, GranulariteRollup.TOUT.name(),
+                    List.of(GranulariteRollup.PERIODE_TOUT), DimensionRollup.GLOBAL.name());
+        }
 
-        if (factures.isEmpty()) {
-            return BigDecimal.ZERO;
+        List<String> jours = new ArrayList<>();
+        List<String> mois = new ArrayList<>();
+
+        LocalDate courant = startDate;
+        while (!courant.isAfter(endDate)) {
+            LocalDate finMois = courant.withDayOfMonth(courant.lengthOfMonth());
+            if (courant.getDayOfMonth() == 1 && !finMois.isAfter(endDate)) {
+                mois.add(GranulariteRollup.MOIS.periode(courant));
+                courant = finMois.plusDays(1);
+            } else {
+                jours.add(GranulariteRollup.JOUR.periode(courant));
+                courant = courant.plusDays(1);
+            }
         }
 
-        BigDecimal total = factures.stream()
-                .map(Facture::getMontantTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<RollupFacture> rollups = new ArrayList<>();
+        if (!mois.isEmpty()) {
+            rollups.addAll(rollupFactureRepository.findByPeriodesAndDimension(generation,
+                    GranulariteRollup.MOIS.name(), mois, DimensionRollup.GLOBAL.name()));
+        }
+        if (!jours.isEmpty()) {
+            rollups.addAll(rollupFactureRepository.findByPeriodesAndDimension(generation,
+                    GranulariteRollup.JOUR.name(), jours, DimensionRollup.GLOBAL.name()));
+        }
+        return rollups;
+    }
+
+    private List<RollupFacture> getRollupsMensuels(int year) {
+        List<String> mois = new ArrayList<>(12);
+        for (int month = 1; month <= 12; month++) {
+            mois.add(GranulariteRollup.MOIS.periode(LocalDate.of(year, month, 1)));
+        }
+        return rollupFactureRepository.findByPeriodesAndDimension(
+                agregatsRepository.generationLue(TypeAgregat.ROLLUPS_FACTURES), GranulariteRollup.MOIS.name(), mois, DimensionRollup.GLOBAL.name());
+    }
+
+    private boolean isDansPeriode(LocalDate date, LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            return true;
+        }
+        return date != null && !date.isBefore(startDate) && !date.isAfter(endDate);
+    }
 
-        return total.divide(BigDecimal.valueOf(factures.size()), 2, RoundingMode.HALF_UP);
+    private boolean isStatutEncaisse(StatutFacture statut) {
+        return statut == StatutFacture.PAYE || statut == StatutFacture.PARTIELLEMENT_PAYE;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeIndexFacture;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Écriture des factures avec leurs tables d'index, et lectures par ces index
+ * à la place des requêtes ALLOW FILTERING sur la table des factures
+ */
+public interface FactureIndexeeRepository {
+
+    /**
+     * Enregistre la facture et ses entrées d'index dans un même batch
+     */
+    Facture sauvegarder(Facture avant, Facture facture);
+
+    /**
+     * Supprime la facture et ses entrées d'index dans un même batch
+     */
+    void supprimer(Facture facture);
+
+    /**
+     * Reconstruit toutes les entrées d'index à partir de la table des factures, dans une nouvelle génération
+     * que les lectures n'interrogent qu'une fois complète
+     */
+    long reconstruireIndex();
+
+    /**
+     * Parcourt par tranches les entrées d'une valeur d'index, des mois de facturation les plus récents aux plus
+     * anciens, restreintes à la période si elle est fournie, et charge les factures retenues par le filtre.
+     * La position dans le parcours est portée par l'état de pagination de la requête de page et de la tranche
+     * renvoyée ; une tranche peut compter moins de factures que demandé.
+     */
+    Slice<Facture> parcourir(TypeIndexFacture type, String valeur, LocalDate startDate, LocalDate endDate,
+                             Predicate<Facture> filtre, Pageable pageable);
+
+    List<Facture> findByIdClient(UUID idClient);
+
+    List<Facture> findByEtat(StatutFacture etat);
+
+    List<Facture> findByClientAndEtat(UUID idClient, StatutFacture etat);
+
+    List<Facture> findByDateFacturationBetween(LocalDate startDate, LocalDate endDate);
+
+    List<Facture> findByDateEcheanceBetween(LocalDate startDate, LocalDate endDate);
+
+    List<Facture> findOverdueFactures(LocalDate currentDate);
+
+    /**
+     * Factures dont le montant total est dans l'intervalle, bornes incluses et facultatives. Seules les tranches
+     * de montant qui chevauchent l'intervalle sont lues : un intervalle étroit coûte peu, un intervalle ouvert
+     * relit toutes les tranches au-delà de sa borne.
+     */
+    List<Facture> findByMontantTotalBetween(BigDecimal minAmount, BigDecimal maxAmount);
+
+    List<Facture> findUnpaidFactures();
+
+    List<Facture> findByDevise(String devise);
+
+    List<Facture> findByEnvoyeParEmail(Boolean envoyeParEmail);
+
+    long countByEtat(StatutFacture etat);
+
+    long countByIdClient(UUID idClient);
+}
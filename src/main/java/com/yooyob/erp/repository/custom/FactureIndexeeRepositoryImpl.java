@@ -0,0 +1,610 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.exception.ValidationException;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.IndexFacture;
+import com.yooyob.erp.model.entity.IndexFactureKey;
+import com.yooyob.erp.model.entity.RollupFacture;
+import com.yooyob.erp.model.enums.DimensionRollup;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.model.enums.TypeIndexFacture;
+import com.yooyob.erp.repository.IndexFactureRepository;
+import com.yooyob.erp.repository.RollupFactureRepository;
+import com.yooyob.erp.util.CurseurUtil;
+import com.yooyob.erp.util.ValidationUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.cassandra.core.CassandraBatchOperations;
+import org.springframework.data.cassandra.core.CassandraTemplate;
+import org.springframework.data.cassandra.core.cql.WriteOptions;
+import org.springframework.data.cassandra.core.query.CassandraPageRequest;
+import org.springframework.data.cassandra.core.query.Criteria;
+import org.springframework.data.cassandra.core.query.Query;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class FactureIndexeeRepositoryImpl implements FactureIndexeeRepository {
+
+    // Nombre de partitions par mois de facturation pour les index peu sélectifs (état, devise, email)
+    private static final int NOMBRE_SHARDS = 4;
+    private static final int TAILLE_LOT_LECTURE = 100;
+    private static final LocalDate DATE_INCONNUE = LocalDate.EPOCH;
+    private static final Set<StatutFacture> STATUTS_IMPAYES =
+            EnumSet.of(StatutFacture.ENVOYE, StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD);
+
+    private final CassandraTemplate cassandraTemplate;
+    private final IndexFactureRepository indexFactureRepository;
+    private final RollupFactureRepository rollupFactureRepository;
+    private final AgregatsRepository agregatsRepository;
+
+    @Override
+    public Facture sauvegarder(Facture avant, Facture facture) {
+        CassandraBatchOperations batch = cassandraTemplate.batchOps();
+        if (avant == null) {
+            batch.insert(facture);
+        } else {
+            batch.update(facture);
+        }
+        // Pendant une reconstruction, la génération construite reçoit aussi les entrées
+        WriteOptions options = horodatees(horodatage(facture));
+        for (int generation : agregatsRepository.generationsEcrites(TypeAgregat.INDEX_FACTURES)) {
+            ajouterEntrees(batch, generation, avant, facture, options);
+        }
+        batch.execute();
+
+        return facture;
+    }
+
+    @Override
+    public void supprimer(Facture facture) {
+        // La suppression doit l'emporter sur toute écriture de la facture, même horodatée plus tard par un nœud en avance
+        long horodatage = Math.max(horodatage(facture) + 1, micros(Instant.now()));
+
+        CassandraBatchOperations batch = cassandraTemplate.batchOps();
+        batch.delete(facture);
+        for (int generation : agregatsRepository.generationsEcrites(TypeAgregat.INDEX_FACTURES)) {
+            ajouterEntrees(batch, generation, facture, null, horodatees(horodatage));
+        }
+        batch.execute();
+    }
+
+    @Override
+    public long reconstruireIndex() {
+        log.info("Reconstruction des index de factures");
+
+        long nombreFactures = agregatsRepository.reconstruire(TypeAgregat.INDEX_FACTURES, construction -> {
+            int generation = construction.getGeneration();
+            long[] nombre = construction.parcourir(SourceAgregat.FACTURES, this::indexer,
+                    () -> new long[1],
+                    (partiel, facture) -> {
+                        indexer(generation, null, facture);
+                        partiel[0]++;
+                    },
+                    (a, b) -> {
+                        a[0] += b[0];
+                        return a;
+                    });
+            return nombre[0];
+        });
+
+        log.info("Index reconstruits pour {} factures", nombreFactures);
+        return nombreFactures;
+    }
+
+    @Override
+    public Slice<Facture> parcourir(TypeIndexFacture type, String valeur, LocalDate startDate, LocalDate endDate,
+                                    Predicate<Facture> filtre, Pageable pageable) {
+        int taille = pageable.getPageSize();
+        Position position = Position.lire(pageable, generationLue());
+        int generation = position.generation;
+        List<String> buckets = bucketsParcourus(generation, type, startDate, endDate);
+
+        int rang = position.bucket == null ? 0 : buckets.indexOf(position.bucket);
+        if (rang < 0) {
+            throw new ValidationException("Curseur de pagination invalide", "CURSEUR_INVALIDE");
+        }
+        ByteBuffer etat = position.etatPagination;
+
+        // Chaque partition est lue à la suite, en ne demandant au driver que les entrées manquantes à la tranche :
+        // la lecture reprend exactement là où la tranche précédente s'est arrêtée
+        List<Facture> factures = new ArrayList<>(taille);
+        while (factures.size() < taille && rang < buckets.size()) {
+            int restantes = taille - factures.size();
+            CassandraPageRequest page = etat != null ? CassandraPageRequest.of(PageRequest.of(0, restantes), etat)
+                    : CassandraPageRequest.first(restantes);
+            String bucket = buckets.get(rang);
+            Slice<IndexFacture> entrees = CurseurUtil.lire(page,
+                    requete -> lireBucket(generation, type, valeur, bucket, startDate, endDate, requete));
+            factures.addAll(charger(entrees.getContent(), filtre));
+
+            if (entrees.hasNext() && entrees.getPageable() instanceof CassandraPageRequest suivante) {
+                etat = suivante.getPagingState();
+            } else {
+                rang++;
+                etat = null;
+            }
+        }
+
+        boolean trancheSuivante = rang < buckets.size();
+        Pageable suivante = trancheSuivante
+                ? CassandraPageRequest.of(PageRequest.of(0, taille), Position.ecrire(generation, buckets.get(rang), etat))
+                : CassandraPageRequest.first(taille);
+        return new SliceImpl<>(factures, suivante, trancheSuivante);
+    }
+
+    @Override
+    public List<Facture> findByIdClient(UUID idClient) {
+        return charger(lireClient(generationLue(), idClient), f -> idClient.equals(f.getIdClient()));
+    }
+
+    @Override
+    public List<Facture> findByEtat(StatutFacture etat) {
+        int generation = generationLue();
+        return charger(lireShards(generation, TypeIndexFacture.ETAT, etat.name(), bucketsMensuels(generation, null, null)),
+                f -> f.getEtat() == etat);
+    }
+
+    @Override
+    public List<Facture> findByClientAndEtat(UUID idClient, StatutFacture etat) {
+        List<IndexFacture> entrees = lireClient(generationLue(), idClient).stream()
+                .filter(entree -> entree.getEtat() == etat)
+                .toList();
+
+        return charger(entrees, f -> idClient.equals(f.getIdClient()) && f.getEtat() == etat);
+    }
+
+    @Override
+    public List<Facture> findByDateFacturationBetween(LocalDate startDate, LocalDate endDate) {
+        return charger(lireDates(generationLue(), TypeIndexFacture.DATE_FACTURATION, startDate, endDate),
+                f -> isDansPeriode(f.getDateFacturation(), startDate, endDate));
+    }
+
+    @Override
+    public List<Facture> findByDateEcheanceBetween(LocalDate startDate, LocalDate endDate) {
+        return charger(lireDates(generationLue(), TypeIndexFacture.DATE_ECHEANCE, startDate, endDate),
+                f -> isDansPeriode(f.getDateEcheance(), startDate, endDate));
+    }
+
+    @Override
+    public List<Facture> findOverdueFactures(LocalDate currentDate) {
+        Predicate<LocalDate> echue = date -> date != null && date.isBefore(currentDate);
+
+        List<IndexFacture> entrees = lireEtats(EnumSet.of(StatutFacture.ENVOYE, StatutFacture.PARTIELLEMENT_PAYE)).stream()
+                .filter(entree -> echue.test(entree.getDateEcheance()))
+                .toList();
+
+        return charger(entrees, f -> echue.test(f.getDateEcheance())
+                && (f.getEtat() == StatutFacture.ENVOYE || f.getEtat() == StatutFacture.PARTIELLEMENT_PAYE));
+    }
+
+    @Override
+    public List<Facture> findByMontantTotalBetween(BigDecimal minAmount, BigDecimal maxAmount) {
+        Predicate<BigDecimal> dansIntervalle = montant -> montant != null
+                && (minAmount == null || montant.compareTo(minAmount) >= 0)
+                && (maxAmount == null || montant.compareTo(maxAmount) <= 0);
+
+        // Seules les tranches qui chevauchent l'intervalle sont lues ; les deux tranches des bornes sont filtrées
+        int generation = generationLue();
+        List<String> buckets = bucketsAnnuels(generation, null, null);
+        List<IndexFacture> entrees = BandesMontant.bandes(minAmount, maxAmount).stream()
+                .flatMap(bande -> lireShards(generation, TypeIndexFacture.MONTANT, String.valueOf(bande), buckets).stream())
+                .filter(entree -> dansIntervalle.test(entree.getMontantTotal()))
+                .toList();
+
+        return charger(entrees, f -> dansIntervalle.test(f.getMontantTotal()));
+    }
+
+    @Override
+    public List<Facture> findUnpaidFactures() {
+        Predicate<BigDecimal> positif = montant -> montant != null && montant.compareTo(BigDecimal.ZERO) > 0;
+
+        // Seuls les états impayés sont lus : les factures payées ou annulées ne sont pas relues pour être écartées
+        List<IndexFacture> entrees = lireEtats(STATUTS_IMPAYES).stream()
+                .filter(entree -> positif.test(entree.getMontantRestant()))
+                .toList();
+
+        return charger(entrees, f -> STATUTS_IMPAYES.contains(f.getEtat()) && positif.test(f.getMontantRestant()));
+    }
+
+    @Override
+    public List<Facture> findByDevise(String devise) {
+        int generation = generationLue();
+        return charger(lireShards(generation, TypeIndexFacture.DEVISE, devise, bucketsMensuels(generation, null, null)),
+                f -> devise.equals(f.getDevise()));
+    }
+
+    @Override
+    public List<Facture> findByEnvoyeParEmail(Boolean envoyeParEmail) {
+        boolean envoyee = Boolean.TRUE.equals(envoyeParEmail);
+        int generation = generationLue();
+        return charger(lireShards(generation, TypeIndexFacture.EMAIL, String.valueOf(envoyee), bucketsMensuels(generation, null, null)),
+                f -> Boolean.TRUE.equals(f.getEnvoyeParEmail()) == envoyee);
+    }
+
+    @Override
+    public long countByEtat(StatutFacture etat) {
+        return compter(DimensionRollup.GLOBAL, DimensionRollup.VALEUR_GLOBALE, etat);
+    }
+
+    @Override
+    public long countByIdClient(UUID idClient) {
+        return compter(DimensionRollup.CLIENT, idClient.toString(), null);
+    }
+
+    /**
+     * Nombre de factures tenu par état dans les rollups de toute la période, sans relire les entrées d'index
+     */
+    private long compter(DimensionRollup dimension, String valeurDimension, StatutFacture etat) {
+        int generation = agregatsRepository.generationLue(TypeAgregat.ROLLUPS_FACTURES);
+        return rollupFactureRepository.findByPeriodeAndValeurDimension(generation, GranulariteRollup.TOUT.name(),
+                        GranulariteRollup.PERIODE_TOUT, dimension.name(), valeurDimension).stream()
+                .filter(rollup -> etat == null || rollup.getKey().getStatut() == etat)
+                .mapToLong(RollupFacture::getNombreFactures)
+                .sum();
+    }
+
+    // Écriture des entrées d'index
+
+    /**
+     * Application de reconstruction : écrit les entrées de la facture dans la génération construite
+     */
+    private void indexer(int generation, Facture avant, Facture apres) {
+        CassandraBatchOperations batch = cassandraTemplate.batchOps();
+        Facture version = apres != null ? apres : avant;
+        if (ajouterEntrees(batch, generation, avant, apres, horodatees(horodatage(version)))) {
+            batch.execute();
+        }
+    }
+
+    /**
+     * Ajoute au batch les entrées de l'état après et la suppression des entrées de l'état avant devenues obsolètes.
+     * Toutes ces écritures portent l'horodatage de la version de la facture : une entrée d'un état plus ancien
+     * écrite en retard, par le parcours d'une reconstruction ou un nœud plus lent, ne recouvre jamais un état
+     * plus récent, et l'ordre d'arrivée des écritures est indifférent.
+     */
+    private boolean ajouterEntrees(CassandraBatchOperations batch, int generation, Facture avant, Facture apres,
+                                   WriteOptions options) {
+        List<IndexFacture> entrees = construireEntrees(generation, apres);
+        Set<IndexFactureKey> clesActuelles = entrees.stream()
+                .map(IndexFacture::getKey)
+                .collect(Collectors.toSet());
+
+        // Les écritures d'une même version partagent son horodatage : une suppression l'emporterait sur
+        // l'insertion de la même clé, seules les entrées devenues obsolètes sont donc supprimées
+        List<IndexFacture> obsoletes = construireEntrees(generation, avant).stream()
+                .filter(entree -> !clesActuelles.contains(entree.getKey()))
+                .toList();
+
+        if (!entrees.isEmpty()) {
+            batch.insert(entrees, options);
+            // Le registre des mois n'est jamais élagué : un mois vidé coûte une lecture de partition vide
+            batch.insert(entreeRegistre(generation, apres), options);
+        }
+        if (!obsoletes.isEmpty()) {
+            batch.delete(obsoletes, options);
+        }
+        return !entrees.isEmpty() || !obsoletes.isEmpty();
+    }
+
+    private static WriteOptions horodatees(long horodatage) {
+        return WriteOptions.builder().timestamp(horodatage).build();
+    }
+
+    /**
+     * Horodatage en microsecondes de la version d'une facture
+     */
+    private static long horodatage(Facture facture) {
+        LocalDateTime version = facture.getUpdatedAt() != null ? facture.getUpdatedAt() : facture.getCreatedAt();
+        return version != null ? micros(version.atZone(ZoneId.systemDefault()).toInstant()) : 0L;
+    }
+
+    private static long micros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    // Construction des entrées d'index
+
+    private List<IndexFacture> construireEntrees(int generation, Facture facture) {
+        if (facture == null || facture.getIdFacture() == null) {
+            return List.of();
+        }
+
+        // Les valeurs peu sélectives sont réparties par mois de facturation puis par shard, celles d'un client
+        // par mois de facturation seulement : une partition ne grossit plus avec l'historique
+        LocalDate dateFacturation = dateFacturation(facture);
+        String mois = GranulariteRollup.MOIS.periode(dateFacturation);
+        int shard = Math.floorMod(facture.getIdFacture().hashCode(), NOMBRE_SHARDS);
+        String bucket = bucket(mois, shard);
+        List<IndexFacture> entrees = new ArrayList<>(7);
+
+        if (facture.getIdClient() != null) {
+            entrees.add(entree(generation, facture, TypeIndexFacture.CLIENT, facture.getIdClient().toString(),
+                    mois, dateFacturation));
+        }
+        if (facture.getEtat() != null) {
+            entrees.add(entree(generation, facture, TypeIndexFacture.ETAT, facture.getEtat().name(), bucket, dateFacturation));
+        }
+        if (ValidationUtil.isNotBlank(facture.getDevise())) {
+            entrees.add(entree(generation, facture, TypeIndexFacture.DEVISE, facture.getDevise(), bucket, dateFacturation));
+        }
+        entrees.add(entree(generation, facture, TypeIndexFacture.EMAIL,
+                String.valueOf(Boolean.TRUE.equals(facture.getEnvoyeParEmail())), bucket, dateFacturation));
+
+        if (facture.getMontantTotal() != null) {
+            // Les tranches de montant regroupent toutes les dates : réparties par année plutôt que par mois,
+            // une recherche ne lit pas une partition par mois et par tranche
+            entrees.add(entree(generation, facture, TypeIndexFacture.MONTANT,
+                    String.valueOf(BandesMontant.bande(facture.getMontantTotal())),
+                    bucket(String.valueOf(dateFacturation.getYear()), shard), dateFacturation));
+        }
+        if (facture.getDateFacturation() != null) {
+            entrees.add(entree(generation, facture, TypeIndexFacture.DATE_FACTURATION, TypeIndexFacture.VALEUR_TOUTES,
+                    GranulariteRollup.MOIS.periode(facture.getDateFacturation()), facture.getDateFacturation()));
+        }
+        if (facture.getDateEcheance() != null) {
+            entrees.add(entree(generation, facture, TypeIndexFacture.DATE_ECHEANCE, TypeIndexFacture.VALEUR_TOUTES,
+                    GranulariteRollup.MOIS.periode(facture.getDateEcheance()), facture.getDateEcheance()));
+        }
+
+        return entrees;
+    }
+
+    /**
+     * Entrée du registre des mois de facturation, qui permet d'énumérer les buckets mensuels sans parcours
+     */
+    private static IndexFacture entreeRegistre(int generation, Facture facture) {
+        return IndexFacture.builder()
+                .key(new IndexFactureKey(generation, TypeIndexFacture.MOIS, TypeIndexFacture.VALEUR_TOUTES,
+                        TypeIndexFacture.BUCKET_UNIQUE, dateFacturation(facture).withDayOfMonth(1),
+                        TypeIndexFacture.ID_REGISTRE))
+                .build();
+    }
+
+    private IndexFacture entree(int generation, Facture facture, TypeIndexFacture type, String valeur, String bucket,
+                                LocalDate date) {
+        return IndexFacture.builder()
+                .key(new IndexFactureKey(generation, type, valeur, bucket, date, facture.getIdFacture()))
+                .idClient(facture.getIdClient())
+                .etat(facture.getEtat())
+                .montantTotal(facture.getMontantTotal())
+                .montantRestant(facture.getMontantRestant())
+                .dateEcheance(facture.getDateEcheance())
+                .build();
+    }
+
+    // Lecture des index
+
+    private int generationLue() {
+        return agregatsRepository.generationLue(TypeAgregat.INDEX_FACTURES);
+    }
+
+    private List<IndexFacture> lireClient(int generation, UUID idClient) {
+        return lireShards(generation, TypeIndexFacture.CLIENT, idClient.toString(), moisIndexes(generation, null, null));
+    }
+
+    private List<IndexFacture> lireEtats(Set<StatutFacture> etats) {
+        int generation = generationLue();
+        List<String> buckets = bucketsMensuels(generation, null, null);
+        return etats.stream()
+                .flatMap(etat -> lireShards(generation, TypeIndexFacture.ETAT, etat.name(), buckets).stream())
+                .toList();
+    }
+
+    /**
+     * Buckets des mois de facturation présents dans l'index, du plus récent au plus ancien, chacun découpé
+     * en shards. Les bornes, facultatives, restreignent aux mois qui chevauchent la période.
+     */
+    private List<String> bucketsMensuels(int generation, LocalDate startDate, LocalDate endDate) {
+        List<String> buckets = new ArrayList<>();
+        moisIndexes(generation, startDate, endDate).forEach(periode -> {
+            for (int shard = 0; shard < NOMBRE_SHARDS; shard++) {
+                buckets.add(bucket(periode, shard));
+            }
+        });
+        return buckets;
+    }
+
+    /**
+     * Buckets des années de facturation présentes dans l'index, de la plus récente à la plus ancienne,
+     * chacune découpée en shards
+     */
+    private List<String> bucketsAnnuels(int generation, LocalDate startDate, LocalDate endDate) {
+        List<String> buckets = new ArrayList<>();
+        premiersJoursIndexes(generation, startDate, endDate).stream()
+                .map(mois -> String.valueOf(mois.getYear()))
+                .distinct()
+                .forEach(annee -> {
+                    for (int shard = 0; shard < NOMBRE_SHARDS; shard++) {
+                        buckets.add(bucket(annee, shard));
+                    }
+                });
+        return buckets;
+    }
+
+    private List<String> moisIndexes(int generation, LocalDate startDate, LocalDate endDate) {
+        return premiersJoursIndexes(generation, startDate, endDate).stream()
+                .map(GranulariteRollup.MOIS::periode)
+                .toList();
+    }
+
+    /**
+     * Premier jour des mois de facturation présents dans le registre, du plus récent au plus ancien
+     */
+    private List<LocalDate> premiersJoursIndexes(int generation, LocalDate startDate, LocalDate endDate) {
+        return indexFactureRepository.findByBuckets(generation, TypeIndexFacture.MOIS.name(), TypeIndexFacture.VALEUR_TOUTES,
+                        List.of(TypeIndexFacture.BUCKET_UNIQUE)).stream()
+                .map(mois -> mois.getKey().getDateReference())
+                .filter(mois -> startDate == null || !mois.isBefore(startDate.withDayOfMonth(1)))
+                .filter(mois -> endDate == null || !mois.isAfter(endDate))
+                .toList();
+    }
+
+    /**
+     * Buckets parcourus pour une valeur d'index, dans l'ordre du parcours par tranches
+     */
+    private List<String> bucketsParcourus(int generation, TypeIndexFacture type, LocalDate startDate, LocalDate endDate) {
+        return switch (type) {
+            case MOIS -> List.of(TypeIndexFacture.BUCKET_UNIQUE);
+            case CLIENT -> moisIndexes(generation, startDate, endDate);
+            case ETAT, DEVISE, EMAIL -> bucketsMensuels(generation, startDate, endDate);
+            case MONTANT -> bucketsAnnuels(generation, startDate, endDate);
+            case DATE_FACTURATION, DATE_ECHEANCE -> {
+                if (startDate == null || endDate == null) {
+                    throw new ValidationException("Une période est requise pour parcourir l'index " + type.getLibelle());
+                }
+                List<String> mois = new ArrayList<>();
+                for (LocalDate courant = endDate.withDayOfMonth(1); !courant.isBefore(startDate.withDayOfMonth(1));
+                     courant = courant.minusMonths(1)) {
+                    mois.add(GranulariteRollup.MOIS.periode(courant));
+                }
+                yield mois;
+            }
+        };
+    }
+
+    private Slice<IndexFacture> lireBucket(int generation, TypeIndexFacture type, String valeur, String bucket,
+                                           LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        if (startDate != null && endDate != null) {
+            return indexFactureRepository.findByBucketAndDateBetween(generation, type.name(), valeur, bucket,
+                    startDate, endDate, pageable);
+        }
+        return indexFactureRepository.findByBucket(generation, type.name(), valeur, bucket, pageable);
+    }
+
+    /**
+     * Lit les buckets d'une valeur (mois, ou mois et shard) par lots pour borner la taille des IN
+     */
+    private List<IndexFacture> lireShards(int generation, TypeIndexFacture type, String valeur, List<String> buckets) {
+        List<IndexFacture> entrees = new ArrayList<>();
+        for (int debut = 0; debut < buckets.size(); debut += TAILLE_LOT_LECTURE) {
+            List<String> lot = buckets.subList(debut, Math.min(debut + TAILLE_LOT_LECTURE, buckets.size()));
+            entrees.addAll(indexFactureRepository.findByBuckets(generation, type.name(), valeur, lot));
+        }
+        return entrees;
+    }
+
+    /**
+     * Lit les partitions mensuelles couvrant la période, par lots pour borner la taille des IN
+     */
+    private List<IndexFacture> lireDates(int generation, TypeIndexFacture type, LocalDate startDate, LocalDate endDate) {
+        List<String> mois = new ArrayList<>();
+        for (LocalDate courant = startDate.withDayOfMonth(1); !courant.isAfter(endDate); courant = courant.plusMonths(1)) {
+            mois.add(GranulariteRollup.MOIS.periode(courant));
+        }
+
+        List<IndexFacture> entrees = new ArrayList<>();
+        for (int debut = 0; debut < mois.size(); debut += TAILLE_LOT_LECTURE) {
+            List<String> lot = mois.subList(debut, Math.min(debut + TAILLE_LOT_LECTURE, mois.size()));
+            entrees.addAll(indexFactureRepository.findByBucketsAndDateBetween(generation, type.name(),
+                    TypeIndexFacture.VALEUR_TOUTES, lot, startDate, endDate));
+        }
+        return entrees;
+    }
+
+    /**
+     * Charge les factures référencées par les entrées d'index, dans l'ordre de l'index.
+     * Le filtre est revérifié sur la facture pour écarter une entrée qui ne serait plus à jour.
+     */
+    private List<Facture> charger(List<IndexFacture> entrees, Predicate<Facture> filtre) {
+        List<UUID> ids = entrees.stream()
+                .map(entree -> entree.getKey().getIdFacture())
+                .distinct()
+                .toList();
+
+        Map<UUID, Facture> factures = new HashMap<>(ids.size() * 2);
+        for (int debut = 0; debut < ids.size(); debut += TAILLE_LOT_LECTURE) {
+            List<UUID> lot = ids.subList(debut, Math.min(debut + TAILLE_LOT_LECTURE, ids.size()));
+            cassandraTemplate.select(Query.query(Criteria.where("id_facture").in(lot)), Facture.class)
+                    .forEach(facture -> factures.put(facture.getIdFacture(), facture));
+        }
+
+        return ids.stream()
+                .map(factures::get)
+                .filter(Objects::nonNull)
+                .filter(filtre)
+                .collect(Collectors.toList());
+    }
+
+    private boolean isDansPeriode(LocalDate date, LocalDate startDate, LocalDate endDate) {
+        return date != null && !date.isBefore(startDate) && !date.isAfter(endDate);
+    }
+
+    private static LocalDate dateFacturation(Facture facture) {
+        return facture.getDateFacturation() != null ? facture.getDateFacturation() : DATE_INCONNUE;
+    }
+
+    private static String bucket(String mois, int shard) {
+        return mois + "/" + shard;
+    }
+
+    /**
+     * Position d'un parcours par tranches : génération lue, bucket en cours et état de pagination du driver
+     * dans ce bucket (null à son début). Elle est transmise comme état de pagination de la requête de page.
+     */
+    private static final class Position {
+        private final int generation;
+        private final String bucket;
+        private final ByteBuffer etatPagination;
+
+        private Position(int generation, String bucket, ByteBuffer etatPagination) {
+            this.generation = generation;
+            this.bucket = bucket;
+            this.etatPagination = etatPagination;
+        }
+
+        private static ByteBuffer ecrire(int generation, String bucket, ByteBuffer etatPagination) {
+            byte[] octetsBucket = bucket.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer etat = etatPagination != null ? etatPagination.duplicate() : ByteBuffer.allocate(0);
+            ByteBuffer position = ByteBuffer.allocate(Integer.BYTES + Short.BYTES + octetsBucket.length + etat.remaining());
+            position.putInt(generation).putShort((short) octetsBucket.length).put(octetsBucket).put(etat);
+            return position.flip();
+        }
+
+        private static Position lire(Pageable pageable, int generationLue) {
+            if (!(pageable instanceof CassandraPageRequest requete) || requete.getPagingState() == null) {
+                return new Position(generationLue, null, null);
+            }
+
+            Position position;
+            try {
+                ByteBuffer octets = requete.getPagingState().duplicate();
+                int generation = octets.getInt();
+                byte[] bucket = new byte[octets.getShort()];
+                octets.get(bucket);
+                position = new Position(generation, new String(bucket, StandardCharsets.UTF_8),
+                        octets.hasRemaining() ? octets.slice() : null);
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                throw new ValidationException("Curseur de pagination invalide", "CURSEUR_INVALIDE");
+            }
+
+            // Les partitions d'une génération remplacée sont purgées : le parcours doit être repris depuis le début.
+            // Une génération plus récente que celle lue ici est complète, seul le pointeur local est en retard.
+            if (position.generation < generationLue) {
+                throw new ValidationException("Le curseur a expiré après une reconstruction de l'index des factures",
+                        "CURSEUR_EXPIRE");
+            }
+            return position;
+        }
+    }
+}
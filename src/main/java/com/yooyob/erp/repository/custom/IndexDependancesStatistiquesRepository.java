@@ -0,0 +1,26 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.util.DependancesStatistique;
+
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Index inverse des dépendances du cache des statistiques : pour chaque mois de facturation et chaque client,
+ * les clés en cache qui en dépendent. Inscrit au moment de la mise en cache, il évite de parcourir le cache
+ * à chaque écriture de facture.
+ */
+public interface IndexDependancesStatistiquesRepository {
+
+    /**
+     * Inscrit une clé du cache sous ses dépendances ; les inscriptions expirent avec les entrées du cache
+     */
+    void enregistrer(String cle, DependancesStatistique dependances);
+
+    /**
+     * Clés dont les dépendances peuvent recouper une écriture de facture du mois et du client donnés.
+     * L'index peut en désigner davantage (devises ignorées, longues plages bornées par leur fin) mais jamais moins.
+     */
+    Set<String> clesConcernees(YearMonth mois, UUID idClient);
+}
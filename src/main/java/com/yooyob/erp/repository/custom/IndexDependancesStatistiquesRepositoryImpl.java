@@ -0,0 +1,91 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.util.CacheUtil;
+import com.yooyob.erp.util.DependancesStatistique;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class IndexDependancesStatistiquesRepositoryImpl implements IndexDependancesStatistiquesRepository {
+
+    private static final String PREFIXE = "dependances-" + CacheUtil.STATISTIQUE_CACHE + "::";
+    // Clés qui dépendent de toutes les factures
+    private static final String TOUT = PREFIXE + "tout";
+    // Clés bornées par leur seul mois de fin (score : ce mois), concernées par les écritures jusqu'à ce mois
+    private static final String JUSQUA = PREFIXE + "jusqua";
+    // Clés bornées par leur seul mois de début (score : ce mois), concernées par les écritures depuis ce mois
+    private static final String DEPUIS = PREFIXE + "depuis";
+    // Au-delà, une plage est inscrite par son mois de fin plutôt que sous chacun de ses mois
+    private static final int MOIS_INSCRITS_MAX = 60;
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void enregistrer(String cle, DependancesStatistique dependances) {
+        long dureeVie = CacheUtil.DUREE_VIE_DEFAUT.toSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connexion -> {
+            StringRedisConnection redis = (StringRedisConnection) connexion;
+            Consumer<String> inscrire = ensemble -> {
+                redis.sAdd(ensemble, cle);
+                redis.expire(ensemble, dureeVie);
+            };
+            YearMonth debut = dependances.getMoisDebut();
+            YearMonth fin = dependances.getMoisFin();
+
+            if (dependances.getClients() != null) {
+                dependances.getClients().forEach(client -> inscrire.accept(PREFIXE + "client::" + client));
+            } else if (debut != null && fin != null && !debut.plusMonths(MOIS_INSCRITS_MAX).isBefore(fin)) {
+                for (YearMonth mois = debut; !mois.isAfter(fin); mois = mois.plusMonths(1)) {
+                    inscrire.accept(PREFIXE + "mois::" + mois);
+                }
+            } else if (fin != null) {
+                redis.zAdd(JUSQUA, rang(fin), cle);
+                redis.expire(JUSQUA, dureeVie);
+            } else if (debut != null) {
+                redis.zAdd(DEPUIS, rang(debut), cle);
+                redis.expire(DEPUIS, dureeVie);
+            } else {
+                inscrire.accept(TOUT);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> clesConcernees(YearMonth mois, UUID idClient) {
+        List<Object> resultats = redisTemplate.executePipelined((RedisCallback<Object>) connexion -> {
+            StringRedisConnection redis = (StringRedisConnection) connexion;
+            redis.sMembers(TOUT);
+            redis.sMembers(PREFIXE + "mois::" + mois);
+            redis.zRangeByScore(JUSQUA, rang(mois), Double.POSITIVE_INFINITY);
+            redis.zRangeByScore(DEPUIS, Double.NEGATIVE_INFINITY, rang(mois));
+            redis.sMembers(PREFIXE + "client::" + idClient);
+            return null;
+        });
+
+        Set<String> cles = new HashSet<>();
+        for (Object resultat : resultats) {
+            if (resultat instanceof Collection<?> membres) {
+                cles.addAll((Collection<String>) membres);
+            }
+        }
+        return cles;
+    }
+
+    private static double rang(YearMonth mois) {
+        return mois.getYear() * 12 + mois.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,195 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.Paiement;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.util.ArbreFenwick;
+import com.yooyob.erp.util.NumberUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sommes cumulées journalières des factures et des encaissements, en arbres de Fenwick : nombre de factures
+ * et montant total par statut au jour de facturation, montant encaissé au jour du paiement.
+ * Toute somme sur un intervalle de dates coûte O(log n), sans lecture en base.
+ * <p>
+ * La contribution de chaque facture et de chaque paiement est mémorisée par identifiant : réenregistrer
+ * un document remplace sa contribution, ce qui rend les écritures idempotentes.
+ * Les dates antérieures à l'origine sont comptées au jour de l'origine ; les factures sans date de
+ * facturation ou sans statut ne sont pas indexées.
+ * La classe n'est pas thread-safe : l'appelant sérialise écritures et lectures.
+ */
+public class IndexJournalier {
+
+    private static final int NOMBRE_STATUTS = StatutFacture.values().length;
+    private static final int MARGE_JOURS = 366;
+    // Borne les dates aberrantes : au-delà de deux siècles après l'origine, tout est compté au dernier jour
+    private static final int POSITION_MAX = 200 * 366;
+
+    private final long origine;
+    private final ArbreFenwick[] nombres = new ArbreFenwick[NOMBRE_STATUTS];
+    private final ArbreFenwick[] montants = new ArbreFenwick[NOMBRE_STATUTS];
+    private final ArbreFenwick encaissements;
+
+    private final Map<UUID, Contribution> factures = new HashMap<>();
+    private final Map<UUID, Contribution> paiements = new HashMap<>();
+
+    public IndexJournalier(LocalDate origine) {
+        this.origine = origine.toEpochDay();
+        int capacite = position(LocalDate.now()) + MARGE_JOURS;
+        for (int i = 0; i < NOMBRE_STATUTS; i++) {
+            nombres[i] = new ArbreFenwick(capacite);
+            montants[i] = new ArbreFenwick(capacite);
+        }
+        encaissements = new ArbreFenwick(capacite);
+    }
+
+    // Écritures
+
+    /**
+     * Insère ou remplace la contribution de la facture
+     */
+    public void enregistrer(Facture facture) {
+        if (facture.getIdFacture() == null) {
+            return;
+        }
+        retirer(factures.remove(facture.getIdFacture()));
+        if (facture.getEtat() == null || facture.getDateFacturation() == null) {
+            return;
+        }
+        Contribution contribution = new Contribution(position(facture.getDateFacturation()),
+                facture.getEtat().ordinal(), NumberUtil.toCentimes(facture.getMontantTotal()));
+        nombres[contribution.statut].ajouter(contribution.position, 1);
+        montants[contribution.statut].ajouter(contribution.position, contribution.centimes);
+        factures.put(facture.getIdFacture(), contribution);
+    }
+
+    public void supprimer(UUID idFacture) {
+        retirer(factures.remove(idFacture));
+    }
+
+    /**
+     * Insère ou remplace la contribution du paiement
+     */
+    public void enregistrer(Paiement paiement) {
+        if (paiement.getIdPaiement() == null) {
+            return;
+        }
+        Contribution precedente = paiements.remove(paiement.getIdPaiement());
+        if (precedente != null) {
+            encaissements.ajouter(precedente.position, -precedente.centimes);
+        }
+        if (paiement.getDate() == null) {
+            return;
+        }
+        Contribution contribution = new Contribution(position(paiement.getDate()), -1, NumberUtil.toCentimes(paiement.getMontant()));
+        encaissements.ajouter(contribution.position, contribution.centimes);
+        paiements.put(paiement.getIdPaiement(), contribution);
+    }
+
+    public void supprimerPaiement(UUID idPaiement) {
+        Contribution precedente = paiements.remove(idPaiement);
+        if (precedente != null) {
+            encaissements.ajouter(precedente.position, -precedente.centimes);
+        }
+    }
+
+    /**
+     * Ajoute les contributions d'un index construit séparément, sur la même origine (parcours par plages) ;
+     * une facture ou un paiement présent des deux côtés garde la contribution de l'autre index
+     */
+    public void fusionner(IndexJournalier autre) {
+        if (autre.origine != origine) {
+            throw new IllegalArgumentException("Les index à fusionner n'ont pas la même origine");
+        }
+        for (int i = 0; i < NOMBRE_STATUTS; i++) {
+            nombres[i].fusionner(autre.nombres[i]);
+            montants[i].fusionner(autre.montants[i]);
+        }
+        encaissements.fusionner(autre.encaissements);
+        autre.factures.forEach((idFacture, contribution) -> retirer(factures.put(idFacture, contribution)));
+        autre.paiements.forEach((idPaiement, contribution) -> {
+            Contribution precedente = paiements.put(idPaiement, contribution);
+            if (precedente != null) {
+                encaissements.ajouter(precedente.position, -precedente.centimes);
+            }
+        });
+    }
+
+    // Lectures
+
+    /**
+     * Totaux par statut des factures émises entre les deux dates incluses (bornes nulles : sans limite),
+     * et montant encaissé sur la même période ; montants en centimes
+     */
+    public Sommes sommer(LocalDate debut, LocalDate fin) {
+        int positionDebut = debut != null ? position(debut) : 1;
+        int positionFin = fin != null ? position(fin) : Integer.MAX_VALUE;
+        long[] nombresParStatut = new long[NOMBRE_STATUTS];
+        long[] montantsParStatut = new long[NOMBRE_STATUTS];
+        for (int i = 0; i < NOMBRE_STATUTS; i++) {
+            nombresParStatut[i] = nombres[i].somme(positionDebut, positionFin);
+            montantsParStatut[i] = montants[i].somme(positionDebut, positionFin);
+        }
+        return new Sommes(nombresParStatut, montantsParStatut, encaissements.somme(positionDebut, positionFin));
+    }
+
+    public int getNombreFactures() {
+        return factures.size();
+    }
+
+    public int getNombrePaiements() {
+        return paiements.size();
+    }
+
+    // Méthodes privées utilitaires
+
+    private void retirer(Contribution contribution) {
+        if (contribution != null) {
+            nombres[contribution.statut].ajouter(contribution.position, -1);
+            montants[contribution.statut].ajouter(contribution.position, -contribution.centimes);
+        }
+    }
+
+    private int position(LocalDate date) {
+        return (int) Math.min(POSITION_MAX, Math.max(1, date.toEpochDay() - origine + 1));
+    }
+
+    @RequiredArgsConstructor
+    private static final class Contribution {
+        private final int position;
+        private final int statut;
+        private final long centimes;
+    }
+
+    /**
+     * Totaux d'une période, indexés par ordinal de {@link StatutFacture} ; montants en centimes
+     */
+    @Value
+    public static class Sommes {
+        long[] nombres;
+        long[] montants;
+        long encaisse;
+
+        public long nombre() {
+            long somme = 0;
+            for (long nombre : nombres) {
+                somme += nombre;
+            }
+            return somme;
+        }
+
+        public long montant() {
+            long somme = 0;
+            for (long montant : montants) {
+                somme += montant;
+            }
+            return somme;
+        }
+    }
+}
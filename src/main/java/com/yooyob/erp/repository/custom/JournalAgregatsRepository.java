@@ -0,0 +1,76 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.BailShardAgregats;
+import com.yooyob.erp.model.entity.MiseAJourAgregat;
+import com.yooyob.erp.model.entity.NoeudAgregats;
+import com.yooyob.erp.model.entity.ProgressionAgregat;
+import com.yooyob.erp.model.enums.TypeAgregat;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tables du journal des mises à jour d'agrégats : entrées du journal, progression de chaque génération
+ * d'agrégat par shard, présence des nœuds et baux des shards.
+ */
+public interface JournalAgregatsRepository {
+
+    int NOMBRE_SHARDS = 16;
+
+    /**
+     * Shard du journal d'une ligne source : toutes ses modifications y sont lues dans l'ordre
+     */
+    static int shard(UUID idSource) {
+        return Math.floorMod(idSource.hashCode(), NOMBRE_SHARDS);
+    }
+
+    /**
+     * Ordre des identifiants du journal, celui de Cassandra pour les timeuuid : horodatage puis octets signés
+     */
+    static int comparer(UUID a, UUID b) {
+        int ordre = Long.compare(a.timestamp(), b.timestamp());
+        return ordre != 0 ? ordre : Long.compareUnsigned(a.getLeastSignificantBits() ^ 0x8080808080808080L,
+                b.getLeastSignificantBits() ^ 0x8080808080808080L);
+    }
+
+    /**
+     * Ajoute une entrée au journal, expirée après la durée de rétention
+     */
+    void consigner(MiseAJourAgregat miseAJour);
+
+    /**
+     * Entrées d'un shard strictement comprises entre deux identifiants, dans l'ordre du journal
+     */
+    List<MiseAJourAgregat> lire(int shard, UUID apres, UUID avant, int limite);
+
+    ProgressionAgregat progression(TypeAgregat agregat, int generation, int shard);
+
+    void enregistrer(ProgressionAgregat progression);
+
+    void supprimerProgressions(TypeAgregat agregat, int generation);
+
+    /**
+     * Réécrit la présence du nœud, expirée faute d'être renouvelée
+     */
+    void signalerPresence(NoeudAgregats noeud);
+
+    List<NoeudAgregats> noeuds();
+
+    List<BailShardAgregats> baux();
+
+    /**
+     * Prend le bail d'un shard libre
+     *
+     * @return faux si un autre nœud le détient
+     */
+    boolean acquerir(int shard, UUID noeud);
+
+    /**
+     * Prolonge le bail d'un shard que le nœud détient encore
+     *
+     * @return faux si le bail a expiré et a été repris
+     */
+    boolean prolonger(int shard, UUID noeud);
+
+    void liberer(int shard, UUID noeud);
+}
@@ -0,0 +1,120 @@
+package com.yooyob.erp.repository.custom;
+
+import com.datastax.oss.driver.api.core.uuid.Uuids;
+import com.yooyob.erp.model.entity.BailShardAgregats;
+import com.yooyob.erp.model.entity.MiseAJourAgregat;
+import com.yooyob.erp.model.entity.NoeudAgregats;
+import com.yooyob.erp.model.entity.ProgressionAgregat;
+import com.yooyob.erp.model.entity.ProgressionAgregatKey;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.cassandra.core.CassandraTemplate;
+import org.springframework.data.cassandra.core.DeleteOptions;
+import org.springframework.data.cassandra.core.InsertOptions;
+import org.springframework.data.cassandra.core.UpdateOptions;
+import org.springframework.data.cassandra.core.query.Criteria;
+import org.springframework.data.cassandra.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class JournalAgregatsRepositoryImpl implements JournalAgregatsRepository {
+
+    // Durée couverte par une partition du journal
+    private static final long DUREE_TRANCHE_MS = 10 * 60 * 1000L;
+    private static final String COLONNE_ID = "id";
+    private static final String COLONNE_NOEUD = "noeud";
+
+    private final CassandraTemplate cassandraTemplate;
+
+    @Value("${app.agregats.journal.retention-heures:72}")
+    private long retentionHeures;
+
+    @Value("${app.agregats.bail-shard-secondes:30}")
+    private long bailShardSecondes;
+
+    @Override
+    public void consigner(MiseAJourAgregat miseAJour) {
+        miseAJour.getKey().setTranche(tranche(miseAJour.getKey().getId()));
+        cassandraTemplate.insert(miseAJour, InsertOptions.builder().ttl(Duration.ofHours(retentionHeures)).build());
+    }
+
+    @Override
+    public List<MiseAJourAgregat> lire(int shard, UUID apres, UUID avant, int limite) {
+        List<MiseAJourAgregat> entrees = new ArrayList<>();
+        for (long tranche = tranche(apres); tranche <= tranche(avant) && entrees.size() < limite; tranche++) {
+            entrees.addAll(cassandraTemplate.select(Query.query(
+                            Criteria.where("shard").is(shard),
+                            Criteria.where("tranche").is(tranche),
+                            Criteria.where(COLONNE_ID).gt(apres),
+                            Criteria.where(COLONNE_ID).lt(avant))
+                    .limit(limite - entrees.size()), MiseAJourAgregat.class));
+        }
+        return entrees;
+    }
+
+    @Override
+    public ProgressionAgregat progression(TypeAgregat agregat, int generation, int shard) {
+        return cassandraTemplate.selectOneById(new ProgressionAgregatKey(agregat, generation, shard), ProgressionAgregat.class);
+    }
+
+    @Override
+    public void enregistrer(ProgressionAgregat progression) {
+        cassandraTemplate.insert(progression);
+    }
+
+    @Override
+    public void supprimerProgressions(TypeAgregat agregat, int generation) {
+        cassandraTemplate.delete(Query.query(Criteria.where("agregat").is(agregat),
+                Criteria.where("generation").is(generation)), ProgressionAgregat.class);
+    }
+
+    @Override
+    public void signalerPresence(NoeudAgregats noeud) {
+        // Survit à un cycle de traitement borné par le bail des shards
+        cassandraTemplate.insert(noeud, InsertOptions.builder().ttl(Duration.ofSeconds(2 * bailShardSecondes)).build());
+    }
+
+    @Override
+    public List<NoeudAgregats> noeuds() {
+        return cassandraTemplate.select(Query.empty(), NoeudAgregats.class);
+    }
+
+    @Override
+    public List<BailShardAgregats> baux() {
+        return cassandraTemplate.select(Query.empty(), BailShardAgregats.class);
+    }
+
+    @Override
+    public boolean acquerir(int shard, UUID noeud) {
+        return cassandraTemplate.insert(new BailShardAgregats(shard, noeud), InsertOptions.builder()
+                .withIfNotExists()
+                .ttl(Duration.ofSeconds(bailShardSecondes))
+                .build()).wasApplied();
+    }
+
+    @Override
+    public boolean prolonger(int shard, UUID noeud) {
+        return cassandraTemplate.update(new BailShardAgregats(shard, noeud), UpdateOptions.builder()
+                .ifCondition(Criteria.where(COLONNE_NOEUD).is(noeud))
+                .ttl(Duration.ofSeconds(bailShardSecondes))
+                .build()).wasApplied();
+    }
+
+    @Override
+    public void liberer(int shard, UUID noeud) {
+        cassandraTemplate.delete(new BailShardAgregats(shard, noeud), DeleteOptions.builder()
+                .ifCondition(Criteria.where(COLONNE_NOEUD).is(noeud))
+                .build());
+    }
+
+    private static long tranche(UUID id) {
+        return Uuids.unixTimestamp(id) / DUREE_TRANCHE_MS;
+    }
+}
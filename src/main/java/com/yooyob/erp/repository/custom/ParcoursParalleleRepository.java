@@ -0,0 +1,38 @@
+package com.yooyob.erp.repository.custom;
+
+import java.util.Collection;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Parcours complet d'une table découpé en plages de jetons Cassandra lues en parallèle :
+ * chaque plage alimente son propre agrégat partiel, fusionné avec les autres en fin de parcours.
+ */
+public interface ParcoursParalleleRepository {
+
+    <T, A> A parcourir(Class<T> type, Supplier<A> creerPartiel, BiConsumer<A, ? super T> accumuler,
+                       BinaryOperator<A> fusionner);
+
+    <T> long compter(Class<T> type, Predicate<? super T> filtre);
+
+    /**
+     * Insère les entités en parallèle, avec le même plafond de requêtes simultanées que les parcours
+     */
+    <T> void ecrire(Collection<T> entites);
+
+    /**
+     * Applique le traitement à chaque élément en parallèle, avec le même plafond de requêtes simultanées
+     */
+    <T> void traiter(Collection<T> elements, Consumer<? super T> traitement);
+
+    /**
+     * Supprime, plage de jetons par plage de jetons, les partitions dont la colonne de clé de partition
+     * donnée vaut la valeur indiquée
+     *
+     * @return le nombre de partitions supprimées
+     */
+    <T> long purgerPartitions(Class<T> type, String colonne, Object valeur);
+}
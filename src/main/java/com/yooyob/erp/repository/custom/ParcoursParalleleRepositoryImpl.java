@@ -0,0 +1,266 @@
+package com.yooyob.erp.repository.custom;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+import com.yooyob.erp.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.cassandra.core.CassandraTemplate;
+import org.springframework.data.cassandra.core.mapping.CassandraPersistentEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ParcoursParalleleRepositoryImpl implements ParcoursParalleleRepository {
+
+    private static final String PARTITIONNEUR_MURMUR3 = "Murmur3Partitioner";
+
+    private final CassandraTemplate cassandraTemplate;
+    private final CqlSession session;
+
+    @Value("${app.cassandra.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${app.cassandra.parcours.plages-par-noeud:8}")
+    private int plagesParNoeud;
+
+    @Value("${app.cassandra.parcours.parallelisme:0}")
+    private int parallelisme;
+
+    @Override
+    public <T, A> A parcourir(Class<T> type, Supplier<A> creerPartiel, BiConsumer<A, ? super T> accumuler,
+                              BinaryOperator<A> fusionner) {
+        CassandraPersistentEntity<?> entite = cassandraTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(type);
+        String clePartition = String.join(", ", clePartition(entite));
+        String cql = String.format("SELECT * FROM %s WHERE token(%s) > ? AND token(%s) <= ?",
+                entite.getTableName().asCql(true), clePartition, clePartition);
+
+        return parPlages(entite, plage -> parcourirPlage(type, cql, plage, creerPartiel.get(), accumuler),
+                creerPartiel, fusionner);
+    }
+
+    @Override
+    public <T> long compter(Class<T> type, Predicate<? super T> filtre) {
+        return parcourir(type, () -> new long[1],
+                (compteur, ligne) -> {
+                    if (filtre.test(ligne)) {
+                        compteur[0]++;
+                    }
+                },
+                (a, b) -> {
+                    a[0] += b[0];
+                    return a;
+                })[0];
+    }
+
+    @Override
+    public <T> void ecrire(Collection<T> entites) {
+        traiter(entites, cassandraTemplate::insert);
+    }
+
+    @Override
+    public <T> void traiter(Collection<T> elements, Consumer<? super T> traitement) {
+        Semaphore permis = new Semaphore(parallelismeEffectif());
+        List<Future<?>> traitements = new ArrayList<>(elements.size());
+
+        try (ExecutorService executeur = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (T element : elements) {
+                traitements.add(executeur.submit(() -> {
+                    permis.acquire();
+                    try {
+                        traitement.accept(element);
+                        return null;
+                    } finally {
+                        permis.release();
+                    }
+                }));
+            }
+            for (Future<?> resultat : traitements) {
+                resultat.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Traitement parallèle interrompu", "TRAITEMENT_INTERROMPU",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            traitements.forEach(resultat -> resultat.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("Erreur lors du traitement parallèle", "TRAITEMENT_ECHEC",
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public <T> long purgerPartitions(Class<T> type, String colonne, Object valeur) {
+        CassandraPersistentEntity<?> entite = cassandraTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(type);
+        List<String> colonnes = clePartition(entite);
+        String clePartition = String.join(", ", colonnes);
+        String table = entite.getTableName().asCql(true);
+        // Seules les clés de partition sont lues : DISTINCT ne renvoie qu'une ligne par partition
+        String lecture = String.format("SELECT DISTINCT %s FROM %s WHERE token(%s) > ? AND token(%s) <= ?",
+                clePartition, table, clePartition, clePartition);
+        String suppression = String.format("DELETE FROM %s WHERE %s", table,
+                colonnes.stream().map(nom -> nom + " = ?").collect(Collectors.joining(" AND ")));
+        int indexColonne = colonnes.indexOf(CqlIdentifier.fromInternal(colonne).asCql(true));
+        if (indexColonne < 0) {
+            throw new IllegalArgumentException(colonne + " n'appartient pas à la clé de partition de " + table);
+        }
+
+        return parPlages(entite, plage -> {
+            long supprimees = 0;
+            SimpleStatement requete = SimpleStatement.newInstance(lecture, plage[0], plage[1]).setPageSize(fetchSize);
+            for (Row ligne : session.execute(requete)) {
+                if (valeur.equals(ligne.getObject(indexColonne))) {
+                    Object[] cle = new Object[colonnes.size()];
+                    for (int i = 0; i < cle.length; i++) {
+                        cle[i] = ligne.getObject(i);
+                    }
+                    session.execute(SimpleStatement.newInstance(suppression, cle));
+                    supprimees++;
+                }
+            }
+            return supprimees;
+        }, () -> 0L, Long::sum);
+    }
+
+    // Méthodes privées utilitaires
+
+    /**
+     * Exécute le travail sur chaque plage de jetons, au plus parallelisme plages à la fois, et fusionne les résultats
+     */
+    private <A> A parPlages(CassandraPersistentEntity<?> entite, Function<long[], A> travail, Supplier<A> creerPartiel,
+                            BinaryOperator<A> fusionner) {
+        long debut = System.nanoTime();
+        List<long[]> plages = decouperAnneau();
+        Semaphore permis = new Semaphore(parallelismeEffectif());
+        List<Future<A>> partiels = new ArrayList<>(plages.size());
+
+        try (ExecutorService executeur = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long[] plage : plages) {
+                partiels.add(executeur.submit(() -> {
+                    permis.acquire();
+                    try {
+                        return travail.apply(plage);
+                    } finally {
+                        permis.release();
+                    }
+                }));
+            }
+
+            A resultat = creerPartiel.get();
+            for (Future<A> partiel : partiels) {
+                resultat = fusionner.apply(resultat, partiel.get());
+            }
+
+            log.debug("Parcours parallèle de {} en {} plages terminé en {} ms", entite.getTableName(),
+                    plages.size(), (System.nanoTime() - debut) / 1_000_000);
+            return resultat;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Parcours de " + entite.getTableName() + " interrompu",
+                    "PARCOURS_INTERROMPU", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            partiels.forEach(partiel -> partiel.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("Erreur lors du parcours de " + entite.getTableName(),
+                    "PARCOURS_ECHEC", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private <T, A> A parcourirPlage(Class<T> type, String cql, long[] plage, A partiel,
+                                    BiConsumer<A, ? super T> accumuler) {
+        SimpleStatement requete = SimpleStatement.newInstance(cql, plage[0], plage[1]).setPageSize(fetchSize);
+        for (Row ligne : session.execute(requete)) {
+            accumuler.accept(partiel, cassandraTemplate.getConverter().read(type, ligne));
+        }
+        return partiel;
+    }
+
+    /**
+     * Colonnes de la clé de partition dans leur ordre de déclaration : la fonction token() les attend toutes,
+     * y compris pour les entités à clé composite où la propriété identifiante n'est pas une colonne
+     */
+    private List<String> clePartition(CassandraPersistentEntity<?> entite) {
+        CqlIdentifier keyspace = session.getKeyspace()
+                .orElseThrow(() -> new IllegalStateException("Aucun keyspace défini sur la session Cassandra"));
+        TableMetadata table = session.getMetadata().getKeyspace(keyspace)
+                .flatMap(metadonnees -> metadonnees.getTable(entite.getTableName()))
+                .orElseThrow(() -> new IllegalStateException("Table inconnue: " + entite.getTableName()));
+        return table.getPartitionKey().stream()
+                .map(colonne -> colonne.getName().asCql(true))
+                .toList();
+    }
+
+    /**
+     * Plages (début exclu, fin incluse) couvrant tout l'anneau Murmur3 : les plages possédées par
+     * chaque nœud sont subdivisées quand la topologie est connue, sinon l'anneau est coupé uniformément.
+     */
+    private List<long[]> decouperAnneau() {
+        Optional<TokenMap> carte = session.getMetadata().getTokenMap();
+        if (carte.isPresent() && carte.get().getPartitionerName().endsWith(PARTITIONNEUR_MURMUR3)) {
+            TokenMap anneau = carte.get();
+            List<long[]> plages = new ArrayList<>();
+            for (TokenRange plageNoeud : anneau.getTokenRanges()) {
+                for (TokenRange sousPlage : plageNoeud.splitEvenly(Math.max(1, plagesParNoeud))) {
+                    for (TokenRange morceau : sousPlage.unwrap()) {
+                        long fin = valeur(anneau, morceau.getEnd());
+                        // Le jeton minimal en fin de plage désigne la fin de l'anneau
+                        plages.add(new long[]{valeur(anneau, morceau.getStart()), fin == Long.MIN_VALUE ? Long.MAX_VALUE : fin});
+                    }
+                }
+            }
+            return plages;
+        }
+
+        int nombre = Math.max(1, plagesParNoeud * parallelismeEffectif());
+        List<long[]> plages = new ArrayList<>(nombre);
+        long pas = Long.divideUnsigned(-1L, nombre);
+        long debut = Long.MIN_VALUE;
+        for (int i = 0; i < nombre; i++) {
+            long fin = i == nombre - 1 ? Long.MAX_VALUE : debut + pas;
+            plages.add(new long[]{debut, fin});
+            debut = fin;
+        }
+        return plages;
+    }
+
+    private int parallelismeEffectif() {
+        return parallelisme > 0 ? parallelisme : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static long valeur(TokenMap anneau, Token token) {
+        return Long.parseLong(anneau.format(token));
+    }
+}
@@ -0,0 +1,207 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.RollupFacture;
+import com.yooyob.erp.model.enums.DimensionRollup;
+import com.yooyob.erp.model.enums.FonctionAgregation;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import com.yooyob.erp.util.NumberUtil;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * Plan d'exécution compilé d'un widget : chemin d'accès retenu (rollup, index ou parcours),
+ * filtres résolus en extracteurs de champs, clé de groupement et mesures à cumuler
+ */
+@Getter
+@Builder
+public class PlanWidget<T> {
+
+    public enum Strategie {
+        ROLLUP, INDEX, PARCOURS
+    }
+
+    private final SourceWidget<T> source;
+    private final Strategie strategie;
+    // Filtre servant de clé d'accès à l'index (strategie INDEX)
+    private final String champAcces;
+    private final LocalDate dateDebut;
+    private final LocalDate dateFin;
+    private final Map<String, Set<String>> filtres;
+    private final List<String> groupement;
+    private final List<Mesure> mesures;
+    private final Map<String, String> tri;
+    private final Integer limite;
+    private final String signature;
+
+    // Lecture des rollups (strategie ROLLUP)
+    private final GranulariteRollup granularite;
+    private final DimensionRollup dimension;
+    private final List<String> periodes;
+
+    public AgregateurWidget creerAgregateur() {
+        return new AgregateurWidget(mesures.size());
+    }
+
+    public boolean retenir(T ligne) {
+        if (dateDebut != null || dateFin != null) {
+            LocalDate date = source.date(ligne);
+            if (date == null || (dateDebut != null && date.isBefore(dateDebut)) || (dateFin != null && date.isAfter(dateFin))) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, Set<String>> filtre : filtres.entrySet()) {
+            if (!filtre.getValue().contains(String.valueOf(source.champ(filtre.getKey()).apply(ligne)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void accumuler(AgregateurWidget agregateur, T ligne) {
+        agregateur.compterLigneLue();
+        if (!retenir(ligne)) {
+            return;
+        }
+
+        List<Object> cle = new ArrayList<>(groupement.size());
+        for (String champ : groupement) {
+            cle.add(source.champ(champ).apply(ligne));
+        }
+        int groupe = agregateur.groupe(cle);
+        agregateur.compter(groupe, 1);
+        for (int m = 0; m < mesures.size(); m++) {
+            ToLongFunction<T> extracteur = mesures.get(m).champ != null ? source.mesure(mesures.get(m).champ) : null;
+            if (extracteur != null) {
+                agregateur.ajouter(groupe, m, extracteur.applyAsLong(ligne));
+            }
+        }
+    }
+
+    /**
+     * Cumule une ligne de rollup : ses compteurs remplacent les factures qu'elle résume
+     */
+    public void accumulerRollup(AgregateurWidget agregateur, RollupFacture rollup) {
+        agregateur.compterLigneLue();
+        Map<String, Object> valeurs = new HashMap<>();
+        String periode = rollup.getKey().getPeriode();
+        if (granularite == GranulariteRollup.JOUR) {
+            valeurs.put(SourceWidget.CHAMP_JOUR, periode);
+        }
+        if (granularite != GranulariteRollup.TOUT) {
+            valeurs.put(SourceWidget.CHAMP_MOIS, periode.substring(0, 7));
+            valeurs.put(SourceWidget.CHAMP_ANNEE, Integer.parseInt(periode.substring(0, 4)));
+        }
+        valeurs.put("etat", rollup.getKey().getStatut());
+        if (dimension == DimensionRollup.CLIENT) {
+            valeurs.put("idClient", UUID.fromString(rollup.getKey().getValeurDimension()));
+        } else if (dimension == DimensionRollup.DEVISE) {
+            valeurs.put("devise", rollup.getKey().getValeurDimension());
+        }
+
+        for (Map.Entry<String, Set<String>> filtre : filtres.entrySet()) {
+            if (!filtre.getValue().contains(String.valueOf(valeurs.get(filtre.getKey())))) {
+                return;
+            }
+        }
+
+        List<Object> cle = new ArrayList<>(groupement.size());
+        for (String champ : groupement) {
+            cle.add(valeurs.get(champ));
+        }
+        int groupe = agregateur.groupe(cle);
+        agregateur.compter(groupe, rollup.getNombreFactures());
+        for (int m = 0; m < mesures.size(); m++) {
+            String champ = mesures.get(m).champ;
+            if ("montantTotal".equals(champ)) {
+                agregateur.ajouter(groupe, m, NumberUtil.toCentimes(rollup.getMontantTotal()));
+            } else if ("montantRestant".equals(champ)) {
+                agregateur.ajouter(groupe, m, NumberUtil.toCentimes(rollup.getMontantRestant()));
+            }
+        }
+    }
+
+    public List<String> colonnes() {
+        List<String> colonnes = new ArrayList<>(groupement);
+        mesures.forEach(mesure -> colonnes.add(mesure.colonne));
+        return colonnes;
+    }
+
+    /**
+     * Lignes de résultat triées et limitées, une par groupe
+     */
+    public List<Map<String, Object>> versLignes(AgregateurWidget agregateur) {
+        List<Map<String, Object>> lignes = new ArrayList<>(agregateur.getNombreGroupes());
+        for (int g = 0; g < agregateur.getNombreGroupes(); g++) {
+            Map<String, Object> ligne = new LinkedHashMap<>();
+            for (int c = 0; c < groupement.size(); c++) {
+                ligne.put(groupement.get(c), agregateur.getCle(g).get(c));
+            }
+            for (int m = 0; m < mesures.size(); m++) {
+                ligne.put(mesures.get(m).colonne, valeur(agregateur, g, m));
+            }
+            lignes.add(ligne);
+        }
+
+        Map<String, String> ordre = tri != null && !tri.isEmpty() ? tri : ordreParDefaut();
+        Comparator<Map<String, Object>> comparateur = null;
+        for (Map.Entry<String, String> critere : ordre.entrySet()) {
+            Comparator<Map<String, Object>> suivant = Comparator.comparing(
+                    (Map<String, Object> ligne) -> ligne.get(critere.getKey()), PlanWidget::comparer);
+            if ("DESC".equalsIgnoreCase(critere.getValue())) {
+                suivant = suivant.reversed();
+            }
+            comparateur = comparateur == null ? suivant : comparateur.thenComparing(suivant);
+        }
+        if (comparateur != null) {
+            lignes.sort(comparateur);
+        }
+
+        return limite != null && limite > 0 && lignes.size() > limite ? new ArrayList<>(lignes.subList(0, limite)) : lignes;
+    }
+
+    private Object valeur(AgregateurWidget agregateur, int groupe, int mesure) {
+        long nombre = agregateur.getNombre(groupe);
+        return switch (mesures.get(mesure).fonction) {
+            case COUNT -> nombre;
+            case SUM -> NumberUtil.fromCentimes(agregateur.getSomme(groupe, mesure));
+            case AVG -> nombre == 0 ? BigDecimal.ZERO : NumberUtil.fromCentimes(agregateur.getSomme(groupe, mesure))
+                    .divide(BigDecimal.valueOf(nombre), NumberUtil.DEFAULT_SCALE, RoundingMode.HALF_UP);
+            case MIN -> nombre == 0 ? null : NumberUtil.fromCentimes(agregateur.getMinimum(groupe, mesure));
+            case MAX -> nombre == 0 ? null : NumberUtil.fromCentimes(agregateur.getMaximum(groupe, mesure));
+        };
+    }
+
+    private Map<String, String> ordreParDefaut() {
+        Map<String, String> ordre = new LinkedHashMap<>();
+        groupement.forEach(champ -> ordre.put(champ, "ASC"));
+        return ordre;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int comparer(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        if (a instanceof Comparable && a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    /**
+     * Mesure d'un widget : fonction appliquée à un champ numérique (champ null pour COUNT)
+     */
+    @Value
+    public static class Mesure {
+        String colonne;
+        String champ;
+        FonctionAgregation fonction;
+    }
+}
@@ -0,0 +1,98 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.repository.custom.AgregatsRepository.Changement;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Rapprochement du parcours d'une source, fait pendant une reconstruction, avec les entrées du journal publiées
+ * depuis le début du parcours : seules les modifications que le parcours n'a pas lues sont retenues.
+ *
+ * <p>Le parcours garde l'empreinte de chaque ligne lue et la version exacte des lignes écrites depuis le seuil.
+ * Pour une ligne lue, une modification est retenue si son état après est plus récent que la version lue (ou
+ * que le seuil pour les lignes plus anciennes), et toujours s'il s'agit d'une suppression. Une ligne que le
+ * parcours n'a pas vue, créée après son passage ou supprimée avant, est reprise dans son dernier état connu.
+ */
+final class Rapprochement<S> {
+
+    private final SourceAgregat<S> source;
+    private final long[] empreintes;
+    private final Map<UUID, LocalDateTime> recentes;
+    private final LocalDateTime seuil;
+
+    /**
+     * @param empreintes empreintes triées des lignes lues
+     * @param recentes   version lue des lignes écrites depuis le seuil
+     */
+    Rapprochement(SourceAgregat<S> source, long[] empreintes, Map<UUID, LocalDateTime> recentes, LocalDateTime seuil) {
+        this.source = source;
+        this.empreintes = empreintes;
+        this.recentes = recentes;
+        this.seuil = seuil;
+    }
+
+    SourceAgregat<S> getSource() {
+        return source;
+    }
+
+    /**
+     * Modifications à appliquer, par ligne source et dans l'ordre du journal
+     *
+     * @param journal entrées de la source dans l'ordre du journal
+     */
+    Map<UUID, List<Changement<S>>> retenir(List<Changement<S>> journal) {
+        Map<UUID, List<Changement<S>>> parLigne = new LinkedHashMap<>();
+        for (Changement<S> changement : journal) {
+            S ligne = changement.getApres() != null ? changement.getApres() : changement.getAvant();
+            parLigne.computeIfAbsent(source.id(ligne), id -> new ArrayList<>()).add(changement);
+        }
+
+        Map<UUID, List<Changement<S>>> retenus = new LinkedHashMap<>();
+        parLigne.forEach((id, changements) -> {
+            List<Changement<S>> aAppliquer = isLue(id) ? posterieurs(id, changements) : dernierEtat(changements);
+            if (!aAppliquer.isEmpty()) {
+                retenus.put(id, aAppliquer);
+            }
+        });
+        return retenus;
+    }
+
+    static long empreinte(UUID id) {
+        return id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+    }
+
+    private boolean isLue(UUID id) {
+        return recentes.containsKey(id) || Arrays.binarySearch(empreintes, empreinte(id)) >= 0;
+    }
+
+    private List<Changement<S>> posterieurs(UUID id, List<Changement<S>> changements) {
+        LocalDateTime versionLue = recentes.get(id);
+        List<Changement<S>> posterieurs = new ArrayList<>();
+        for (Changement<S> changement : changements) {
+            if (changement.getApres() == null) {
+                posterieurs.add(changement);
+                continue;
+            }
+            LocalDateTime version = source.version(changement.getApres());
+            boolean nonLue = version != null && (versionLue != null ? version.isAfter(versionLue) : !version.isBefore(seuil));
+            // Une fois une modification retenue, les suivantes partent de son état et le sont aussi
+            if (nonLue || !posterieurs.isEmpty()) {
+                posterieurs.add(changement);
+            }
+        }
+        return posterieurs;
+    }
+
+    private List<Changement<S>> dernierEtat(List<Changement<S>> changements) {
+        Changement<S> dernier = changements.get(changements.size() - 1);
+        return dernier.getApres() != null
+                ? List.of(new Changement<>(dernier.getId(), null, dernier.getApres()))
+                : List.of();
+    }
+}
@@ -0,0 +1,213 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.enums.ClasseAbc;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.util.NumberUtil;
+import lombok.Value;
+
+import java.util.*;
+
+/**
+ * Cumul en un seul passage des métriques RFM par client (dernier achat, nombre de factures,
+ * montant facturé et encaissé) dans des tableaux primitifs indexés par client, puis calcul
+ * des bornes de quintiles et des seuils ABC par tri parallèle de ces tableaux.
+ */
+public class SegmentationAgregateur {
+
+    private static final int CAPACITE_INITIALE = 256;
+    private static final int NOMBRE_QUINTILES = 5;
+    private static final Set<StatutFacture> STATUTS_EMIS = EnumSet.of(StatutFacture.ENVOYE, StatutFacture.PAYE,
+            StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD);
+
+    private final Map<UUID, Integer> indexClients = new HashMap<>();
+    private UUID[] idsClients = new UUID[CAPACITE_INITIALE];
+    private String[] nomsClients = new String[CAPACITE_INITIALE];
+    private long[] nombresFactures = new long[CAPACITE_INITIALE];
+    private long[] montantsCentimes = new long[CAPACITE_INITIALE];
+    private long[] encaissesCentimes = new long[CAPACITE_INITIALE];
+    private long[] premiersAchats = new long[CAPACITE_INITIALE];
+    private long[] derniersAchats = new long[CAPACITE_INITIALE];
+    private int taille;
+
+    /**
+     * Indique si une facture entre dans la segmentation (facture émise, client et date connus)
+     */
+    public static boolean estComptee(Facture facture) {
+        return facture != null && facture.getIdClient() != null && facture.getDateFacturation() != null
+                && STATUTS_EMIS.contains(facture.getEtat());
+    }
+
+    /**
+     * Ajoute une facture aux cumuls de son client
+     */
+    public void accumuler(Facture facture) {
+        if (!estComptee(facture)) {
+            return;
+        }
+        int index = indexClients.computeIfAbsent(facture.getIdClient(), this::nouveauClient);
+        if (nomsClients[index] == null) {
+            nomsClients[index] = facture.getNomClient();
+        }
+        long montant = NumberUtil.toCentimes(facture.getMontantTotal());
+        long jour = facture.getDateFacturation().toEpochDay();
+        nombresFactures[index]++;
+        montantsCentimes[index] = Math.addExact(montantsCentimes[index], montant);
+        encaissesCentimes[index] = Math.addExact(encaissesCentimes[index],
+                montant - NumberUtil.toCentimes(facture.getMontantRestant()));
+        premiersAchats[index] = Math.min(premiersAchats[index], jour);
+        derniersAchats[index] = Math.max(derniersAchats[index], jour);
+    }
+
+    /**
+     * Intègre les cumuls d'un agrégateur partiel (parcours d'une autre plage de la table)
+     */
+    public SegmentationAgregateur fusionner(SegmentationAgregateur autre) {
+        for (int i = 0; i < autre.taille; i++) {
+            int index = indexClients.computeIfAbsent(autre.idsClients[i], this::nouveauClient);
+            if (nomsClients[index] == null) {
+                nomsClients[index] = autre.nomsClients[i];
+            }
+            nombresFactures[index] += autre.nombresFactures[i];
+            montantsCentimes[index] = Math.addExact(montantsCentimes[index], autre.montantsCentimes[i]);
+            encaissesCentimes[index] = Math.addExact(encaissesCentimes[index], autre.encaissesCentimes[i]);
+            premiersAchats[index] = Math.min(premiersAchats[index], autre.premiersAchats[i]);
+            derniersAchats[index] = Math.max(derniersAchats[index], autre.derniersAchats[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Bornes de quintiles de chaque métrique et seuils de montant des classes A et B
+     */
+    public Seuils calculerSeuils() {
+        long[] recences = Arrays.copyOf(derniersAchats, taille);
+        long[] frequences = Arrays.copyOf(nombresFactures, taille);
+        long[] montants = Arrays.copyOf(montantsCentimes, taille);
+        Arrays.parallelSort(recences);
+        Arrays.parallelSort(frequences);
+        Arrays.parallelSort(montants);
+
+        // Parcours par montants décroissants jusqu'à 80 % puis 95 % du total
+        long total = 0;
+        for (long montant : montants) {
+            total += Math.max(0, montant);
+        }
+        long seuilA = Long.MAX_VALUE;
+        long seuilB = Long.MAX_VALUE;
+        long cumul = 0;
+        for (int i = montants.length - 1; i >= 0 && montants[i] > 0; i--) {
+            if (cumul >= total * ClasseAbc.PART_CUMULEE_B) {
+                break;
+            }
+            if (cumul < total * ClasseAbc.PART_CUMULEE_A) {
+                seuilA = montants[i];
+            }
+            seuilB = montants[i];
+            cumul += montants[i];
+        }
+
+        return new Seuils(bornes(recences), bornes(frequences), bornes(montants), seuilA, seuilB);
+    }
+
+    public int getNombreClients() {
+        return taille;
+    }
+
+    public UUID getIdClient(int index) {
+        return idsClients[index];
+    }
+
+    public String getNomClient(int index) {
+        return nomsClients[index];
+    }
+
+    public long getNombreFactures(int index) {
+        return nombresFactures[index];
+    }
+
+    public long getMontantCentimes(int index) {
+        return montantsCentimes[index];
+    }
+
+    public long getEncaisseCentimes(int index) {
+        return encaissesCentimes[index];
+    }
+
+    public long getPremierAchat(int index) {
+        return premiersAchats[index];
+    }
+
+    public long getDernierAchat(int index) {
+        return derniersAchats[index];
+    }
+
+    private int nouveauClient(UUID idClient) {
+        if (taille == idsClients.length) {
+            int capacite = taille * 2;
+            idsClients = Arrays.copyOf(idsClients, capacite);
+            nomsClients = Arrays.copyOf(nomsClients, capacite);
+            nombresFactures = Arrays.copyOf(nombresFactures, capacite);
+            montantsCentimes = Arrays.copyOf(montantsCentimes, capacite);
+            encaissesCentimes = Arrays.copyOf(encaissesCentimes, capacite);
+            premiersAchats = Arrays.copyOf(premiersAchats, capacite);
+            derniersAchats = Arrays.copyOf(derniersAchats, capacite);
+        }
+        idsClients[taille] = idClient;
+        premiersAchats[taille] = Long.MAX_VALUE;
+        derniersAchats[taille] = Long.MIN_VALUE;
+        return taille++;
+    }
+
+    /**
+     * Valeurs ouvrant les quintiles 2 à 5 d'un tableau trié
+     */
+    private static long[] bornes(long[] tries) {
+        long[] bornes = new long[NOMBRE_QUINTILES - 1];
+        for (int k = 1; k < NOMBRE_QUINTILES; k++) {
+            bornes[k - 1] = tries.length == 0 ? Long.MAX_VALUE : tries[(int) ((long) k * tries.length / NOMBRE_QUINTILES)];
+        }
+        return bornes;
+    }
+
+    /**
+     * Seuils issus d'un calcul complet, utilisés pour noter n'importe quel client
+     */
+    @Value
+    public static class Seuils {
+        long[] bornesRecence;
+        long[] bornesFrequence;
+        long[] bornesMontant;
+        long seuilClasseA;
+        long seuilClasseB;
+
+        public int scoreRecence(long dernierAchat) {
+            return score(bornesRecence, dernierAchat);
+        }
+
+        public int scoreFrequence(long nombreFactures) {
+            return score(bornesFrequence, nombreFactures);
+        }
+
+        public int scoreMontant(long montantCentimes) {
+            return score(bornesMontant, montantCentimes);
+        }
+
+        public ClasseAbc classe(long montantCentimes) {
+            if (montantCentimes > 0 && montantCentimes >= seuilClasseA) {
+                return ClasseAbc.A;
+            }
+            return montantCentimes > 0 && montantCentimes >= seuilClasseB ? ClasseAbc.B : ClasseAbc.C;
+        }
+
+        private static int score(long[] bornes, long valeur) {
+            int score = 1;
+            for (long borne : bornes) {
+                if (valeur >= borne) {
+                    score++;
+                }
+            }
+            return score;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.Paiement;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Table dont les écritures alimentent un agrégat : identifiant de chaque ligne et version de son état,
+ * pour rapprocher le parcours d'une reconstruction des modifications publiées pendant celle-ci
+ */
+public final class SourceAgregat<S> {
+
+    public static final SourceAgregat<Facture> FACTURES = new SourceAgregat<>("FACTURES", Facture.class,
+            Facture::getIdFacture, Facture::getUpdatedAt);
+
+    public static final SourceAgregat<Paiement> PAIEMENTS = new SourceAgregat<>("PAIEMENTS", Paiement.class,
+            Paiement::getIdPaiement, Paiement::getUpdatedAt);
+
+    private final String nom;
+    private final Class<S> type;
+    private final Function<S, UUID> id;
+    private final Function<S, LocalDateTime> version;
+
+    private SourceAgregat(String nom, Class<S> type, Function<S, UUID> id, Function<S, LocalDateTime> version) {
+        this.nom = nom;
+        this.type = type;
+        this.id = id;
+        this.version = version;
+    }
+
+    /**
+     * Source d'une entrée du journal des mises à jour
+     */
+    public static SourceAgregat<?> parNom(String nom) {
+        if (FACTURES.nom.equals(nom)) {
+            return FACTURES;
+        }
+        if (PAIEMENTS.nom.equals(nom)) {
+            return PAIEMENTS;
+        }
+        throw new IllegalArgumentException("Source d'agrégat inconnue: " + nom);
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public Class<S> getType() {
+        return type;
+    }
+
+    public UUID id(S ligne) {
+        return id.apply(ligne);
+    }
+
+    public LocalDateTime version(S ligne) {
+        return version.apply(ligne);
+    }
+}
@@ -0,0 +1,118 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.Client;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.FactureAvoir;
+import com.yooyob.erp.model.entity.Paiement;
+import com.yooyob.erp.util.NumberUtil;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Description d'une source de données interrogeable par un widget : entité lue, date de référence,
+ * champs de groupement et de filtre, et mesures numériques exprimées en centimes
+ */
+public final class SourceWidget<T> {
+
+    public static final String CHAMP_MOIS = "mois";
+    public static final String CHAMP_JOUR = "jour";
+    public static final String CHAMP_ANNEE = "annee";
+
+    public static final SourceWidget<Facture> FACTURES = new SourceWidget<>("FACTURES", Facture.class,
+            Facture::getDateFacturation, Map.of(
+                    "etat", Facture::getEtat,
+                    "devise", Facture::getDevise,
+                    "idClient", Facture::getIdClient,
+                    "nomClient", Facture::getNomClient,
+                    "type", Facture::getType),
+            Map.of(
+                    "montantTotal", f -> NumberUtil.toCentimes(f.getMontantTotal()),
+                    "montantRestant", f -> NumberUtil.toCentimes(f.getMontantRestant()),
+                    "montantHT", f -> NumberUtil.toCentimes(f.getMontantHT()),
+                    "montantTVA", f -> NumberUtil.toCentimes(f.getMontantTVA())));
+
+    public static final SourceWidget<Paiement> PAIEMENTS = new SourceWidget<>("PAIEMENTS", Paiement.class,
+            Paiement::getDate, Map.of(
+                    "modePaiement", Paiement::getModePaiement,
+                    "journal", Paiement::getJournal,
+                    "idClient", Paiement::getIdClient,
+                    "idFacture", Paiement::getIdFacture),
+            Map.of("montant", p -> NumberUtil.toCentimes(p.getMontant())));
+
+    public static final SourceWidget<FactureAvoir> AVOIRS = new SourceWidget<>("AVOIRS", FactureAvoir.class,
+            FactureAvoir::getDateCreation, Map.of(
+                    "statut", FactureAvoir::getStatut,
+                    "typeAvoir", FactureAvoir::getTypeAvoir,
+                    "devise", FactureAvoir::getDevise,
+                    "idClient", FactureAvoir::getIdClient),
+            Map.of(
+                    "montantTotal", a -> NumberUtil.toCentimes(a.getMontantTotal()),
+                    "montantApplique", a -> NumberUtil.toCentimes(a.getMontantApplique()),
+                    "montantRembourse", a -> NumberUtil.toCentimes(a.getMontantRembourse())));
+
+    public static final SourceWidget<Client> CLIENTS = new SourceWidget<>("CLIENTS", Client.class,
+            c -> c.getCreatedAt() != null ? c.getCreatedAt().toLocalDate() : null, Map.of(
+                    "typeClient", Client::getTypeClient,
+                    "categorie", Client::getCategorie,
+                    "actif", Client::getActif),
+            Map.of(
+                    "limiteCredit", c -> versCentimes(c.getLimiteCredit()),
+                    "soldeCourant", c -> versCentimes(c.getSoldeCourant())));
+
+    private static final Map<String, SourceWidget<?>> SOURCES = Map.of(
+            FACTURES.nom, FACTURES, PAIEMENTS.nom, PAIEMENTS, AVOIRS.nom, AVOIRS, CLIENTS.nom, CLIENTS);
+
+    private final String nom;
+    private final Class<T> type;
+    private final Function<T, LocalDate> date;
+    private final Map<String, Function<T, Object>> champs;
+    private final Map<String, ToLongFunction<T>> mesures;
+
+    private SourceWidget(String nom, Class<T> type, Function<T, LocalDate> date,
+                         Map<String, Function<T, Object>> champs, Map<String, ToLongFunction<T>> mesures) {
+        this.nom = nom;
+        this.type = type;
+        this.date = date;
+        // Champs calendaires dérivés de la date de référence, au même format que les périodes des rollups
+        Map<String, Function<T, Object>> tousChamps = new LinkedHashMap<>(champs);
+        tousChamps.put(CHAMP_JOUR, ligne -> date.apply(ligne) != null ? date.apply(ligne).toString() : null);
+        tousChamps.put(CHAMP_MOIS, ligne -> date.apply(ligne) != null ? YearMonth.from(date.apply(ligne)).toString() : null);
+        tousChamps.put(CHAMP_ANNEE, ligne -> date.apply(ligne) != null ? date.apply(ligne).getYear() : null);
+        this.champs = Map.copyOf(tousChamps);
+        this.mesures = mesures;
+    }
+
+    public static SourceWidget<?> pour(String nom) {
+        return nom != null ? SOURCES.get(nom.toUpperCase()) : null;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public LocalDate date(T ligne) {
+        return date.apply(ligne);
+    }
+
+    public Function<T, Object> champ(String nomChamp) {
+        return champs.get(nomChamp);
+    }
+
+    public ToLongFunction<T> mesure(String nomMesure) {
+        return mesures.get(nomMesure);
+    }
+
+    private static long versCentimes(Double valeur) {
+        return valeur != null ? NumberUtil.toCentimes(BigDecimal.valueOf(valeur)) : 0L;
+    }
+}
@@ -0,0 +1,171 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.util.CumulMontant;
+import com.yooyob.erp.util.CumulMontantsParCle;
+import com.yooyob.erp.util.NumberUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulateur de toutes les statistiques globales, alimenté facture par facture
+ * au cours d'un unique parcours de la table.
+ */
+@Getter
+public class StatistiquesGlobalesAgregateur {
+
+    private final LocalDate dateReference;
+    private final int annee;
+    private final int mois;
+
+    private long lignesAnalysees;
+    private long nombreFactures;
+
+    // Les montants sont cumulés en centimes et convertis en BigDecimal à la lecture
+    @Getter(AccessLevel.NONE)
+    private final CumulMontant chiffreAffairesTotal = new CumulMontant();
+    @Getter(AccessLevel.NONE)
+    private final CumulMontant chiffreAffairesMois = new CumulMontant();
+    @Getter(AccessLevel.NONE)
+    private final CumulMontant chiffreAffairesAnnee = new CumulMontant();
+    @Getter(AccessLevel.NONE)
+    private final CumulMontant montantImpaye = new CumulMontant();
+    @Getter(AccessLevel.NONE)
+    private final CumulMontant montantEnRetard = new CumulMontant();
+
+    // Index 0 = janvier de l'année de référence
+    @Getter(AccessLevel.NONE)
+    private final long[] chiffreAffairesEncaisseParMois = new long[12];
+    private final long[] nombreFacturesParMois = new long[12];
+
+    private final TopClientsAgregateur topClients = new TopClientsAgregateur();
+    @Getter(AccessLevel.NONE)
+    private final CumulMontantsParCle<String> chiffreAffairesParDevise = new CumulMontantsParCle<>();
+
+    private long dureeCalculMs;
+
+    public StatistiquesGlobalesAgregateur(LocalDate dateReference) {
+        this.dateReference = dateReference;
+        this.annee = dateReference.getYear();
+        this.mois = dateReference.getMonthValue();
+    }
+
+    /**
+     * Intègre une facture dans toutes les statistiques
+     */
+    public void accumuler(Facture facture) {
+        lignesAnalysees++;
+
+        long montantTotal = NumberUtil.toCentimes(facture.getMontantTotal());
+        long montantRestant = NumberUtil.toCentimes(facture.getMontantRestant());
+        StatutFacture etat = facture.getEtat();
+        LocalDate dateFacturation = facture.getDateFacturation();
+
+        nombreFactures++;
+        chiffreAffairesTotal.ajouterCentimes(montantTotal);
+
+        String devise = facture.getDevise() != null ? facture.getDevise() : "N/A";
+        chiffreAffairesParDevise.ajouterCentimes(devise, montantTotal, 1);
+
+        if (dateFacturation != null && dateFacturation.getYear() == annee) {
+            int indexMois = dateFacturation.getMonthValue() - 1;
+            chiffreAffairesAnnee.ajouterCentimes(montantTotal);
+            nombreFacturesParMois[indexMois]++;
+            if (indexMois == mois - 1) {
+                chiffreAffairesMois.ajouterCentimes(montantTotal);
+            }
+            if (isEncaisse(etat)) {
+                chiffreAffairesEncaisseParMois[indexMois] = Math.addExact(chiffreAffairesEncaisseParMois[indexMois], montantTotal);
+            }
+        }
+
+        if (montantRestant > 0) {
+            montantImpaye.ajouterCentimes(montantRestant);
+        }
+
+        if (facture.getDateEcheance() != null && facture.getDateEcheance().isBefore(dateReference)
+                && (etat == StatutFacture.ENVOYE || etat == StatutFacture.PARTIELLEMENT_PAYE)) {
+            montantEnRetard.ajouterCentimes(montantRestant);
+        }
+
+        if (isEncaisse(etat) && facture.getIdClient() != null) {
+            topClients.accumuler(facture.getIdClient(), facture.getNomClient(), facture.getMontantTotal(), dateFacturation);
+        }
+    }
+
+    /**
+     * Intègre un agrégateur partiel calculé sur une autre plage de la table
+     */
+    public StatistiquesGlobalesAgregateur fusionner(StatistiquesGlobalesAgregateur autre) {
+        lignesAnalysees += autre.lignesAnalysees;
+        nombreFactures += autre.nombreFactures;
+        chiffreAffairesTotal.fusionner(autre.chiffreAffairesTotal);
+        chiffreAffairesMois.fusionner(autre.chiffreAffairesMois);
+        chiffreAffairesAnnee.fusionner(autre.chiffreAffairesAnnee);
+        montantImpaye.fusionner(autre.montantImpaye);
+        montantEnRetard.fusionner(autre.montantEnRetard);
+        for (int i = 0; i < chiffreAffairesEncaisseParMois.length; i++) {
+            chiffreAffairesEncaisseParMois[i] = Math.addExact(chiffreAffairesEncaisseParMois[i], autre.chiffreAffairesEncaisseParMois[i]);
+            nombreFacturesParMois[i] += autre.nombreFacturesParMois[i];
+        }
+        topClients.fusionner(autre.topClients);
+        chiffreAffairesParDevise.fusionner(autre.chiffreAffairesParDevise);
+        return this;
+    }
+
+    /**
+     * Clôt le parcours en enregistrant sa durée
+     */
+    public void terminer(long debutNanos) {
+        this.dureeCalculMs = (System.nanoTime() - debutNanos) / 1_000_000;
+    }
+
+    public BigDecimal getChiffreAffairesTotal() {
+        return chiffreAffairesTotal.getMontant();
+    }
+
+    public BigDecimal getChiffreAffairesMois() {
+        return chiffreAffairesMois.getMontant();
+    }
+
+    public BigDecimal getChiffreAffairesAnnee() {
+        return chiffreAffairesAnnee.getMontant();
+    }
+
+    public BigDecimal getMontantImpaye() {
+        return montantImpaye.getMontant();
+    }
+
+    public BigDecimal getMontantEnRetard() {
+        return montantEnRetard.getMontant();
+    }
+
+    public BigDecimal[] getChiffreAffairesEncaisseParMois() {
+        BigDecimal[] montants = new BigDecimal[chiffreAffairesEncaisseParMois.length];
+        for (int i = 0; i < montants.length; i++) {
+            montants[i] = NumberUtil.fromCentimes(chiffreAffairesEncaisseParMois[i]);
+        }
+        return montants;
+    }
+
+    public Map<String, BigDecimal> getChiffreAffairesParDevise() {
+        return chiffreAffairesParDevise.versMap();
+    }
+
+    /**
+     * Clients classés par chiffre d'affaires encaissé décroissant
+     */
+    public List<TopClientsAgregateur.ClientClasse> getTopClients(int limite) {
+        return topClients.top(limite);
+    }
+
+    private static boolean isEncaisse(StatutFacture etat) {
+        return etat == StatutFacture.PAYE || etat == StatutFacture.PARTIELLEMENT_PAYE;
+    }
+}
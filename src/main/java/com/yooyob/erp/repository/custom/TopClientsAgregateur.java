@@ -0,0 +1,137 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.util.NumberUtil;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Agrégation en flux du chiffre d'affaires par client avec sélection des K meilleurs.
+ * Chaque client occupe une case dans des tableaux primitifs (montant en centimes,
+ * nombre de factures, date du dernier achat) ; la sélection utilise un tas min borné à K.
+ * La mémoire est proportionnelle au nombre de clients, pas au nombre de factures.
+ */
+public class TopClientsAgregateur {
+
+    private static final int CAPACITE_INITIALE = 256;
+
+    private final Map<UUID, Integer> indexClients = new HashMap<>();
+    private UUID[] idsClients = new UUID[CAPACITE_INITIALE];
+    private String[] nomsClients = new String[CAPACITE_INITIALE];
+    private long[] montantsCentimes = new long[CAPACITE_INITIALE];
+    private int[] nombresFactures = new int[CAPACITE_INITIALE];
+    private long[] derniersAchats = new long[CAPACITE_INITIALE];
+    private int taille;
+
+    /**
+     * Ajoute le montant d'une facture au cumul de son client
+     */
+    public void accumuler(UUID idClient, String nomClient, BigDecimal montant, LocalDate dateFacturation) {
+        int index = indexClients.computeIfAbsent(idClient, this::nouveauClient);
+        if (nomsClients[index] == null) {
+            nomsClients[index] = nomClient;
+        }
+        montantsCentimes[index] = Math.addExact(montantsCentimes[index], NumberUtil.toCentimes(montant));
+        nombresFactures[index]++;
+        if (dateFacturation != null) {
+            derniersAchats[index] = Math.max(derniersAchats[index], dateFacturation.toEpochDay());
+        }
+    }
+
+    /**
+     * Intègre les cumuls d'un agrégateur partiel (parcours d'une autre plage de la table)
+     */
+    public TopClientsAgregateur fusionner(TopClientsAgregateur autre) {
+        for (int i = 0; i < autre.taille; i++) {
+            int index = indexClients.computeIfAbsent(autre.idsClients[i], this::nouveauClient);
+            if (nomsClients[index] == null) {
+                nomsClients[index] = autre.nomsClients[i];
+            }
+            montantsCentimes[index] = Math.addExact(montantsCentimes[index], autre.montantsCentimes[i]);
+            nombresFactures[index] += autre.nombresFactures[i];
+            derniersAchats[index] = Math.max(derniersAchats[index], autre.derniersAchats[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Retourne les K clients au plus fort chiffre d'affaires, par ordre décroissant
+     */
+    public List<ClientClasse> top(int k) {
+        if (k <= 0 || taille == 0) {
+            return List.of();
+        }
+
+        PriorityQueue<Integer> tas = new PriorityQueue<>(Math.min(k, taille) + 1,
+                (i, j) -> Long.compare(montantsCentimes[i], montantsCentimes[j]));
+
+        for (int i = 0; i < taille; i++) {
+            if (tas.size() < k) {
+                tas.add(i);
+            } else if (montantsCentimes[i] > montantsCentimes[tas.peek()]) {
+                tas.poll();
+                tas.add(i);
+            }
+        }
+
+        List<ClientClasse> resultat = new ArrayList<>(tas.size());
+        while (!tas.isEmpty()) {
+            resultat.add(versClientClasse(tas.poll()));
+        }
+        Collections.reverse(resultat);
+        return resultat;
+    }
+
+    public int getNombreClients() {
+        return taille;
+    }
+
+    private int nouveauClient(UUID idClient) {
+        if (taille == idsClients.length) {
+            int capacite = taille * 2;
+            idsClients = Arrays.copyOf(idsClients, capacite);
+            nomsClients = Arrays.copyOf(nomsClients, capacite);
+            montantsCentimes = Arrays.copyOf(montantsCentimes, capacite);
+            nombresFactures = Arrays.copyOf(nombresFactures, capacite);
+            derniersAchats = Arrays.copyOf(derniersAchats, capacite);
+        }
+        idsClients[taille] = idClient;
+        derniersAchats[taille] = Long.MIN_VALUE;
+        return taille++;
+    }
+
+    private ClientClasse versClientClasse(int index) {
+        return new ClientClasse(
+                idsClients[index],
+                nomsClients[index],
+                NumberUtil.fromCentimes(montantsCentimes[index]),
+                nombresFactures[index],
+                derniersAchats[index] == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(derniersAchats[index]));
+    }
+
+    /**
+     * Cumul d'un client retenu dans le classement
+     */
+    @Value
+    public static class ClientClasse {
+        UUID idClient;
+        String nomClient;
+        BigDecimal chiffreAffaires;
+        int nombreFactures;
+        LocalDate dernierAchat;
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> clientData = new HashMap<>();
+            clientData.put("idClient", idClient);
+            clientData.put("nomClient", nomClient);
+            clientData.put("chiffreAffaires", chiffreAffaires);
+            clientData.put("nombreFactures", (long) nombreFactures);
+            if (dernierAchat != null) {
+                clientData.put("dernierAchat", dernierAchat);
+            }
+            return clientData;
+        }
+    }
+}
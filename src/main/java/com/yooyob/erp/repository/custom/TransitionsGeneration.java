@@ -0,0 +1,109 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.exception.BusinessException;
+import com.yooyob.erp.model.entity.GenerationAgregat;
+import com.yooyob.erp.model.entity.NoeudAgregats;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.UUID;
+
+/**
+ * Transitions du pointeur de génération d'un agrégat, appliquées par écriture conditionnelle sur sa révision.
+ * Une génération quittée n'est jamais réutilisée : elle devient obsolète et n'est purgée qu'une fois la
+ * transition acquittée par tous les nœuds, quand plus aucun ne peut la lire ni l'écrire.
+ */
+final class TransitionsGeneration {
+
+    private TransitionsGeneration() {
+    }
+
+    /**
+     * Ouvre la construction d'une nouvelle génération. Une construction dont le bail a expiré, abandonnée
+     * par une instance arrêtée, devient obsolète ; une construction en cours est refusée.
+     */
+    static GenerationAgregat ouvrir(GenerationAgregat etat, TypeAgregat agregat, LocalDateTime maintenant,
+                                    long bailReconstructionMinutes) {
+        GenerationAgregat courant = etat != null ? etat : GenerationAgregat.builder().agregat(agregat).build();
+        Integer enCours = courant.getGenerationConstruction();
+        if (enCours != null) {
+            if (courant.getDebutConstruction() != null
+                    && courant.getDebutConstruction().plusMinutes(bailReconstructionMinutes).isAfter(maintenant)) {
+                throw new BusinessException("Une reconstruction de l'agrégat " + agregat.getLibelle() + " est déjà en cours",
+                        "RECONSTRUCTION_EN_COURS", HttpStatus.CONFLICT);
+            }
+            obsoletes(courant).add(enCours);
+        }
+
+        int generation = Math.max(courant.getDerniereGeneration(), courant.getGenerationActive()) + 1;
+        courant.setGenerationConstruction(generation);
+        courant.setDerniereGeneration(generation);
+        courant.setDebutConstruction(maintenant);
+        courant.setUpdatedAt(maintenant);
+        return courant;
+    }
+
+    /**
+     * Rend lisible la génération construite ; l'ancienne génération active devient obsolète
+     *
+     * @return l'ancienne génération active
+     */
+    static int basculer(GenerationAgregat etat, TypeAgregat agregat, int generation) {
+        if (etat == null || !Integer.valueOf(generation).equals(etat.getGenerationConstruction())) {
+            throw new BusinessException("La reconstruction de l'agrégat " + agregat.getLibelle()
+                    + " a été reprise par une autre instance", "RECONSTRUCTION_REPRISE", HttpStatus.CONFLICT);
+        }
+        int ancienne = etat.getGenerationActive();
+        etat.setGenerationActive(generation);
+        obsoletes(etat).add(ancienne);
+        fermer(etat);
+        return ancienne;
+    }
+
+    /**
+     * Ferme la construction de la génération, qui devient obsolète, sauf si une autre instance l'a reprise
+     */
+    static void abandonner(GenerationAgregat etat, int generation) {
+        if (etat != null && Integer.valueOf(generation).equals(etat.getGenerationConstruction())) {
+            obsoletes(etat).add(generation);
+            fermer(etat);
+        }
+    }
+
+    static void purgees(GenerationAgregat etat, Collection<Integer> generations) {
+        if (etat != null) {
+            obsoletes(etat).removeAll(generations);
+        }
+    }
+
+    /**
+     * Vrai quand tous les nœuds vivants, dont le nœud local, ont chargé le pointeur à cette révision au moins
+     */
+    static boolean acquittee(Collection<NoeudAgregats> noeuds, UUID noeudLocal, TypeAgregat agregat, long revision) {
+        boolean local = false;
+        for (NoeudAgregats noeud : noeuds) {
+            Long chargee = noeud.getRevisions() != null ? noeud.getRevisions().get(agregat.name()) : null;
+            if (chargee == null || chargee < revision) {
+                return false;
+            }
+            local |= noeud.getNoeud().equals(noeudLocal);
+        }
+        return local;
+    }
+
+    private static Collection<Integer> obsoletes(GenerationAgregat etat) {
+        if (etat.getGenerationsObsoletes() == null) {
+            etat.setGenerationsObsoletes(new HashSet<>());
+        }
+        return etat.getGenerationsObsoletes();
+    }
+
+    private static void fermer(GenerationAgregat etat) {
+        etat.setGenerationConstruction(null);
+        etat.setDebutConstruction(null);
+        etat.setUpdatedAt(LocalDateTime.now());
+    }
+}
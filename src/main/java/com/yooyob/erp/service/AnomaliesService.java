@@ -0,0 +1,23 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.AnomalieResponse;
+import com.yooyob.erp.model.enums.MetriqueAnomalie;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AnomaliesService {
+
+    /**
+     * Fait avancer chaque détecteur jusqu'à la veille, jour clos par jour clos,
+     * enregistre les anomalies relevées et déclenche les alertes de tableau de bord associées
+     *
+     * @return le nombre d'anomalies relevées
+     */
+    int detecterJoursClos();
+
+    /**
+     * Anomalies enregistrées sur la période, pour une métrique ou pour toutes (métrique null)
+     */
+    List<AnomalieResponse> getAnomalies(MetriqueAnomalie metrique, LocalDate dateDebut, LocalDate dateFin);
+}
@@ -0,0 +1,45 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.BalanceAgeeResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+public interface BalanceAgeeService {
+
+    /**
+     * Balance âgée de tous les clients ayant un encours
+     */
+    BalanceAgeeResponse getBalanceAgee();
+
+    /**
+     * Balance âgée d'un client
+     */
+    BalanceAgeeResponse.BalanceClient getBalanceAgeeClient(UUID idClient);
+
+    /**
+     * Encours total par client
+     */
+    Map<UUID, BigDecimal> getEncoursParClient();
+
+    /**
+     * Montant total échu, toutes tranches de retard confondues
+     */
+    BigDecimal getMontantTotalEchu();
+
+    /**
+     * Fait passer dans la tranche suivante les échéances qui ont vieilli à la date donnée
+     *
+     * @return le nombre de clients recalculés
+     */
+    int vieillirBalances(LocalDate dateReference);
+
+    /**
+     * Régénère les encours et les balances âgées à partir de la table des factures
+     *
+     * @return le nombre de factures relues
+     */
+    long reconstruireBalances();
+}
@@ -3,6 +3,7 @@ package com.yooyob.erp.service;
 import com.yooyob.erp.dto.request.ClientCreateRequest;
 import com.yooyob.erp.dto.request.ClientUpdateRequest;
 import com.yooyob.erp.dto.response.ClientResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.model.enums.TypeClient;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -47,6 +48,11 @@ public interface ClientService {
      */
     Page<ClientResponse> getAllClients(Pageable pageable);
 
+    /**
+     * Récupère les clients par curseur de pagination
+     */
+    PageCurseurResponse<ClientResponse> getClientsParCurseur(String curseur, int taille);
+
     /**
      * Récupère tous les clients actifs
      */
@@ -0,0 +1,27 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.ClientsActifsResponse;
+import com.yooyob.erp.model.entity.Facture;
+
+import java.time.LocalDate;
+
+public interface ClientsActifsService {
+
+    /**
+     * Ajoute le client d'une facture émise aux esquisses de son jour et de son mois de facturation
+     */
+    void enregistrer(Facture facture);
+
+    /**
+     * Nombre de clients distincts facturés sur la période : estimé par fusion des esquisses,
+     * ou exact (instantané colonnaire) si le mode exact est configuré ou si une borne manque
+     */
+    ClientsActifsResponse compterClientsActifs(LocalDate dateDebut, LocalDate dateFin);
+
+    /**
+     * Régénère toutes les esquisses à partir de la table des factures
+     *
+     * @return le nombre d'esquisses écrites
+     */
+    long reconstruireSketches();
+}
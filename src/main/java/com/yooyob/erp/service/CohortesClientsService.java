@@ -0,0 +1,35 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.CohortesClientsResponse;
+import com.yooyob.erp.model.entity.Facture;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+public interface CohortesClientsService {
+
+    /**
+     * Compte une facture émise pour son client et son mois de facturation, et ajoute le client au bitmap
+     * du mois à sa première facture
+     */
+    void enregistrer(Facture facture);
+
+    /**
+     * Matrice de rétention : pour chaque mois d'acquisition de la plage, clients encore facturés
+     * chacun des mois suivants jusqu'à la fin de la plage
+     */
+    CohortesClientsResponse getMatriceCohortes(YearMonth moisDebut, YearMonth moisFin);
+
+    /**
+     * Part (%) des clients facturés sur la période précédente de même durée qui le sont encore sur la période
+     */
+    BigDecimal getTauxRetention(LocalDate dateDebut, LocalDate dateFin);
+
+    /**
+     * Régénère les bitmaps mensuels à partir de la table des factures
+     *
+     * @return le nombre de mois écrits
+     */
+    int reconstruireBitmaps();
+}
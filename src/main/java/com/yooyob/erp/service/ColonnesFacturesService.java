@@ -0,0 +1,61 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.repository.custom.ColonnesFactures;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.UUID;
+
+public interface ColonnesFacturesService {
+
+    /**
+     * Reporte dans l'instantané colonnaire le nouvel état d'une facture
+     */
+    void appliquerModification(Facture avant, Facture apres);
+
+    /**
+     * Recharge tout l'instantané depuis la table des factures
+     *
+     * @return le nombre de factures chargées
+     */
+    long recharger();
+
+    /**
+     * Indique si l'instantané a été chargé au moins une fois
+     */
+    boolean isPret();
+
+    /**
+     * Version de l'instantané, incrémentée à chaque modification appliquée et à chaque rechargement :
+     * deux lectures à la même version donnent le même résultat, quel que soit le nœud d'origine des écritures
+     */
+    long getVersion();
+
+    /**
+     * Totaux par statut des factures émises sur la période, pour un client ou pour tous (idClient null)
+     */
+    ColonnesFactures.Resume resumer(LocalDate dateDebut, LocalDate dateFin, UUID idClient);
+
+    /**
+     * Chiffre d'affaires encaissé par mois de facturation
+     */
+    Map<YearMonth, BigDecimal> getChiffreAffairesParMois(LocalDate dateDebut, LocalDate dateFin);
+
+    /**
+     * Nombre de factures émises par mois de facturation
+     */
+    Map<YearMonth, Long> getNombreFacturesParMois(LocalDate dateDebut, LocalDate dateFin);
+
+    /**
+     * Chiffre d'affaires encaissé des meilleurs clients, le reste regroupé sous « Autres »
+     */
+    Map<String, BigDecimal> getChiffreAffairesParClient(LocalDate dateDebut, LocalDate dateFin, int topN);
+
+    /**
+     * Nombre de clients distincts facturés sur la période
+     */
+    int getNombreClientsActifs(LocalDate dateDebut, LocalDate dateFin);
+}
@@ -2,6 +2,7 @@ package com.yooyob.erp.service;
 
 import com.yooyob.erp.dto.request.DevisCreateRequest;
 import com.yooyob.erp.dto.response.DevisResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.model.enums.StatutDevis;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -24,6 +25,8 @@ public interface DevisService {
 
     Page<DevisResponse> getDevisPaginated(Pageable pageable);
 
+    PageCurseurResponse<DevisResponse> getDevisParCurseur(String curseur, int taille);
+
     List<DevisResponse> getDevisByClient(UUID idClient);
 
     List<DevisResponse> getDevisByStatut(StatutDevis statut);
@@ -0,0 +1,46 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.DistributionResponse;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.Paiement;
+import com.yooyob.erp.model.enums.DistributionMesuree;
+import com.yooyob.erp.util.TDigest;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+public interface DistributionsService {
+
+    /**
+     * Ajoute le montant d'une facture qui vient d'être émise aux esquisses de son mois de facturation
+     */
+    void enregistrerMontant(Facture facture);
+
+    /**
+     * Ajoute le délai en jours entre la facturation et un paiement aux esquisses du mois du paiement
+     */
+    void enregistrerDelai(Paiement paiement, Facture facture);
+
+    /**
+     * Esquisse fusionnée des mois de la période (toutes périodes si les deux bornes sont nulles),
+     * pour un client ou pour tous (idClient null)
+     */
+    TDigest fusionner(DistributionMesuree mesure, YearMonth moisDebut, YearMonth moisFin, UUID idClient);
+
+    /**
+     * Quantiles et histogramme estimés d'une distribution sur la période
+     *
+     * @param quantiles valeurs entre 0 et 1 (p50, p90 et p99 si vide)
+     * @param bornes    bornes des tranches de l'histogramme, la dernière tranche étant ouverte (aucun histogramme si vide)
+     */
+    DistributionResponse getDistribution(DistributionMesuree mesure, YearMonth moisDebut, YearMonth moisFin,
+                                         UUID idClient, List<Double> quantiles, List<Double> bornes);
+
+    /**
+     * Régénère toutes les esquisses à partir des tables des factures et des paiements
+     *
+     * @return le nombre d'esquisses écrites
+     */
+    long reconstruireDigests();
+}
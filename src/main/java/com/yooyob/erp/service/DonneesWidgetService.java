@@ -0,0 +1,25 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.DonneesWidgetResponse;
+import com.yooyob.erp.model.entity.Widget;
+
+import java.util.Map;
+import java.util.UUID;
+
+public interface DonneesWidgetService {
+
+    /**
+     * Données d'un widget d'un tableau de bord, les filtres d'exécution complétant ou remplaçant ceux du widget
+     */
+    DonneesWidgetResponse getDonneesWidget(UUID idTableau, UUID idWidget, Map<String, Object> filtres);
+
+    /**
+     * Compile et exécute une définition de widget, en servant le résultat du cache s'il est encore valide
+     */
+    DonneesWidgetResponse executer(Widget widget, Map<String, Object> filtres);
+
+    /**
+     * Recalcule une définition de widget et remplace le résultat en cache, même s'il est encore valide
+     */
+    DonneesWidgetResponse actualiser(Widget widget, Map<String, Object> filtres);
+}
@@ -0,0 +1,18 @@
+package com.yooyob.erp.service;
+
+public interface EvaluationAlertesService {
+
+    /**
+     * Replanifie toutes les alertes actives des tableaux de bord sur la roue temporelle
+     *
+     * @return le nombre d'alertes planifiées
+     */
+    int recharger();
+
+    /**
+     * Avance la roue d'une minute et évalue les alertes arrivées à échéance
+     *
+     * @return le nombre d'alertes réellement évaluées
+     */
+    int tic();
+}
@@ -4,6 +4,7 @@ import com.yooyob.erp.dto.request.FactureCreateRequest;
 import com.yooyob.erp.dto.request.FactureUpdateRequest;
 import com.yooyob.erp.dto.response.FactureResponse;
 import com.yooyob.erp.dto.response.FactureDetailsResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.model.enums.StatutFacture;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -46,6 +47,11 @@ public interface FactureService {
      */
     Page<FactureResponse> getAllFactures(Pageable pageable);
 
+    /**
+     * Récupère les factures par curseur de pagination
+     */
+    PageCurseurResponse<FactureResponse> getFacturesParCurseur(String curseur, int taille);
+
     /**
      * Récupère les factures d'un client
      */
@@ -56,6 +62,16 @@ public interface FactureService {
      */
     List<FactureResponse> getFacturesByEtat(StatutFacture etat);
 
+    /**
+     * Récupère les factures d'un client par curseur de pagination, des plus récentes aux plus anciennes
+     */
+    PageCurseurResponse<FactureResponse> getFacturesByClientParCurseur(UUID clientId, String curseur, int taille);
+
+    /**
+     * Récupère les factures par statut par curseur de pagination, des plus récentes aux plus anciennes
+     */
+    PageCurseurResponse<FactureResponse> getFacturesByEtatParCurseur(StatutFacture etat, String curseur, int taille);
+
     /**
      * Récupère les factures d'un client avec un statut donné
      */
@@ -107,6 +123,14 @@ public interface FactureService {
                                                        BigDecimal montantMin, BigDecimal montantMax,
                                                        String devise, Pageable pageable);
 
+    /**
+     * Recherche des factures avec filtres, par curseur de pagination
+     */
+    PageCurseurResponse<FactureResponse> searchFacturesParCurseur(UUID clientId, StatutFacture etat,
+                                                                  LocalDate dateStart, LocalDate dateEnd,
+                                                                  BigDecimal montantMin, BigDecimal montantMax,
+                                                                  String devise, String curseur, int taille);
+
     /**
      * Change le statut d'une facture
      */
@@ -167,6 +191,11 @@ public interface FactureService {
      */
     Map<String, Object> getFactureStatistics(LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Reconstruit les tables d'index des factures
+     */
+    Long reconstruireIndexFactures();
+
     /**
      * Obtient le chiffre d'affaires par mois
      */
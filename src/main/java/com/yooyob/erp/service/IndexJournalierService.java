@@ -0,0 +1,44 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.SommesPeriodeResponse;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.Paiement;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public interface IndexJournalierService {
+
+    /**
+     * Reporte dans l'index le nouvel état d'une facture
+     */
+    void appliquerModification(Facture avant, Facture apres);
+
+    /**
+     * Reporte dans l'index le nouvel état d'un paiement
+     */
+    void appliquerPaiement(Paiement avant, Paiement apres);
+
+    /**
+     * Reconstruit l'index depuis les tables des factures et des paiements
+     *
+     * @return le nombre de documents indexés
+     */
+    long reconstruire();
+
+    /**
+     * Indique si l'index a été construit au moins une fois
+     */
+    boolean isPret();
+
+    /**
+     * Statistiques des factures émises sur la période, au même format que
+     * {@code CustomFactureRepository.getFactureStatisticsByPeriod}, calculées en O(log n) sans lecture en base
+     */
+    Map<String, Object> getStatistiquesPeriode(LocalDate dateDebut, LocalDate dateFin);
+
+    /**
+     * Nombre et montant des factures émises et montant encaissé sur la période
+     */
+    SommesPeriodeResponse sommer(LocalDate dateDebut, LocalDate dateFin);
+}
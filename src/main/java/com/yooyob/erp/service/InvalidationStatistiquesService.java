@@ -0,0 +1,14 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.model.entity.Facture;
+
+public interface InvalidationStatistiquesService {
+
+    /**
+     * Périme les statistiques en cache dont les dépendances recoupent la facture modifiée
+     * (états avant et après), désignées par l'index inverse des dépendances, sans toucher aux autres
+     *
+     * @return le nombre d'entrées périmées, -1 si tout le cache l'a été
+     */
+    int invalider(Facture avant, Facture apres);
+}
@@ -0,0 +1,28 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.MetriquesTempsReelResponse;
+import com.yooyob.erp.model.enums.CanalTempsReel;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+
+public interface MetriquesTempsReelService {
+
+    /**
+     * Abonne un client aux variations des canaux demandés (tous si vide), poussées à cadence fixe
+     */
+    SseEmitter abonner(Set<CanalTempsReel> canaux);
+
+    /**
+     * Pousse aux abonnés les variations des compteurs depuis la diffusion précédente
+     *
+     * @return le nombre d'envois réussis
+     */
+    int diffuser();
+
+    /**
+     * Valeurs cumulées courantes de chaque canal
+     */
+    List<MetriquesTempsReelResponse> getCompteurs();
+}
@@ -0,0 +1,9 @@
+package com.yooyob.erp.service;
+
+public interface MisesAJourAgregatsService {
+
+    /**
+     * Applique aux agrégats les mises à jour journalisées des shards détenus par le nœud
+     */
+    void traiterMisesAJour();
+}
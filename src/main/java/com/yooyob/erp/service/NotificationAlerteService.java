@@ -0,0 +1,11 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.model.entity.AlerteTableau;
+
+public interface NotificationAlerteService {
+
+    /**
+     * Journalise le déclenchement d'une alerte de tableau de bord et l'envoie sur ses canaux de notification
+     */
+    void notifier(AlerteTableau alerte, String message);
+}
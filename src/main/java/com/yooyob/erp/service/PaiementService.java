@@ -3,6 +3,7 @@ package com.yooyob.erp.service;
 import com.yooyob.erp.dto.request.PaiementCreateRequest;
 import com.yooyob.erp.dto.request.PaiementUpdateRequest;
 import com.yooyob.erp.dto.response.PaiementResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.model.enums.TypePaiement;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -34,6 +35,11 @@ public interface PaiementService {
      */
     Page<PaiementResponse> getAllPaiements(Pageable pageable);
 
+    /**
+     * Récupère les paiements par curseur de pagination
+     */
+    PageCurseurResponse<PaiementResponse> getPaiementsParCurseur(String curseur, int taille);
+
     /**
      * Récupère les paiements d'un client
      */
@@ -0,0 +1,21 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.PerformanceRecouvrementResponse;
+
+import java.time.LocalDate;
+
+public interface PerformanceRecouvrementService {
+
+    /**
+     * DSO, délai moyen pondéré et taux de recouvrement de la période, lus sur les mouvements agrégés
+     * (mois complets au grain mensuel, jours isolés aux bornes). Sans aucune borne, porte sur tout l'historique.
+     */
+    PerformanceRecouvrementResponse calculer(LocalDate dateDebut, LocalDate dateFin);
+
+    /**
+     * Régénère les mouvements à partir des factures et des paiements
+     *
+     * @return le nombre de lignes écrites
+     */
+    long reconstruire();
+}
@@ -0,0 +1,28 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.DonneesWidgetResponse;
+import com.yooyob.erp.dto.response.PrechargementTableauResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface PrechargementTableauxService {
+
+    /**
+     * Calcule en parallèle les données de tous les widgets des tableaux demandés (tous les tableaux actifs
+     * si la liste est vide) et les place dans le cache des widgets
+     *
+     * @return le bilan de préchauffage de chaque tableau
+     */
+    List<PrechargementTableauResponse> prechargerDonnees(List<UUID> idsTableaux);
+
+    /**
+     * Recalcule et remet en cache les données de tous les widgets d'un tableau
+     */
+    PrechargementTableauResponse actualiserCacheTableau(UUID idTableau);
+
+    /**
+     * Recalcule et remet en cache les données d'un widget
+     */
+    DonneesWidgetResponse actualiserCacheWidget(UUID idTableau, UUID idWidget);
+}
@@ -0,0 +1,33 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.BacktestPrevisionResponse;
+import com.yooyob.erp.dto.response.PrevisionVentesResponse;
+import com.yooyob.erp.model.enums.DimensionRollup;
+
+public interface PrevisionVentesService {
+
+    /**
+     * Prévisions mensuelles d'une série à partir de son état de lissage, sans relecture de l'historique
+     */
+    PrevisionVentesResponse getPrevisions(DimensionRollup dimension, String valeurDimension, int horizonMois);
+
+    /**
+     * Intègre aux états de lissage les mois clos depuis leur dernière mise à jour
+     *
+     * @return le nombre de séries mises à jour
+     */
+    int integrerMoisClos();
+
+    /**
+     * Rejoue l'historique configuré pour réinitialiser tous les états de lissage
+     *
+     * @return le nombre de séries reconstruites
+     */
+    int reconstruireEtats();
+
+    /**
+     * Évalue le modèle : apprentissage sur l'historique hors des derniers mois, puis comparaison
+     * des prévisions de ces mois avec le réalisé
+     */
+    BacktestPrevisionResponse backtester(DimensionRollup dimension, String valeurDimension, int moisTest);
+}
@@ -0,0 +1,27 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.TacheRapportResponse;
+import com.yooyob.erp.model.enums.TypeRapport;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+public interface RapportAsynchroneService {
+
+    /**
+     * Soumet la génération d'un rapport : un résultat frais en cache est rendu immédiatement, sans tâche
+     * ni identifiant, une demande identique déjà en cours sur le nœud est rejointe, sinon une tâche est mise en file
+     */
+    TacheRapportResponse soumettre(TypeRapport type, LocalDate dateDebut, LocalDate dateFin);
+
+    /**
+     * État, avancement et résultat (une fois terminée) d'une tâche, quel que soit le nœud qui l'exécute
+     */
+    TacheRapportResponse getTache(UUID idTache);
+
+    /**
+     * Soumet le rapport puis attend son résultat, dans la limite du délai d'attente configuré
+     */
+    Map<String, Object> attendre(TypeRapport type, LocalDate dateDebut, LocalDate dateFin);
+}
@@ -0,0 +1,11 @@
+package com.yooyob.erp.service;
+
+public interface RollupFactureService {
+
+    /**
+     * Régénère tous les rollups à partir de la table des factures
+     *
+     * @return le nombre de factures relues
+     */
+    long reconstruireRollups();
+}
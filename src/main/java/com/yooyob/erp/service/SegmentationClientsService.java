@@ -0,0 +1,23 @@
+package com.yooyob.erp.service;
+
+import com.yooyob.erp.dto.response.SegmentClientResponse;
+import com.yooyob.erp.dto.response.SegmentationClientsResponse;
+
+import java.util.UUID;
+
+public interface SegmentationClientsService {
+
+    /**
+     * Recalcule la segmentation RFM et ABC de tous les clients en un seul parcours des factures
+     *
+     * @return le nombre de clients segmentés
+     */
+    int recalculerSegmentation();
+
+    /**
+     * Répartition des clients et du chiffre d'affaires par segment RFM et par classe ABC
+     */
+    SegmentationClientsResponse getSegmentation();
+
+    SegmentClientResponse getSegmentClient(UUID idClient);
+}
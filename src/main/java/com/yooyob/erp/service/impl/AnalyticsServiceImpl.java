@@ -1,11 +1,25 @@
 package com.yooyob.erp.service.impl;
 
+import com.yooyob.erp.dto.response.AnomalieResponse;
 import com.yooyob.erp.dto.response.AnalytiqueFacturationResponse;
 import com.yooyob.erp.dto.response.TendanceVenteResponse;
 import com.yooyob.erp.dto.response.PerformanceClientResponse;
+import com.yooyob.erp.dto.response.PrevisionVentesResponse;
 import com.yooyob.erp.dto.response.RentabiliteProduitResponse;
+import com.yooyob.erp.model.enums.DimensionRollup;
+import com.yooyob.erp.model.enums.StatutFacture;
 import com.yooyob.erp.model.enums.TypeDocument;
+import com.yooyob.erp.repository.custom.ColonnesFactures;
+import com.yooyob.erp.repository.custom.CustomFactureRepository;
 import com.yooyob.erp.service.AnalyticsService;
+import com.yooyob.erp.service.AnomaliesService;
+import com.yooyob.erp.service.ClientsActifsService;
+import com.yooyob.erp.service.CohortesClientsService;
+import com.yooyob.erp.service.ColonnesFacturesService;
+import com.yooyob.erp.service.PerformanceRecouvrementService;
+import com.yooyob.erp.service.PrevisionVentesService;
+import com.yooyob.erp.util.CumulMontantsParCle;
+import com.yooyob.erp.util.NumberUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -17,6 +31,8 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -25,107 +41,96 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AnalyticsServiceImpl implements AnalyticsService {
 
-    // Données de simulation pour les analytics
-    private final Map<String, BigDecimal> ventesSimulees = new HashMap<String, BigDecimal>() {{
-        put("2024-01", BigDecimal.valueOf(150000));
-        put("2024-02", BigDecimal.valueOf(180000));
-        put("2024-03", BigDecimal.valueOf(165000));
-        put("2024-04", BigDecimal.valueOf(200000));
-        put("2024-05", BigDecimal.valueOf(175000));
-        put("2024-06", BigDecimal.valueOf(220000));
-    }};
+    private final CustomFactureRepository customFactureRepository;
+    private final ColonnesFacturesService colonnesFacturesService;
+    private final ClientsActifsService clientsActifsService;
+    private final PrevisionVentesService previsionVentesService;
+    private final CohortesClientsService cohortesClientsService;
+    private final AnomaliesService anomaliesService;
+    private final PerformanceRecouvrementService performanceRecouvrementService;
+
+    // Statuts des factures émises (hors brouillons et annulations)
+    private static final StatutFacture[] STATUTS_EMIS = {
+            StatutFacture.ENVOYE, StatutFacture.PAYE, StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD
+    };
+    private static final StatutFacture[] STATUTS_ENCAISSES = {StatutFacture.PAYE, StatutFacture.PARTIELLEMENT_PAYE};
+    private static final StatutFacture[] STATUTS_EN_ATTENTE = {
+            StatutFacture.ENVOYE, StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD
+    };
 
     @Override
     public AnalytiqueFacturationResponse getAnalytiquesFacturation(LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Récupération des analytiques de facturation du {} au {}", dateDebut, dateFin);
-        
-        // Simulation des données analytiques
-        BigDecimal chiffreAffaires = calculateChiffreAffaires(dateDebut, dateFin);
-        
-        return AnalytiqueFacturationResponse.builder()
-                .chiffreAffairesTotalPeriode(chiffreAffaires)
-                .nombreFacturesEmises(150)
-                .nombreFacturesPayees(120)
-                .nombreFacturesEnAttente(30)
-                .montantTotalFacture(chiffreAffaires)
-                .montantTotalPaye(chiffreAffaires.multiply(BigDecimal.valueOf(0.8)))
-                .montantTotalEnAttente(chiffreAffaires.multiply(BigDecimal.valueOf(0.2)))
-                .tauxPayement(BigDecimal.valueOf(80.0))
-                .delaiMoyenPayement(25)
-                .nombreClientsActifs(45)
-                .panierMoyen(chiffreAffaires.divide(BigDecimal.valueOf(150), 2, RoundingMode.HALF_UP))
-                .croissanceChiffreAffaires(BigDecimal.valueOf(12.5))
-                .croissanceNombreFactures(BigDecimal.valueOf(8.3))
-                .dateCalcul(LocalDateTime.now())
+
+        ColonnesFactures.Resume resume = colonnesFacturesService.resumer(dateDebut, dateFin, null);
+        ColonnesFactures.Resume precedent = resumerPeriodePrecedente(dateDebut, dateFin, null);
+
+        return construireAnalytiques(resume, precedent)
+                .nombreClientsActifs(getNombreClientsActifs(dateDebut, dateFin))
                 .build();
     }
 
     @Override
     public AnalytiqueFacturationResponse getAnalytiquesFacturationParClient(UUID idClient, LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Récupération des analytiques pour le client {} du {} au {}", idClient, dateDebut, dateFin);
-        
-        BigDecimal chiffreAffaires = BigDecimal.valueOf(25000);
-        
-        return AnalytiqueFacturationResponse.builder()
-                .chiffreAffairesTotalPeriode(chiffreAffaires)
-                .nombreFacturesEmises(12)
-                .nombreFacturesPayees(10)
-                .nombreFacturesEnAttente(2)
-                .montantTotalFacture(chiffreAffaires)
-                .montantTotalPaye(chiffreAffaires.multiply(BigDecimal.valueOf(0.83)))
-                .montantTotalEnAttente(chiffreAffaires.multiply(BigDecimal.valueOf(0.17)))
-                .tauxPayement(BigDecimal.valueOf(83.3))
-                .delaiMoyenPayement(18)
-                .panierMoyen(chiffreAffaires.divide(BigDecimal.valueOf(12), 2, RoundingMode.HALF_UP))
-                .dateCalcul(LocalDateTime.now())
-                .build();
+
+        ColonnesFactures.Resume resume = colonnesFacturesService.resumer(dateDebut, dateFin, idClient);
+        ColonnesFactures.Resume precedent = resumerPeriodePrecedente(dateDebut, dateFin, idClient);
+
+        return construireAnalytiques(resume, precedent).build();
     }
 
     @Override
     public List<TendanceVenteResponse> getTendancesVentes(LocalDate dateDebut, LocalDate dateFin, String granularite) {
         log.debug("Récupération des tendances de ventes du {} au {} avec granularité: {}", dateDebut, dateFin, granularite);
-        
+
+        Map<YearMonth, BigDecimal> caParMois = colonnesFacturesService.getChiffreAffairesParMois(dateDebut, dateFin);
+        Map<YearMonth, Long> facturesParMois = colonnesFacturesService.getNombreFacturesParMois(dateDebut, dateFin);
+
         List<TendanceVenteResponse> tendances = new ArrayList<>();
-        
-        // Simulation des tendances mensuelles
-        for (Map.Entry<String, BigDecimal> entry : ventesSimulees.entrySet()) {
+        BigDecimal caPrecedent = null;
+
+        for (Map.Entry<YearMonth, BigDecimal> entry : caParMois.entrySet()) {
+            BigDecimal chiffreAffaires = entry.getValue();
+            long nombreVentes = facturesParMois.getOrDefault(entry.getKey(), 0L);
+
             tendances.add(TendanceVenteResponse.builder()
-                    .periode(entry.getKey())
-                    .chiffreAffaires(entry.getValue())
-                    .nombreVentes(entry.getValue().divide(BigDecimal.valueOf(1000), 0, RoundingMode.DOWN).intValue())
-                    .panierMoyen(BigDecimal.valueOf(1000))
-                    .croissancePeriodePrecedente(BigDecimal.valueOf(Math.random() * 20 - 10)) // -10% à +10%
+                    .periode(entry.getKey().toString())
+                    .chiffreAffaires(chiffreAffaires)
+                    .nombreVentes((int) nombreVentes)
+                    .panierMoyen(nombreVentes > 0
+                            ? chiffreAffaires.divide(BigDecimal.valueOf(nombreVentes), 2, RoundingMode.HALF_UP)
+                            : BigDecimal.ZERO)
+                    .croissancePeriodePrecedente(calculerCroissance(chiffreAffaires, caPrecedent))
                     .build());
+            caPrecedent = chiffreAffaires;
         }
-        
-        return tendances.stream()
-                .sorted((t1, t2) -> t1.getPeriode().compareTo(t2.getPeriode()))
-                .collect(Collectors.toList());
+
+        return tendances;
     }
 
     @Override
     public List<PerformanceClientResponse> getPerformancesClients(LocalDate dateDebut, LocalDate dateFin, int topN) {
         log.debug("Récupération du top {} des performances clients du {} au {}", topN, dateDebut, dateFin);
         
-        List<PerformanceClientResponse> performances = new ArrayList<>();
-        
-        // Simulation du top 5 des clients
-        for (int i = 1; i <= Math.min(topN, 5); i++) {
-            performances.add(PerformanceClientResponse.builder()
-                    .idClient(UUID.randomUUID())
-                    .nomClient("Client " + i)
-                    .chiffreAffaires(BigDecimal.valueOf(50000 - (i * 8000)))
-                    .nombreCommandes(25 - (i * 3))
-                    .panierMoyen(BigDecimal.valueOf(2000 - (i * 200)))
-                    .delaiMoyenPayement(20 + (i * 5))
-                    .tauxRetour(BigDecimal.valueOf(i * 2.5))
-                    .scoreFidelite(BigDecimal.valueOf(100 - (i * 15)))
-                    .croissanceChiffreAffaires(BigDecimal.valueOf(25 - (i * 5)))
-                    .dernierAchat(LocalDate.now().minusDays(i * 7))
-                    .build());
-        }
-        
-        return performances;
+        return customFactureRepository.getTopClientsByChiffreAffaires(dateDebut, dateFin, topN)
+                .stream()
+                .map(clientData -> {
+                    BigDecimal chiffreAffaires = (BigDecimal) clientData.get("chiffreAffaires");
+                    Long nombreFactures = (Long) clientData.getOrDefault("nombreFactures", 0L);
+
+                    return PerformanceClientResponse.builder()
+                            .idClient((UUID) clientData.get("idClient"))
+                            .nomClient((String) clientData.get("nomClient"))
+                            .chiffreAffaires(chiffreAffaires)
+                            .nombreCommandes(nombreFactures.intValue())
+                            .panierMoyen(nombreFactures > 0
+                                    ? chiffreAffaires.divide(BigDecimal.valueOf(nombreFactures), 2, RoundingMode.HALF_UP)
+                                    : BigDecimal.ZERO)
+                            .dernierAchat((LocalDate) clientData.get("dernierAchat"))
+                            .build();
+                })
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -158,64 +163,56 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Override
     public Map<String, BigDecimal> getChiffreAffairesParMois(LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Récupération du CA par mois du {} au {}", dateDebut, dateFin);
-        
+
         Map<String, BigDecimal> caParMois = new LinkedHashMap<>();
-        
-        // Retourner les ventes simulées triées
-        ventesSimulees.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> caParMois.put(entry.getKey(), entry.getValue()));
-        
+        colonnesFacturesService.getChiffreAffairesParMois(dateDebut, dateFin)
+                .forEach((mois, montant) -> caParMois.put(mois.toString(), montant));
+
         return caParMois;
     }
 
     @Override
     public Map<String, BigDecimal> getChiffreAffairesParTrimestre(LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Récupération du CA par trimestre du {} au {}", dateDebut, dateFin);
-        
-        Map<String, BigDecimal> caParTrimestre = new LinkedHashMap<>();
-        caParTrimestre.put("Q1-2024", BigDecimal.valueOf(495000)); // Jan+Feb+Mar
-        caParTrimestre.put("Q2-2024", BigDecimal.valueOf(595000)); // Apr+May+Jun
-        
-        return caParTrimestre;
+
+        CumulMontantsParCle<String> caParTrimestre = new CumulMontantsParCle<>();
+        colonnesFacturesService.getChiffreAffairesParMois(dateDebut, dateFin)
+                .forEach((mois, montant) -> caParTrimestre.ajouter(
+                        "Q" + ((mois.getMonthValue() - 1) / 3 + 1) + "-" + mois.getYear(), montant));
+
+        return caParTrimestre.versMap();
     }
 
     @Override
     public Map<String, BigDecimal> getChiffreAffairesParAnnee(LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Récupération du CA par année du {} au {}", dateDebut, dateFin);
-        
-        Map<String, BigDecimal> caParAnnee = new LinkedHashMap<>();
-        caParAnnee.put("2023", BigDecimal.valueOf(1800000));
-        caParAnnee.put("2024", BigDecimal.valueOf(2100000));
-        
-        return caParAnnee;
+
+        CumulMontantsParCle<String> caParAnnee = new CumulMontantsParCle<>();
+        colonnesFacturesService.getChiffreAffairesParMois(dateDebut, dateFin)
+                .forEach((mois, montant) -> caParAnnee.ajouter(String.valueOf(mois.getYear()), montant));
+
+        return caParAnnee.versMap();
     }
 
     @Override
     public Map<String, Integer> getRepartitionFacturesParStatut(LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Récupération de la répartition des factures par statut du {} au {}", dateDebut, dateFin);
-        
-        Map<String, Integer> repartition = new HashMap<>();
-        repartition.put("PAYEE", 120);
-        repartition.put("EN_ATTENTE", 30);
-        repartition.put("EN_RETARD", 15);
-        repartition.put("ANNULEE", 5);
-        
+
+        ColonnesFactures.Resume resume = colonnesFacturesService.resumer(dateDebut, dateFin, null);
+
+        Map<String, Integer> repartition = new LinkedHashMap<>();
+        for (StatutFacture statut : StatutFacture.values()) {
+            repartition.put(statut.name(), (int) resume.nombre(statut));
+        }
+
         return repartition;
     }
 
     @Override
     public Map<String, BigDecimal> getRepartitionCAParClient(LocalDate dateDebut, LocalDate dateFin, int topN) {
         log.debug("Récupération de la répartition du CA par client (top {}) du {} au {}", topN, dateDebut, dateFin);
-        
-        Map<String, BigDecimal> repartition = new LinkedHashMap<>();
-        repartition.put("Client Premium", BigDecimal.valueOf(45000));
-        repartition.put("Client Gold", BigDecimal.valueOf(38000));
-        repartition.put("Client Silver", BigDecimal.valueOf(32000));
-        repartition.put("Client Bronze", BigDecimal.valueOf(25000));
-        repartition.put("Autres", BigDecimal.valueOf(60000));
-        
-        return repartition;
+
+        return colonnesFacturesService.getChiffreAffairesParClient(dateDebut, dateFin, topN);
     }
 
     @Override
@@ -235,30 +232,38 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Override
     public BigDecimal getTauxCroissanceCA(LocalDate dateDebut, LocalDate dateFin, String periodeComparaison) {
         log.debug("Calcul du taux de croissance du CA du {} au {} vs {}", dateDebut, dateFin, periodeComparaison);
-        
-        // Simulation d'un taux de croissance
-        return BigDecimal.valueOf(12.5); // +12.5%
+
+        ColonnesFactures.Resume resume = colonnesFacturesService.resumer(dateDebut, dateFin, null);
+        ColonnesFactures.Resume precedent = resumerPeriodePrecedente(dateDebut, dateFin, null);
+        if (precedent == null) {
+            return BigDecimal.ZERO;
+        }
+
+        return calculerCroissance(ColonnesFactures.versMontant(resume.montant(STATUTS_ENCAISSES)),
+                ColonnesFactures.versMontant(precedent.montant(STATUTS_ENCAISSES)));
     }
 
     @Override
     public BigDecimal getDelaiMoyenPayement(LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Calcul du délai moyen de paiement du {} au {}", dateDebut, dateFin);
-        
-        return BigDecimal.valueOf(25.3); // 25.3 jours
+
+        return performanceRecouvrementService.calculer(dateDebut, dateFin).getDelaiMoyenPondere();
     }
 
     @Override
     public BigDecimal getTauxPayement(LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Calcul du taux de paiement du {} au {}", dateDebut, dateFin);
-        
-        return BigDecimal.valueOf(82.5); // 82.5%
+
+        ColonnesFactures.Resume resume = colonnesFacturesService.resumer(dateDebut, dateFin, null);
+        return calculerTauxPayement(resume);
     }
 
     @Override
     public BigDecimal getPanierMoyen(LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Calcul du panier moyen du {} au {}", dateDebut, dateFin);
-        
-        return BigDecimal.valueOf(1250.75);
+
+        ColonnesFactures.Resume resume = colonnesFacturesService.resumer(dateDebut, dateFin, null);
+        return calculerPanierMoyen(resume);
     }
 
     @Override
@@ -271,15 +276,15 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Override
     public Integer getNombreClientsActifs(LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Calcul du nombre de clients actifs du {} au {}", dateDebut, dateFin);
-        
-        return 142;
+
+        return clientsActifsService.compterClientsActifs(dateDebut, dateFin).getNombreClients().intValue();
     }
 
     @Override
     public BigDecimal getTauxRetention(LocalDate dateDebut, LocalDate dateFin) {
         log.debug("Calcul du taux de rétention du {} au {}", dateDebut, dateFin);
-        
-        return BigDecimal.valueOf(78.5); // 78.5%
+
+        return cohortesClientsService.getTauxRetention(dateDebut, dateFin);
     }
 
     @Override
@@ -310,20 +315,21 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     public List<TendanceVenteResponse> getPrevisionVentes(LocalDate dateDebut, LocalDate dateFin, String modele) {
         log.debug("Génération des prévisions de ventes du {} au {} avec le modèle: {}", dateDebut, dateFin, modele);
         
+        // Horizon : jusqu'à la fin de la période demandée, six mois par défaut
+        PrevisionVentesResponse prevision = prevoirVentesGlobales(dateFin);
+
         List<TendanceVenteResponse> previsions = new ArrayList<>();
-        
-        // Simulation de prévisions basées sur la tendance
-        for (int i = 1; i <= 6; i++) {
-            String periode = "2024-" + String.format("%02d", 6 + i);
-            BigDecimal previsionCA = BigDecimal.valueOf(220000 + (i * 10000)); // Croissance simulée
-            
-            previsions.add(TendanceVenteResponse.builder()
-                    .periode(periode)
-                    .chiffreAffaires(previsionCA)
-                    .nombreVentes(previsionCA.divide(BigDecimal.valueOf(1100), 0, RoundingMode.DOWN).intValue())
-                    .panierMoyen(BigDecimal.valueOf(1100))
-                    .croissancePeriodePrecedente(BigDecimal.valueOf(5 + (i * 0.5)))
-                    .build());
+        BigDecimal precedent = null;
+        for (PrevisionVentesResponse.PointPrevision point : prevision.getPrevisions()) {
+            YearMonth mois = YearMonth.parse(point.getPeriode());
+            if (dateDebut == null || !mois.isBefore(YearMonth.from(dateDebut))) {
+                previsions.add(TendanceVenteResponse.builder()
+                        .periode(point.getPeriode())
+                        .chiffreAffaires(point.getMontantPrevu())
+                        .croissancePeriodePrecedente(precedent != null ? calculerCroissance(point.getMontantPrevu(), precedent) : null)
+                        .build());
+            }
+            precedent = point.getMontantPrevu();
         }
         
         return previsions;
@@ -385,11 +391,82 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     }
 
     // Méthodes utilitaires privées
-    private BigDecimal calculateChiffreAffaires(LocalDate dateDebut, LocalDate dateFin) {
-        // Simulation du calcul basé sur les données simulées
-        return ventesSimulees.values().stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .multiply(BigDecimal.valueOf(0.8)); // Facteur d'ajustement pour la période
+
+    private PrevisionVentesResponse prevoirVentesGlobales(LocalDate dateFin) {
+        int horizon = 6;
+        if (dateFin != null) {
+            YearMonth prochainMois = YearMonth.now();
+            horizon = (int) Math.max(1, Math.min(24, prochainMois.until(YearMonth.from(dateFin), ChronoUnit.MONTHS) + 1));
+        }
+        return previsionVentesService.getPrevisions(DimensionRollup.GLOBAL, DimensionRollup.VALEUR_GLOBALE, horizon);
+    }
+
+    private AnalytiqueFacturationResponse.AnalytiqueFacturationResponseBuilder construireAnalytiques(
+            ColonnesFactures.Resume resume, ColonnesFactures.Resume precedent) {
+
+        BigDecimal chiffreAffaires = ColonnesFactures.versMontant(resume.montant(STATUTS_ENCAISSES));
+        BigDecimal montantFacture = ColonnesFactures.versMontant(resume.montant(STATUTS_EMIS));
+        BigDecimal montantEnAttente = ColonnesFactures.versMontant(resume.restant(STATUTS_EMIS));
+
+        AnalytiqueFacturationResponse.AnalytiqueFacturationResponseBuilder builder = AnalytiqueFacturationResponse.builder()
+                .chiffreAffairesTotalPeriode(chiffreAffaires)
+                .nombreFacturesEmises((int) resume.nombre(STATUTS_EMIS))
+                .nombreFacturesPayees((int) resume.nombre(StatutFacture.PAYE))
+                .nombreFacturesEnAttente((int) resume.nombre(STATUTS_EN_ATTENTE))
+                .montantTotalFacture(montantFacture)
+                .montantTotalPaye(montantFacture.subtract(montantEnAttente))
+                .montantTotalEnAttente(montantEnAttente)
+                .tauxPayement(calculerTauxPayement(resume))
+                .delaiMoyenPayement(getDelaiMoyenPayement(null, null).intValue())
+                .panierMoyen(calculerPanierMoyen(resume))
+                .dateCalcul(LocalDateTime.now());
+
+        if (precedent != null) {
+            builder.croissanceChiffreAffaires(calculerCroissance(chiffreAffaires,
+                            ColonnesFactures.versMontant(precedent.montant(STATUTS_ENCAISSES))))
+                    .croissanceNombreFactures(calculerCroissance(BigDecimal.valueOf(resume.nombre(STATUTS_EMIS)),
+                            BigDecimal.valueOf(precedent.nombre(STATUTS_EMIS))));
+        }
+
+        return builder;
+    }
+
+    /**
+     * Résumé de la période de même durée précédant immédiatement la période demandée
+     */
+    private ColonnesFactures.Resume resumerPeriodePrecedente(LocalDate dateDebut, LocalDate dateFin, UUID idClient) {
+        if (dateDebut == null || dateFin == null) {
+            return null;
+        }
+        long duree = ChronoUnit.DAYS.between(dateDebut, dateFin) + 1;
+        return colonnesFacturesService.resumer(dateDebut.minusDays(duree), dateDebut.minusDays(1), idClient);
+    }
+
+    private BigDecimal calculerTauxPayement(ColonnesFactures.Resume resume) {
+        long montantFacture = resume.montant(STATUTS_EMIS);
+        if (montantFacture == 0) {
+            return BigDecimal.ZERO;
+        }
+        long montantPaye = montantFacture - resume.restant(STATUTS_EMIS);
+        return BigDecimal.valueOf(montantPaye * 100.0 / montantFacture).setScale(NumberUtil.DEFAULT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private BigDecimal calculerPanierMoyen(ColonnesFactures.Resume resume) {
+        long nombre = resume.nombre(STATUTS_EMIS);
+        if (nombre == 0) {
+            return BigDecimal.ZERO;
+        }
+        return ColonnesFactures.versMontant(resume.montant(STATUTS_EMIS))
+                .divide(BigDecimal.valueOf(nombre), NumberUtil.DEFAULT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private BigDecimal calculerCroissance(BigDecimal valeur, BigDecimal valeurPrecedente) {
+        if (valeurPrecedente == null || valeurPrecedente.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return valeur.subtract(valeurPrecedente)
+                .multiply(BigDecimal.valueOf(100))
+                .divide(valeurPrecedente, NumberUtil.DEFAULT_SCALE, RoundingMode.HALF_UP);
     }
 
     // Implémentations stubs pour les autres méthodes
@@ -405,7 +482,12 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Override public Map<String, Object> chargerConfigurationDashboard(String nomDashboard) { return new HashMap<>(); }
     @Override public void partagerDashboard(String nomDashboard, List<String> utilisateurs, String niveauAcces) { log.info("Partage dashboard {} avec {} utilisateurs", nomDashboard, utilisateurs.size()); }
     @Override public boolean validerCoherenceDonnees(LocalDate dateDebut, LocalDate dateFin) { return true; }
-    @Override public List<String> detecterAnomalies(LocalDate dateDebut, LocalDate dateFin) { return new ArrayList<>(); }
+    @Override
+    public List<String> detecterAnomalies(LocalDate dateDebut, LocalDate dateFin) {
+        return anomaliesService.getAnomalies(null, dateDebut, dateFin).stream()
+                .map(AnomalieResponse::getDescription)
+                .toList();
+    }
     @Override public void configurerSeuilsAlertes(Map<String, BigDecimal> seuils) { log.info("Configuration seuils d'alertes"); }
     @Override public void archiverDonneesAnciennes(LocalDate dateAvant) { log.info("Archivage données avant: {}", dateAvant); }
 }
\ No newline at end of file
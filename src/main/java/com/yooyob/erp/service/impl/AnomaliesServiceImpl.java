@@ -0,0 +1,259 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.AnomalieResponse;
+import com.yooyob.erp.exception.ValidationException;
+import com.yooyob.erp.model.entity.AlerteTableau;
+import com.yooyob.erp.model.entity.Anomalie;
+import com.yooyob.erp.model.entity.AnomalieKey;
+import com.yooyob.erp.model.entity.EtatDetecteurAnomalie;
+import com.yooyob.erp.model.entity.FactureAvoir;
+import com.yooyob.erp.model.entity.Paiement;
+import com.yooyob.erp.model.entity.RollupFacture;
+import com.yooyob.erp.model.entity.TableauBord;
+import com.yooyob.erp.model.enums.DimensionRollup;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import com.yooyob.erp.model.enums.MetriqueAnomalie;
+import com.yooyob.erp.model.enums.StatutAvoir;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.repository.AnomalieRepository;
+import com.yooyob.erp.repository.EtatDetecteurAnomalieRepository;
+import com.yooyob.erp.repository.FactureAvoirRepository;
+import com.yooyob.erp.repository.PaiementRepository;
+import com.yooyob.erp.repository.RollupFactureRepository;
+import com.yooyob.erp.repository.TableauBordRepository;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.service.AnomaliesService;
+import com.yooyob.erp.service.NotificationAlerteService;
+import com.yooyob.erp.util.CumulMontant;
+import com.yooyob.erp.util.DetecteurAnomalies;
+import com.yooyob.erp.util.NumberUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnomaliesServiceImpl implements AnomaliesService {
+
+    private static final Set<StatutFacture> STATUTS_EMIS = EnumSet.of(StatutFacture.ENVOYE, StatutFacture.PAYE,
+            StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD);
+    private static final Set<StatutAvoir> STATUTS_AVOIR_EMIS = EnumSet.of(StatutAvoir.VALIDE, StatutAvoir.APPLIQUE,
+            StatutAvoir.REMBOURSE);
+
+    private final EtatDetecteurAnomalieRepository etatDetecteurAnomalieRepository;
+    private final AnomalieRepository anomalieRepository;
+    private final RollupFactureRepository rollupFactureRepository;
+    private final AgregatsRepository agregatsRepository;
+    private final FactureAvoirRepository factureAvoirRepository;
+    private final PaiementRepository paiementRepository;
+    private final TableauBordRepository tableauBordRepository;
+    private final NotificationAlerteService notificationAlerteService;
+
+    @Value("${app.anomalies.alpha:0.1}")
+    private double alpha;
+
+    @Value("${app.anomalies.gamma:0.1}")
+    private double gamma;
+
+    @Value("${app.anomalies.seuil-z:3.5}")
+    private double seuilZ;
+
+    @Value("${app.anomalies.echauffement-jours:14}")
+    private int echauffementJours;
+
+    @Value("${app.anomalies.historique-jours:90}")
+    private int historiqueJours;
+
+    // Deux passes simultanées intégreraient deux fois les mêmes jours
+    private final Lock verrou = new ReentrantLock();
+
+    @Scheduled(cron = "${app.anomalies.cron:0 20 0 * * *}")
+    public void detecterQuotidien() {
+        try {
+            detecterJoursClos();
+        } catch (Exception e) {
+            log.error("Erreur lors de la détection quotidienne des anomalies", e);
+        }
+    }
+
+    @Override
+    public int detecterJoursClos() {
+        verrou.lock();
+        try {
+            LocalDate veille = LocalDate.now().minusDays(1);
+            int nombreAnomalies = 0;
+            for (MetriqueAnomalie metrique : MetriqueAnomalie.values()) {
+                nombreAnomalies += avancer(metrique, veille);
+            }
+            return nombreAnomalies;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    @Override
+    public List<AnomalieResponse> getAnomalies(MetriqueAnomalie metrique, LocalDate dateDebut, LocalDate dateFin) {
+        if (dateDebut.isAfter(dateFin)) {
+            throw new ValidationException("La date de début doit précéder la date de fin");
+        }
+
+        List<MetriqueAnomalie> metriques = metrique != null ? List.of(metrique) : List.of(MetriqueAnomalie.values());
+        List<AnomalieResponse> anomalies = new ArrayList<>();
+        for (MetriqueAnomalie m : metriques) {
+            anomalieRepository.findByMetriqueAndPeriode(m.name(), dateDebut, dateFin)
+                    .forEach(anomalie -> anomalies.add(versResponse(anomalie)));
+        }
+        anomalies.sort(Comparator.comparing(AnomalieResponse::getJour).reversed());
+        return anomalies;
+    }
+
+    // Méthodes privées utilitaires
+
+    private int avancer(MetriqueAnomalie metrique, LocalDate veille) {
+        EtatDetecteurAnomalie etat = etatDetecteurAnomalieRepository.findById(metrique).orElse(null);
+        DetecteurAnomalies detecteur = etat != null
+                ? new DetecteurAnomalies(alpha, gamma, echauffementJours, etat.getMoyenne(), etat.getVariance(),
+                etat.getSaisons().stream().mapToDouble(Double::doubleValue).toArray(), etat.getNombreObservations())
+                : new DetecteurAnomalies(alpha, gamma, echauffementJours);
+        // Première exécution : l'historique récent sert d'échauffement
+        LocalDate jour = etat != null ? etat.getDernierJour().plusDays(1) : veille.minusDays(historiqueJours);
+        if (jour.isAfter(veille)) {
+            return 0;
+        }
+
+        int nombreAnomalies = 0;
+        for (; !jour.isAfter(veille); jour = jour.plusDays(1)) {
+            int jourSemaine = jour.getDayOfWeek().getValue() - 1;
+            BigDecimal valeur = valeurJournaliere(metrique, jour);
+            double attendu = detecteur.attendu(jourSemaine);
+            double z = detecteur.observer(jourSemaine, valeur.doubleValue(), seuilZ);
+
+            if (Math.abs(z) > seuilZ && metrique.isSurveille(z)) {
+                Anomalie anomalie = Anomalie.builder()
+                        .key(new AnomalieKey(metrique, jour))
+                        .valeur(valeur)
+                        .valeurAttendue(NumberUtil.toBigDecimal(attendu))
+                        .scoreZ(z)
+                        .niveauCriticite(Math.abs(z) >= 2 * seuilZ ? "CRITICAL" : "WARNING")
+                        .createdAt(LocalDateTime.now())
+                        .build();
+                anomalieRepository.save(anomalie);
+                declencherAlertes(anomalie);
+                nombreAnomalies++;
+            }
+        }
+
+        etatDetecteurAnomalieRepository.save(EtatDetecteurAnomalie.builder()
+                .metrique(metrique)
+                .moyenne(detecteur.getMoyenne())
+                .variance(detecteur.getVariance())
+                .saisons(Arrays.stream(detecteur.getSaisons()).boxed().toList())
+                .nombreObservations(detecteur.getNombreObservations())
+                .dernierJour(veille)
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        if (nombreAnomalies > 0) {
+            log.info("{} anomalie(s) relevée(s) sur la métrique {}", nombreAnomalies, metrique);
+        }
+        return nombreAnomalies;
+    }
+
+    /**
+     * Valeur d'un jour clos : lue sur les rollups pour le chiffre d'affaires, sur les écritures du jour sinon
+     */
+    private BigDecimal valeurJournaliere(MetriqueAnomalie metrique, LocalDate jour) {
+        CumulMontant cumul = new CumulMontant();
+        switch (metrique) {
+            case CHIFFRE_AFFAIRES -> rollupFactureRepository.findByPeriodeAndValeurDimension(
+                            agregatsRepository.generationLue(TypeAgregat.ROLLUPS_FACTURES), GranulariteRollup.JOUR.name(), GranulariteRollup.JOUR.periode(jour),
+                            DimensionRollup.GLOBAL.name(), DimensionRollup.VALEUR_GLOBALE).stream()
+                    .filter(rollup -> STATUTS_EMIS.contains(rollup.getKey().getStatut()))
+                    .map(RollupFacture::getMontantTotal)
+                    .forEach(cumul::ajouter);
+            case AVOIRS -> factureAvoirRepository.findByDateCreationBetween(jour, jour).stream()
+                    .filter(avoir -> STATUTS_AVOIR_EMIS.contains(avoir.getStatut()))
+                    .map(FactureAvoir::getMontantTotal)
+                    .forEach(cumul::ajouter);
+            case PAIEMENTS -> paiementRepository.findByDateBetween(jour, jour).stream()
+                    .map(Paiement::getMontant)
+                    .forEach(cumul::ajouter);
+        }
+        return cumul.getMontant();
+    }
+
+    private void declencherAlertes(Anomalie anomalie) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        for (TableauBord tableau : tableauBordRepository.findAll()) {
+            if (tableau.getAlertesConfigurees() == null) {
+                continue;
+            }
+            boolean modifie = false;
+            for (AlerteTableau alerte : tableau.getAlertesConfigurees()) {
+                if (isDeclenchee(alerte, anomalie, maintenant)) {
+                    notificationAlerteService.notifier(alerte, description(anomalie));
+                    alerte.setDerniereAlerte(maintenant);
+                    alerte.setNombreDeclenchements(alerte.getNombreDeclenchements() != null
+                            ? alerte.getNombreDeclenchements() + 1 : 1L);
+                    modifie = true;
+                }
+            }
+            if (modifie) {
+                tableau.setUpdatedAt(maintenant);
+                tableauBordRepository.save(tableau);
+            }
+        }
+    }
+
+    /**
+     * Une alerte suit une métrique d'anomalie par son nom ; l'opérateur restreint le sens
+     * (SUPERIEUR : hausses, INFERIEUR : baisses) et la valeur seuil relève le score z minimal
+     */
+    private boolean isDeclenchee(AlerteTableau alerte, Anomalie anomalie, LocalDateTime maintenant) {
+        if (!Boolean.TRUE.equals(alerte.getActif())
+                || !anomalie.getKey().getMetrique().name().equals(alerte.getMetriqueSurveillee())) {
+            return false;
+        }
+        double z = anomalie.getScoreZ();
+        if (("SUPERIEUR".equals(alerte.getOperateur()) && z < 0) || ("INFERIEUR".equals(alerte.getOperateur()) && z > 0)) {
+            return false;
+        }
+        if (alerte.getValeurSeuil() != null && Math.abs(z) < alerte.getValeurSeuil().doubleValue()) {
+            return false;
+        }
+        return alerte.getDerniereAlerte() == null || alerte.getCooldownMinutes() == null
+                || alerte.getDerniereAlerte().plusMinutes(alerte.getCooldownMinutes()).isBefore(maintenant);
+    }
+
+    private static String description(Anomalie anomalie) {
+        return String.format("%s du %s : %s au lieu de %s attendus (score z %.1f)",
+                anomalie.getKey().getMetrique().getLibelle(), anomalie.getKey().getJour(),
+                NumberUtil.formatCurrency(anomalie.getValeur()), NumberUtil.formatCurrency(anomalie.getValeurAttendue()),
+                anomalie.getScoreZ());
+    }
+
+    private static AnomalieResponse versResponse(Anomalie anomalie) {
+        return AnomalieResponse.builder()
+                .metrique(anomalie.getKey().getMetrique())
+                .libelleMetrique(anomalie.getKey().getMetrique().getLibelle())
+                .jour(anomalie.getKey().getJour())
+                .valeur(anomalie.getValeur())
+                .valeurAttendue(anomalie.getValeurAttendue())
+                .scoreZ(anomalie.getScoreZ())
+                .sens(anomalie.getScoreZ() > 0 ? "HAUSSE" : "BAISSE")
+                .niveauCriticite(anomalie.getNiveauCriticite())
+                .description(description(anomalie))
+                .build();
+    }
+}
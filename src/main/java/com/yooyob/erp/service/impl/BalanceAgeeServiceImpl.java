@@ -0,0 +1,386 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.BalanceAgeeResponse;
+import com.yooyob.erp.exception.ResourceNotFoundException;
+import com.yooyob.erp.model.entity.BalanceAgee;
+import com.yooyob.erp.model.entity.BalanceAgeeKey;
+import com.yooyob.erp.model.entity.EncoursEcheance;
+import com.yooyob.erp.model.entity.EncoursEcheanceKey;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.IndexFacture;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TrancheAge;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.model.enums.TypeIndexFacture;
+import com.yooyob.erp.repository.BalanceAgeeRepository;
+import com.yooyob.erp.repository.EncoursEcheanceRepository;
+import com.yooyob.erp.repository.IndexFactureRepository;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.repository.custom.ParcoursParalleleRepository;
+import com.yooyob.erp.repository.custom.SourceAgregat;
+import com.yooyob.erp.service.BalanceAgeeService;
+import com.yooyob.erp.util.CumulMontant;
+import com.yooyob.erp.util.NumberUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceAgeeServiceImpl implements BalanceAgeeService {
+
+    private static final Set<StatutFacture> STATUTS_ENCOURS =
+            EnumSet.of(StatutFacture.ENVOYE, StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD);
+
+    private final EncoursEcheanceRepository encoursEcheanceRepository;
+    private final BalanceAgeeRepository balanceAgeeRepository;
+    private final IndexFactureRepository indexFactureRepository;
+    private final AgregatsRepository agregatsRepository;
+    private final ParcoursParalleleRepository parcoursParalleleRepository;
+
+    // Nombre de jours relus par le vieillissement quotidien, pour rattraper une exécution manquée
+    @Value("${app.balance-agee.rattrapage-jours:7}")
+    private int joursRattrapage;
+
+    @PostConstruct
+    public void abonner() {
+        agregatsRepository.abonner(TypeAgregat.BALANCE_AGEE, SourceAgregat.FACTURES, this::appliquerDeltas);
+    }
+
+    @Scheduled(cron = "${app.balance-agee.cron:0 5 0 * * *}")
+    public void vieillirBalancesQuotidien() {
+        try {
+            vieillirBalances(LocalDate.now());
+        } catch (Exception e) {
+            log.error("Erreur lors du vieillissement quotidien de la balance âgée", e);
+        }
+    }
+
+    @Override
+    public BalanceAgeeResponse getBalanceAgee() {
+        log.debug("Lecture de la balance âgée");
+
+        List<BalanceAgeeResponse.BalanceClient> clients = lireBalances().stream()
+                .map(this::toBalanceClient)
+                .sorted(Comparator.comparing(BalanceAgeeResponse.BalanceClient::getMontantTotal).reversed())
+                .collect(Collectors.toList());
+
+        CumulMontant[] totaux = new CumulMontant[TrancheAge.values().length + 1];
+        Arrays.setAll(totaux, i -> new CumulMontant());
+        for (BalanceAgeeResponse.BalanceClient client : clients) {
+            totaux[0].ajouter(client.getMontantNonEchu());
+            totaux[1].ajouter(client.getMontant0a30());
+            totaux[2].ajouter(client.getMontant31a60());
+            totaux[3].ajouter(client.getMontant61a90());
+            totaux[4].ajouter(client.getMontantPlus90());
+            totaux[5].ajouter(client.getMontantTotal());
+        }
+
+        return BalanceAgeeResponse.builder()
+                .dateReference(LocalDate.now())
+                .totalNonEchu(totaux[0].getMontant())
+                .total0a30(totaux[1].getMontant())
+                .total31a60(totaux[2].getMontant())
+                .total61a90(totaux[3].getMontant())
+                .totalPlus90(totaux[4].getMontant())
+                .totalEncours(totaux[5].getMontant())
+                .nombreClients(clients.size())
+                .clients(clients)
+                .build();
+    }
+
+    @Override
+    public BalanceAgeeResponse.BalanceClient getBalanceAgeeClient(UUID idClient) {
+        int generation = agregatsRepository.generationLue(TypeAgregat.BALANCE_AGEE);
+        return balanceAgeeRepository.findById(BalanceAgeeKey.pour(generation, idClient))
+                .map(this::toBalanceClient)
+                .orElseThrow(() -> new ResourceNotFoundException("Balance âgée", "idClient", idClient));
+    }
+
+    @Override
+    public Map<UUID, BigDecimal> getEncoursParClient() {
+        return lireBalances().stream()
+                .collect(Collectors.toMap(balance -> balance.getKey().getIdClient(), BalanceAgee::getMontantTotal));
+    }
+
+    @Override
+    public BigDecimal getMontantTotalEchu() {
+        CumulMontant total = new CumulMontant();
+        for (BalanceAgee balance : lireBalances()) {
+            total.ajouterCentimes(Math.subtractExact(NumberUtil.toCentimes(balance.getMontantTotal()),
+                    NumberUtil.toCentimes(balance.getMontantNonEchu())));
+        }
+        return total.getMontant();
+    }
+
+    @Override
+    public int vieillirBalances(LocalDate dateReference) {
+        log.info("Vieillissement de la balance âgée au {}", dateReference);
+
+        // Seuls les clients ayant une échéance qui franchit un seuil de tranche sont recalculés
+        Set<UUID> clients = new HashSet<>();
+        int generationIndex = agregatsRepository.generationLue(TypeAgregat.INDEX_FACTURES);
+        for (int seuil : TrancheAge.SEUILS_JOURS) {
+            LocalDate fin = dateReference.minusDays(seuil);
+            LocalDate debut = fin.minusDays(Math.max(joursRattrapage, 1) - 1L);
+
+            List<String> mois = Stream.iterate(debut.withDayOfMonth(1), m -> !m.isAfter(fin), m -> m.plusMonths(1))
+                    .map(GranulariteRollup.MOIS::periode)
+                    .toList();
+
+            indexFactureRepository.findByBucketsAndDateBetween(generationIndex, TypeIndexFacture.DATE_ECHEANCE.name(),
+                            TypeIndexFacture.VALEUR_TOUTES, mois, debut, fin)
+                    .stream()
+                    .filter(this::isEncours)
+                    .map(IndexFacture::getIdClient)
+                    .filter(Objects::nonNull)
+                    .forEach(clients::add);
+        }
+
+        int generation = agregatsRepository.generationLue(TypeAgregat.BALANCE_AGEE);
+        parcoursParalleleRepository.traiter(clients, idClient -> recalculerClient(generation, idClient, null, dateReference));
+
+        log.info("Balance âgée vieillie: {} clients recalculés", clients.size());
+        return clients.size();
+    }
+
+    @Override
+    public long reconstruireBalances() {
+        log.info("Reconstruction de la balance âgée");
+
+        Cumul cumul = agregatsRepository.reconstruire(TypeAgregat.BALANCE_AGEE, construction -> {
+            int generation = construction.getGeneration();
+            Cumul parcours = construction.parcourir(SourceAgregat.FACTURES, this::appliquerDeltas, Cumul::new,
+                    (partiel, facture) -> {
+                        contribuer(partiel.encours, generation, facture, 1);
+                        if (facture.getIdClient() != null && facture.getNomClient() != null) {
+                            partiel.nomsClients.put(facture.getIdClient(), facture.getNomClient());
+                        }
+                        partiel.nombreFactures++;
+                    },
+                    Cumul::fusionner);
+
+            LocalDateTime maintenant = LocalDateTime.now();
+            List<EncoursEcheance> lignes = new ArrayList<>();
+            parcours.encours.forEach((cle, delta) -> {
+                if (delta.nombre > 0) {
+                    lignes.add(EncoursEcheance.builder()
+                            .key(cle)
+                            .montantRestant(delta.montant)
+                            .nombreFactures(delta.nombre)
+                            .updatedAt(maintenant)
+                            .build());
+                }
+            });
+            construction.ecrire(lignes);
+
+            LocalDate aujourdhui = LocalDate.now();
+            Set<UUID> clients = lignes.stream().map(ligne -> ligne.getKey().getIdClient()).collect(Collectors.toSet());
+            parcoursParalleleRepository.traiter(clients,
+                    idClient -> recalculerClient(generation, idClient, parcours.nomsClients.get(idClient), aujourdhui));
+            parcours.nombreClients = clients.size();
+            return parcours;
+        });
+
+        log.info("Balance âgée reconstruite: {} factures relues, {} clients avec encours",
+                cumul.nombreFactures, cumul.nombreClients);
+        return cumul.nombreFactures;
+    }
+
+    // Méthodes privées utilitaires
+
+    private boolean isEncours(Facture facture) {
+        return facture.getIdClient() != null
+                && facture.getDateEcheance() != null
+                && STATUTS_ENCOURS.contains(facture.getEtat())
+                && NumberUtil.isPositive(facture.getMontantRestant());
+    }
+
+    private boolean isEncours(IndexFacture entree) {
+        return STATUTS_ENCOURS.contains(entree.getEtat()) && NumberUtil.isPositive(entree.getMontantRestant());
+    }
+
+    private List<BalanceAgee> lireBalances() {
+        return balanceAgeeRepository.findByGeneration(agregatsRepository.generationLue(TypeAgregat.BALANCE_AGEE),
+                BalanceAgeeKey.BUCKETS);
+    }
+
+    private void appliquerDeltas(int generation, Facture avant, Facture apres) {
+        Map<EncoursEcheanceKey, Delta> deltas = new HashMap<>();
+        if (avant != null) {
+            contribuer(deltas, generation, avant, -1);
+        }
+        if (apres != null) {
+            contribuer(deltas, generation, apres, 1);
+        }
+
+        Map<UUID, List<Map.Entry<EncoursEcheanceKey, Delta>>> deltasParClient = deltas.entrySet().stream()
+                .filter(entree -> !entree.getValue().isNul())
+                .collect(Collectors.groupingBy(entree -> entree.getKey().getIdClient()));
+        if (deltasParClient.isEmpty()) {
+            return;
+        }
+
+        LocalDate aujourdhui = LocalDate.now();
+
+        deltasParClient.forEach((idClient, deltasClient) -> {
+            deltasClient.forEach(entree -> appliquerDelta(entree.getKey(), entree.getValue()));
+            recalculerClient(generation, idClient, nomClient(idClient, avant, apres), aujourdhui);
+        });
+    }
+
+    /**
+     * Nom à retenir pour un client touché par la modification : celui de l'état après s'il le concerne,
+     * sinon celui de l'état avant. Lors d'un changement de client, l'ancien client garde ainsi son propre nom.
+     */
+    private static String nomClient(UUID idClient, Facture avant, Facture apres) {
+        if (apres != null && idClient.equals(apres.getIdClient())) {
+            return apres.getNomClient();
+        }
+        if (avant != null && idClient.equals(avant.getIdClient())) {
+            return avant.getNomClient();
+        }
+        return null;
+    }
+
+    private void contribuer(Map<EncoursEcheanceKey, Delta> deltas, int generation, Facture facture, int signe) {
+        if (!isEncours(facture)) {
+            return;
+        }
+
+        EncoursEcheanceKey cle = new EncoursEcheanceKey(generation, facture.getIdClient(), facture.getDateEcheance());
+        Delta delta = deltas.computeIfAbsent(cle, k -> new Delta());
+        delta.nombre += signe;
+        delta.montant = signe > 0
+                ? delta.montant.add(facture.getMontantRestant())
+                : delta.montant.subtract(facture.getMontantRestant());
+    }
+
+    private void appliquerDelta(EncoursEcheanceKey cle, Delta delta) {
+        agregatsRepository.modifier(EncoursEcheance.class, cle, existante -> {
+            EncoursEcheance ligne = existante != null ? existante : EncoursEcheance.builder().key(cle).build();
+
+            long nombre = ligne.getNombreFactures() + delta.nombre;
+            if (nombre == 0) {
+                return null;
+            }
+
+            ligne.setNombreFactures(nombre);
+            ligne.setMontantRestant(NumberUtil.safeAdd(ligne.getMontantRestant(), delta.montant));
+            ligne.setUpdatedAt(LocalDateTime.now());
+            return ligne;
+        });
+    }
+
+    /**
+     * Recalcule la balance du client à partir de ses échéances ouvertes (une seule partition). La révision
+     * de la balance est lue avant les échéances : si un autre nœud la réécrit entre-temps à partir
+     * d'échéances plus récentes, ce calcul est rejoué au lieu de l'écraser.
+     */
+    private void recalculerClient(int generation, UUID idClient, String nomClient, LocalDate dateReference) {
+        BalanceAgeeKey cle = BalanceAgeeKey.pour(generation, idClient);
+        agregatsRepository.modifier(BalanceAgee.class, cle, balance -> {
+            List<EncoursEcheance> lignes = encoursEcheanceRepository.findByIdClient(generation, idClient).stream()
+                    .filter(ligne -> ligne.getNombreFactures() > 0)
+                    .toList();
+            if (lignes.isEmpty()) {
+                return null;
+            }
+
+            String nom = nomClient != null ? nomClient : balance != null ? balance.getNomClient() : null;
+            return calculerBalance(cle, nom, lignes, dateReference);
+        });
+    }
+
+    private BalanceAgee calculerBalance(BalanceAgeeKey cle, String nomClient, List<EncoursEcheance> lignes,
+                                       LocalDate dateReference) {
+        long[] tranches = new long[TrancheAge.values().length];
+        long total = 0;
+        long nombreFactures = 0;
+
+        for (EncoursEcheance ligne : lignes) {
+            int tranche = TrancheAge.pour(ligne.getKey().getDateEcheance(), dateReference).ordinal();
+            long montant = NumberUtil.toCentimes(ligne.getMontantRestant());
+            tranches[tranche] = Math.addExact(tranches[tranche], montant);
+            total = Math.addExact(total, montant);
+            nombreFactures += ligne.getNombreFactures();
+        }
+
+        return BalanceAgee.builder()
+                .key(cle)
+                .nomClient(nomClient)
+                .montantNonEchu(NumberUtil.fromCentimes(tranches[TrancheAge.NON_ECHU.ordinal()]))
+                .montant0a30(NumberUtil.fromCentimes(tranches[TrancheAge.JOURS_0_30.ordinal()]))
+                .montant31a60(NumberUtil.fromCentimes(tranches[TrancheAge.JOURS_31_60.ordinal()]))
+                .montant61a90(NumberUtil.fromCentimes(tranches[TrancheAge.JOURS_61_90.ordinal()]))
+                .montantPlus90(NumberUtil.fromCentimes(tranches[TrancheAge.PLUS_90.ordinal()]))
+                .montantTotal(NumberUtil.fromCentimes(total))
+                .nombreFactures(nombreFactures)
+                .dateCalcul(dateReference)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private BalanceAgeeResponse.BalanceClient toBalanceClient(BalanceAgee balance) {
+        return BalanceAgeeResponse.BalanceClient.builder()
+                .idClient(balance.getKey().getIdClient())
+                .nomClient(balance.getNomClient())
+                .montantNonEchu(balance.getMontantNonEchu())
+                .montant0a30(balance.getMontant0a30())
+                .montant31a60(balance.getMontant31a60())
+                .montant61a90(balance.getMontant61a90())
+                .montantPlus90(balance.getMontantPlus90())
+                .montantTotal(balance.getMontantTotal())
+                .nombreFactures(balance.getNombreFactures())
+                .dateCalcul(balance.getDateCalcul())
+                .build();
+    }
+
+    private static EncoursEcheance cumuler(EncoursEcheance existante, EncoursEcheance calculee) {
+        existante.setNombreFactures(existante.getNombreFactures() + calculee.getNombreFactures());
+        existante.setMontantRestant(NumberUtil.safeAdd(existante.getMontantRestant(), calculee.getMontantRestant()));
+        existante.setUpdatedAt(calculee.getUpdatedAt());
+        return existante;
+    }
+
+    private static final class Cumul {
+        private final Map<EncoursEcheanceKey, Delta> encours = new HashMap<>();
+        private final Map<UUID, String> nomsClients = new HashMap<>();
+        private long nombreFactures;
+        private int nombreClients;
+
+        private Cumul fusionner(Cumul autre) {
+            autre.encours.forEach((cle, delta) -> encours.merge(cle, delta, Delta::ajouter));
+            nomsClients.putAll(autre.nomsClients);
+            nombreFactures += autre.nombreFactures;
+            return this;
+        }
+    }
+
+    private static final class Delta {
+        private long nombre;
+        private BigDecimal montant = BigDecimal.ZERO;
+
+        private Delta ajouter(Delta autre) {
+            nombre += autre.nombre;
+            montant = montant.add(autre.montant);
+            return this;
+        }
+
+        private boolean isNul() {
+            return nombre == 0 && NumberUtil.isZero(montant);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.yooyob.erp.service.impl;
 import com.yooyob.erp.dto.request.ClientCreateRequest;
 import com.yooyob.erp.dto.request.ClientUpdateRequest;
 import com.yooyob.erp.dto.response.ClientResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.exception.ResourceNotFoundException;
 import com.yooyob.erp.exception.ValidationException;
 import com.yooyob.erp.mapper.ClientMapper;
@@ -12,6 +13,7 @@ import com.yooyob.erp.repository.ClientRepository;
 import com.yooyob.erp.service.ClientService;
 import com.yooyob.erp.util.CacheUtil;
 import com.yooyob.erp.util.ValidationUtil;
+import com.yooyob.erp.util.CurseurUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -19,6 +21,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -136,6 +139,14 @@ public class ClientServiceImpl implements ClientService {
         return new PageImpl<>(responses, pageable, clientsPage.getTotalElements());
     }
 
+    @Override
+    public PageCurseurResponse<ClientResponse> getClientsParCurseur(String curseur, int taille) {
+        log.debug("Récupération des clients par curseur");
+
+        Slice<Client> slice = CurseurUtil.lire(CurseurUtil.decoder(curseur, taille), clientRepository::findAll);
+        return CurseurUtil.versReponse(slice, clientMapper::toResponseList);
+    }
+
     @Override
     public List<ClientResponse> getAllActiveClients() {
         log.debug("Récupération de tous les clients actifs");
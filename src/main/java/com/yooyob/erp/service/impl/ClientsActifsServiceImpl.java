@@ -0,0 +1,190 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.ClientsActifsResponse;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.SketchClients;
+import com.yooyob.erp.model.entity.SketchClientsKey;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.repository.SketchClientsRepository;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.repository.custom.SourceAgregat;
+import com.yooyob.erp.service.ClientsActifsService;
+import com.yooyob.erp.service.ColonnesFacturesService;
+import com.yooyob.erp.util.HyperLogLog;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientsActifsServiceImpl implements ClientsActifsService {
+
+    private static final int TAILLE_LOT_LECTURE = 100;
+    private static final Set<StatutFacture> STATUTS_EMIS = EnumSet.of(StatutFacture.ENVOYE, StatutFacture.PAYE,
+            StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD);
+    private static final List<GranulariteRollup> GRANULARITES = List.of(GranulariteRollup.JOUR, GranulariteRollup.MOIS);
+
+    private final SketchClientsRepository sketchClientsRepository;
+    private final AgregatsRepository agregatsRepository;
+    private final ColonnesFacturesService colonnesFacturesService;
+
+    @Value("${app.clients-actifs.exact:false}")
+    private boolean modeExact;
+
+    @PostConstruct
+    public void abonner() {
+        agregatsRepository.abonner(TypeAgregat.CLIENTS_ACTIFS, SourceAgregat.FACTURES, this::enregistrer);
+    }
+
+    @Override
+    public void enregistrer(Facture facture) {
+        enregistrer(agregatsRepository.generationLue(TypeAgregat.CLIENTS_ACTIFS), null, facture);
+    }
+
+    @Override
+    public ClientsActifsResponse compterClientsActifs(LocalDate dateDebut, LocalDate dateFin) {
+        if (modeExact || dateDebut == null || dateFin == null) {
+            return ClientsActifsResponse.builder()
+                    .dateDebut(dateDebut)
+                    .dateFin(dateFin)
+                    .nombreClients((long) colonnesFacturesService.getNombreClientsActifs(dateDebut, dateFin))
+                    .exact(true)
+                    .erreurRelative(0.0)
+                    .build();
+        }
+
+        int generation = agregatsRepository.generationLue(TypeAgregat.CLIENTS_ACTIFS);
+        HyperLogLog union = new HyperLogLog();
+        List<String> jours = new ArrayList<>();
+        List<String> mois = new ArrayList<>();
+
+        // Mois complets lus à la granularité mensuelle, jours isolés aux bornes
+        LocalDate courant = dateDebut;
+        while (!courant.isAfter(dateFin)) {
+            LocalDate finMois = courant.withDayOfMonth(courant.lengthOfMonth());
+            if (courant.getDayOfMonth() == 1 && !finMois.isAfter(dateFin)) {
+                mois.add(GranulariteRollup.MOIS.periode(courant));
+                courant = finMois.plusDays(1);
+            } else {
+                jours.add(GranulariteRollup.JOUR.periode(courant));
+                courant = courant.plusDays(1);
+            }
+        }
+
+        fusionnerEsquisses(union, generation, GranulariteRollup.MOIS, mois);
+        fusionnerEsquisses(union, generation, GranulariteRollup.JOUR, jours);
+
+        return ClientsActifsResponse.builder()
+                .dateDebut(dateDebut)
+                .dateFin(dateFin)
+                .nombreClients(union.estimer())
+                .exact(false)
+                .erreurRelative(HyperLogLog.ERREUR_RELATIVE)
+                .build();
+    }
+
+    @Override
+    public long reconstruireSketches() {
+        log.info("Reconstruction des esquisses de clients actifs");
+
+        int nombreEsquisses = agregatsRepository.reconstruire(TypeAgregat.CLIENTS_ACTIFS, construction -> {
+            int generation = construction.getGeneration();
+            Map<SketchClientsKey, HyperLogLog> esquisses = construction.parcourir(SourceAgregat.FACTURES,
+                    this::enregistrer,
+                    HashMap::new,
+                    (partiel, facture) -> {
+                        if (isComptee(facture)) {
+                            for (GranulariteRollup granularite : GRANULARITES) {
+                                partiel.computeIfAbsent(cle(generation, granularite, facture), k -> new HyperLogLog())
+                                        .ajouter(facture.getIdClient());
+                            }
+                        }
+                    },
+                    (a, b) -> {
+                        b.forEach((cle, esquisse) -> a.merge(cle, esquisse, HyperLogLog::fusionner));
+                        return a;
+                    });
+
+            LocalDateTime maintenant = LocalDateTime.now();
+            List<SketchClients> lignes = new ArrayList<>(esquisses.size());
+            esquisses.forEach((cle, esquisse) -> lignes.add(versEntite(cle, esquisse, maintenant)));
+            construction.ecrire(lignes);
+            return esquisses.size();
+        });
+
+        log.info("Esquisses de clients actifs reconstruites: {} périodes", nombreEsquisses);
+        return nombreEsquisses;
+    }
+
+    // Méthodes privées utilitaires
+
+    private void enregistrer(int generation, Facture avant, Facture apres) {
+        if (apres == null || !isComptee(apres)) {
+            return;
+        }
+
+        for (GranulariteRollup granularite : GRANULARITES) {
+            SketchClientsKey cle = cle(generation, granularite, apres);
+            // Les registres ne font que croître : un client déjà compté dans l'esquisse lue l'est dans toute
+            // version ultérieure, il n'y a alors rien à réécrire
+            boolean modifiee = sketchClientsRepository.findById(cle)
+                    .map(sketch -> lire(sketch).ajouter(apres.getIdClient()))
+                    .orElse(true);
+            if (modifiee) {
+                agregatsRepository.modifier(SketchClients.class, cle, sketch -> {
+                    HyperLogLog esquisse = sketch != null ? lire(sketch) : new HyperLogLog();
+                    esquisse.ajouter(apres.getIdClient());
+                    return versEntite(cle, esquisse, LocalDateTime.now());
+                });
+            }
+        }
+    }
+
+    private void fusionnerEsquisses(HyperLogLog union, int generation, GranulariteRollup granularite,
+                                    List<String> periodes) {
+        for (int i = 0; i < periodes.size(); i += TAILLE_LOT_LECTURE) {
+            sketchClientsRepository.findByPeriodes(generation, granularite.name(),
+                            periodes.subList(i, Math.min(i + TAILLE_LOT_LECTURE, periodes.size())))
+                    .forEach(sketch -> union.fusionner(lire(sketch)));
+        }
+    }
+
+    private static boolean isComptee(Facture facture) {
+        return facture.getIdClient() != null && facture.getDateFacturation() != null
+                && STATUTS_EMIS.contains(facture.getEtat());
+    }
+
+    private static SketchClientsKey cle(int generation, GranulariteRollup granularite, Facture facture) {
+        return new SketchClientsKey(generation, granularite, granularite.periode(facture.getDateFacturation()));
+    }
+
+    private static HyperLogLog lire(SketchClients sketch) {
+        ByteBuffer registres = sketch.getRegistres().duplicate();
+        byte[] octets = new byte[registres.remaining()];
+        registres.get(octets);
+        return HyperLogLog.depuisOctets(octets);
+    }
+
+    private static SketchClients versEntite(SketchClientsKey cle, HyperLogLog esquisse, LocalDateTime maintenant) {
+        return SketchClients.builder()
+                .key(cle)
+                .registres(ByteBuffer.wrap(esquisse.versOctets()))
+                .updatedAt(maintenant)
+                .build();
+    }
+}
@@ -0,0 +1,344 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.CohortesClientsResponse;
+import com.yooyob.erp.exception.ValidationException;
+import com.yooyob.erp.model.entity.BitmapClientsMois;
+import com.yooyob.erp.model.entity.BitmapClientsMoisKey;
+import com.yooyob.erp.model.entity.CompteurNumerosClients;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.FacturesClientMois;
+import com.yooyob.erp.model.entity.FacturesClientMoisKey;
+import com.yooyob.erp.model.entity.NumeroClient;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.repository.BitmapClientsMoisRepository;
+import com.yooyob.erp.repository.FacturesClientMoisRepository;
+import com.yooyob.erp.repository.NumeroClientRepository;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.repository.custom.SourceAgregat;
+import com.yooyob.erp.service.CohortesClientsService;
+import com.yooyob.erp.util.NumberUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.springframework.data.cassandra.core.CassandraTemplate;
+import org.springframework.data.cassandra.core.InsertOptions;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CohortesClientsServiceImpl implements CohortesClientsService {
+
+    private static final int NOMBRE_MOIS_MAX = 60;
+    private static final int TAILLE_PLAGE_NUMEROS = 64;
+    private static final Set<StatutFacture> STATUTS_EMIS = EnumSet.of(StatutFacture.ENVOYE, StatutFacture.PAYE,
+            StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD);
+
+    private final BitmapClientsMoisRepository bitmapClientsMoisRepository;
+    private final FacturesClientMoisRepository facturesClientMoisRepository;
+    private final NumeroClientRepository numeroClientRepository;
+    private final AgregatsRepository agregatsRepository;
+    private final CassandraTemplate cassandraTemplate;
+
+    // Dictionnaire client -> numéro dense, chargé au premier besoin ; l'attribution est sérialisée
+    private final Map<UUID, Integer> numerosClients = new ConcurrentHashMap<>();
+    private final Object verrouNumerotation = new Object();
+    private volatile boolean numerosCharges;
+    private int prochainNumero;
+    // Fin exclue de la plage de numéros réservée par cette instance
+    private int finPlage;
+
+    @PostConstruct
+    public void abonner() {
+        agregatsRepository.abonner(TypeAgregat.COHORTES_CLIENTS, SourceAgregat.FACTURES, this::enregistrer);
+    }
+
+    @Override
+    public void enregistrer(Facture facture) {
+        enregistrer(agregatsRepository.generationLue(TypeAgregat.COHORTES_CLIENTS), null, facture);
+    }
+
+    @Override
+    public CohortesClientsResponse getMatriceCohortes(YearMonth moisDebut, YearMonth moisFin) {
+        if (moisDebut.isAfter(moisFin)) {
+            throw new ValidationException("Le mois de début doit précéder le mois de fin");
+        }
+        int nombreMois = (int) ChronoUnit.MONTHS.between(moisDebut, moisFin) + 1;
+        if (nombreMois > NOMBRE_MOIS_MAX) {
+            throw new ValidationException("La matrice de cohortes est limitée à " + NOMBRE_MOIS_MAX + " mois");
+        }
+
+        NavigableMap<YearMonth, RoaringBitmap> clientsParMois = chargerBitmaps(moisFin);
+
+        // Clients déjà facturés avant le premier mois : ils n'appartiennent à aucune cohorte de la plage
+        RoaringBitmap dejaVus = RoaringBitmap.or(clientsParMois.headMap(moisDebut, false).values().iterator());
+
+        List<CohortesClientsResponse.LigneCohorte> cohortes = new ArrayList<>(nombreMois);
+        for (int i = 0; i < nombreMois; i++) {
+            YearMonth mois = moisDebut.plusMonths(i);
+            RoaringBitmap clientsDuMois = clientsParMois.getOrDefault(mois, new RoaringBitmap());
+            RoaringBitmap cohorte = RoaringBitmap.andNot(clientsDuMois, dejaVus);
+            dejaVus.or(clientsDuMois);
+
+            int taille = cohorte.getCardinality();
+            List<Integer> clientsRetenus = new ArrayList<>(nombreMois - i);
+            List<BigDecimal> tauxRetention = new ArrayList<>(nombreMois - i);
+            for (int decalage = 0; i + decalage < nombreMois; decalage++) {
+                RoaringBitmap clientsSuivants = clientsParMois.get(mois.plusMonths(decalage));
+                int retenus = clientsSuivants != null ? RoaringBitmap.andCardinality(cohorte, clientsSuivants) : 0;
+                clientsRetenus.add(retenus);
+                tauxRetention.add(NumberUtil.percentage(BigDecimal.valueOf(retenus), BigDecimal.valueOf(taille)));
+            }
+
+            cohortes.add(CohortesClientsResponse.LigneCohorte.builder()
+                    .cohorte(mois.toString())
+                    .taille(taille)
+                    .clientsRetenus(clientsRetenus)
+                    .tauxRetention(tauxRetention)
+                    .build());
+        }
+
+        return CohortesClientsResponse.builder()
+                .moisDebut(moisDebut.toString())
+                .moisFin(moisFin.toString())
+                .cohortes(cohortes)
+                .build();
+    }
+
+    @Override
+    public BigDecimal getTauxRetention(LocalDate dateDebut, LocalDate dateFin) {
+        YearMonth moisDebut = YearMonth.from(dateDebut);
+        YearMonth moisFin = YearMonth.from(dateFin);
+        long nombreMois = ChronoUnit.MONTHS.between(moisDebut, moisFin) + 1;
+        if (nombreMois <= 0) {
+            throw new ValidationException("La date de début doit précéder la date de fin");
+        }
+
+        NavigableMap<YearMonth, RoaringBitmap> clientsParMois = chargerBitmaps(moisFin);
+        RoaringBitmap periodePrecedente = RoaringBitmap.or(
+                clientsParMois.subMap(moisDebut.minusMonths(nombreMois), true, moisDebut, false).values().iterator());
+        RoaringBitmap periode = RoaringBitmap.or(
+                clientsParMois.subMap(moisDebut, true, moisFin, true).values().iterator());
+
+        return NumberUtil.percentage(
+                BigDecimal.valueOf(RoaringBitmap.andCardinality(periodePrecedente, periode)),
+                BigDecimal.valueOf(periodePrecedente.getCardinality()));
+    }
+
+    @Override
+    public int reconstruireBitmaps() {
+        log.info("Reconstruction des bitmaps de cohortes de clients");
+
+        int nombreMois = agregatsRepository.reconstruire(TypeAgregat.COHORTES_CLIENTS, construction -> {
+            int generation = construction.getGeneration();
+            // Nombre de factures émises par mois puis par client ; les bitmaps en sont déduits
+            Map<String, Map<UUID, Long>> facturesParMois = construction.parcourir(SourceAgregat.FACTURES,
+                    this::enregistrer,
+                    HashMap::new,
+                    (partiel, facture) -> {
+                        if (isComptee(facture)) {
+                            partiel.computeIfAbsent(YearMonth.from(facture.getDateFacturation()).toString(),
+                                    k -> new HashMap<>()).merge(facture.getIdClient(), 1L, Long::sum);
+                        }
+                    },
+                    (a, b) -> {
+                        b.forEach((mois, clients) -> a.merge(mois, clients, (x, y) -> {
+                            y.forEach((idClient, nombre) -> x.merge(idClient, nombre, Long::sum));
+                            return x;
+                        }));
+                        return a;
+                    });
+
+            LocalDateTime maintenant = LocalDateTime.now();
+            List<FacturesClientMois> compteurs = new ArrayList<>();
+            List<BitmapClientsMois> bitmaps = new ArrayList<>(facturesParMois.size());
+            facturesParMois.forEach((mois, clients) -> {
+                RoaringBitmap numeros = new RoaringBitmap();
+                clients.forEach((idClient, nombre) -> {
+                    numeros.add(numeroClient(idClient));
+                    compteurs.add(FacturesClientMois.builder()
+                            .key(new FacturesClientMoisKey(generation, idClient, mois))
+                            .nombreFactures(nombre)
+                            .updatedAt(maintenant)
+                            .build());
+                });
+                bitmaps.add(versEntite(new BitmapClientsMoisKey(generation, mois), numeros, maintenant));
+            });
+            construction.ecrire(compteurs);
+            construction.ecrire(bitmaps);
+            return bitmaps.size();
+        });
+
+        log.info("Bitmaps de cohortes reconstruits: {} mois, {} clients numérotés", nombreMois, numerosClients.size());
+        return nombreMois;
+    }
+
+    // Méthodes privées utilitaires
+
+    /**
+     * Reporte le passage d'une facture de l'état avant à l'état après : le nombre de factures émises du client
+     * est décrémenté sur le mois de l'état avant et incrémenté sur celui de l'état après, ce qui couvre création,
+     * suppression, annulation et changement de client ou de date. Le bitmap d'un mois n'est réécrit que pour
+     * un client dont le nombre passe de zéro à positif ou inversement.
+     */
+    private void enregistrer(int generation, Facture avant, Facture apres) {
+        Map<FacturesClientMoisKey, Integer> deltas = new HashMap<>(2);
+        if (avant != null && isComptee(avant)) {
+            deltas.merge(cleCompteur(generation, avant), -1, Integer::sum);
+        }
+        if (apres != null && isComptee(apres)) {
+            deltas.merge(cleCompteur(generation, apres), 1, Integer::sum);
+        }
+
+        deltas.forEach((cle, delta) -> {
+            if (delta == 0) {
+                return;
+            }
+            boolean[] presenceModifiee = new boolean[1];
+            agregatsRepository.modifier(FacturesClientMois.class, cle, existant -> {
+                long avantDelta = existant != null ? existant.getNombreFactures() : 0L;
+                long nombre = Math.max(0L, avantDelta + delta);
+                presenceModifiee[0] = (avantDelta > 0) != (nombre > 0);
+                if (nombre == 0) {
+                    return null;
+                }
+                FacturesClientMois ligne = existant != null ? existant : FacturesClientMois.builder().key(cle).build();
+                ligne.setNombreFactures(nombre);
+                ligne.setUpdatedAt(LocalDateTime.now());
+                return ligne;
+            });
+            if (presenceModifiee[0]) {
+                synchroniserBitmap(cle);
+            }
+        });
+    }
+
+    /**
+     * Met la présence du client dans le bitmap du mois en accord avec son nombre de factures. Le nombre est relu
+     * à chaque tentative, après la révision du bitmap : si un autre nœud le fait repasser à zéro ou au-dessus
+     * entre-temps, soit cette écriture échoue sur la révision et est rejouée avec le nouveau nombre, soit elle
+     * passe avant et l'autre nœud réécrit le bitmap après elle.
+     */
+    private void synchroniserBitmap(FacturesClientMoisKey compteur) {
+        int numero = numeroClient(compteur.getIdClient());
+        BitmapClientsMoisKey cle = new BitmapClientsMoisKey(compteur.getGeneration(), compteur.getMois());
+        agregatsRepository.modifier(BitmapClientsMois.class, cle, bitmap -> {
+            boolean present = facturesClientMoisRepository.findById(compteur)
+                    .map(ligne -> ligne.getNombreFactures() > 0)
+                    .orElse(false);
+            RoaringBitmap clients = bitmap != null ? lire(bitmap) : new RoaringBitmap();
+            if (present) {
+                clients.add(numero);
+            } else {
+                clients.remove(numero);
+            }
+            return clients.isEmpty() ? null : versEntite(cle, clients, LocalDateTime.now());
+        });
+    }
+
+    private static FacturesClientMoisKey cleCompteur(int generation, Facture facture) {
+        return new FacturesClientMoisKey(generation, facture.getIdClient(),
+                YearMonth.from(facture.getDateFacturation()).toString());
+    }
+
+    private NavigableMap<YearMonth, RoaringBitmap> chargerBitmaps(YearMonth moisFin) {
+        NavigableMap<YearMonth, RoaringBitmap> clientsParMois = new TreeMap<>();
+        bitmapClientsMoisRepository.findJusquA(agregatsRepository.generationLue(TypeAgregat.COHORTES_CLIENTS),
+                        moisFin.toString())
+                .forEach(bitmap -> clientsParMois.put(YearMonth.parse(bitmap.getKey().getMois()), lire(bitmap)));
+        return clientsParMois;
+    }
+
+    /**
+     * Numéro dense du client, attribué et persisté à sa première facture. Les numéros sont pris dans une
+     * plage réservée par cette instance ; si une autre instance a numéroté le client entre-temps,
+     * son numéro l'emporte et celui pris ici reste inutilisé.
+     */
+    private int numeroClient(UUID idClient) {
+        Integer numero = numerosClients.get(idClient);
+        if (numero != null) {
+            return numero;
+        }
+        synchronized (verrouNumerotation) {
+            if (!numerosCharges) {
+                numeroClientRepository.findAll().forEach(existant -> {
+                    numerosClients.put(existant.getIdClient(), existant.getNumero());
+                    prochainNumero = Math.max(prochainNumero, existant.getNumero() + 1);
+                });
+                numerosCharges = true;
+            }
+            numero = numerosClients.get(idClient);
+            if (numero == null) {
+                numero = numeroClientRepository.findById(idClient)
+                        .map(NumeroClient::getNumero)
+                        .orElseGet(() -> attribuerNumero(idClient));
+                numerosClients.put(idClient, numero);
+            }
+            return numero;
+        }
+    }
+
+    private int attribuerNumero(UUID idClient) {
+        if (prochainNumero >= finPlage) {
+            reserverPlage();
+        }
+        NumeroClient numero = new NumeroClient(idClient, prochainNumero++);
+        if (cassandraTemplate.insert(numero, InsertOptions.builder().withIfNotExists().build()).wasApplied()) {
+            return numero.getNumero();
+        }
+        return numeroClientRepository.findById(idClient)
+                .map(NumeroClient::getNumero)
+                .orElseThrow(() -> new IllegalStateException("Numéro du client " + idClient + " introuvable"));
+    }
+
+    private void reserverPlage() {
+        // Les numéros attribués avant l'introduction du compteur sont déjà chargés : la plage commence au-delà
+        int minimum = prochainNumero;
+        int[] debut = new int[1];
+        agregatsRepository.modifier(CompteurNumerosClients.class, CompteurNumerosClients.CLE_UNIQUE, compteur -> {
+            CompteurNumerosClients courant = compteur != null ? compteur : CompteurNumerosClients.builder()
+                    .cle(CompteurNumerosClients.CLE_UNIQUE)
+                    .build();
+            debut[0] = Math.max(courant.getProchainNumero(), minimum);
+            courant.setProchainNumero(debut[0] + TAILLE_PLAGE_NUMEROS);
+            courant.setUpdatedAt(LocalDateTime.now());
+            return courant;
+        });
+        prochainNumero = debut[0];
+        finPlage = debut[0] + TAILLE_PLAGE_NUMEROS;
+    }
+
+    private static boolean isComptee(Facture facture) {
+        return facture.getIdClient() != null && facture.getDateFacturation() != null
+                && STATUTS_EMIS.contains(facture.getEtat());
+    }
+
+    private static RoaringBitmap lire(BitmapClientsMois bitmap) {
+        return new ImmutableRoaringBitmap(bitmap.getClients().duplicate()).toRoaringBitmap();
+    }
+
+    private static BitmapClientsMois versEntite(BitmapClientsMoisKey cle, RoaringBitmap clients, LocalDateTime maintenant) {
+        clients.runOptimize();
+        ByteBuffer octets = ByteBuffer.allocate(clients.serializedSizeInBytes());
+        clients.serialize(octets);
+        octets.flip();
+        return BitmapClientsMois.builder()
+                .key(cle)
+                .clients(octets)
+                .nombreClients(clients.getCardinality())
+                .updatedAt(maintenant)
+                .build();
+    }
+}
@@ -0,0 +1,296 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.event.FactureEvent;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.repository.custom.ColonnesFactures;
+import com.yooyob.erp.service.ColonnesFacturesService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.cassandra.core.CassandraTemplate;
+import org.springframework.data.cassandra.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ColonnesFacturesServiceImpl implements ColonnesFacturesService {
+
+    private static final int MASQUE_ENCAISSE = ColonnesFactures.masque(StatutFacture.PAYE, StatutFacture.PARTIELLEMENT_PAYE);
+    private static final int MASQUE_EMIS = ColonnesFactures.masque(StatutFacture.ENVOYE, StatutFacture.PAYE,
+            StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD);
+    private static final String AUTRES_CLIENTS = "Autres";
+
+    private final CassandraTemplate cassandraTemplate;
+
+    private final ReadWriteLock verrou = new ReentrantReadWriteLock();
+    // Un seul rechargement à la fois : chacun mémorise les modifications reçues pendant son parcours
+    private final ReentrantLock rechargement = new ReentrantLock();
+    private ColonnesFactures colonnes = new ColonnesFactures();
+    private boolean pret;
+    private final AtomicLong version = new AtomicLong();
+
+    // Pendant un rechargement, les modifications sont aussi mémorisées pour être rejouées sur le nouvel instantané
+    private List<Facture[]> modificationsPendantChargement;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void chargerAuDemarrage() {
+        Thread.ofVirtual().name("chargement-colonnes-factures").start(() -> {
+            try {
+                recharger();
+            } catch (Exception e) {
+                log.error("Erreur lors du chargement de l'instantané colonnaire des factures", e);
+            }
+        });
+    }
+
+    /**
+     * L'instantané ne reçoit que les écritures du nœud : il est rechargé périodiquement pour intégrer
+     * celles des autres nœuds
+     */
+    @Scheduled(fixedDelayString = "${app.colonnes-factures.rechargement-ms:300000}",
+            initialDelayString = "${app.colonnes-factures.rechargement-ms:300000}")
+    public void rechargerPeriodiquement() {
+        if (rechargement.isLocked()) {
+            log.debug("Rechargement de l'instantané colonnaire déjà en cours, exécution planifiée ignorée");
+            return;
+        }
+        try {
+            recharger();
+        } catch (Exception e) {
+            log.error("Erreur lors du rechargement périodique de l'instantané colonnaire des factures", e);
+        }
+    }
+
+    @EventListener
+    public void onFactureEvent(FactureEvent event) {
+        try {
+            appliquerModification(event.getAvant(), event.getApres());
+        } catch (Exception e) {
+            // L'instantané a pu rester incohérent : il est rechargé sans attendre la prochaine échéance
+            log.error("Erreur lors de la mise à jour de l'instantané colonnaire des factures, rechargement", e);
+            if (!rechargement.isLocked()) {
+                chargerAuDemarrage();
+            }
+        }
+    }
+
+    @Override
+    public void appliquerModification(Facture avant, Facture apres) {
+        verrou.writeLock().lock();
+        try {
+            appliquer(colonnes, avant, apres);
+            version.incrementAndGet();
+            if (modificationsPendantChargement != null) {
+                modificationsPendantChargement.add(new Facture[]{avant, apres});
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long recharger() {
+        rechargement.lock();
+        try {
+            return charger();
+        } finally {
+            rechargement.unlock();
+        }
+    }
+
+    @Override
+    public boolean isPret() {
+        verrou.readLock().lock();
+        try {
+            return pret;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public ColonnesFactures.Resume resumer(LocalDate dateDebut, LocalDate dateFin, UUID idClient) {
+        verrou.readLock().lock();
+        try {
+            int indexClient = -1;
+            if (idClient != null) {
+                indexClient = colonnes.chercherClient(idClient);
+                if (indexClient < 0) {
+                    return colonnes.resumer(0, -1, -1);
+                }
+            }
+            return colonnes.resumer(jourDebut(dateDebut), jourFin(dateFin), indexClient);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<YearMonth, BigDecimal> getChiffreAffairesParMois(LocalDate dateDebut, LocalDate dateFin) {
+        LocalDate fin = dateFin != null ? dateFin : LocalDate.now();
+        LocalDate debut = dateDebut != null ? dateDebut : fin.minusMonths(11).withDayOfMonth(1);
+        YearMonth premierMois = YearMonth.from(debut);
+        int nombreMois = nombreMois(premierMois, YearMonth.from(fin));
+
+        long[] montants;
+        verrou.readLock().lock();
+        try {
+            montants = colonnes.montantsParMois(jourDebut(debut), jourFin(fin),
+                    ColonnesFactures.versMois(debut), nombreMois, MASQUE_ENCAISSE);
+        } finally {
+            verrou.readLock().unlock();
+        }
+
+        Map<YearMonth, BigDecimal> resultat = new LinkedHashMap<>();
+        for (int i = 0; i < nombreMois; i++) {
+            resultat.put(premierMois.plusMonths(i), ColonnesFactures.versMontant(montants[i]));
+        }
+        return resultat;
+    }
+
+    @Override
+    public Map<YearMonth, Long> getNombreFacturesParMois(LocalDate dateDebut, LocalDate dateFin) {
+        LocalDate fin = dateFin != null ? dateFin : LocalDate.now();
+        LocalDate debut = dateDebut != null ? dateDebut : fin.minusMonths(11).withDayOfMonth(1);
+        YearMonth premierMois = YearMonth.from(debut);
+        int nombreMois = nombreMois(premierMois, YearMonth.from(fin));
+
+        long[] nombres;
+        verrou.readLock().lock();
+        try {
+            nombres = colonnes.nombresParMois(jourDebut(debut), jourFin(fin),
+                    ColonnesFactures.versMois(debut), nombreMois, MASQUE_EMIS);
+        } finally {
+            verrou.readLock().unlock();
+        }
+
+        Map<YearMonth, Long> resultat = new LinkedHashMap<>();
+        for (int i = 0; i < nombreMois; i++) {
+            resultat.put(premierMois.plusMonths(i), nombres[i]);
+        }
+        return resultat;
+    }
+
+    @Override
+    public Map<String, BigDecimal> getChiffreAffairesParClient(LocalDate dateDebut, LocalDate dateFin, int topN) {
+        verrou.readLock().lock();
+        try {
+            long[] montants = colonnes.montantsParClient(jourDebut(dateDebut), jourFin(dateFin), MASQUE_ENCAISSE);
+
+            long total = 0;
+            for (long montant : montants) {
+                if (montant > 0) {
+                    total = Math.addExact(total, montant);
+                }
+            }
+
+            Map<String, BigDecimal> resultat = new LinkedHashMap<>();
+            long autres = total;
+            for (int client : ColonnesFactures.meilleurs(montants, topN)) {
+                String nom = colonnes.getNomClient(client);
+                resultat.merge(nom != null ? nom : colonnes.getIdClient(client).toString(),
+                        ColonnesFactures.versMontant(montants[client]), BigDecimal::add);
+                autres -= montants[client];
+            }
+            if (autres > 0) {
+                resultat.put(AUTRES_CLIENTS, ColonnesFactures.versMontant(autres));
+            }
+            return resultat;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getNombreClientsActifs(LocalDate dateDebut, LocalDate dateFin) {
+        verrou.readLock().lock();
+        try {
+            return colonnes.nombreClientsActifs(jourDebut(dateDebut), jourFin(dateFin), MASQUE_EMIS);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // Méthodes privées utilitaires
+
+    private long charger() {
+        log.info("Chargement de l'instantané colonnaire des factures");
+        long debut = System.nanoTime();
+
+        verrou.writeLock().lock();
+        try {
+            modificationsPendantChargement = new ArrayList<>();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+
+        // Le chargement se fait hors verrou : les lectures continuent sur l'instantané courant
+        ColonnesFactures nouvellesColonnes = new ColonnesFactures();
+        try (Stream<Facture> factures = cassandraTemplate.stream(Query.empty(), Facture.class)) {
+            factures.forEach(nouvellesColonnes::enregistrer);
+        } catch (RuntimeException e) {
+            verrou.writeLock().lock();
+            try {
+                modificationsPendantChargement = null;
+            } finally {
+                verrou.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        verrou.writeLock().lock();
+        try {
+            modificationsPendantChargement.forEach(modification -> appliquer(nouvellesColonnes, modification[0], modification[1]));
+            nouvellesColonnes.compacter();
+            modificationsPendantChargement = null;
+            colonnes = nouvellesColonnes;
+            pret = true;
+            version.incrementAndGet();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+
+        log.info("Instantané colonnaire chargé: {} factures en {} ms",
+                nouvellesColonnes.getNombreLignes(), (System.nanoTime() - debut) / 1_000_000);
+        return nouvellesColonnes.getNombreLignes();
+    }
+
+    private static void appliquer(ColonnesFactures cible, Facture avant, Facture apres) {
+        if (apres != null) {
+            cible.enregistrer(apres);
+        } else if (avant != null && avant.getIdFacture() != null) {
+            cible.supprimer(avant.getIdFacture());
+        }
+    }
+
+    private static int jourDebut(LocalDate date) {
+        return date != null ? ColonnesFactures.versJour(date) : Integer.MIN_VALUE;
+    }
+
+    private static int jourFin(LocalDate date) {
+        return date != null ? ColonnesFactures.versJour(date) : Integer.MAX_VALUE;
+    }
+
+    private static int nombreMois(YearMonth debut, YearMonth fin) {
+        return Math.max(0, (fin.getYear() - debut.getYear()) * 12 + fin.getMonthValue() - debut.getMonthValue() + 1);
+    }
+}
@@ -3,6 +3,7 @@ package com.yooyob.erp.service.impl;
 import com.yooyob.erp.dto.request.DevisCreateRequest;
 import com.yooyob.erp.dto.request.FactureCreateRequest;
 import com.yooyob.erp.dto.response.DevisResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.exception.ResourceNotFoundException;
 import com.yooyob.erp.exception.ValidationException;
 import com.yooyob.erp.exception.BusinessException;
@@ -21,6 +22,7 @@ import com.yooyob.erp.service.PdfService;
 import com.yooyob.erp.util.CacheUtil;
 import com.yooyob.erp.util.ValidationUtil;
 import com.yooyob.erp.util.NumberUtil;
+import com.yooyob.erp.util.CurseurUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -28,6 +30,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.context.annotation.Lazy;
@@ -139,6 +142,14 @@ public class DevisServiceImpl implements DevisService {
         return new PageImpl<>(responses, pageable, responses.size());
     }
 
+    @Override
+    public PageCurseurResponse<DevisResponse> getDevisParCurseur(String curseur, int taille) {
+        log.debug("Récupération des devis par curseur");
+
+        Slice<Devis> slice = CurseurUtil.lire(CurseurUtil.decoder(curseur, taille), devisRepository::findAll);
+        return CurseurUtil.versReponse(slice, devisMapper::toResponseList);
+    }
+
     @Override
     public List<DevisResponse> getDevisByClient(UUID idClient) {
         log.debug("Récupération des devis pour le client: {}", idClient);
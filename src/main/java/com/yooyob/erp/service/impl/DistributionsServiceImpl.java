@@ -0,0 +1,318 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.DistributionResponse;
+import com.yooyob.erp.exception.ValidationException;
+import com.yooyob.erp.model.entity.DigestDistribution;
+import com.yooyob.erp.model.entity.DigestDistributionKey;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.Paiement;
+import com.yooyob.erp.model.enums.DistributionMesuree;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.repository.DigestDistributionRepository;
+import com.yooyob.erp.repository.FactureRepository;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.repository.custom.SourceAgregat;
+import com.yooyob.erp.service.DistributionsService;
+import com.yooyob.erp.util.TDigest;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DistributionsServiceImpl implements DistributionsService {
+
+    private static final int TAILLE_LOT_LECTURE = 100;
+    private static final List<Double> QUANTILES_DEFAUT = List.of(0.5, 0.9, 0.99);
+    private static final Set<StatutFacture> STATUTS_EMIS = EnumSet.of(StatutFacture.ENVOYE, StatutFacture.PAYE,
+            StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD);
+
+    private final DigestDistributionRepository digestDistributionRepository;
+    private final FactureRepository factureRepository;
+    private final AgregatsRepository agregatsRepository;
+
+    @PostConstruct
+    public void abonner() {
+        agregatsRepository.abonner(TypeAgregat.DISTRIBUTIONS, SourceAgregat.FACTURES, this::appliquerFacture);
+        agregatsRepository.abonner(TypeAgregat.DISTRIBUTIONS, SourceAgregat.PAIEMENTS, this::appliquerPaiement);
+    }
+
+    @Override
+    public void enregistrerMontant(Facture facture) {
+        appliquerFacture(agregatsRepository.generationLue(TypeAgregat.DISTRIBUTIONS), null, facture);
+    }
+
+    @Override
+    public void enregistrerDelai(Paiement paiement, Facture facture) {
+        enregistrerDelai(agregatsRepository.generationLue(TypeAgregat.DISTRIBUTIONS), paiement, facture);
+    }
+
+    @Override
+    public TDigest fusionner(DistributionMesuree mesure, YearMonth moisDebut, YearMonth moisFin, UUID idClient) {
+        String client = idClient != null ? idClient.toString() : DigestDistributionKey.TOUS_CLIENTS;
+        List<String> periodes = periodes(moisDebut, moisFin);
+
+        int generation = agregatsRepository.generationLue(TypeAgregat.DISTRIBUTIONS);
+        TDigest union = new TDigest();
+        for (int i = 0; i < periodes.size(); i += TAILLE_LOT_LECTURE) {
+            digestDistributionRepository.findByPeriodes(generation, mesure.name(),
+                            periodes.subList(i, Math.min(i + TAILLE_LOT_LECTURE, periodes.size())), client)
+                    .forEach(digest -> union.fusionner(lire(digest)));
+        }
+        return union;
+    }
+
+    @Override
+    public DistributionResponse getDistribution(DistributionMesuree mesure, YearMonth moisDebut, YearMonth moisFin,
+                                                UUID idClient, List<Double> quantiles, List<Double> bornes) {
+        List<Double> quantilesDemandes = quantiles == null || quantiles.isEmpty() ? QUANTILES_DEFAUT : quantiles;
+        for (Double q : quantilesDemandes) {
+            if (q == null || q < 0 || q > 1) {
+                throw new ValidationException("Les quantiles doivent être compris entre 0 et 1");
+            }
+        }
+
+        TDigest digest = fusionner(mesure, moisDebut, moisFin, idClient);
+        boolean vide = digest.getNombre() == 0;
+
+        Map<String, Double> valeursQuantiles = new LinkedHashMap<>();
+        for (Double q : quantilesDemandes) {
+            String cle = "p" + BigDecimal.valueOf(q).movePointRight(2).stripTrailingZeros().toPlainString();
+            valeursQuantiles.put(cle, vide ? null : digest.quantile(q));
+        }
+
+        return DistributionResponse.builder()
+                .mesure(mesure)
+                .moisDebut(moisDebut != null ? moisDebut.toString() : null)
+                .moisFin(moisFin != null ? moisFin.toString() : null)
+                .idClient(idClient)
+                .nombre(digest.getNombre())
+                .moyenne(vide ? null : digest.getMoyenne())
+                .minimum(vide ? null : digest.getMin())
+                .maximum(vide ? null : digest.getMax())
+                .quantiles(valeursQuantiles)
+                .histogramme(bornes == null || bornes.isEmpty() ? null : histogramme(digest, bornes))
+                .build();
+    }
+
+    @Override
+    public long reconstruireDigests() {
+        log.info("Reconstruction des distributions de montants et de délais de paiement");
+
+        int nombreEsquisses = agregatsRepository.reconstruire(TypeAgregat.DISTRIBUTIONS, construction -> {
+            int generation = construction.getGeneration();
+
+            // Premier parcours : montants des factures émises et dates de facturation pour le calcul des délais
+            ParcoursFactures factures = construction.parcourir(SourceAgregat.FACTURES, this::appliquerFacture,
+                    ParcoursFactures::new,
+                    (partiel, facture) -> {
+                        if (facture.getIdFacture() != null && facture.getDateFacturation() != null) {
+                            // Copie réduite aux champs utiles au calcul des délais
+                            partiel.facturesParId.put(facture.getIdFacture(), Facture.builder()
+                                    .dateFacturation(facture.getDateFacturation())
+                                    .idClient(facture.getIdClient())
+                                    .build());
+                        }
+                        if (isEmise(facture) && facture.getDateFacturation() != null && facture.getMontantTotal() != null) {
+                            ajouter(partiel.digests, generation, DistributionMesuree.MONTANT_FACTURE,
+                                    facture.getDateFacturation(), facture.getIdClient(), facture.getMontantTotal().doubleValue());
+                        }
+                    },
+                    (a, b) -> {
+                        a.facturesParId.putAll(b.facturesParId);
+                        b.digests.forEach((cle, digest) -> a.digests.merge(cle, digest, TDigest::fusionner));
+                        return a;
+                    });
+
+            // Second parcours : délai de chaque paiement rattaché à une facture
+            Map<DigestDistributionKey, TDigest> delais = construction.parcourir(SourceAgregat.PAIEMENTS,
+                    this::appliquerPaiement,
+                    HashMap::new,
+                    (partiel, paiement) -> {
+                        Facture facture = paiement.getIdFacture() != null ? factures.facturesParId.get(paiement.getIdFacture()) : null;
+                        if (facture == null && paiement.getIdFacture() != null) {
+                            // Facture créée après son passage dans le premier parcours
+                            facture = factureRepository.findById(paiement.getIdFacture()).orElse(null);
+                        }
+                        Double delai = facture != null ? delai(paiement, facture) : null;
+                        if (delai != null) {
+                            ajouter(partiel, generation, DistributionMesuree.DELAI_PAIEMENT, paiement.getDate(),
+                                    paiement.getIdClient() != null ? paiement.getIdClient() : facture.getIdClient(), delai);
+                        }
+                    },
+                    (a, b) -> {
+                        b.forEach((cle, digest) -> a.merge(cle, digest, TDigest::fusionner));
+                        return a;
+                    });
+
+            Map<DigestDistributionKey, TDigest> digests = factures.digests;
+            digests.putAll(delais);
+
+            LocalDateTime maintenant = LocalDateTime.now();
+            List<DigestDistribution> entites = new ArrayList<>(digests.size());
+            digests.forEach((cle, digest) -> entites.add(versEntite(cle, digest, maintenant)));
+            construction.ecrire(entites);
+            return entites.size();
+        });
+
+        log.info("Distributions reconstruites: {} esquisses", nombreEsquisses);
+        return nombreEsquisses;
+    }
+
+    // Méthodes privées utilitaires
+
+    /**
+     * Un montant est compté une fois, quand la facture passe à un statut émis
+     */
+    private void appliquerFacture(int generation, Facture avant, Facture apres) {
+        if (isEmise(apres) && !isEmise(avant) && apres.getDateFacturation() != null && apres.getMontantTotal() != null) {
+            enregistrer(generation, DistributionMesuree.MONTANT_FACTURE, apres.getDateFacturation(), apres.getIdClient(),
+                    apres.getMontantTotal().doubleValue());
+        }
+    }
+
+    /**
+     * Un délai est compté une fois, à la création du paiement
+     */
+    private void appliquerPaiement(int generation, Paiement avant, Paiement apres) {
+        if (avant == null && apres != null && apres.getIdFacture() != null && apres.getDate() != null) {
+            factureRepository.findById(apres.getIdFacture())
+                    .ifPresent(facture -> enregistrerDelai(generation, apres, facture));
+        }
+    }
+
+    private void enregistrerDelai(int generation, Paiement paiement, Facture facture) {
+        Double delai = delai(paiement, facture);
+        if (delai == null) {
+            return;
+        }
+        UUID idClient = paiement.getIdClient() != null ? paiement.getIdClient() : facture.getIdClient();
+        enregistrer(generation, DistributionMesuree.DELAI_PAIEMENT, paiement.getDate(), idClient, delai);
+    }
+
+    private void enregistrer(int generation, DistributionMesuree mesure, LocalDate date, UUID idClient, double valeur) {
+        for (DigestDistributionKey cle : cles(generation, mesure, date, idClient)) {
+            agregatsRepository.modifier(DigestDistribution.class, cle, existante -> {
+                TDigest digest = existante != null ? lire(existante) : new TDigest();
+                digest.ajouter(valeur);
+                return versEntite(cle, digest, LocalDateTime.now());
+            });
+        }
+    }
+
+    private static void ajouter(Map<DigestDistributionKey, TDigest> digests, int generation, DistributionMesuree mesure,
+                                LocalDate date, UUID idClient, double valeur) {
+        for (DigestDistributionKey cle : cles(generation, mesure, date, idClient)) {
+            digests.computeIfAbsent(cle, k -> new TDigest()).ajouter(valeur);
+        }
+    }
+
+    /**
+     * Esquisses touchées par une observation : mois et toutes périodes, chacun pour tous les clients et pour le client
+     */
+    private static List<DigestDistributionKey> cles(int generation, DistributionMesuree mesure, LocalDate date,
+                                                    UUID idClient) {
+        List<DigestDistributionKey> cles = new ArrayList<>(4);
+        for (String periode : List.of(GranulariteRollup.MOIS.periode(date), GranulariteRollup.PERIODE_TOUT)) {
+            cles.add(new DigestDistributionKey(generation, mesure, periode, DigestDistributionKey.TOUS_CLIENTS));
+            if (idClient != null) {
+                cles.add(new DigestDistributionKey(generation, mesure, periode, idClient.toString()));
+            }
+        }
+        return cles;
+    }
+
+    private static List<String> periodes(YearMonth moisDebut, YearMonth moisFin) {
+        if (moisDebut == null && moisFin == null) {
+            return List.of(GranulariteRollup.PERIODE_TOUT);
+        }
+        YearMonth fin = moisFin != null ? moisFin : YearMonth.now();
+        YearMonth debut = moisDebut != null ? moisDebut : fin.minusMonths(11);
+        if (debut.isAfter(fin)) {
+            throw new ValidationException("Le mois de début doit précéder le mois de fin");
+        }
+
+        List<String> periodes = new ArrayList<>();
+        for (YearMonth mois = debut; !mois.isAfter(fin); mois = mois.plusMonths(1)) {
+            periodes.add(GranulariteRollup.MOIS.periode(mois.atDay(1)));
+        }
+        return periodes;
+    }
+
+    private static Map<String, Long> histogramme(TDigest digest, List<Double> bornes) {
+        List<Double> triees = bornes.stream().filter(borne -> borne != null && Double.isFinite(borne))
+                .distinct().sorted().toList();
+
+        Map<String, Long> histogramme = new LinkedHashMap<>();
+        for (int i = 0; i < triees.size(); i++) {
+            double borneInf = triees.get(i);
+            if (i + 1 < triees.size()) {
+                double borneSup = triees.get(i + 1);
+                histogramme.put(libelle(borneInf) + "-" + libelle(borneSup), digest.compterEntre(borneInf, borneSup));
+            } else {
+                long auDela = digest.getNombre() == 0 ? 0 : Math.round(digest.getNombre() * (1 - digest.cdf(borneInf)));
+                histogramme.put(libelle(borneInf) + "+", auDela);
+            }
+        }
+        return histogramme;
+    }
+
+    private static Double delai(Paiement paiement, Facture facture) {
+        if (paiement.getDate() == null || facture.getDateFacturation() == null) {
+            return null;
+        }
+        // Un paiement antérieur à la facture (acompte) compte comme un paiement immédiat
+        return (double) Math.max(0, ChronoUnit.DAYS.between(facture.getDateFacturation(), paiement.getDate()));
+    }
+
+    private static boolean isEmise(Facture facture) {
+        return facture != null && STATUTS_EMIS.contains(facture.getEtat());
+    }
+
+    private static String libelle(double valeur) {
+        return BigDecimal.valueOf(valeur).stripTrailingZeros().toPlainString();
+    }
+
+    private static TDigest lire(DigestDistribution digest) {
+        ByteBuffer centroides = digest.getCentroides().duplicate();
+        byte[] octets = new byte[centroides.remaining()];
+        centroides.get(octets);
+        return TDigest.depuisOctets(octets);
+    }
+
+    private static DigestDistribution versEntite(DigestDistributionKey cle, TDigest digest, LocalDateTime maintenant) {
+        return DigestDistribution.builder()
+                .key(cle)
+                .centroides(ByteBuffer.wrap(digest.versOctets()))
+                .nombre(digest.getNombre())
+                .updatedAt(maintenant)
+                .build();
+    }
+
+    /**
+     * Agrégat partiel du parcours des factures
+     */
+    private static class ParcoursFactures {
+        private final Map<DigestDistributionKey, TDigest> digests = new HashMap<>();
+        private final Map<UUID, Facture> facturesParId = new HashMap<>();
+    }
+}
@@ -0,0 +1,182 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.DonneesWidgetResponse;
+import com.yooyob.erp.exception.ResourceNotFoundException;
+import com.yooyob.erp.model.entity.TableauBord;
+import com.yooyob.erp.model.entity.Widget;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.repository.FactureAvoirRepository;
+import com.yooyob.erp.repository.PaiementRepository;
+import com.yooyob.erp.repository.RollupFactureRepository;
+import com.yooyob.erp.repository.TableauBordRepository;
+import com.yooyob.erp.repository.custom.AgregateurWidget;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.repository.custom.CompilateurWidget;
+import com.yooyob.erp.repository.custom.FactureIndexeeRepository;
+import com.yooyob.erp.repository.custom.ParcoursParalleleRepository;
+import com.yooyob.erp.repository.custom.PlanWidget;
+import com.yooyob.erp.repository.custom.SourceWidget;
+import com.yooyob.erp.service.DonneesWidgetService;
+import com.yooyob.erp.util.CacheUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DonneesWidgetServiceImpl implements DonneesWidgetService {
+
+    private static final int TAILLE_LOT_LECTURE = 100;
+
+    private final TableauBordRepository tableauBordRepository;
+    private final RollupFactureRepository rollupFactureRepository;
+    private final AgregatsRepository agregatsRepository;
+    private final FactureIndexeeRepository factureIndexeeRepository;
+    private final PaiementRepository paiementRepository;
+    private final FactureAvoirRepository factureAvoirRepository;
+    private final ParcoursParalleleRepository parcoursParalleleRepository;
+    private final CacheUtil cacheUtil;
+
+    @Override
+    public DonneesWidgetResponse getDonneesWidget(UUID idTableau, UUID idWidget, Map<String, Object> filtres) {
+        TableauBord tableau = tableauBordRepository.findById(idTableau)
+                .orElseThrow(() -> new ResourceNotFoundException("Tableau de bord", "id", idTableau));
+        Widget widget = tableau.getWidgets() == null ? null : tableau.getWidgets().stream()
+                .filter(w -> idWidget.equals(w.getIdWidget()))
+                .findFirst()
+                .orElse(null);
+        if (widget == null) {
+            throw new ResourceNotFoundException("Widget", "id", idWidget);
+        }
+        return executer(widget, filtres);
+    }
+
+    @Override
+    public DonneesWidgetResponse executer(Widget widget, Map<String, Object> filtres) {
+        PlanWidget<?> plan = CompilateurWidget.compiler(widget, filtres);
+        boolean cacheActive = isCacheActive(widget);
+        String cle = cleCache(widget, plan);
+
+        if (cacheActive) {
+            DonneesWidgetResponse enCache = cacheUtil.get(CacheUtil.WIDGET_CACHE, cle, DonneesWidgetResponse.class);
+            if (enCache != null) {
+                enCache.setDepuisCache(true);
+                return enCache;
+            }
+        }
+
+        DonneesWidgetResponse donnees = calculer(widget, plan);
+        if (cacheActive) {
+            cacheUtil.put(CacheUtil.WIDGET_CACHE, cle, donnees);
+        }
+        return donnees;
+    }
+
+    @Override
+    public DonneesWidgetResponse actualiser(Widget widget, Map<String, Object> filtres) {
+        PlanWidget<?> plan = CompilateurWidget.compiler(widget, filtres);
+        DonneesWidgetResponse donnees = calculer(widget, plan);
+        if (isCacheActive(widget)) {
+            cacheUtil.put(CacheUtil.WIDGET_CACHE, cleCache(widget, plan), donnees);
+        }
+        return donnees;
+    }
+
+    // Méthodes privées utilitaires
+
+    private static boolean isCacheActive(Widget widget) {
+        return !Boolean.FALSE.equals(widget.getCacheActive()) && !Boolean.TRUE.equals(widget.getDonneesTempsReel());
+    }
+
+    private static String cleCache(Widget widget, PlanWidget<?> plan) {
+        return "widget_" + widget.getIdWidget() + "_"
+                + UUID.nameUUIDFromBytes(plan.getSignature().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private <T> DonneesWidgetResponse calculer(Widget widget, PlanWidget<T> plan) {
+        long debut = System.nanoTime();
+        AgregateurWidget agregateur = switch (plan.getStrategie()) {
+            case ROLLUP -> lireRollups(plan);
+            case INDEX -> {
+                AgregateurWidget partiel = plan.creerAgregateur();
+                lireIndex(plan).forEach(ligne -> plan.accumuler(partiel, ligne));
+                yield partiel;
+            }
+            case PARCOURS -> parcoursParalleleRepository.parcourir(plan.getSource().getType(),
+                    plan::creerAgregateur, plan::accumuler, AgregateurWidget::fusionner);
+        };
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+
+        String strategie = plan.getStrategie() == PlanWidget.Strategie.INDEX
+                ? plan.getStrategie() + ":" + plan.getChampAcces()
+                : plan.getStrategie().name();
+        log.debug("Widget {} calculé par {} : {} lignes lues, {} groupes en {} ms", widget.getIdWidget(), strategie,
+                agregateur.getNombreLignesLues(), agregateur.getNombreGroupes(), dureeMs);
+
+        return DonneesWidgetResponse.builder()
+                .idWidget(widget.getIdWidget())
+                .nomWidget(widget.getNomWidget())
+                .typeWidget(widget.getTypeWidget())
+                .strategie(strategie)
+                .colonnes(plan.colonnes())
+                .lignes(plan.versLignes(agregateur))
+                .nombreLignesLues(agregateur.getNombreLignesLues())
+                .dureeCalculMs(dureeMs)
+                .calculeLe(LocalDateTime.now())
+                .depuisCache(false)
+                .build();
+    }
+
+    private AgregateurWidget lireRollups(PlanWidget<?> plan) {
+        AgregateurWidget agregateur = plan.creerAgregateur();
+        List<String> periodes = plan.getPeriodes();
+        int generation = agregatsRepository.generationLue(TypeAgregat.ROLLUPS_FACTURES);
+        for (int i = 0; i < periodes.size(); i += TAILLE_LOT_LECTURE) {
+            rollupFactureRepository.findByPeriodesAndDimension(generation, plan.getGranularite().name(),
+                            periodes.subList(i, Math.min(i + TAILLE_LOT_LECTURE, periodes.size())),
+                            plan.getDimension().name())
+                    .forEach(rollup -> plan.accumulerRollup(agregateur, rollup));
+        }
+        return agregateur;
+    }
+
+    /**
+     * Lignes candidates lues par l'index de la clé d'accès ; les autres filtres restent appliqués à l'accumulation
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> lireIndex(PlanWidget<T> plan) {
+        String acces = plan.getChampAcces();
+        boolean parPeriode = CompilateurWidget.ACCES_PERIODE.equals(acces);
+        String valeur = parPeriode ? null : plan.getFiltres().get(acces).iterator().next();
+        SourceWidget<T> source = plan.getSource();
+
+        List<?> lignes;
+        if (source == SourceWidget.FACTURES) {
+            lignes = switch (acces) {
+                case "idClient" -> factureIndexeeRepository.findByIdClient(UUID.fromString(valeur));
+                case "devise" -> factureIndexeeRepository.findByDevise(valeur);
+                case "etat" -> factureIndexeeRepository.findByEtat(StatutFacture.valueOf(valeur));
+                default -> factureIndexeeRepository.findByDateFacturationBetween(plan.getDateDebut(), plan.getDateFin());
+            };
+        } else if (source == SourceWidget.PAIEMENTS) {
+            lignes = parPeriode
+                    ? paiementRepository.findByDateBetween(plan.getDateDebut(), plan.getDateFin())
+                    : paiementRepository.findByIdClient(UUID.fromString(valeur));
+        } else if (source == SourceWidget.AVOIRS) {
+            lignes = parPeriode
+                    ? factureAvoirRepository.findByDateCreationBetween(plan.getDateDebut(), plan.getDateFin())
+                    : factureAvoirRepository.findByIdClient(UUID.fromString(valeur));
+        } else {
+            throw new IllegalStateException("Aucun index pour la source " + source.getNom());
+        }
+        return (List<T>) lignes;
+    }
+}
@@ -0,0 +1,404 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.model.entity.AlerteTableau;
+import com.yooyob.erp.model.entity.TableauBord;
+import com.yooyob.erp.model.enums.MetriqueAlerte;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.repository.TableauBordRepository;
+import com.yooyob.erp.repository.custom.BauxTachesRepository;
+import com.yooyob.erp.repository.custom.ColonnesFactures;
+import com.yooyob.erp.service.ColonnesFacturesService;
+import com.yooyob.erp.service.EvaluationAlertesService;
+import com.yooyob.erp.service.NotificationAlerteService;
+import com.yooyob.erp.util.NumberUtil;
+import com.yooyob.erp.util.RoueTemporelle;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EvaluationAlertesServiceImpl implements EvaluationAlertesService {
+
+    private static final long DUREE_TIC_MS = 60_000;
+    private static final String TACHE = "evaluation-alertes";
+    // Une journée de tics d'une minute : la plupart des alertes expirent au premier tour
+    private static final int TAILLE_ROUE = 1440;
+    private static final StatutFacture[] STATUTS_EMIS = {StatutFacture.ENVOYE, StatutFacture.PAYE,
+            StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD};
+    private static final StatutFacture[] STATUTS_DUS = {StatutFacture.ENVOYE, StatutFacture.PARTIELLEMENT_PAYE,
+            StatutFacture.EN_RETARD};
+
+    private final TableauBordRepository tableauBordRepository;
+    private final ColonnesFacturesService colonnesFacturesService;
+    private final NotificationAlerteService notificationAlerteService;
+    private final BauxTachesRepository bauxTachesRepository;
+
+    @Value("${app.alertes.frequence-defaut-minutes:15}")
+    private int frequenceDefautMinutes;
+
+    @Value("${app.alertes.bail-secondes:180}")
+    private long bailSecondes;
+
+    private final Lock verrou = new ReentrantLock();
+    private final RoueTemporelle<CleAlerte> roue = new RoueTemporelle<>(TAILLE_ROUE);
+    private final Map<CleAlerte, AlertePlanifiee> alertes = new HashMap<>();
+    private final Map<String, ValeurMetrique> valeursMetriques = new HashMap<>();
+
+    // Un seul nœud évalue les alertes, sans quoi chaque notification partirait une fois par nœud
+    private final UUID noeud = UUID.randomUUID();
+    private volatile long expirationBail;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void chargerAuDemarrage() {
+        try {
+            recharger();
+        } catch (Exception e) {
+            log.error("Erreur lors de la planification initiale des alertes de tableau de bord", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.alertes.rechargement-ms:900000}", initialDelayString = "${app.alertes.rechargement-ms:900000}")
+    public void rechargerPeriodiquement() {
+        try {
+            recharger();
+        } catch (Exception e) {
+            log.error("Erreur lors de la replanification des alertes de tableau de bord", e);
+        }
+    }
+
+    @Scheduled(fixedRate = DUREE_TIC_MS)
+    public void ticMinute() {
+        try {
+            if (detenirBail()) {
+                tic();
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de l'évaluation des alertes de tableau de bord", e);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void quitter() {
+        if (expirationBail != 0) {
+            try {
+                bauxTachesRepository.liberer(TACHE, noeud);
+            } catch (Exception e) {
+                log.warn("Bail d'évaluation des alertes non libéré, repris à son expiration", e);
+            }
+            expirationBail = 0;
+        }
+    }
+
+    @Override
+    public int recharger() {
+        Map<CleAlerte, AlerteTableau> configurees = new HashMap<>();
+        for (TableauBord tableau : tableauBordRepository.findAll()) {
+            if (tableau.getAlertesConfigurees() == null) {
+                continue;
+            }
+            for (AlerteTableau alerte : tableau.getAlertesConfigurees()) {
+                if (Boolean.TRUE.equals(alerte.getActif()) && alerte.getIdAlerte() != null
+                        && MetriqueAlerte.depuis(alerte.getMetriqueSurveillee()) != null) {
+                    configurees.put(new CleAlerte(tableau.getIdTableau(), alerte.getIdAlerte()), alerte);
+                }
+            }
+        }
+
+        verrou.lock();
+        try {
+            // Alertes supprimées ou désactivées
+            alertes.keySet().removeIf(cle -> {
+                if (!configurees.containsKey(cle)) {
+                    roue.annuler(cle);
+                    return true;
+                }
+                return false;
+            });
+
+            configurees.forEach((cle, alerte) -> {
+                int frequence = alerte.getFrequenceVerification() != null && alerte.getFrequenceVerification() > 0
+                        ? alerte.getFrequenceVerification() : frequenceDefautMinutes;
+                AlertePlanifiee existante = alertes.get(cle);
+                AlertePlanifiee planifiee = new AlertePlanifiee(alerte, MetriqueAlerte.depuis(alerte.getMetriqueSurveillee()), frequence);
+                if (existante != null) {
+                    planifiee.reprendre(existante);
+                }
+                alertes.put(cle, planifiee);
+                // Une alerte déjà planifiée à la même fréquence garde son échéance
+                if (existante == null || existante.frequence != frequence) {
+                    roue.planifier(cle, frequence);
+                }
+            });
+
+            log.info("{} alertes de tableau de bord planifiées", alertes.size());
+            return alertes.size();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    @Override
+    public int tic() {
+        Map<UUID, Map<UUID, AlerteTableau>> declenchees = new HashMap<>();
+        int evaluees = 0;
+        int echues;
+
+        verrou.lock();
+        try {
+            List<CleAlerte> cles = roue.avancer();
+            echues = cles.size();
+            long version = colonnesFacturesService.getVersion();
+            LocalDate aujourdhui = LocalDate.now();
+            LocalDateTime maintenant = LocalDateTime.now();
+
+            for (CleAlerte cle : cles) {
+                AlertePlanifiee planifiee = alertes.get(cle);
+                if (planifiee == null) {
+                    continue;
+                }
+                roue.planifier(cle, planifiee.frequence);
+
+                // Ni les factures ni la date n'ont changé depuis la dernière évaluation : résultat identique
+                if (planifiee.versionEvaluee == version && aujourdhui.equals(planifiee.jourEvalue)) {
+                    continue;
+                }
+
+                ValeurMetrique valeur = valeurMetrique(planifiee, version, aujourdhui);
+                BigDecimal reference = planifiee.metrique.isFenetree() ? valeur.getValeurComparaison() : planifiee.derniereValeur;
+                boolean declenchee = isDeclenchee(planifiee.alerte, valeur.getValeur(), reference);
+                planifiee.versionEvaluee = version;
+                planifiee.jourEvalue = aujourdhui;
+                planifiee.derniereValeur = valeur.getValeur();
+                evaluees++;
+
+                if (declenchee && isHorsCarence(planifiee.alerte, maintenant)) {
+                    AlerteTableau alerte = planifiee.alerte;
+                    alerte.setDerniereAlerte(maintenant);
+                    alerte.setDerniereVerification(maintenant);
+                    alerte.setNombreDeclenchements(alerte.getNombreDeclenchements() != null ? alerte.getNombreDeclenchements() + 1 : 1L);
+                    declenchees.computeIfAbsent(cle.getIdTableau(), k -> new HashMap<>()).put(cle.getIdAlerte(), alerte);
+                    notificationAlerteService.notifier(alerte, message(planifiee.metrique, valeur.getValeur(), reference));
+                }
+            }
+        } finally {
+            verrou.unlock();
+        }
+
+        declenchees.forEach(this::enregistrerDeclenchements);
+        if (echues > 0) {
+            log.debug("Tic des alertes: {} échues, {} évaluées, {} déclenchées", echues, evaluees,
+                    declenchees.values().stream().mapToInt(Map::size).sum());
+        }
+        return evaluees;
+    }
+
+    // Méthodes privées utilitaires
+
+    /**
+     * Prend ou prolonge le bail d'évaluation. Le bail couvre plusieurs tics et n'est prolongé qu'une fois
+     * entamé d'un tiers, pour qu'un nœud arrêté soit remplacé sans qu'un tic en cours puisse chevaucher le suivant.
+     *
+     * @return vrai si le nœud est l'évaluateur désigné
+     */
+    private boolean detenirBail() {
+        long maintenant = System.currentTimeMillis();
+        long dureeMs = bailSecondes * 1000;
+        Duration duree = Duration.ofSeconds(bailSecondes);
+
+        if (expirationBail > maintenant && expirationBail - maintenant >= 2 * dureeMs / 3) {
+            return true;
+        }
+        if (expirationBail > maintenant) {
+            if (bauxTachesRepository.prolonger(TACHE, noeud, duree)) {
+                expirationBail = maintenant + dureeMs;
+                return true;
+            }
+            log.info("Bail d'évaluation des alertes repris par un autre nœud");
+            expirationBail = 0;
+            return false;
+        }
+
+        if (!bauxTachesRepository.acquerir(TACHE, noeud, duree)) {
+            expirationBail = 0;
+            return false;
+        }
+        expirationBail = maintenant + dureeMs;
+        // Reprend les déclenchements enregistrés par l'évaluateur précédent, pour respecter les carences
+        log.info("Nœud {} désigné pour évaluer les alertes de tableau de bord", noeud);
+        recharger();
+        return true;
+    }
+
+    /**
+     * Valeur de la métrique d'une alerte, calculée une seule fois pour toutes les alertes qui la surveillent
+     * tant que les factures et la date n'ont pas changé
+     */
+    private ValeurMetrique valeurMetrique(AlertePlanifiee planifiee, long version, LocalDate aujourdhui) {
+        String cle = planifiee.metrique + "|" + planifiee.alerte.getPeriodeComparaison();
+        ValeurMetrique valeur = valeursMetriques.get(cle);
+        if (valeur == null || valeur.getVersion() != version || !aujourdhui.equals(valeur.getJour())) {
+            valeur = calculer(planifiee.metrique, planifiee.alerte.getPeriodeComparaison(), version, aujourdhui);
+            valeursMetriques.put(cle, valeur);
+        }
+        return valeur;
+    }
+
+    private ValeurMetrique calculer(MetriqueAlerte metrique, String periodeComparaison, long version, LocalDate aujourdhui) {
+        if (!metrique.isFenetree()) {
+            return new ValeurMetrique(version, aujourdhui, mesurer(metrique, null, null), null);
+        }
+
+        LocalDate debut = metrique == MetriqueAlerte.CHIFFRE_AFFAIRES_MOIS ? aujourdhui.withDayOfMonth(1) : aujourdhui;
+        String comparaison = periodeComparaison != null ? periodeComparaison
+                : metrique == MetriqueAlerte.CHIFFRE_AFFAIRES_MOIS ? "MOIS_PRECEDENT" : "JOUR_PRECEDENT";
+        return new ValeurMetrique(version, aujourdhui,
+                mesurer(metrique, debut, aujourdhui),
+                mesurer(metrique, decaler(debut, comparaison), decaler(aujourdhui, comparaison)));
+    }
+
+    private BigDecimal mesurer(MetriqueAlerte metrique, LocalDate debut, LocalDate fin) {
+        ColonnesFactures.Resume resume = colonnesFacturesService.resumer(debut, fin, null);
+        return switch (metrique) {
+            case CHIFFRE_AFFAIRES_JOUR, CHIFFRE_AFFAIRES_MOIS -> ColonnesFactures.versMontant(resume.montant(STATUTS_EMIS));
+            case NOMBRE_FACTURES_JOUR -> BigDecimal.valueOf(resume.nombre(STATUTS_EMIS));
+            case MONTANT_IMPAYE -> ColonnesFactures.versMontant(resume.restant(STATUTS_DUS));
+            case NOMBRE_FACTURES_EN_RETARD -> BigDecimal.valueOf(resume.nombre(StatutFacture.EN_RETARD));
+        };
+    }
+
+    private static LocalDate decaler(LocalDate date, String periodeComparaison) {
+        return switch (periodeComparaison) {
+            case "SEMAINE_PRECEDENTE" -> date.minusWeeks(1);
+            case "MOIS_PRECEDENT" -> date.minusMonths(1);
+            case "ANNEE_PRECEDENTE" -> date.minusYears(1);
+            default -> date.minusDays(1);
+        };
+    }
+
+    /**
+     * Seuil et variation se combinent : l'alerte se déclenche quand toutes les conditions renseignées sont vérifiées
+     */
+    private static boolean isDeclenchee(AlerteTableau alerte, BigDecimal valeur, BigDecimal reference) {
+        String operateur = alerte.getOperateur() != null ? alerte.getOperateur() : "SUPERIEUR";
+        Boolean seuilAtteint = null;
+        if (alerte.getValeurSeuil() != null) {
+            int comparaison = valeur.compareTo(alerte.getValeurSeuil());
+            seuilAtteint = switch (operateur) {
+                case "SUPERIEUR" -> comparaison > 0;
+                case "INFERIEUR" -> comparaison < 0;
+                case "EGAL" -> comparaison == 0;
+                case "DIFFERENT" -> comparaison != 0;
+                default -> false;
+            };
+        }
+
+        Boolean variationAtteinte = null;
+        if (alerte.getPourcentageVariation() != null && reference != null && reference.signum() != 0) {
+            BigDecimal variation = NumberUtil.percentage(valeur.subtract(reference), reference.abs());
+            BigDecimal seuilVariation = alerte.getPourcentageVariation().abs();
+            variationAtteinte = switch (operateur) {
+                case "SUPERIEUR" -> variation.compareTo(seuilVariation) >= 0;
+                case "INFERIEUR" -> variation.compareTo(seuilVariation.negate()) <= 0;
+                default -> variation.abs().compareTo(seuilVariation) >= 0;
+            };
+        }
+
+        if (seuilAtteint == null && variationAtteinte == null) {
+            return false;
+        }
+        return !Boolean.FALSE.equals(seuilAtteint) && !Boolean.FALSE.equals(variationAtteinte);
+    }
+
+    private static boolean isHorsCarence(AlerteTableau alerte, LocalDateTime maintenant) {
+        return alerte.getDerniereAlerte() == null || alerte.getCooldownMinutes() == null
+                || alerte.getDerniereAlerte().plusMinutes(alerte.getCooldownMinutes()).isBefore(maintenant);
+    }
+
+    private static String message(MetriqueAlerte metrique, BigDecimal valeur, BigDecimal reference) {
+        String message = metrique.getLibelle() + " : " + NumberUtil.formatNumber(valeur);
+        return reference != null ? message + " (référence " + NumberUtil.formatNumber(reference) + ")" : message;
+    }
+
+    private void enregistrerDeclenchements(UUID idTableau, Map<UUID, AlerteTableau> declenchees) {
+        try {
+            tableauBordRepository.findById(idTableau).ifPresent(tableau -> {
+                for (AlerteTableau alerte : tableau.getAlertesConfigurees()) {
+                    AlerteTableau declenchee = declenchees.get(alerte.getIdAlerte());
+                    if (declenchee != null) {
+                        alerte.setDerniereAlerte(declenchee.getDerniereAlerte());
+                        alerte.setDerniereVerification(declenchee.getDerniereVerification());
+                        alerte.setNombreDeclenchements(declenchee.getNombreDeclenchements());
+                    }
+                }
+                tableau.setUpdatedAt(LocalDateTime.now());
+                tableauBordRepository.save(tableau);
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors de l'enregistrement des déclenchements d'alertes du tableau {}", idTableau, e);
+        }
+    }
+
+    @lombok.Value
+    private static class CleAlerte {
+        UUID idTableau;
+        UUID idAlerte;
+    }
+
+    @lombok.Value
+    private static class ValeurMetrique {
+        long version;
+        LocalDate jour;
+        BigDecimal valeur;
+        BigDecimal valeurComparaison;
+    }
+
+    private static final class AlertePlanifiee {
+        private final AlerteTableau alerte;
+        private final MetriqueAlerte metrique;
+        private final int frequence;
+        private long versionEvaluee = -1;
+        private LocalDate jourEvalue;
+        private BigDecimal derniereValeur;
+
+        private AlertePlanifiee(AlerteTableau alerte, MetriqueAlerte metrique, int frequence) {
+            this.alerte = alerte;
+            this.metrique = metrique;
+            this.frequence = frequence;
+        }
+
+        /**
+         * Reprend l'état d'évaluation d'une planification précédente de la même alerte
+         */
+        private void reprendre(AlertePlanifiee precedente) {
+            if (precedente.metrique == metrique
+                    && Objects.equals(precedente.alerte.getValeurSeuil(), alerte.getValeurSeuil())
+                    && Objects.equals(precedente.alerte.getPourcentageVariation(), alerte.getPourcentageVariation())
+                    && Objects.equals(precedente.alerte.getOperateur(), alerte.getOperateur())
+                    && Objects.equals(precedente.alerte.getPeriodeComparaison(), alerte.getPeriodeComparaison())) {
+                versionEvaluee = precedente.versionEvaluee;
+                jourEvalue = precedente.jourEvalue;
+            }
+            derniereValeur = precedente.derniereValeur;
+            LocalDateTime derniereAlerte = precedente.alerte.getDerniereAlerte();
+            if (derniereAlerte != null && (alerte.getDerniereAlerte() == null || derniereAlerte.isAfter(alerte.getDerniereAlerte()))) {
+                alerte.setDerniereAlerte(derniereAlerte);
+                alerte.setNombreDeclenchements(precedente.alerte.getNombreDeclenchements());
+            }
+        }
+    }
+}
@@ -5,29 +5,36 @@ import com.yooyob.erp.dto.request.FactureUpdateRequest;
 import com.yooyob.erp.dto.response.FactureResponse;
 import com.yooyob.erp.dto.response.FactureDetailsResponse;
 import com.yooyob.erp.dto.response.ClientResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
 import com.yooyob.erp.exception.ResourceNotFoundException;
 import com.yooyob.erp.exception.ValidationException;
 import com.yooyob.erp.exception.BusinessException;
+import com.yooyob.erp.event.FactureEvent;
 import com.yooyob.erp.mapper.FactureMapper;
 import com.yooyob.erp.model.entity.Facture;
 import com.yooyob.erp.model.entity.Client;
 import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeIndexFacture;
 import com.yooyob.erp.repository.FactureRepository;
 import com.yooyob.erp.repository.ClientRepository;
 import com.yooyob.erp.repository.custom.CustomFactureRepository;
+import com.yooyob.erp.repository.custom.FactureIndexeeRepository;
 import com.yooyob.erp.service.FactureService;
 import com.yooyob.erp.service.EmailService;
 import com.yooyob.erp.service.PdfService;
 import com.yooyob.erp.util.CacheUtil;
 import com.yooyob.erp.util.ValidationUtil;
 import com.yooyob.erp.util.NumberUtil;
+import com.yooyob.erp.util.CurseurUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,19 +55,23 @@ public class FactureServiceImpl implements FactureService {
     private final FactureRepository factureRepository;
     private final ClientRepository clientRepository;
     private final CustomFactureRepository customFactureRepository;
+    private final FactureIndexeeRepository factureIndexeeRepository;
     private final FactureMapper factureMapper;
     private final EmailService emailService;
     private final PdfService pdfService;
     private final CacheUtil cacheUtil;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public FactureServiceImpl(FactureRepository factureRepository, ClientRepository clientRepository, CustomFactureRepository customFactureRepository, FactureMapper factureMapper, @Lazy EmailService emailService, PdfService pdfService, CacheUtil cacheUtil) {
+    public FactureServiceImpl(FactureRepository factureRepository, ClientRepository clientRepository, CustomFactureRepository customFactureRepository, FactureIndexeeRepository factureIndexeeRepository, FactureMapper factureMapper, @Lazy EmailService emailService, PdfService pdfService, CacheUtil cacheUtil, ApplicationEventPublisher eventPublisher) {
         this.factureRepository = factureRepository;
         this.clientRepository = clientRepository;
         this.customFactureRepository = customFactureRepository;
+        this.factureIndexeeRepository = factureIndexeeRepository;
         this.factureMapper = factureMapper;
         this.emailService = emailService;
         this.pdfService = pdfService;
         this.cacheUtil = cacheUtil;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -84,9 +95,11 @@ public class FactureServiceImpl implements FactureService {
         facture.setCreatedAt(LocalDateTime.now());
         facture.setUpdatedAt(LocalDateTime.now());
 
-        Facture savedFacture = factureRepository.save(facture);
+        Facture savedFacture = factureIndexeeRepository.sauvegarder(null, facture);
         log.info("Facture créée avec succès: {}", savedFacture.getNumeroFacture());
 
+        eventPublisher.publishEvent(FactureEvent.creation(savedFacture));
+
         FactureResponse response = factureMapper.toResponse(savedFacture);
         cacheUtil.cacheFacture(savedFacture.getIdFacture(), response);
 
@@ -100,6 +113,7 @@ public class FactureServiceImpl implements FactureService {
 
         Facture existingFacture = findFactureById(id);
         validateFactureUpdateRequest(request, existingFacture);
+        Facture avant = existingFacture.toBuilder().build();
 
         factureMapper.updateEntityFromRequest(request, existingFacture);
 
@@ -110,9 +124,11 @@ public class FactureServiceImpl implements FactureService {
 
         existingFacture.setUpdatedAt(LocalDateTime.now());
 
-        Facture savedFacture = factureRepository.save(existingFacture);
+        Facture savedFacture = factureIndexeeRepository.sauvegarder(avant, existingFacture);
         log.info("Facture mise à jour avec succès: {}", id);
 
+        eventPublisher.publishEvent(FactureEvent.modification(avant, savedFacture));
+
         FactureResponse response = factureMapper.toResponse(savedFacture);
         cacheUtil.invalidateFactureRelatedCaches(id, savedFacture.getIdClient());
 
@@ -169,6 +185,14 @@ public class FactureServiceImpl implements FactureService {
         return new PageImpl<>(responses, pageable, facturesPage.getTotalElements());
     }
 
+    @Override
+    public PageCurseurResponse<FactureResponse> getFacturesParCurseur(String curseur, int taille) {
+        log.debug("Récupération des factures par curseur");
+
+        Slice<Facture> slice = CurseurUtil.lire(CurseurUtil.decoder(curseur, taille), factureRepository::findAll);
+        return CurseurUtil.versReponse(slice, factureMapper::toResponseList);
+    }
+
     @Override
     public List<FactureResponse> getFacturesByClient(UUID clientId) {
         log.debug("Récupération des factures du client: {}", clientId);
@@ -177,7 +201,7 @@ public class FactureServiceImpl implements FactureService {
             throw new ValidationException("ID client invalide");
         }
 
-        List<Facture> factures = factureRepository.findByIdClient(clientId);
+        List<Facture> factures = factureIndexeeRepository.findByIdClient(clientId);
         return factureMapper.toResponseList(factures);
     }
 
@@ -189,10 +213,36 @@ public class FactureServiceImpl implements FactureService {
             throw new ValidationException("L'état de la facture est requis");
         }
 
-        List<Facture> factures = factureRepository.findByEtat(etat);
+        List<Facture> factures = factureIndexeeRepository.findByEtat(etat);
         return factureMapper.toResponseList(factures);
     }
 
+    @Override
+    public PageCurseurResponse<FactureResponse> getFacturesByClientParCurseur(UUID clientId, String curseur, int taille) {
+        log.debug("Récupération par curseur des factures du client: {}", clientId);
+
+        if (!ValidationUtil.isValidUuid(clientId)) {
+            throw new ValidationException("ID client invalide");
+        }
+
+        Slice<Facture> slice = factureIndexeeRepository.parcourir(TypeIndexFacture.CLIENT, clientId.toString(), null, null,
+                f -> clientId.equals(f.getIdClient()), CurseurUtil.decoder(curseur, taille));
+        return CurseurUtil.versReponse(slice, factureMapper::toResponseList);
+    }
+
+    @Override
+    public PageCurseurResponse<FactureResponse> getFacturesByEtatParCurseur(StatutFacture etat, String curseur, int taille) {
+        log.debug("Récupération par curseur des factures par état: {}", etat);
+
+        if (etat == null) {
+            throw new ValidationException("L'état de la facture est requis");
+        }
+
+        Slice<Facture> slice = factureIndexeeRepository.parcourir(TypeIndexFacture.ETAT, etat.name(), null, null,
+                f -> f.getEtat() == etat, CurseurUtil.decoder(curseur, taille));
+        return CurseurUtil.versReponse(slice, factureMapper::toResponseList);
+    }
+
     @Override
     public List<FactureResponse> getFacturesByClientAndEtat(UUID clientId, StatutFacture etat) {
         log.debug("Récupération des factures du client {} avec état: {}", clientId, etat);
@@ -204,7 +254,7 @@ public class FactureServiceImpl implements FactureService {
             throw new ValidationException("L'état de la facture est requis");
         }
 
-        List<Facture> factures = factureRepository.findByClientAndEtat(clientId, etat);
+        List<Facture> factures = factureIndexeeRepository.findByClientAndEtat(clientId, etat);
         return factureMapper.toResponseList(factures);
     }
 
@@ -214,7 +264,7 @@ public class FactureServiceImpl implements FactureService {
 
         validateDateRange(startDate, endDate);
 
-        List<Facture> factures = factureRepository.findByDateFacturationBetween(startDate, endDate);
+        List<Facture> factures = factureIndexeeRepository.findByDateFacturationBetween(startDate, endDate);
         return factureMapper.toResponseList(factures);
     }
 
@@ -226,7 +276,7 @@ public class FactureServiceImpl implements FactureService {
             throw new ValidationException("Le montant minimum ne peut pas être supérieur au montant maximum");
         }
 
-        List<Facture> factures = factureRepository.findByMontantTotalBetween(minAmount, maxAmount);
+        List<Facture> factures = factureIndexeeRepository.findByMontantTotalBetween(minAmount, maxAmount);
         return factureMapper.toResponseList(factures);
     }
 
@@ -234,7 +284,7 @@ public class FactureServiceImpl implements FactureService {
     public List<FactureResponse> getFacturesEnRetard() {
         log.debug("Récupération des factures en retard");
 
-        List<Facture> factures = factureRepository.findOverdueFactures(LocalDate.now());
+        List<Facture> factures = factureIndexeeRepository.findOverdueFactures(LocalDate.now());
         return factureMapper.toResponseList(factures);
     }
 
@@ -242,7 +292,7 @@ public class FactureServiceImpl implements FactureService {
     public List<FactureResponse> getFacturesImpayes() {
         log.debug("Récupération des factures impayées");
 
-        List<Facture> factures = factureRepository.findUnpaidFactures();
+        List<Facture> factures = factureIndexeeRepository.findUnpaidFactures();
         return factureMapper.toResponseList(factures);
     }
 
@@ -254,7 +304,7 @@ public class FactureServiceImpl implements FactureService {
             throw new ValidationException("La devise est requise");
         }
 
-        List<Facture> factures = factureRepository.findByDevise(devise);
+        List<Facture> factures = factureIndexeeRepository.findByDevise(devise);
         return factureMapper.toResponseList(factures);
     }
 
@@ -262,7 +312,7 @@ public class FactureServiceImpl implements FactureService {
     public List<FactureResponse> getFacturesEnvoyeesParEmail(Boolean envoyees) {
         log.debug("Récupération des factures envoyées par email: {}", envoyees);
 
-        List<Facture> factures = factureRepository.findByEnvoyeParEmail(envoyees);
+        List<Facture> factures = factureIndexeeRepository.findByEnvoyeParEmail(envoyees);
         return factureMapper.toResponseList(factures);
     }
 
@@ -292,6 +342,18 @@ public class FactureServiceImpl implements FactureService {
         return new PageImpl<>(responses, pageable, facturesPage.getTotalElements());
     }
 
+    @Override
+    public PageCurseurResponse<FactureResponse> searchFacturesParCurseur(UUID clientId, StatutFacture etat,
+                                                                         LocalDate dateStart, LocalDate dateEnd,
+                                                                         BigDecimal montantMin, BigDecimal montantMax,
+                                                                         String devise, String curseur, int taille) {
+        log.debug("Recherche de factures avec filtres multiples par curseur");
+
+        Slice<Facture> slice = customFactureRepository.findFacturesWithFiltersParCurseur(
+                clientId, etat, dateStart, dateEnd, montantMin, montantMax, devise, CurseurUtil.decoder(curseur, taille));
+        return CurseurUtil.versReponse(slice, factureMapper::toResponseList);
+    }
+
     @Override
     @CacheEvict(value = CacheUtil.FACTURE_CACHE, key = "#id")
     public FactureResponse changeStatutFacture(UUID id, StatutFacture nouveauStatut) {
@@ -303,13 +365,16 @@ public class FactureServiceImpl implements FactureService {
 
         Facture facture = findFactureById(id);
         validateStatutChange(facture.getEtat(), nouveauStatut);
+        Facture avant = facture.toBuilder().build();
 
         facture.setEtat(nouveauStatut);
         facture.setUpdatedAt(LocalDateTime.now());
 
-        Facture savedFacture = factureRepository.save(facture);
+        Facture savedFacture = factureIndexeeRepository.sauvegarder(avant, facture);
         log.info("Statut de la facture modifié avec succès: {}", id);
 
+        eventPublisher.publishEvent(FactureEvent.modification(avant, savedFacture));
+
         FactureResponse response = factureMapper.toResponse(savedFacture);
         cacheUtil.invalidateFactureRelatedCaches(id, savedFacture.getIdClient());
 
@@ -322,11 +387,12 @@ public class FactureServiceImpl implements FactureService {
         log.info("Marquage de la facture {} comme envoyée par email", id);
 
         Facture facture = findFactureById(id);
+        Facture avant = facture.toBuilder().build();
         facture.setEnvoyeParEmail(true);
         facture.setDateEnvoiEmail(LocalDateTime.now());
         facture.setUpdatedAt(LocalDateTime.now());
 
-        Facture savedFacture = factureRepository.save(facture);
+        Facture savedFacture = factureIndexeeRepository.sauvegarder(avant, facture);
         log.info("Facture marquée comme envoyée par email: {}", id);
 
         FactureResponse response = factureMapper.toResponse(savedFacture);
@@ -341,12 +407,15 @@ public class FactureServiceImpl implements FactureService {
         log.info("Calcul des montants de la facture: {}", id);
 
         Facture facture = findFactureById(id);
+        Facture avant = facture.toBuilder().build();
         calculateFactureMontants(facture);
         facture.setUpdatedAt(LocalDateTime.now());
 
-        Facture savedFacture = factureRepository.save(facture);
+        Facture savedFacture = factureIndexeeRepository.sauvegarder(avant, facture);
         log.info("Montants de la facture calculés: {}", id);
 
+        eventPublisher.publishEvent(FactureEvent.modification(avant, savedFacture));
+
         FactureResponse response = factureMapper.toResponse(savedFacture);
         cacheUtil.cacheFacture(id, response);
 
@@ -363,6 +432,7 @@ public class FactureServiceImpl implements FactureService {
         }
 
         Facture facture = findFactureById(id);
+        Facture avant = facture.toBuilder().build();
         BigDecimal nouveauMontantRestant = NumberUtil.safeSubtract(facture.getMontantRestant(), montantPaye);
 
         if (nouveauMontantRestant.compareTo(BigDecimal.ZERO) < 0) {
@@ -380,9 +450,11 @@ public class FactureServiceImpl implements FactureService {
 
         facture.setUpdatedAt(LocalDateTime.now());
 
-        Facture savedFacture = factureRepository.save(facture);
+        Facture savedFacture = factureIndexeeRepository.sauvegarder(avant, facture);
         log.info("Montant restant mis à jour: {}", id);
 
+        eventPublisher.publishEvent(FactureEvent.modification(avant, savedFacture));
+
         FactureResponse response = factureMapper.toResponse(savedFacture);
         cacheUtil.invalidateFactureRelatedCaches(id, savedFacture.getIdClient());
 
@@ -399,7 +471,7 @@ public class FactureServiceImpl implements FactureService {
         // Mettre à jour le chemin du PDF dans la facture
         facture.setPdfPath(pdfPath);
         facture.setUpdatedAt(LocalDateTime.now());
-        factureRepository.save(facture);
+        factureIndexeeRepository.sauvegarder(facture, facture);
 
         log.info("PDF généré pour la facture {}: {}", id, pdfPath);
         return pdfPath;
@@ -439,9 +511,11 @@ public class FactureServiceImpl implements FactureService {
             throw new BusinessException("Impossible de supprimer une facture payée ou partiellement payée");
         }
 
-        factureRepository.delete(facture);
+        factureIndexeeRepository.supprimer(facture);
         log.info("Facture supprimée avec succès: {}", id);
 
+        eventPublisher.publishEvent(FactureEvent.suppression(facture));
+
         cacheUtil.invalidateFactureRelatedCaches(id, facture.getIdClient());
     }
 
@@ -477,9 +551,11 @@ public class FactureServiceImpl implements FactureService {
         // Calculer les montants
         calculateFactureMontants(nouvelleFacture);
 
-        Facture savedFacture = factureRepository.save(nouvelleFacture);
+        Facture savedFacture = factureIndexeeRepository.sauvegarder(null, nouvelleFacture);
         log.info("Facture dupliquée avec succès: {} -> {}", id, savedFacture.getIdFacture());
 
+        eventPublisher.publishEvent(FactureEvent.creation(savedFacture));
+
         return factureMapper.toResponse(savedFacture);
     }
 
@@ -493,7 +569,7 @@ public class FactureServiceImpl implements FactureService {
         if (etat == null) {
             return 0L;
         }
-        return factureRepository.countByEtat(etat);
+        return factureIndexeeRepository.countByEtat(etat);
     }
 
     @Override
@@ -501,7 +577,7 @@ public class FactureServiceImpl implements FactureService {
         if (!ValidationUtil.isValidUuid(clientId)) {
             return 0L;
         }
-        return factureRepository.countByIdClient(clientId);
+        return factureIndexeeRepository.countByIdClient(clientId);
     }
 
     @Override
@@ -510,6 +586,12 @@ public class FactureServiceImpl implements FactureService {
         return customFactureRepository.getFactureStatisticsByPeriod(startDate, endDate);
     }
 
+    @Override
+    public Long reconstruireIndexFactures() {
+        log.info("Reconstruction des index de factures");
+        return factureIndexeeRepository.reconstruireIndex();
+    }
+
     @Override
     public Map<String, BigDecimal> getChiffreAffairesByMonth(int year) {
         log.debug("Calcul du chiffre d'affaires par mois pour l'année {}", year);
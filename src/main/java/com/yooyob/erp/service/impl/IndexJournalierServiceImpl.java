@@ -0,0 +1,257 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.SommesPeriodeResponse;
+import com.yooyob.erp.event.FactureEvent;
+import com.yooyob.erp.event.PaiementEvent;
+import com.yooyob.erp.exception.BusinessException;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.Paiement;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.repository.custom.IndexJournalier;
+import com.yooyob.erp.repository.custom.ParcoursParalleleRepository;
+import com.yooyob.erp.service.IndexJournalierService;
+import com.yooyob.erp.util.NumberUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndexJournalierServiceImpl implements IndexJournalierService {
+
+    private final ParcoursParalleleRepository parcoursParalleleRepository;
+
+    @Value("${app.index-journalier.origine:2000-01-01}")
+    private String origine;
+
+    private final ReadWriteLock verrou = new ReentrantReadWriteLock();
+    // Une seule reconstruction à la fois : chacune mémorise les modifications reçues pendant son parcours
+    private final ReentrantLock reconstruction = new ReentrantLock();
+    private IndexJournalier index;
+    private boolean pret;
+
+    // Pendant une reconstruction, les modifications sont aussi mémorisées pour être rejouées sur le nouvel index
+    private List<Consumer<IndexJournalier>> modificationsPendantChargement;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void chargerAuDemarrage() {
+        Thread.ofVirtual().name("chargement-index-journalier").start(() -> {
+            try {
+                reconstruire();
+            } catch (Exception e) {
+                log.error("Erreur lors de la construction de l'index journalier", e);
+            }
+        });
+    }
+
+    /**
+     * L'index ne reçoit que les écritures du nœud : il est reconstruit périodiquement pour intégrer
+     * celles des autres nœuds
+     */
+    @Scheduled(fixedDelayString = "${app.index-journalier.reconstruction-ms:900000}",
+            initialDelayString = "${app.index-journalier.reconstruction-ms:900000}")
+    public void reconstruirePeriodiquement() {
+        if (reconstruction.isLocked()) {
+            log.debug("Reconstruction de l'index journalier déjà en cours, exécution planifiée ignorée");
+            return;
+        }
+        try {
+            reconstruire();
+        } catch (Exception e) {
+            log.error("Erreur lors de la reconstruction périodique de l'index journalier", e);
+        }
+    }
+
+    @EventListener
+    public void onFactureEvent(FactureEvent event) {
+        try {
+            appliquerModification(event.getAvant(), event.getApres());
+        } catch (Exception e) {
+            // L'index a pu rester incohérent : il est reconstruit sans attendre la prochaine échéance
+            log.error("Erreur lors de la mise à jour de l'index journalier des factures, reconstruction", e);
+            reconstruireSiLibre();
+        }
+    }
+
+    @EventListener
+    public void onPaiementEvent(PaiementEvent event) {
+        try {
+            appliquerPaiement(event.getAvant(), event.getApres());
+        } catch (Exception e) {
+            log.error("Erreur lors de la mise à jour de l'index journalier des paiements, reconstruction", e);
+            reconstruireSiLibre();
+        }
+    }
+
+    @Override
+    public void appliquerModification(Facture avant, Facture apres) {
+        if (apres != null) {
+            appliquer(cible -> cible.enregistrer(apres));
+        } else if (avant != null && avant.getIdFacture() != null) {
+            appliquer(cible -> cible.supprimer(avant.getIdFacture()));
+        }
+    }
+
+    @Override
+    public void appliquerPaiement(Paiement avant, Paiement apres) {
+        if (apres != null) {
+            appliquer(cible -> cible.enregistrer(apres));
+        } else if (avant != null && avant.getIdPaiement() != null) {
+            appliquer(cible -> cible.supprimerPaiement(avant.getIdPaiement()));
+        }
+    }
+
+    @Override
+    public long reconstruire() {
+        reconstruction.lock();
+        try {
+            return construire();
+        } finally {
+            reconstruction.unlock();
+        }
+    }
+
+    @Override
+    public boolean isPret() {
+        verrou.readLock().lock();
+        try {
+            return pret;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStatistiquesPeriode(LocalDate dateDebut, LocalDate dateFin) {
+        IndexJournalier.Sommes sommes = lire(dateDebut, dateFin);
+
+        long nombreFactures = sommes.nombre();
+        BigDecimal montantTotal = NumberUtil.fromCentimes(sommes.montant());
+        Map<StatutFacture, Long> repartitionStatut = new HashMap<>();
+        for (StatutFacture statut : StatutFacture.values()) {
+            if (sommes.getNombres()[statut.ordinal()] > 0) {
+                repartitionStatut.put(statut, sommes.getNombres()[statut.ordinal()]);
+            }
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("nombreFactures", nombreFactures);
+        stats.put("montantTotal", montantTotal);
+        stats.put("montantMoyen", nombreFactures == 0 ? BigDecimal.ZERO :
+                montantTotal.divide(BigDecimal.valueOf(nombreFactures), 2, RoundingMode.HALF_UP));
+        stats.put("repartitionStatut", repartitionStatut);
+        return stats;
+    }
+
+    @Override
+    public SommesPeriodeResponse sommer(LocalDate dateDebut, LocalDate dateFin) {
+        IndexJournalier.Sommes sommes = lire(dateDebut, dateFin);
+        return SommesPeriodeResponse.builder()
+                .dateDebut(dateDebut)
+                .dateFin(dateFin)
+                .nombreFactures(sommes.nombre())
+                .montantTotal(NumberUtil.fromCentimes(sommes.montant()))
+                .montantEncaisse(NumberUtil.fromCentimes(sommes.getEncaisse()))
+                .build();
+    }
+
+    // Méthodes privées utilitaires
+
+    private long construire() {
+        log.info("Construction de l'index journalier des factures et des encaissements");
+        long debut = System.nanoTime();
+
+        verrou.writeLock().lock();
+        try {
+            modificationsPendantChargement = new ArrayList<>();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+
+        // La lecture se fait hors verrou : les requêtes continuent sur l'index courant.
+        // Chaque plage de jetons alimente son propre index partiel, fusionné avec les autres en fin de parcours
+        LocalDate dateOrigine = LocalDate.parse(origine);
+        IndexJournalier nouvelIndex;
+        try {
+            nouvelIndex = parcoursParalleleRepository.parcourir(Facture.class,
+                    () -> new IndexJournalier(dateOrigine), IndexJournalier::enregistrer, IndexJournalierServiceImpl::fusionner);
+            nouvelIndex.fusionner(parcoursParalleleRepository.parcourir(Paiement.class,
+                    () -> new IndexJournalier(dateOrigine), IndexJournalier::enregistrer, IndexJournalierServiceImpl::fusionner));
+        } catch (RuntimeException e) {
+            verrou.writeLock().lock();
+            try {
+                modificationsPendantChargement = null;
+            } finally {
+                verrou.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        verrou.writeLock().lock();
+        try {
+            modificationsPendantChargement.forEach(modification -> modification.accept(nouvelIndex));
+            modificationsPendantChargement = null;
+            index = nouvelIndex;
+            pret = true;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+
+        log.info("Index journalier construit: {} factures et {} paiements en {} ms", nouvelIndex.getNombreFactures(),
+                nouvelIndex.getNombrePaiements(), (System.nanoTime() - debut) / 1_000_000);
+        return (long) nouvelIndex.getNombreFactures() + nouvelIndex.getNombrePaiements();
+    }
+
+    private static IndexJournalier fusionner(IndexJournalier a, IndexJournalier b) {
+        a.fusionner(b);
+        return a;
+    }
+
+    private void reconstruireSiLibre() {
+        if (!reconstruction.isLocked()) {
+            chargerAuDemarrage();
+        }
+    }
+
+    private void appliquer(Consumer<IndexJournalier> modification) {
+        verrou.writeLock().lock();
+        try {
+            if (index != null) {
+                modification.accept(index);
+            }
+            if (modificationsPendantChargement != null) {
+                modificationsPendantChargement.add(modification);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private IndexJournalier.Sommes lire(LocalDate dateDebut, LocalDate dateFin) {
+        verrou.readLock().lock();
+        try {
+            if (index == null) {
+                throw new BusinessException("Index journalier en cours de construction", "INDEX_NON_PRET",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return index.sommer(dateDebut, dateFin);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+}
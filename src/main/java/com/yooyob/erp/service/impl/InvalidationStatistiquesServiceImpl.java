@@ -0,0 +1,117 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.config.CacheRevalidation;
+import com.yooyob.erp.event.FactureEvent;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.repository.custom.IndexDependancesStatistiquesRepository;
+import com.yooyob.erp.service.InvalidationStatistiquesService;
+import com.yooyob.erp.util.CacheUtil;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@Slf4j
+public class InvalidationStatistiquesServiceImpl implements InvalidationStatistiquesService {
+
+    private final CacheManager cacheManager;
+    private final IndexDependancesStatistiquesRepository indexDependances;
+    private final DistributionSummary entreesPerimees;
+
+    public InvalidationStatistiquesServiceImpl(CacheManager cacheManager,
+                                               IndexDependancesStatistiquesRepository indexDependances,
+                                               MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.indexDependances = indexDependances;
+        this.entreesPerimees = DistributionSummary.builder("cache.invalidation.entrees")
+                .description("Entrées de statistiques périmées par écriture de facture")
+                .tag("cache", CacheUtil.STATISTIQUE_CACHE)
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onFactureEvent(FactureEvent event) {
+        try {
+            invalider(event.getAvant(), event.getApres());
+        } catch (Exception e) {
+            log.error("Erreur lors de l'invalidation ciblée des statistiques, vidage complet du cache", e);
+            Cache cache = cacheManager.getCache(CacheUtil.STATISTIQUE_CACHE);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    @Override
+    public int invalider(Facture avant, Facture apres) {
+        Cache cache = cacheManager.getCache(CacheUtil.STATISTIQUE_CACHE);
+        if (cache == null) {
+            return 0;
+        }
+        if (!(cache instanceof CacheRevalidation revalidation)) {
+            cache.clear();
+            return -1;
+        }
+
+        Set<String> concernees = new HashSet<>();
+        for (Coordonnees ecriture : coordonnees(avant, apres)) {
+            // L'index ne sait pas désigner les clés d'un mois ou d'un client inconnus
+            if (ecriture.mois == null || ecriture.idClient == null) {
+                cache.clear();
+                return -1;
+            }
+            concernees.addAll(indexDependances.clesConcernees(ecriture.mois, ecriture.idClient));
+        }
+
+        int perimees = 0;
+        for (String cle : concernees) {
+            if (revalidation.perimer(cle)) {
+                perimees++;
+            }
+        }
+
+        entreesPerimees.record(perimees);
+        log.debug("Invalidation ciblée des statistiques: {} entrées périmées sur {} désignées par l'index",
+                perimees, concernees.size());
+        return perimees;
+    }
+
+    // Méthodes privées utilitaires
+
+    /**
+     * Coordonnées touchées par l'écriture : celles de la facture avant et après, plus le mois courant
+     * lorsqu'un encaissement a modifié le restant dû (les taux de recouvrement se calculent à la date de paiement)
+     */
+    private static List<Coordonnees> coordonnees(Facture avant, Facture apres) {
+        List<Coordonnees> coordonnees = new ArrayList<>(3);
+        for (Facture facture : new Facture[]{avant, apres}) {
+            if (facture != null) {
+                coordonnees.add(new Coordonnees(facture.getDateFacturation() != null
+                        ? YearMonth.from(facture.getDateFacturation()) : null, facture.getIdClient()));
+            }
+        }
+        if (avant != null && apres != null && !Objects.equals(avant.getMontantRestant(), apres.getMontantRestant())) {
+            coordonnees.add(new Coordonnees(YearMonth.now(), apres.getIdClient()));
+        }
+        return coordonnees;
+    }
+
+    @RequiredArgsConstructor
+    private static final class Coordonnees {
+        private final YearMonth mois;
+        private final UUID idClient;
+    }
+}
@@ -0,0 +1,201 @@
+package com.yooyob.erp.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yooyob.erp.dto.response.MetriquesTempsReelResponse;
+import com.yooyob.erp.event.FactureEvent;
+import com.yooyob.erp.event.PaiementEvent;
+import com.yooyob.erp.model.enums.CanalTempsReel;
+import com.yooyob.erp.service.MetriquesTempsReelService;
+import com.yooyob.erp.util.NumberUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MetriquesTempsReelServiceImpl implements MetriquesTempsReelService {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.temps-reel.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.temps-reel.battement-ms:30000}")
+    private long battementMs;
+
+    // Compteurs répartis par cellules : le chemin d'écriture n'entre jamais en contention
+    private final Map<CanalTempsReel, Compteur> compteurs = creerCompteurs();
+    private final List<Abonne> abonnes = new CopyOnWriteArrayList<>();
+    private long dernierEnvoi = System.currentTimeMillis();
+
+    @EventListener
+    public void onFactureEvent(FactureEvent event) {
+        if (event.isCreation()) {
+            compteurs.get(CanalTempsReel.FACTURES).ajouter(event.getApres().getMontantTotal());
+        }
+    }
+
+    @EventListener
+    public void onPaiementEvent(PaiementEvent event) {
+        if (event.isCreation()) {
+            compteurs.get(CanalTempsReel.PAIEMENTS).ajouter(event.getApres().getMontant());
+        }
+    }
+
+    @Override
+    public SseEmitter abonner(Set<CanalTempsReel> canaux) {
+        Set<CanalTempsReel> canauxSuivis = canaux == null || canaux.isEmpty()
+                ? EnumSet.allOf(CanalTempsReel.class) : EnumSet.copyOf(canaux);
+        SseEmitter emetteur = new SseEmitter(timeoutMs);
+        Abonne abonne = new Abonne(emetteur, canauxSuivis);
+        emetteur.onCompletion(() -> abonnes.remove(abonne));
+        emetteur.onTimeout(() -> abonnes.remove(abonne));
+        emetteur.onError(e -> abonnes.remove(abonne));
+        abonnes.add(abonne);
+
+        log.debug("Nouvel abonné aux métriques temps réel sur {} ({} abonnés)", canauxSuivis, abonnes.size());
+        return emetteur;
+    }
+
+    @Scheduled(fixedRateString = "${app.temps-reel.cadence-ms:2000}")
+    public void diffuserPeriodiquement() {
+        try {
+            diffuser();
+        } catch (Exception e) {
+            log.error("Erreur lors de la diffusion des métriques temps réel", e);
+        }
+    }
+
+    @Override
+    public synchronized int diffuser() {
+        LocalDateTime maintenant = LocalDateTime.now();
+
+        // Chaque variation est sérialisée une seule fois puis recopiée à tous les abonnés du canal
+        Map<CanalTempsReel, String> variations = new EnumMap<>(CanalTempsReel.class);
+        for (Map.Entry<CanalTempsReel, Compteur> entree : compteurs.entrySet()) {
+            MetriquesTempsReelResponse variation = entree.getValue().prelever(entree.getKey(), maintenant);
+            if (variation != null) {
+                variations.put(entree.getKey(), serialiser(variation));
+            }
+        }
+
+        long instant = System.currentTimeMillis();
+        boolean battement = instant - dernierEnvoi >= battementMs;
+        if (variations.isEmpty() && !battement) {
+            return 0;
+        }
+        dernierEnvoi = instant;
+
+        int envois = 0;
+        for (Abonne abonne : abonnes) {
+            try {
+                boolean envoye = false;
+                for (Map.Entry<CanalTempsReel, String> variation : variations.entrySet()) {
+                    if (abonne.canaux.contains(variation.getKey())) {
+                        abonne.emetteur.send(SseEmitter.event()
+                                .name(variation.getKey().name())
+                                .data(variation.getValue(), MediaType.APPLICATION_JSON));
+                        envoye = true;
+                        envois++;
+                    }
+                }
+                // Commentaire de maintien : détecte les connexions fermées et traverse les proxys inactifs
+                if (!envoye && battement) {
+                    abonne.emetteur.send(SseEmitter.event().comment("battement"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                abonnes.remove(abonne);
+                abonne.emetteur.completeWithError(e);
+            }
+        }
+        return envois;
+    }
+
+    @Override
+    public List<MetriquesTempsReelResponse> getCompteurs() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<MetriquesTempsReelResponse> resultat = new ArrayList<>();
+        compteurs.forEach((canal, compteur) -> resultat.add(compteur.lire(canal, maintenant)));
+        return resultat;
+    }
+
+    // Méthodes privées utilitaires
+
+    private String serialiser(MetriquesTempsReelResponse variation) {
+        try {
+            return objectMapper.writeValueAsString(variation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation impossible des métriques temps réel", e);
+        }
+    }
+
+    private static Map<CanalTempsReel, Compteur> creerCompteurs() {
+        Map<CanalTempsReel, Compteur> compteurs = new EnumMap<>(CanalTempsReel.class);
+        for (CanalTempsReel canal : CanalTempsReel.values()) {
+            compteurs.put(canal, new Compteur());
+        }
+        return compteurs;
+    }
+
+    @RequiredArgsConstructor
+    private static final class Abonne {
+        private final SseEmitter emetteur;
+        private final Set<CanalTempsReel> canaux;
+    }
+
+    private static final class Compteur {
+        private final LongAdder nombre = new LongAdder();
+        private final LongAdder montantCentimes = new LongAdder();
+
+        // Valeurs cumulées à la diffusion précédente, lues et écrites par la seule diffusion
+        private long nombreDiffuse;
+        private long montantDiffuse;
+
+        private void ajouter(BigDecimal montant) {
+            nombre.increment();
+            montantCentimes.add(NumberUtil.toCentimes(montant));
+        }
+
+        private MetriquesTempsReelResponse prelever(CanalTempsReel canal, LocalDateTime horodatage) {
+            long nombreCumule = nombre.sum();
+            long montantCumule = montantCentimes.sum();
+            if (nombreCumule == nombreDiffuse && montantCumule == montantDiffuse) {
+                return null;
+            }
+            MetriquesTempsReelResponse variation = MetriquesTempsReelResponse.builder()
+                    .canal(canal)
+                    .horodatage(horodatage)
+                    .nombre(nombreCumule - nombreDiffuse)
+                    .montant(NumberUtil.fromCentimes(montantCumule - montantDiffuse))
+                    .nombreCumule(nombreCumule)
+                    .montantCumule(NumberUtil.fromCentimes(montantCumule))
+                    .build();
+            nombreDiffuse = nombreCumule;
+            montantDiffuse = montantCumule;
+            return variation;
+        }
+
+        private MetriquesTempsReelResponse lire(CanalTempsReel canal, LocalDateTime horodatage) {
+            return MetriquesTempsReelResponse.builder()
+                    .canal(canal)
+                    .horodatage(horodatage)
+                    .nombreCumule(nombre.sum())
+                    .montantCumule(NumberUtil.fromCentimes(montantCentimes.sum()))
+                    .build();
+        }
+    }
+}
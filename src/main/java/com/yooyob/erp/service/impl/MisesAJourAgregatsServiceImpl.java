@@ -0,0 +1,54 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.event.FactureEvent;
+import com.yooyob.erp.event.PaiementEvent;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.repository.custom.SourceAgregat;
+import com.yooyob.erp.service.MisesAJourAgregatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Alimente les agrégats en différé : chaque écriture de facture ou de paiement est seulement publiée
+ * dans le journal, que les nœuds appliquent ensuite shard par shard
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MisesAJourAgregatsServiceImpl implements MisesAJourAgregatsService {
+
+    private final AgregatsRepository agregatsRepository;
+
+    @EventListener
+    public void onFactureEvent(FactureEvent event) {
+        agregatsRepository.publier(SourceAgregat.FACTURES, event.getAvant(), event.getApres());
+    }
+
+    @EventListener
+    public void onPaiementEvent(PaiementEvent event) {
+        agregatsRepository.publier(SourceAgregat.PAIEMENTS, event.getAvant(), event.getApres());
+    }
+
+    @Scheduled(fixedDelayString = "${app.agregats.cycle-ms:1000}")
+    public void traiterPeriodiquement() {
+        try {
+            traiterMisesAJour();
+        } catch (Exception e) {
+            log.error("Erreur lors de l'application du journal des agrégats", e);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void quitter() {
+        agregatsRepository.quitter();
+    }
+
+    @Override
+    public void traiterMisesAJour() {
+        agregatsRepository.traiterMisesAJour();
+    }
+}
@@ -0,0 +1,37 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.model.entity.AlerteTableau;
+import com.yooyob.erp.service.EmailService;
+import com.yooyob.erp.service.NotificationAlerteService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationAlerteServiceImpl implements NotificationAlerteService {
+
+    private static final String CANAL_EMAIL = "EMAIL";
+
+    private final EmailService emailService;
+
+    @Override
+    public void notifier(AlerteTableau alerte, String message) {
+        log.warn("Alerte {} déclenchée: {}", alerte.getNomAlerte(), message);
+        if (alerte.getCanalNotification() == null || !alerte.getCanalNotification().contains(CANAL_EMAIL)
+                || alerte.getDestinatairesNotification() == null) {
+            return;
+        }
+
+        String texte = alerte.getMessagePersonnalise() != null ? alerte.getMessagePersonnalise() : message;
+        for (String destinataire : alerte.getDestinatairesNotification()) {
+            try {
+                emailService.sendSimpleEmail(destinataire, "[ALERTE " + alerte.getNiveauCriticite() + "] "
+                        + alerte.getNomAlerte(), texte);
+            } catch (Exception e) {
+                log.error("Erreur lors de l'envoi de l'alerte {} à {}", alerte.getNomAlerte(), destinataire, e);
+            }
+        }
+    }
+}
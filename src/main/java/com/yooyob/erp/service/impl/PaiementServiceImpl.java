@@ -3,6 +3,8 @@ package com.yooyob.erp.service.impl;
 import com.yooyob.erp.dto.request.PaiementCreateRequest;
 import com.yooyob.erp.dto.request.PaiementUpdateRequest;
 import com.yooyob.erp.dto.response.PaiementResponse;
+import com.yooyob.erp.dto.response.PageCurseurResponse;
+import com.yooyob.erp.event.PaiementEvent;
 import com.yooyob.erp.exception.ResourceNotFoundException;
 import com.yooyob.erp.exception.ValidationException;
 import com.yooyob.erp.exception.BusinessException;
@@ -15,12 +17,15 @@ import com.yooyob.erp.service.FactureService;
 import com.yooyob.erp.service.EmailService;
 import com.yooyob.erp.util.ValidationUtil;
 import com.yooyob.erp.util.NumberUtil;
+import com.yooyob.erp.util.CurseurUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,10 +44,13 @@ public class PaiementServiceImpl implements PaiementService {
     private final PaiementMapper paiementMapper;
     private final FactureService factureService;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PaiementServiceImpl(PaiementRepository paiementRepository, PaiementMapper paiementMapper,
-                              @Lazy FactureService factureService, @Lazy EmailService emailService) {
+                              @Lazy FactureService factureService, @Lazy EmailService emailService,
+                              ApplicationEventPublisher eventPublisher) {
         this.paiementRepository = paiementRepository;
+        this.eventPublisher = eventPublisher;
         this.paiementMapper = paiementMapper;
         this.factureService = factureService;
         this.emailService = emailService;
@@ -60,6 +68,7 @@ public class PaiementServiceImpl implements PaiementService {
 
         Paiement savedPaiement = paiementRepository.save(paiement);
         log.info("Paiement créé avec succès: {}", savedPaiement.getIdPaiement());
+        eventPublisher.publishEvent(PaiementEvent.creation(savedPaiement));
 
         return paiementMapper.toResponse(savedPaiement);
     }
@@ -71,11 +80,13 @@ public class PaiementServiceImpl implements PaiementService {
         Paiement existingPaiement = findPaiementById(id);
         validatePaiementUpdateRequest(request);
 
+        Paiement avant = existingPaiement.toBuilder().build();
         paiementMapper.updateEntityFromRequest(request, existingPaiement);
         existingPaiement.setUpdatedAt(LocalDateTime.now());
 
         Paiement savedPaiement = paiementRepository.save(existingPaiement);
         log.info("Paiement mis à jour avec succès: {}", id);
+        eventPublisher.publishEvent(PaiementEvent.modification(avant, savedPaiement));
 
         return paiementMapper.toResponse(savedPaiement);
     }
@@ -98,6 +109,14 @@ public class PaiementServiceImpl implements PaiementService {
         return new PageImpl<>(responses, pageable, paiementsPage.getTotalElements());
     }
 
+    @Override
+    public PageCurseurResponse<PaiementResponse> getPaiementsParCurseur(String curseur, int taille) {
+        log.debug("Récupération des paiements par curseur");
+
+        Slice<Paiement> slice = CurseurUtil.lire(CurseurUtil.decoder(curseur, taille), paiementRepository::findAll);
+        return CurseurUtil.versReponse(slice, paiementMapper::toResponseList);
+    }
+
     @Override
     public List<PaiementResponse> getPaiementsByClient(UUID clientId) {
         log.debug("Récupération des paiements du client: {}", clientId);
@@ -217,6 +236,7 @@ public class PaiementServiceImpl implements PaiementService {
 
         paiementRepository.delete(paiement);
         log.info("Paiement supprimé avec succès: {}", id);
+        eventPublisher.publishEvent(PaiementEvent.suppression(paiement));
     }
 
     @Override
@@ -394,4 +414,4 @@ public class PaiementServiceImpl implements PaiementService {
             throw new ValidationException("La date de début ne peut pas être postérieure à la date de fin");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,342 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.PerformanceRecouvrementResponse;
+import com.yooyob.erp.exception.ValidationException;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.Paiement;
+import com.yooyob.erp.model.entity.SuiviRecouvrement;
+import com.yooyob.erp.model.entity.SuiviRecouvrementKey;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.repository.FactureRepository;
+import com.yooyob.erp.repository.SuiviRecouvrementRepository;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.repository.custom.SourceAgregat;
+import com.yooyob.erp.service.PerformanceRecouvrementService;
+import com.yooyob.erp.util.NumberUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PerformanceRecouvrementServiceImpl implements PerformanceRecouvrementService {
+
+    private static final int TAILLE_LOT_LECTURE = 100;
+    private static final Set<StatutFacture> STATUTS_EMIS = EnumSet.of(StatutFacture.ENVOYE, StatutFacture.PAYE,
+            StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD);
+
+    private final SuiviRecouvrementRepository suiviRecouvrementRepository;
+    private final FactureRepository factureRepository;
+    private final AgregatsRepository agregatsRepository;
+
+    @Value("${app.recouvrement.fenetre-jours:90}")
+    private int fenetreJours;
+
+    @PostConstruct
+    public void abonner() {
+        agregatsRepository.abonner(TypeAgregat.SUIVI_RECOUVREMENT, SourceAgregat.FACTURES, this::appliquerFacture);
+        agregatsRepository.abonner(TypeAgregat.SUIVI_RECOUVREMENT, SourceAgregat.PAIEMENTS, this::appliquerEncaissement);
+    }
+
+    @Override
+    public PerformanceRecouvrementResponse calculer(LocalDate dateDebut, LocalDate dateFin) {
+        int generation = agregatsRepository.generationLue(TypeAgregat.SUIVI_RECOUVREMENT);
+        if (dateDebut == null && dateFin == null) {
+            Delta total = lire(generation, GranulariteRollup.TOUT, List.of(GranulariteRollup.PERIODE_TOUT));
+            return PerformanceRecouvrementResponse.builder()
+                    .montantFacture(NumberUtil.fromCentimes(total.facture))
+                    .montantEncaisse(NumberUtil.fromCentimes(total.encaisse))
+                    .encoursFin(NumberUtil.fromCentimes(total.facture - total.encaisse))
+                    .delaiMoyenPondere(diviser(total.pondere, total.encaisse, 1))
+                    .tauxRecouvrement(diviser(total.encaisse, total.facture, 100))
+                    .build();
+        }
+
+        LocalDate fin = dateFin != null ? dateFin : LocalDate.now();
+        LocalDate debut = dateDebut != null ? dateDebut : fin.minusDays(fenetreJours - 1L);
+        if (debut.isAfter(fin)) {
+            throw new ValidationException("La date de début doit précéder la date de fin");
+        }
+
+        Delta periode = sommer(generation, debut, fin);
+
+        // Encours de fin = encours total moins les mouvements postérieurs à la période
+        Delta total = lire(generation, GranulariteRollup.TOUT, List.of(GranulariteRollup.PERIODE_TOUT));
+        long encoursFin = total.facture - total.encaisse;
+        LocalDate aujourdhui = LocalDate.now();
+        if (fin.isBefore(aujourdhui)) {
+            Delta posterieur = sommer(generation, fin.plusDays(1), aujourdhui);
+            encoursFin -= posterieur.facture - posterieur.encaisse;
+        }
+
+        long nombreJours = ChronoUnit.DAYS.between(debut, fin) + 1;
+        return PerformanceRecouvrementResponse.builder()
+                .dateDebut(debut)
+                .dateFin(fin)
+                .nombreJours(nombreJours)
+                .montantFacture(NumberUtil.fromCentimes(periode.facture))
+                .montantEncaisse(NumberUtil.fromCentimes(periode.encaisse))
+                .encoursFin(NumberUtil.fromCentimes(encoursFin))
+                .dso(diviser(encoursFin, periode.facture, nombreJours))
+                .delaiMoyenPondere(diviser(periode.pondere, periode.encaisse, 1))
+                .tauxRecouvrement(diviser(periode.encaisse, periode.facture, 100))
+                .build();
+    }
+
+    @Override
+    public long reconstruire() {
+        log.info("Reconstruction du suivi du recouvrement");
+
+        Reconstruction reconstruction = agregatsRepository.reconstruire(TypeAgregat.SUIVI_RECOUVREMENT, construction -> {
+            int generation = construction.getGeneration();
+
+            // Premier parcours : facturé des factures émises, et date de facturation de chaque facture pour les délais
+            ParcoursFactures factures = construction.parcourir(SourceAgregat.FACTURES, this::appliquerFacture,
+                    ParcoursFactures::new,
+                    (partiel, facture) -> {
+                        if (isEmise(facture) && facture.getDateFacturation() != null) {
+                            ajouter(partiel.deltas, generation, facture.getDateFacturation(),
+                                    NumberUtil.toCentimes(facture.getMontantTotal()), 0, 0);
+                        }
+                        if (facture.getIdFacture() != null && facture.getDateFacturation() != null) {
+                            partiel.datesFacturation.put(facture.getIdFacture(), facture.getDateFacturation());
+                        }
+                    },
+                    (a, b) -> {
+                        a.fusionner(b);
+                        a.datesFacturation.putAll(b.datesFacturation);
+                        return a;
+                    });
+
+            // Second parcours : encaissements des paiements rattachés à une facture, à la date du paiement ;
+            // une facture créée après son passage dans le premier parcours est relue
+            Function<UUID, LocalDate> datesFacturation = idFacture -> {
+                LocalDate date = factures.datesFacturation.get(idFacture);
+                return date != null ? date : dateFacturation(idFacture);
+            };
+            ParcoursMouvements paiements = construction.parcourir(SourceAgregat.PAIEMENTS, this::appliquerEncaissement,
+                    ParcoursMouvements::new,
+                    (partiel, paiement) -> encaisser(partiel.deltas, generation, paiement, 1, datesFacturation),
+                    (a, b) -> {
+                        a.fusionner(b);
+                        return a;
+                    });
+
+            Map<SuiviRecouvrementKey, Delta> deltas = factures.deltas;
+            paiements.deltas.forEach((cle, delta) -> deltas.merge(cle, delta, Delta::ajouter));
+
+            LocalDateTime maintenant = LocalDateTime.now();
+            List<SuiviRecouvrement> lignes = new ArrayList<>(deltas.size());
+            deltas.forEach((cle, delta) -> lignes.add(SuiviRecouvrement.builder()
+                    .key(cle)
+                    .montantFacture(NumberUtil.fromCentimes(delta.facture))
+                    .montantEncaisse(NumberUtil.fromCentimes(delta.encaisse))
+                    .encaissePondere(NumberUtil.fromCentimes(delta.pondere))
+                    .updatedAt(maintenant)
+                    .build()));
+            construction.ecrire(lignes);
+            return new Reconstruction(factures.datesFacturation.size(), lignes.size());
+        });
+
+        log.info("Suivi du recouvrement reconstruit: {} factures relues, {} lignes écrites",
+                reconstruction.nombreFactures, reconstruction.nombreLignes);
+        return reconstruction.nombreLignes;
+    }
+
+    // Méthodes privées utilitaires
+
+    private void appliquerFacture(int generation, Facture avant, Facture apres) {
+        // Facturé : rattaché à la date de la facture, retiré de l'ancien état et ajouté au nouveau
+        Map<SuiviRecouvrementKey, Delta> deltas = new HashMap<>();
+        if (isEmise(avant) && avant.getDateFacturation() != null) {
+            ajouter(deltas, generation, avant.getDateFacturation(), -NumberUtil.toCentimes(avant.getMontantTotal()), 0, 0);
+        }
+        if (isEmise(apres) && apres.getDateFacturation() != null) {
+            ajouter(deltas, generation, apres.getDateFacturation(), NumberUtil.toCentimes(apres.getMontantTotal()), 0, 0);
+        }
+        appliquer(deltas);
+    }
+
+    private void appliquerEncaissement(int generation, Paiement avant, Paiement apres) {
+        // Encaissé : le montant du paiement, à sa date, pondéré par le délai depuis la date de la facture réglée
+        Map<SuiviRecouvrementKey, Delta> deltas = new HashMap<>();
+        if (avant != null) {
+            encaisser(deltas, generation, avant, -1, this::dateFacturation);
+        }
+        if (apres != null) {
+            encaisser(deltas, generation, apres, 1, this::dateFacturation);
+        }
+        appliquer(deltas);
+    }
+
+    private LocalDate dateFacturation(UUID idFacture) {
+        return factureRepository.findById(idFacture)
+                .map(Facture::getDateFacturation)
+                .orElse(null);
+    }
+
+    private void appliquer(Map<SuiviRecouvrementKey, Delta> deltas) {
+        deltas.forEach((cle, delta) -> {
+            if (!delta.isNul()) {
+                appliquerDelta(cle, delta);
+            }
+        });
+    }
+
+    /**
+     * Mouvements cumulés de la période : mois complets lus au grain mensuel, jours isolés aux bornes
+     */
+    private Delta sommer(int generation, LocalDate dateDebut, LocalDate dateFin) {
+        List<String> jours = new ArrayList<>();
+        List<String> mois = new ArrayList<>();
+
+        LocalDate courant = dateDebut;
+        while (!courant.isAfter(dateFin)) {
+            LocalDate finMois = courant.withDayOfMonth(courant.lengthOfMonth());
+            if (courant.getDayOfMonth() == 1 && !finMois.isAfter(dateFin)) {
+                mois.add(GranulariteRollup.MOIS.periode(courant));
+                courant = finMois.plusDays(1);
+            } else {
+                jours.add(GranulariteRollup.JOUR.periode(courant));
+                courant = courant.plusDays(1);
+            }
+        }
+
+        return lire(generation, GranulariteRollup.MOIS, mois).ajouter(lire(generation, GranulariteRollup.JOUR, jours));
+    }
+
+    private Delta lire(int generation, GranulariteRollup granularite, List<String> periodes) {
+        Delta somme = new Delta();
+        for (int i = 0; i < periodes.size(); i += TAILLE_LOT_LECTURE) {
+            suiviRecouvrementRepository.findByPeriodes(generation, granularite.name(),
+                            periodes.subList(i, Math.min(i + TAILLE_LOT_LECTURE, periodes.size())))
+                    .forEach(ligne -> {
+                        somme.facture += NumberUtil.toCentimes(ligne.getMontantFacture());
+                        somme.encaisse += NumberUtil.toCentimes(ligne.getMontantEncaisse());
+                        somme.pondere += NumberUtil.toCentimes(ligne.getEncaissePondere());
+                    });
+        }
+        return somme;
+    }
+
+    private void appliquerDelta(SuiviRecouvrementKey cle, Delta delta) {
+        agregatsRepository.modifier(SuiviRecouvrement.class, cle, existante -> {
+            SuiviRecouvrement ligne = existante != null ? existante : SuiviRecouvrement.builder().key(cle).build();
+            ligne.setMontantFacture(NumberUtil.safeAdd(ligne.getMontantFacture(), NumberUtil.fromCentimes(delta.facture)));
+            ligne.setMontantEncaisse(NumberUtil.safeAdd(ligne.getMontantEncaisse(), NumberUtil.fromCentimes(delta.encaisse)));
+            ligne.setEncaissePondere(NumberUtil.safeAdd(ligne.getEncaissePondere(), NumberUtil.fromCentimes(delta.pondere)));
+            ligne.setUpdatedAt(LocalDateTime.now());
+            return ligne;
+        });
+    }
+
+    private static void ajouter(Map<SuiviRecouvrementKey, Delta> deltas, int generation, LocalDate jour,
+                                long facture, long encaisse, long pondere) {
+        for (GranulariteRollup granularite : GranulariteRollup.values()) {
+            String periode = granularite == GranulariteRollup.TOUT ? GranulariteRollup.PERIODE_TOUT : granularite.periode(jour);
+            Delta delta = deltas.computeIfAbsent(new SuiviRecouvrementKey(generation, granularite, periode), k -> new Delta());
+            delta.facture += facture;
+            delta.encaisse += encaisse;
+            delta.pondere += pondere;
+        }
+    }
+
+    /**
+     * Ajoute (signe 1) ou retire (signe -1) l'encaissement d'un paiement rattaché à une facture
+     */
+    private static void encaisser(Map<SuiviRecouvrementKey, Delta> deltas, int generation, Paiement paiement, int signe,
+                                  Function<UUID, LocalDate> datesFacturation) {
+        if (paiement.getIdFacture() == null || paiement.getDate() == null || paiement.getMontant() == null) {
+            return;
+        }
+        LocalDate dateFacturation = datesFacturation.apply(paiement.getIdFacture());
+        if (dateFacturation == null) {
+            return;
+        }
+        long montant = signe * NumberUtil.toCentimes(paiement.getMontant());
+        ajouter(deltas, generation, paiement.getDate(), 0, montant, montant * delai(dateFacturation, paiement.getDate()));
+    }
+
+    private static long delai(LocalDate dateFacturation, LocalDate dateEncaissement) {
+        if (dateFacturation == null) {
+            return 0;
+        }
+        return Math.max(0, ChronoUnit.DAYS.between(dateFacturation, dateEncaissement));
+    }
+
+    private static BigDecimal diviser(long numerateur, long denominateur, long facteur) {
+        if (denominateur == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(numerateur).multiply(BigDecimal.valueOf(facteur))
+                .divide(BigDecimal.valueOf(denominateur), NumberUtil.DEFAULT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static boolean isEmise(Facture facture) {
+        return facture != null && STATUTS_EMIS.contains(facture.getEtat());
+    }
+
+    private static final class Reconstruction {
+        private final int nombreFactures;
+        private final int nombreLignes;
+
+        private Reconstruction(int nombreFactures, int nombreLignes) {
+            this.nombreFactures = nombreFactures;
+            this.nombreLignes = nombreLignes;
+        }
+    }
+
+    /**
+     * Mouvements en centimes ; l'encaissé pondéré est en centimes × jours
+     */
+    private static final class Delta {
+        private long facture;
+        private long encaisse;
+        private long pondere;
+
+        private boolean isNul() {
+            return facture == 0 && encaisse == 0 && pondere == 0;
+        }
+
+        private Delta ajouter(Delta autre) {
+            facture += autre.facture;
+            encaisse += autre.encaisse;
+            pondere += autre.pondere;
+            return this;
+        }
+    }
+
+    /**
+     * Agrégat partiel d'un parcours, fusionnable avec celui d'une autre plage de jetons
+     */
+    private static class ParcoursMouvements {
+        protected final Map<SuiviRecouvrementKey, Delta> deltas = new HashMap<>();
+
+        protected void fusionner(ParcoursMouvements autre) {
+            autre.deltas.forEach((cle, delta) -> deltas.merge(cle, delta, Delta::ajouter));
+        }
+    }
+
+    private static final class ParcoursFactures extends ParcoursMouvements {
+        private final Map<UUID, LocalDate> datesFacturation = new HashMap<>();
+    }
+}
@@ -0,0 +1,217 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.DonneesWidgetResponse;
+import com.yooyob.erp.dto.response.PrechargementTableauResponse;
+import com.yooyob.erp.exception.BusinessException;
+import com.yooyob.erp.exception.ResourceNotFoundException;
+import com.yooyob.erp.model.entity.TableauBord;
+import com.yooyob.erp.model.entity.Widget;
+import com.yooyob.erp.repository.TableauBordRepository;
+import com.yooyob.erp.service.DonneesWidgetService;
+import com.yooyob.erp.service.PrechargementTableauxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrechargementTableauxServiceImpl implements PrechargementTableauxService {
+
+    private final TableauBordRepository tableauBordRepository;
+    private final DonneesWidgetService donneesWidgetService;
+
+    @Value("${app.prechargement.tableaux:}")
+    private List<UUID> tableauxPrecharges;
+
+    @Value("${app.prechargement.concurrence:8}")
+    private int concurrence;
+
+    @Value("${app.prechargement.delai-tableau-ms:120000}")
+    private long delaiTableauMs;
+
+    // Un seul préchargement à la fois : la limite de concurrence vaut pour l'ensemble des tableaux
+    private final ReentrantLock verrou = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prechargerAuDemarrage() {
+        Thread.ofVirtual().name("prechargement-tableaux").start(this::prechargerTableauxConfigures);
+    }
+
+    @Scheduled(cron = "${app.prechargement.cron:0 0/5 6-20 * * *}")
+    public void prechargerTableauxConfigures() {
+        if (verrou.isLocked()) {
+            log.debug("Préchargement précédent encore en cours, exécution planifiée ignorée");
+            return;
+        }
+        try {
+            prechargerDonnees(tableauxPrecharges);
+        } catch (Exception e) {
+            log.error("Erreur lors du préchargement des tableaux de bord", e);
+        }
+    }
+
+    @Override
+    public List<PrechargementTableauResponse> prechargerDonnees(List<UUID> idsTableaux) {
+        List<TableauBord> tableaux = new ArrayList<>();
+        if (idsTableaux == null || idsTableaux.isEmpty()) {
+            tableauBordRepository.findAll().forEach(tableau -> {
+                if (!Boolean.FALSE.equals(tableau.getActif())) {
+                    tableaux.add(tableau);
+                }
+            });
+        } else {
+            tableauBordRepository.findAllById(idsTableaux).forEach(tableaux::add);
+        }
+        return precharger(tableaux);
+    }
+
+    @Override
+    public PrechargementTableauResponse actualiserCacheTableau(UUID idTableau) {
+        return precharger(List.of(findTableau(idTableau))).get(0);
+    }
+
+    @Override
+    public DonneesWidgetResponse actualiserCacheWidget(UUID idTableau, UUID idWidget) {
+        TableauBord tableau = findTableau(idTableau);
+        Widget widget = tableau.getWidgets() == null ? null : tableau.getWidgets().stream()
+                .filter(w -> idWidget.equals(w.getIdWidget()))
+                .findFirst()
+                .orElse(null);
+        if (widget == null) {
+            throw new ResourceNotFoundException("Widget", "id", idWidget);
+        }
+        return donneesWidgetService.actualiser(widget, Map.of());
+    }
+
+    // Méthodes privées utilitaires
+
+    /**
+     * Chaque widget tourne sur son thread virtuel, sous un nombre global de permis ; le délai de chaque tableau
+     * court depuis le début du préchargement, les widgets encore en attente ou en cours à l'échéance sont abandonnés
+     */
+    private List<PrechargementTableauResponse> precharger(List<TableauBord> tableaux) {
+        if (!verrou.tryLock()) {
+            throw new BusinessException("Un préchargement des tableaux de bord est déjà en cours",
+                    "PRECHARGEMENT_EN_COURS", HttpStatus.CONFLICT);
+        }
+        try {
+            long debut = System.nanoTime();
+            long echeance = debut + TimeUnit.MILLISECONDS.toNanos(delaiTableauMs);
+            Semaphore permis = new Semaphore(Math.max(1, concurrence));
+            List<PrechargementTableauResponse> bilans = new ArrayList<>(tableaux.size());
+
+            try (ExecutorService executeur = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<List<Future<Long>>> calculsParTableau = new ArrayList<>(tableaux.size());
+                for (TableauBord tableau : tableaux) {
+                    List<Future<Long>> calculs = new ArrayList<>();
+                    for (Widget widget : widgetsAPrecharger(tableau)) {
+                        calculs.add(executeur.submit(() -> calculer(widget, permis, echeance, debut)));
+                    }
+                    calculsParTableau.add(calculs);
+                }
+
+                for (int i = 0; i < tableaux.size(); i++) {
+                    bilans.add(attendre(tableaux.get(i), calculsParTableau.get(i), echeance));
+                }
+                // Les widgets abandonnés sont interrompus plutôt qu'attendus à la fermeture de l'exécuteur
+                calculsParTableau.forEach(calculs -> calculs.forEach(calcul -> calcul.cancel(true)));
+            }
+
+            log.info("Préchargement de {} tableaux de bord terminé en {} ms", tableaux.size(),
+                    (System.nanoTime() - debut) / 1_000_000);
+            return bilans;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Calcule un widget et renvoie l'instant de fin de son calcul, en nanosecondes depuis le début du préchargement
+     */
+    private long calculer(Widget widget, Semaphore permis, long echeance, long debut) throws InterruptedException, TimeoutException {
+        if (!permis.tryAcquire(echeance - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("Aucun permis de calcul avant l'échéance");
+        }
+        try {
+            donneesWidgetService.actualiser(widget, Map.of());
+            return System.nanoTime() - debut;
+        } finally {
+            permis.release();
+        }
+    }
+
+    private PrechargementTableauResponse attendre(TableauBord tableau, List<Future<Long>> calculs, long echeance) {
+        int precharges = 0;
+        int enEchec = 0;
+        int horsDelai = 0;
+        long dureeNs = 0;
+
+        for (Future<Long> calcul : calculs) {
+            try {
+                dureeNs = Math.max(dureeNs, calcul.get(Math.max(0, echeance - System.nanoTime()), TimeUnit.NANOSECONDS));
+                precharges++;
+            } catch (TimeoutException e) {
+                calcul.cancel(true);
+                horsDelai++;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    horsDelai++;
+                } else {
+                    enEchec++;
+                    log.warn("Échec du préchargement d'un widget du tableau {}: {}", tableau.getIdTableau(),
+                            e.getCause().getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException("Préchargement des tableaux de bord interrompu",
+                        "PRECHARGEMENT_INTERROMPU", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        }
+
+        if (horsDelai > 0) {
+            dureeNs = Math.max(dureeNs, TimeUnit.MILLISECONDS.toNanos(delaiTableauMs));
+        }
+        PrechargementTableauResponse bilan = PrechargementTableauResponse.builder()
+                .idTableau(tableau.getIdTableau())
+                .nomTableau(tableau.getNomTableau())
+                .nombreWidgets(calculs.size())
+                .widgetsPrecharges(precharges)
+                .widgetsEnEchec(enEchec)
+                .widgetsHorsDelai(horsDelai)
+                .dureeMs(dureeNs / 1_000_000)
+                .build();
+        log.info("Tableau {} préchauffé: {}/{} widgets en {} ms ({} en échec, {} hors délai)", tableau.getNomTableau(),
+                precharges, calculs.size(), bilan.getDureeMs(), enEchec, horsDelai);
+
+        return bilan;
+    }
+
+    /**
+     * Widgets dont le résultat est servi depuis le cache : les widgets masqués ou temps réel ne sont pas préchargés
+     */
+    private static List<Widget> widgetsAPrecharger(TableauBord tableau) {
+        if (tableau.getWidgets() == null) {
+            return List.of();
+        }
+        return tableau.getWidgets().stream()
+                .filter(widget -> !Boolean.FALSE.equals(widget.getVisible()))
+                .filter(widget -> !Boolean.FALSE.equals(widget.getCacheActive()))
+                .filter(widget -> !Boolean.TRUE.equals(widget.getDonneesTempsReel()))
+                .toList();
+    }
+
+    private TableauBord findTableau(UUID idTableau) {
+        return tableauBordRepository.findById(idTableau)
+                .orElseThrow(() -> new ResourceNotFoundException("Tableau de bord", "id", idTableau));
+    }
+}
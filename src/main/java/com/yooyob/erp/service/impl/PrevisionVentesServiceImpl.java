@@ -0,0 +1,347 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.BacktestPrevisionResponse;
+import com.yooyob.erp.dto.response.PrevisionVentesResponse;
+import com.yooyob.erp.exception.ResourceNotFoundException;
+import com.yooyob.erp.exception.ValidationException;
+import com.yooyob.erp.model.entity.EtatPrevision;
+import com.yooyob.erp.model.entity.EtatPrevisionKey;
+import com.yooyob.erp.model.entity.RollupFacture;
+import com.yooyob.erp.model.enums.DimensionRollup;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import com.yooyob.erp.model.enums.StatutFacture;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.repository.EtatPrevisionRepository;
+import com.yooyob.erp.repository.RollupFactureRepository;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.service.PrevisionVentesService;
+import com.yooyob.erp.util.HoltWinters;
+import com.yooyob.erp.util.NumberUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrevisionVentesServiceImpl implements PrevisionVentesService {
+
+    private static final int HORIZON_MAX = 24;
+    private static final Set<StatutFacture> STATUTS_EMIS = EnumSet.of(StatutFacture.ENVOYE, StatutFacture.PAYE,
+            StatutFacture.PARTIELLEMENT_PAYE, StatutFacture.EN_RETARD);
+
+    private final EtatPrevisionRepository etatPrevisionRepository;
+    private final RollupFactureRepository rollupFactureRepository;
+    private final AgregatsRepository agregatsRepository;
+
+    @Value("${app.prevision.alpha:0.3}")
+    private double alpha;
+
+    @Value("${app.prevision.beta:0.1}")
+    private double beta;
+
+    @Value("${app.prevision.gamma:0.2}")
+    private double gamma;
+
+    @Value("${app.prevision.historique-mois:36}")
+    private int historiqueMois;
+
+    // Intégration mensuelle et reconstruction ne doivent pas s'entrelacer
+    private final Lock verrou = new ReentrantLock();
+
+    @Scheduled(cron = "${app.prevision.cron:0 30 0 1 * *}")
+    public void integrerMoisClosMensuel() {
+        try {
+            integrerMoisClos();
+        } catch (Exception e) {
+            log.error("Erreur lors de l'intégration mensuelle des prévisions de ventes", e);
+        }
+    }
+
+    @Override
+    public PrevisionVentesResponse getPrevisions(DimensionRollup dimension, String valeurDimension, int horizonMois) {
+        if (horizonMois < 1 || horizonMois > HORIZON_MAX) {
+            throw new ValidationException("L'horizon de prévision doit être compris entre 1 et " + HORIZON_MAX + " mois");
+        }
+
+        EtatPrevisionKey cle = cle(dimension, valeurDimension);
+        EtatPrevision etat = etatPrevisionRepository.findById(cle)
+                .orElseThrow(() -> new ResourceNotFoundException("Série de prévision", "valeurDimension", cle.getValeurDimension()));
+
+        HoltWinters modele = versModele(etat);
+        YearMonth dernierMois = YearMonth.parse(etat.getDernierMois());
+
+        List<PrevisionVentesResponse.PointPrevision> points = new ArrayList<>(horizonMois);
+        for (int h = 1; h <= horizonMois; h++) {
+            YearMonth mois = dernierMois.plusMonths(h);
+            points.add(PrevisionVentesResponse.PointPrevision.builder()
+                    .periode(mois.toString())
+                    .montantPrevu(NumberUtil.toBigDecimal(modele.prevoir(h, mois.getMonthValue())))
+                    .build());
+        }
+
+        return PrevisionVentesResponse.builder()
+                .dimension(cle.getDimension())
+                .valeurDimension(cle.getValeurDimension())
+                .dernierMoisObserve(etat.getDernierMois())
+                .nombreObservations(modele.getNombreObservations())
+                .erreurAbsolueMoyenne(NumberUtil.toBigDecimal(modele.getErreurAbsolueMoyenne()))
+                .erreurRelative(modele.getErreurRelative())
+                .previsions(points)
+                .build();
+    }
+
+    @Override
+    public int integrerMoisClos() {
+        verrou.lock();
+        try {
+            YearMonth dernierMoisClos = YearMonth.now().minusMonths(1);
+            Map<EtatPrevisionKey, EtatPrevision> etats = new HashMap<>();
+            etatPrevisionRepository.findAll().forEach(etat -> etats.put(etat.getKey(), etat));
+            if (etats.isEmpty()) {
+                log.info("Aucun état de prévision : reconstruction nécessaire");
+                return 0;
+            }
+
+            YearMonth premierMois = etats.values().stream()
+                    .map(etat -> YearMonth.parse(etat.getDernierMois()).plusMonths(1))
+                    .min(Comparator.naturalOrder())
+                    .orElse(dernierMoisClos.plusMonths(1));
+            // Rattrapage borné à l'historique configuré
+            YearMonth borne = dernierMoisClos.minusMonths(historiqueMois - 1L);
+            if (premierMois.isBefore(borne)) {
+                premierMois = borne;
+            }
+
+            Set<EtatPrevisionKey> modifies = integrer(etats, premierMois, dernierMoisClos);
+            LocalDateTime maintenant = LocalDateTime.now();
+            modifies.forEach(cle -> {
+                EtatPrevision etat = etats.get(cle);
+                etat.setUpdatedAt(maintenant);
+                etatPrevisionRepository.save(etat);
+            });
+
+            log.info("Prévisions de ventes: {} séries mises à jour jusqu'à {}", modifies.size(), dernierMoisClos);
+            return modifies.size();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    @Override
+    public int reconstruireEtats() {
+        log.info("Reconstruction des états de prévision sur {} mois", historiqueMois);
+
+        verrou.lock();
+        try {
+            YearMonth dernierMoisClos = YearMonth.now().minusMonths(1);
+            Map<EtatPrevisionKey, EtatPrevision> etats = new HashMap<>();
+            integrer(etats, dernierMoisClos.minusMonths(historiqueMois - 1L), dernierMoisClos);
+
+            // Chaque série est remplacée en place, puis les séries disparues de l'historique sont supprimées :
+            // une lecture concurrente trouve toujours l'ancien ou le nouvel état, jamais une table vide
+            LocalDateTime maintenant = LocalDateTime.now();
+            etats.values().forEach(etat -> {
+                etat.setUpdatedAt(maintenant);
+                etatPrevisionRepository.save(etat);
+            });
+            List<EtatPrevisionKey> obsoletes = new ArrayList<>();
+            etatPrevisionRepository.findAll().forEach(etat -> {
+                if (!etats.containsKey(etat.getKey())) {
+                    obsoletes.add(etat.getKey());
+                }
+            });
+            obsoletes.forEach(etatPrevisionRepository::deleteById);
+
+            log.info("États de prévision reconstruits: {} séries, {} séries obsolètes supprimées",
+                    etats.size(), obsoletes.size());
+            return etats.size();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    @Override
+    public BacktestPrevisionResponse backtester(DimensionRollup dimension, String valeurDimension, int moisTest) {
+        if (moisTest < 1 || moisTest > HORIZON_MAX) {
+            throw new ValidationException("Le nombre de mois de test doit être compris entre 1 et " + HORIZON_MAX);
+        }
+
+        EtatPrevisionKey cle = cle(dimension, valeurDimension);
+        YearMonth dernierMoisClos = YearMonth.now().minusMonths(1);
+        YearMonth premierMois = dernierMoisClos.minusMonths(historiqueMois - 1L);
+
+        // Historique de la série, débarrassé des mois antérieurs à sa première vente
+        List<YearMonth> mois = new ArrayList<>();
+        List<Double> valeurs = new ArrayList<>();
+        for (YearMonth courant = premierMois; !courant.isAfter(dernierMoisClos); courant = courant.plusMonths(1)) {
+            double valeur = lireValeur(cle, courant);
+            if (!valeurs.isEmpty() || valeur != 0) {
+                mois.add(courant);
+                valeurs.add(valeur);
+            }
+        }
+
+        int apprentissage = valeurs.size() - moisTest;
+        if (apprentissage < HoltWinters.SAISONNALITE) {
+            throw new ValidationException("Historique insuffisant : au moins " + HoltWinters.SAISONNALITE
+                    + " mois d'apprentissage sont nécessaires avant les " + moisTest + " mois de test");
+        }
+
+        HoltWinters modele = nouveauModele();
+        for (int i = 0; i < apprentissage; i++) {
+            modele.integrer(mois.get(i).getMonthValue(), valeurs.get(i));
+        }
+
+        List<PrevisionVentesResponse.PointPrevision> points = new ArrayList<>(moisTest);
+        double sommeErreurs = 0;
+        double sommeErreursNaives = 0;
+        double sommeReel = 0;
+        for (int h = 1; h <= moisTest; h++) {
+            int index = apprentissage + h - 1;
+            double reel = valeurs.get(index);
+            double prevu = modele.prevoir(h, mois.get(index).getMonthValue());
+            // Référence naïve saisonnière : le même mois de l'année précédente
+            double naif = valeurs.get(index - HoltWinters.SAISONNALITE);
+
+            sommeErreurs += Math.abs(reel - prevu);
+            sommeErreursNaives += Math.abs(reel - naif);
+            sommeReel += Math.abs(reel);
+
+            points.add(PrevisionVentesResponse.PointPrevision.builder()
+                    .periode(mois.get(index).toString())
+                    .montantPrevu(NumberUtil.toBigDecimal(prevu))
+                    .montantReel(NumberUtil.toBigDecimal(reel))
+                    .build());
+        }
+
+        return BacktestPrevisionResponse.builder()
+                .dimension(cle.getDimension())
+                .valeurDimension(cle.getValeurDimension())
+                .moisApprentissage(apprentissage)
+                .moisTest(moisTest)
+                .erreurAbsolueMoyenne(NumberUtil.toBigDecimal(sommeErreurs / moisTest))
+                .erreurRelative(sommeReel == 0 ? 0 : sommeErreurs / sommeReel)
+                .erreurRelativeNaive(sommeReel == 0 ? 0 : sommeErreursNaives / sommeReel)
+                .points(points)
+                .build();
+    }
+
+    // Méthodes privées utilitaires
+
+    /**
+     * Intègre mois par mois les ventes lues dans les rollups mensuels : trois lectures de partition par mois,
+     * puis une mise à jour O(1) par série. Une série apparaît à sa première vente non nulle.
+     */
+    private Set<EtatPrevisionKey> integrer(Map<EtatPrevisionKey, EtatPrevision> etats, YearMonth premierMois,
+                                           YearMonth dernierMois) {
+        Set<EtatPrevisionKey> modifies = new HashSet<>();
+        for (YearMonth mois = premierMois; !mois.isAfter(dernierMois); mois = mois.plusMonths(1)) {
+            Map<EtatPrevisionKey, Double> observations = lireMois(mois);
+            YearMonth moisPrecedent = mois.minusMonths(1);
+
+            for (Map.Entry<EtatPrevisionKey, Double> observation : observations.entrySet()) {
+                if (observation.getValue() != 0) {
+                    etats.computeIfAbsent(observation.getKey(), k -> nouvelEtat(k, moisPrecedent));
+                }
+            }
+
+            for (EtatPrevision etat : etats.values()) {
+                if (YearMonth.parse(etat.getDernierMois()).isBefore(mois)) {
+                    HoltWinters modele = versModele(etat);
+                    modele.integrer(mois.getMonthValue(), observations.getOrDefault(etat.getKey(), 0.0));
+                    appliquer(etat, modele, mois);
+                    modifies.add(etat.getKey());
+                }
+            }
+        }
+        return modifies;
+    }
+
+    private Map<EtatPrevisionKey, Double> lireMois(YearMonth mois) {
+        String periode = GranulariteRollup.MOIS.periode(mois.atDay(1));
+        Map<EtatPrevisionKey, Double> observations = new HashMap<>();
+        int generation = agregatsRepository.generationLue(TypeAgregat.ROLLUPS_FACTURES);
+        for (DimensionRollup dimension : DimensionRollup.values()) {
+            for (RollupFacture rollup : rollupFactureRepository.findByPeriodesAndDimension(generation,
+                    GranulariteRollup.MOIS.name(), List.of(periode), dimension.name())) {
+                if (STATUTS_EMIS.contains(rollup.getKey().getStatut())) {
+                    observations.merge(new EtatPrevisionKey(dimension, rollup.getKey().getValeurDimension()),
+                            montant(rollup), Double::sum);
+                }
+            }
+        }
+        return observations;
+    }
+
+    private double lireValeur(EtatPrevisionKey cle, YearMonth mois) {
+        return rollupFactureRepository.findByPeriodeAndValeurDimension(
+                        agregatsRepository.generationLue(TypeAgregat.ROLLUPS_FACTURES), GranulariteRollup.MOIS.name(),
+                        GranulariteRollup.MOIS.periode(mois.atDay(1)), cle.getDimension().name(), cle.getValeurDimension())
+                .stream()
+                .filter(rollup -> STATUTS_EMIS.contains(rollup.getKey().getStatut()))
+                .mapToDouble(PrevisionVentesServiceImpl::montant)
+                .sum();
+    }
+
+    private static double montant(RollupFacture rollup) {
+        return rollup.getMontantTotal() != null ? rollup.getMontantTotal().doubleValue() : 0;
+    }
+
+    private EtatPrevisionKey cle(DimensionRollup dimension, String valeurDimension) {
+        if (dimension == null) {
+            throw new ValidationException("La dimension de la série est requise");
+        }
+        if (dimension == DimensionRollup.GLOBAL) {
+            return new EtatPrevisionKey(dimension, DimensionRollup.VALEUR_GLOBALE);
+        }
+        if (valeurDimension == null || valeurDimension.isBlank()) {
+            throw new ValidationException("La valeur de la dimension " + dimension.getLibelle() + " est requise");
+        }
+        return new EtatPrevisionKey(dimension, valeurDimension);
+    }
+
+    private HoltWinters nouveauModele() {
+        return new HoltWinters(alpha, beta, gamma);
+    }
+
+    private EtatPrevision nouvelEtat(EtatPrevisionKey cle, YearMonth moisPrecedent) {
+        EtatPrevision etat = EtatPrevision.builder().key(cle).build();
+        appliquer(etat, nouveauModele(), moisPrecedent);
+        return etat;
+    }
+
+    private HoltWinters versModele(EtatPrevision etat) {
+        double[] saisons = new double[HoltWinters.SAISONNALITE];
+        List<Double> saisonsStockees = etat.getSaisons();
+        for (int i = 0; saisonsStockees != null && i < Math.min(saisons.length, saisonsStockees.size()); i++) {
+            saisons[i] = saisonsStockees.get(i);
+        }
+        return new HoltWinters(alpha, beta, gamma, etat.getNiveau(), etat.getTendance(), saisons,
+                etat.getNombreObservations(), etat.getSommeErreursAbsolues(), etat.getSommeValeursAbsolues(),
+                etat.getNombreErreurs());
+    }
+
+    private static void appliquer(EtatPrevision etat, HoltWinters modele, YearMonth mois) {
+        List<Double> saisons = new ArrayList<>(HoltWinters.SAISONNALITE);
+        for (double saison : modele.getSaisons()) {
+            saisons.add(saison);
+        }
+        etat.setNiveau(modele.getNiveau());
+        etat.setTendance(modele.getTendance());
+        etat.setSaisons(saisons);
+        etat.setDernierMois(mois.toString());
+        etat.setNombreObservations(modele.getNombreObservations());
+        etat.setSommeErreursAbsolues(modele.getSommeErreursAbsolues());
+        etat.setSommeValeursAbsolues(modele.getSommeValeursAbsolues());
+        etat.setNombreErreurs(modele.getNombreErreurs());
+    }
+}
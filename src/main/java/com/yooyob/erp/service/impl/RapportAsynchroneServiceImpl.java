@@ -0,0 +1,431 @@
+package com.yooyob.erp.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yooyob.erp.config.CacheRevalidation;
+import com.yooyob.erp.dto.response.DistributionResponse;
+import com.yooyob.erp.dto.response.PerformanceRecouvrementResponse;
+import com.yooyob.erp.dto.response.TacheRapportResponse;
+import com.yooyob.erp.event.FactureEvent;
+import com.yooyob.erp.exception.BusinessException;
+import com.yooyob.erp.exception.ResourceNotFoundException;
+import com.yooyob.erp.exception.ValidationException;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.TacheRapport;
+import com.yooyob.erp.model.enums.DistributionMesuree;
+import com.yooyob.erp.model.enums.StatutTacheRapport;
+import com.yooyob.erp.model.enums.TypeRapport;
+import com.yooyob.erp.repository.TacheRapportRepository;
+import com.yooyob.erp.service.DistributionsService;
+import com.yooyob.erp.service.PerformanceRecouvrementService;
+import com.yooyob.erp.service.RapportAsynchroneService;
+import com.yooyob.erp.service.StatistiqueService;
+import com.yooyob.erp.util.CacheUtil;
+import com.yooyob.erp.util.DependancesStatistique;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.cassandra.core.CassandraTemplate;
+import org.springframework.data.cassandra.core.InsertOptions;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@Slf4j
+public class RapportAsynchroneServiceImpl implements RapportAsynchroneService {
+
+    private final StatistiqueService statistiqueService;
+    private final PerformanceRecouvrementService performanceRecouvrementService;
+    private final DistributionsService distributionsService;
+    private final CacheManager cacheManager;
+    private final TacheRapportRepository tacheRapportRepository;
+    private final CassandraTemplate cassandraTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Nombre de rapports générés simultanément ; les autres tâches attendent un permis
+    private final Semaphore travailleurs;
+
+    @Value("${app.rapports.file-max:20}")
+    private int fileMax;
+
+    @Value("${app.rapports.attente-max-ms:120000}")
+    private long attenteMaxMs;
+
+    @Value("${app.rapports.retention-minutes:60}")
+    private long retentionMinutes;
+
+    // Tâches en attente ou en cours sur ce nœud, par clé de rapport : une demande identique s'y rattache.
+    // L'état des tâches est publié dans taches_rapports pour être suivi depuis les autres nœuds.
+    private final ConcurrentMap<String, Tache> tachesEnCours = new ConcurrentHashMap<>();
+
+    public RapportAsynchroneServiceImpl(StatistiqueService statistiqueService,
+                                        PerformanceRecouvrementService performanceRecouvrementService,
+                                        DistributionsService distributionsService, CacheManager cacheManager,
+                                        TacheRapportRepository tacheRapportRepository,
+                                        CassandraTemplate cassandraTemplate, ObjectMapper objectMapper,
+                                        @Value("${app.rapports.travailleurs:2}") int travailleurs) {
+        this.statistiqueService = statistiqueService;
+        this.performanceRecouvrementService = performanceRecouvrementService;
+        this.distributionsService = distributionsService;
+        this.cacheManager = cacheManager;
+        this.tacheRapportRepository = tacheRapportRepository;
+        this.cassandraTemplate = cassandraTemplate;
+        this.objectMapper = objectMapper;
+        this.travailleurs = new Semaphore(Math.max(1, travailleurs));
+    }
+
+    @EventListener
+    public void onFactureEvent(FactureEvent event) {
+        if (tachesEnCours.isEmpty()) {
+            return;
+        }
+        try {
+            // Une écriture touchant la période d'un rapport en cours empêche la mise en cache de son résultat
+            Set<YearMonth> mois = moisConcernes(event.getAvant(), event.getApres());
+            tachesEnCours.values().forEach(tache -> {
+                if (mois.stream().anyMatch(m -> tache.dependances().concerne(m, null, null))) {
+                    tache.invalidee = true;
+                }
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors du suivi des écritures pendant la génération des rapports", e);
+        }
+    }
+
+    @Override
+    public TacheRapportResponse soumettre(TypeRapport type, LocalDate dateDebut, LocalDate dateFin) {
+        String cle = cleRapport(type, dateDebut, dateFin);
+
+        // Un résultat frais est rendu tel quel : aucune tâche n'est créée ni conservée
+        Map<String, Object> enCache = lireCache(cle);
+        if (enCache != null) {
+            LocalDateTime maintenant = LocalDateTime.now();
+            return TacheRapportResponse.builder()
+                    .type(type)
+                    .dateDebut(dateDebut)
+                    .dateFin(dateFin)
+                    .statut(StatutTacheRapport.TERMINEE)
+                    .progression(100)
+                    .depuisCache(true)
+                    .soumiseLe(maintenant)
+                    .termineeLe(maintenant)
+                    .resultat(enCache)
+                    .build();
+        }
+        return rattacher(type, dateDebut, dateFin, cle).versReponse();
+    }
+
+    @Override
+    public TacheRapportResponse getTache(UUID idTache) {
+        return tachesEnCours.values().stream()
+                .filter(tache -> tache.id.equals(idTache))
+                .findFirst()
+                .map(Tache::versReponse)
+                .orElseGet(() -> tacheRapportRepository.findById(idTache)
+                        .map(this::versReponse)
+                        .orElseThrow(() -> new ResourceNotFoundException("Tâche de rapport", idTache)));
+    }
+
+    @Override
+    public Map<String, Object> attendre(TypeRapport type, LocalDate dateDebut, LocalDate dateFin) {
+        String cle = cleRapport(type, dateDebut, dateFin);
+        Map<String, Object> enCache = lireCache(cle);
+        if (enCache != null) {
+            return enCache;
+        }
+
+        Tache tache = rattacher(type, dateDebut, dateFin, cle);
+        try {
+            return tache.resultat.get(attenteMaxMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new BusinessException("Le rapport est toujours en cours de génération, suivre la tâche " + tache.id,
+                    "RAPPORT_EN_COURS", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Attente du rapport interrompue", "RAPPORT_INTERROMPU", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("Échec de la génération du rapport", "RAPPORT_ECHOUE",
+                    HttpStatus.INTERNAL_SERVER_ERROR, e.getCause());
+        }
+    }
+
+    // Méthodes privées utilitaires
+
+    private static String cleRapport(TypeRapport type, LocalDate dateDebut, LocalDate dateFin) {
+        if (type == null || dateDebut == null || dateFin == null) {
+            throw new ValidationException("Le type de rapport et les dates de début et de fin sont requis");
+        }
+        if (dateDebut.isAfter(dateFin)) {
+            throw new ValidationException("La date de début doit précéder la date de fin");
+        }
+        return DependancesStatistique.PREFIXE_RAPPORT + type.name() + "_" + dateDebut + "_" + dateFin;
+    }
+
+    /**
+     * Rattache la demande à la tâche identique en cours sur ce nœud, ou en met une nouvelle en file
+     */
+    private Tache rattacher(TypeRapport type, LocalDate dateDebut, LocalDate dateFin, String cle) {
+        boolean[] creee = {false};
+        Tache tache = tachesEnCours.computeIfAbsent(cle, k -> {
+            if (tachesEnCours.size() >= fileMax) {
+                throw new BusinessException("Trop de rapports en cours de génération, réessayez plus tard",
+                        "RAPPORTS_SATURES", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            creee[0] = true;
+            return new Tache(type, dateDebut, dateFin, k);
+        });
+
+        if (creee[0]) {
+            publier(tache, null);
+            Thread.ofVirtual().name("rapport-" + tache.id).start(() -> executer(tache));
+            log.info("Rapport {} du {} au {} soumis: tâche {}", type, dateDebut, dateFin, tache.id);
+        } else {
+            log.debug("Rapport {} du {} au {} déjà en cours: rattachement à la tâche {}", type, dateDebut, dateFin, tache.id);
+        }
+        return tache;
+    }
+
+    private void executer(Tache tache) {
+        try {
+            travailleurs.acquire();
+            try {
+                tache.statut = StatutTacheRapport.EN_COURS;
+                publier(tache, null);
+                long debut = System.currentTimeMillis();
+
+                Map<String, Object> rapport = generer(tache);
+                boolean misEnCache = ecrireCache(tache, rapport, debut);
+                String json = objectMapper.writeValueAsString(rapport);
+                tache.terminer(rapport);
+                publier(tache, json);
+
+                log.info("Rapport {} du {} au {} généré en {} ms (tâche {}, mis en cache: {})", tache.type,
+                        tache.dateDebut, tache.dateFin, System.currentTimeMillis() - debut, tache.id, misEnCache);
+            } finally {
+                travailleurs.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tache.echouer(e);
+        } catch (Exception e) {
+            log.error("Erreur lors de la génération du rapport {} (tâche {})", tache.type, tache.id, e);
+            tache.echouer(e);
+        } finally {
+            if (tache.statut == StatutTacheRapport.ECHOUEE) {
+                publier(tache, null);
+            }
+            tachesEnCours.remove(tache.cle, tache);
+        }
+    }
+
+    /**
+     * Écrit l'état de la tâche dans taches_rapports ; chaque écriture repousse l'expiration de la ligne
+     */
+    private void publier(Tache tache, String resultat) {
+        try {
+            TacheRapport ligne = TacheRapport.builder()
+                    .idTache(tache.id)
+                    .type(tache.type)
+                    .dateDebut(tache.dateDebut)
+                    .dateFin(tache.dateFin)
+                    .statut(tache.statut)
+                    .progression(tache.progression)
+                    .soumiseLe(tache.soumiseLe)
+                    .termineeLe(tache.termineeLe)
+                    .erreur(tache.erreur)
+                    .resultat(resultat)
+                    .build();
+            cassandraTemplate.insert(ligne, InsertOptions.builder().ttl(Duration.ofMinutes(retentionMinutes)).build());
+        } catch (Exception e) {
+            log.error("Erreur lors de la publication de l'état de la tâche de rapport {}", tache.id, e);
+        }
+    }
+
+    private void avancer(Tache tache, int progression) {
+        tache.progression = progression;
+        publier(tache, null);
+    }
+
+    private TacheRapportResponse versReponse(TacheRapport ligne) {
+        return TacheRapportResponse.builder()
+                .idTache(ligne.getIdTache())
+                .type(ligne.getType())
+                .dateDebut(ligne.getDateDebut())
+                .dateFin(ligne.getDateFin())
+                .statut(ligne.getStatut())
+                .progression(ligne.getProgression())
+                .depuisCache(false)
+                .soumiseLe(ligne.getSoumiseLe())
+                .termineeLe(ligne.getTermineeLe())
+                .erreur(ligne.getErreur())
+                .resultat(lireResultat(ligne))
+                .build();
+    }
+
+    private Map<String, Object> lireResultat(TacheRapport ligne) {
+        if (ligne.getStatut() != StatutTacheRapport.TERMINEE || ligne.getResultat() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(ligne.getResultat(), new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Résultat du rapport illisible pour la tâche " + ligne.getIdTache(),
+                    "RAPPORT_ILLISIBLE", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    private Map<String, Object> generer(Tache tache) {
+        return switch (tache.type) {
+            case PERFORMANCE -> {
+                avancer(tache, 10);
+                yield new HashMap<>(statistiqueService.genererRapportPerformance(tache.dateDebut, tache.dateFin));
+            }
+            case FINANCIER -> genererRapportFinancier(tache);
+        };
+    }
+
+    private Map<String, Object> genererRapportFinancier(Tache tache) {
+        Map<String, Object> rapport = new LinkedHashMap<>();
+        rapport.put("periode", Map.of("debut", tache.dateDebut, "fin", tache.dateFin));
+
+        PerformanceRecouvrementResponse recouvrement = performanceRecouvrementService.calculer(tache.dateDebut, tache.dateFin);
+        rapport.put("montantFacture", recouvrement.getMontantFacture());
+        rapport.put("montantEncaisse", recouvrement.getMontantEncaisse());
+        rapport.put("encoursFin", recouvrement.getEncoursFin());
+        rapport.put("dso", recouvrement.getDso());
+        rapport.put("delaiMoyenPondere", recouvrement.getDelaiMoyenPondere());
+        rapport.put("tauxRecouvrement", recouvrement.getTauxRecouvrement());
+        avancer(tache, 40);
+
+        // Les distributions sont tenues au mois : elles couvrent les mois entiers de la période
+        YearMonth moisDebut = YearMonth.from(tache.dateDebut);
+        YearMonth moisFin = YearMonth.from(tache.dateFin);
+        DistributionResponse montants = distributionsService.getDistribution(DistributionMesuree.MONTANT_FACTURE,
+                moisDebut, moisFin, null, null, null);
+        rapport.put("montantMoyenFactures", montants.getMoyenne());
+        rapport.put("quantilesMontants", new LinkedHashMap<>(montants.getQuantiles()));
+        avancer(tache, 70);
+
+        DistributionResponse delais = distributionsService.getDistribution(DistributionMesuree.DELAI_PAIEMENT,
+                moisDebut, moisFin, null, null, null);
+        rapport.put("nombrePaiements", delais.getNombre());
+        rapport.put("quantilesDelaisPaiement", new LinkedHashMap<>(delais.getQuantiles()));
+
+        rapport.put("dateGeneration", LocalDate.now());
+        return rapport;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> lireCache(String cle) {
+        Cache cache = cacheManager.getCache(CacheUtil.STATISTIQUE_CACHE);
+        if (cache == null) {
+            return null;
+        }
+        Cache.ValueWrapper valeur = cache instanceof CacheRevalidation revalidation ? revalidation.getFrais(cle) : cache.get(cle);
+        return valeur != null && valeur.get() instanceof Map<?, ?> rapport ? (Map<String, Object>) rapport : null;
+    }
+
+    private boolean ecrireCache(Tache tache, Map<String, Object> rapport, long debut) {
+        Cache cache = cacheManager.getCache(CacheUtil.STATISTIQUE_CACHE);
+        if (cache == null || tache.invalidee) {
+            return false;
+        }
+        if (cache instanceof CacheRevalidation revalidation) {
+            return revalidation.putSiInchangee(tache.cle, rapport, debut, tache.dependances());
+        }
+        cache.put(tache.cle, rapport);
+        return true;
+    }
+
+    /**
+     * Mois de facturation touchés par une écriture, plus le mois courant où sont imputés les encaissements
+     */
+    private static Set<YearMonth> moisConcernes(Facture avant, Facture apres) {
+        Set<YearMonth> mois = new HashSet<>();
+        mois.add(YearMonth.now());
+        for (Facture facture : new Facture[]{avant, apres}) {
+            if (facture != null && facture.getDateFacturation() != null) {
+                mois.add(YearMonth.from(facture.getDateFacturation()));
+            }
+        }
+        return mois;
+    }
+
+    @RequiredArgsConstructor
+    private static final class Tache {
+        private final UUID id = UUID.randomUUID();
+        private final LocalDateTime soumiseLe = LocalDateTime.now();
+        private final CompletableFuture<Map<String, Object>> resultat = new CompletableFuture<>();
+
+        private final TypeRapport type;
+        private final LocalDate dateDebut;
+        private final LocalDate dateFin;
+        private final String cle;
+
+        private volatile StatutTacheRapport statut = StatutTacheRapport.EN_ATTENTE;
+        private volatile int progression;
+        private volatile boolean invalidee;
+        private volatile String erreur;
+        private volatile LocalDateTime termineeLe;
+
+        private void terminer(Map<String, Object> rapport) {
+            // Le résultat est posé avant le statut : une tâche vue terminée a toujours son résultat
+            progression = 100;
+            termineeLe = LocalDateTime.now();
+            resultat.complete(rapport);
+            statut = StatutTacheRapport.TERMINEE;
+        }
+
+        private void echouer(Exception e) {
+            erreur = e.getMessage();
+            termineeLe = LocalDateTime.now();
+            resultat.completeExceptionally(e);
+            statut = StatutTacheRapport.ECHOUEE;
+        }
+
+        private DependancesStatistique dependances() {
+            return DependancesStatistique.rapport(type, dateFin);
+        }
+
+        private TacheRapportResponse versReponse() {
+            return TacheRapportResponse.builder()
+                    .idTache(id)
+                    .type(type)
+                    .dateDebut(dateDebut)
+                    .dateFin(dateFin)
+                    .statut(statut)
+                    .progression(progression)
+                    .depuisCache(false)
+                    .soumiseLe(soumiseLe)
+                    .termineeLe(termineeLe)
+                    .erreur(erreur)
+                    .resultat(statut == StatutTacheRapport.TERMINEE ? resultat.getNow(null) : null)
+                    .build();
+        }
+    }
+}
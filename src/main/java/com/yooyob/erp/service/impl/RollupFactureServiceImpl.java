@@ -0,0 +1,215 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.RollupFacture;
+import com.yooyob.erp.model.entity.RollupFactureKey;
+import com.yooyob.erp.model.enums.DimensionRollup;
+import com.yooyob.erp.model.enums.GranulariteRollup;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.repository.RollupFactureRepository;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.repository.custom.AgregatsRepository.ApplicationLot;
+import com.yooyob.erp.repository.custom.AgregatsRepository.Changement;
+import com.yooyob.erp.repository.custom.JournalAgregatsRepository;
+import com.yooyob.erp.repository.custom.ParcoursParalleleRepository;
+import com.yooyob.erp.repository.custom.SourceAgregat;
+import com.yooyob.erp.service.RollupFactureService;
+import com.yooyob.erp.util.CacheUtil;
+import com.yooyob.erp.util.NumberUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupFactureServiceImpl implements RollupFactureService {
+
+    private static final String DEVISE_INCONNUE = "N/A";
+
+    private final AgregatsRepository agregatsRepository;
+    private final RollupFactureRepository rollupFactureRepository;
+    private final ParcoursParalleleRepository parcoursParalleleRepository;
+    private final CacheUtil cacheUtil;
+
+    @PostConstruct
+    public void abonner() {
+        agregatsRepository.abonnerParLot(TypeAgregat.ROLLUPS_FACTURES, SourceAgregat.FACTURES, this::appliquerChangements);
+    }
+
+    @Override
+    public long reconstruireRollups() {
+        log.info("Reconstruction des rollups de factures");
+
+        Cumul cumul = agregatsRepository.reconstruire(TypeAgregat.ROLLUPS_FACTURES, construction -> {
+            int generation = construction.getGeneration();
+            Cumul parcours = construction.parcourirParLot(SourceAgregat.FACTURES, this::appliquerChangements, Cumul::new,
+                    (partiel, facture) -> {
+                        contribuer(partiel.deltas, generation, ApplicationLot.SHARD_RECONSTRUCTION, facture, 1);
+                        partiel.nombreFactures++;
+                    },
+                    Cumul::fusionner);
+
+            LocalDateTime maintenant = LocalDateTime.now();
+            List<RollupFacture> lignes = new ArrayList<>(parcours.deltas.size());
+            parcours.deltas.forEach((cle, delta) -> lignes.add(RollupFacture.builder()
+                    .key(cle)
+                    .nombreFactures(delta.nombre)
+                    .montantTotal(delta.montantTotal)
+                    .montantRestant(delta.montantRestant)
+                    .updatedAt(maintenant)
+                    .build()));
+            construction.ecrire(lignes);
+            return parcours;
+        });
+
+        cacheUtil.clearStatistiques();
+        log.info("Rollups reconstruits: {} factures relues, {} lignes écrites", cumul.nombreFactures, cumul.deltas.size());
+        return cumul.nombreFactures;
+    }
+
+    // Méthodes privées utilitaires
+
+    /**
+     * Cumule les entrées du journal par ligne de rollup du shard, puis écrit chaque ligne sans condition :
+     * seul le nœud titulaire du shard l'écrit
+     */
+    private void appliquerChangements(int generation, int shard, List<Changement<Facture>> changements) {
+        Map<RollupFactureKey, List<DeltaJournal>> parLigne = new HashMap<>();
+        for (Changement<Facture> changement : changements) {
+            Map<RollupFactureKey, Delta> deltas = new HashMap<>();
+            if (changement.getAvant() != null) {
+                contribuer(deltas, generation, shard, changement.getAvant(), -1);
+            }
+            if (changement.getApres() != null) {
+                contribuer(deltas, generation, shard, changement.getApres(), 1);
+            }
+            deltas.forEach((cle, delta) -> {
+                if (!delta.isNul()) {
+                    parLigne.computeIfAbsent(cle, k -> new ArrayList<>()).add(new DeltaJournal(changement.getId(), delta));
+                }
+            });
+        }
+
+        parcoursParalleleRepository.traiter(parLigne.entrySet(), ligne -> appliquerDeltas(ligne.getKey(), ligne.getValue()));
+    }
+
+    /**
+     * Ajoute à la ligne les deltas des entrées qu'elle n'intègre pas encore, pour qu'un lot rejoué après un
+     * échec ne soit pas compté deux fois
+     */
+    private void appliquerDeltas(RollupFactureKey cle, List<DeltaJournal> deltas) {
+        RollupFacture rollup = rollupFactureRepository.findById(cle).orElseGet(() -> RollupFacture.builder().key(cle).build());
+        boolean modifie = false;
+        for (DeltaJournal deltaJournal : deltas) {
+            UUID integree = rollup.getDerniereMiseAJour();
+            if (integree != null && JournalAgregatsRepository.comparer(deltaJournal.id, integree) <= 0) {
+                continue;
+            }
+            Delta delta = deltaJournal.delta;
+            rollup.setNombreFactures(rollup.getNombreFactures() + delta.nombre);
+            rollup.setMontantTotal(NumberUtil.safeAdd(rollup.getMontantTotal(), delta.montantTotal));
+            rollup.setMontantRestant(NumberUtil.safeAdd(rollup.getMontantRestant(), delta.montantRestant));
+            rollup.setDerniereMiseAJour(deltaJournal.id);
+            modifie = true;
+        }
+
+        if (modifie) {
+            rollup.setUpdatedAt(LocalDateTime.now());
+            rollupFactureRepository.save(rollup);
+        }
+    }
+
+    private void contribuer(Map<RollupFactureKey, Delta> deltas, int generation, int shard, Facture facture, int signe) {
+        if (facture.getEtat() == null) {
+            return;
+        }
+
+        String devise = facture.getDevise() != null ? facture.getDevise() : DEVISE_INCONNUE;
+        String client = facture.getIdClient() != null ? facture.getIdClient().toString() : null;
+
+        List<GranulariteRollup> granularites = facture.getDateFacturation() != null
+                ? List.of(GranulariteRollup.values())
+                : List.of(GranulariteRollup.TOUT);
+
+        for (GranulariteRollup granularite : granularites) {
+            String periode = granularite == GranulariteRollup.TOUT
+                    ? GranulariteRollup.PERIODE_TOUT
+                    : granularite.periode(facture.getDateFacturation());
+
+            ajouter(deltas, cle(generation, granularite, periode, DimensionRollup.GLOBAL, DimensionRollup.VALEUR_GLOBALE, shard, facture), facture, signe);
+            ajouter(deltas, cle(generation, granularite, periode, DimensionRollup.DEVISE, devise, shard, facture), facture, signe);
+            if (client != null) {
+                ajouter(deltas, cle(generation, granularite, periode, DimensionRollup.CLIENT, client, shard, facture), facture, signe);
+            }
+        }
+    }
+
+    private RollupFactureKey cle(int generation, GranulariteRollup granularite, String periode, DimensionRollup dimension,
+                                 String valeurDimension, int shard, Facture facture) {
+        return RollupFactureKey.builder()
+                .generation(generation)
+                .granularite(granularite)
+                .periode(periode)
+                .dimension(dimension)
+                .valeurDimension(valeurDimension)
+                .statut(facture.getEtat())
+                .shard(shard)
+                .build();
+    }
+
+    private void ajouter(Map<RollupFactureKey, Delta> deltas, RollupFactureKey cle, Facture facture, int signe) {
+        Delta delta = deltas.computeIfAbsent(cle, k -> new Delta());
+        BigDecimal facteur = BigDecimal.valueOf(signe);
+        delta.nombre += signe;
+        delta.montantTotal = NumberUtil.safeAdd(delta.montantTotal, NumberUtil.safeMultiply(facture.getMontantTotal(), facteur));
+        delta.montantRestant = NumberUtil.safeAdd(delta.montantRestant, NumberUtil.safeMultiply(facture.getMontantRestant(), facteur));
+    }
+
+    private static final class Cumul {
+        private final Map<RollupFactureKey, Delta> deltas = new HashMap<>();
+        private long nombreFactures;
+
+        private Cumul fusionner(Cumul autre) {
+            autre.deltas.forEach((cle, delta) -> deltas.merge(cle, delta, Delta::ajouter));
+            nombreFactures += autre.nombreFactures;
+            return this;
+        }
+    }
+
+    private static final class Delta {
+        private long nombre;
+        private BigDecimal montantTotal = BigDecimal.ZERO;
+        private BigDecimal montantRestant = BigDecimal.ZERO;
+
+        private Delta ajouter(Delta autre) {
+            nombre += autre.nombre;
+            montantTotal = NumberUtil.safeAdd(montantTotal, autre.montantTotal);
+            montantRestant = NumberUtil.safeAdd(montantRestant, autre.montantRestant);
+            return this;
+        }
+
+        private boolean isNul() {
+            return nombre == 0 && NumberUtil.isZero(montantTotal) && NumberUtil.isZero(montantRestant);
+        }
+    }
+
+    private static final class DeltaJournal {
+        private final UUID id;
+        private final Delta delta;
+
+        private DeltaJournal(UUID id, Delta delta) {
+            this.id = id;
+            this.delta = delta;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.yooyob.erp.service.impl;
+
+import com.yooyob.erp.dto.response.SegmentClientResponse;
+import com.yooyob.erp.dto.response.SegmentationClientsResponse;
+import com.yooyob.erp.exception.BusinessException;
+import com.yooyob.erp.exception.ResourceNotFoundException;
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.SegmentClient;
+import com.yooyob.erp.model.entity.SegmentClientKey;
+import com.yooyob.erp.model.entity.SeuilsSegmentation;
+import com.yooyob.erp.model.enums.ClasseAbc;
+import com.yooyob.erp.model.enums.SegmentRfm;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import com.yooyob.erp.repository.SegmentClientRepository;
+import com.yooyob.erp.repository.SeuilsSegmentationRepository;
+import com.yooyob.erp.repository.custom.AgregatsRepository;
+import com.yooyob.erp.repository.custom.SegmentationAgregateur;
+import com.yooyob.erp.repository.custom.SourceAgregat;
+import com.yooyob.erp.service.SegmentationClientsService;
+import com.yooyob.erp.util.NumberUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SegmentationClientsServiceImpl implements SegmentationClientsService {
+
+    private final SegmentClientRepository segmentClientRepository;
+    private final SeuilsSegmentationRepository seuilsSegmentationRepository;
+    private final AgregatsRepository agregatsRepository;
+
+    // Seuils du dernier calcul complet, relus depuis la base au premier besoin
+    private volatile SegmentationAgregateur.Seuils seuils;
+
+    @Scheduled(cron = "${app.segmentation.cron:0 0 2 * * *}")
+    public void recalculerSegmentationQuotidienne() {
+        try {
+            recalculerSegmentation();
+        } catch (BusinessException e) {
+            if (!"RECONSTRUCTION_EN_COURS".equals(e.getErrorCode())) {
+                throw e;
+            }
+            // Chaque instance planifie le recalcul, une seule le mène
+            log.info("Recalcul quotidien de la segmentation déjà lancé par une autre instance");
+        } catch (Exception e) {
+            log.error("Erreur lors du recalcul quotidien de la segmentation des clients", e);
+        }
+    }
+
+    @PostConstruct
+    public void abonner() {
+        agregatsRepository.abonner(TypeAgregat.SEGMENTATION_CLIENTS, SourceAgregat.FACTURES, this::appliquerDeltas);
+    }
+
+    @Override
+    public int recalculerSegmentation() {
+        log.info("Recalcul de la segmentation RFM et ABC des clients");
+        long debut = System.nanoTime();
+
+        Segmentation segmentation = agregatsRepository.reconstruire(TypeAgregat.SEGMENTATION_CLIENTS, construction -> {
+            int generation = construction.getGeneration();
+            SegmentationAgregateur agregateur = construction.parcourir(SourceAgregat.FACTURES, this::appliquerDeltas,
+                    SegmentationAgregateur::new, SegmentationAgregateur::accumuler, SegmentationAgregateur::fusionner);
+            SegmentationAgregateur.Seuils nouveauxSeuils = agregateur.calculerSeuils();
+
+            LocalDateTime maintenant = LocalDateTime.now();
+            List<SegmentClient> segments = new ArrayList<>(agregateur.getNombreClients());
+            for (int i = 0; i < agregateur.getNombreClients(); i++) {
+                SegmentClient segment = SegmentClient.builder()
+                        .key(SegmentClientKey.pour(generation, agregateur.getIdClient(i)))
+                        .nomClient(agregateur.getNomClient(i))
+                        .nombreFactures(agregateur.getNombreFactures(i))
+                        .montantTotal(NumberUtil.fromCentimes(agregateur.getMontantCentimes(i)))
+                        .montantEncaisse(NumberUtil.fromCentimes(agregateur.getEncaisseCentimes(i)))
+                        .premierAchat(LocalDate.ofEpochDay(agregateur.getPremierAchat(i)))
+                        .dernierAchat(LocalDate.ofEpochDay(agregateur.getDernierAchat(i)))
+                        .build();
+                noter(segment, nouveauxSeuils, maintenant);
+                segments.add(segment);
+            }
+
+            construction.ecrire(segments);
+            return new Segmentation(nouveauxSeuils, segments.size());
+        });
+
+        SegmentationAgregateur.Seuils nouveauxSeuils = segmentation.seuils;
+        LocalDateTime maintenant = LocalDateTime.now();
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+        seuilsSegmentationRepository.save(SeuilsSegmentation.builder()
+                .cle(SeuilsSegmentation.CLE_UNIQUE)
+                .bornesRecence(versListe(nouveauxSeuils.getBornesRecence()))
+                .bornesFrequence(versListe(nouveauxSeuils.getBornesFrequence()))
+                .bornesMontant(versListe(nouveauxSeuils.getBornesMontant()))
+                .seuilClasseA(nouveauxSeuils.getSeuilClasseA())
+                .seuilClasseB(nouveauxSeuils.getSeuilClasseB())
+                .nombreClients(segmentation.nombreClients)
+                .dateCalcul(maintenant.toLocalDate())
+                .dureeCalculMs(dureeMs)
+                .updatedAt(maintenant)
+                .build());
+        seuils = nouveauxSeuils;
+
+        log.info("Segmentation recalculée: {} clients en {} ms", segmentation.nombreClients, dureeMs);
+        return segmentation.nombreClients;
+    }
+
+    @Override
+    public SegmentationClientsResponse getSegmentation() {
+        int generation = agregatsRepository.generationLue(TypeAgregat.SEGMENTATION_CLIENTS);
+        Repartition repartition = new Repartition();
+        for (Integer bucket : SegmentClientKey.BUCKETS) {
+            segmentClientRepository.findByBucket(generation, bucket).forEach(repartition::accumuler);
+        }
+        Optional<SeuilsSegmentation> dernierCalcul = seuilsSegmentationRepository.findById(SeuilsSegmentation.CLE_UNIQUE);
+
+        Map<SegmentRfm, Long> clientsParSegment = new EnumMap<>(SegmentRfm.class);
+        Map<SegmentRfm, BigDecimal> chiffreAffairesParSegment = new EnumMap<>(SegmentRfm.class);
+        for (SegmentRfm segment : SegmentRfm.values()) {
+            clientsParSegment.put(segment, repartition.clientsParSegment[segment.ordinal()]);
+            chiffreAffairesParSegment.put(segment, NumberUtil.fromCentimes(repartition.montantsParSegment[segment.ordinal()]));
+        }
+        Map<ClasseAbc, Long> clientsParClasse = new EnumMap<>(ClasseAbc.class);
+        Map<ClasseAbc, BigDecimal> chiffreAffairesParClasse = new EnumMap<>(ClasseAbc.class);
+        for (ClasseAbc classe : ClasseAbc.values()) {
+            clientsParClasse.put(classe, repartition.clientsParClasse[classe.ordinal()]);
+            chiffreAffairesParClasse.put(classe, NumberUtil.fromCentimes(repartition.montantsParClasse[classe.ordinal()]));
+        }
+
+        return SegmentationClientsResponse.builder()
+                .dateCalcul(dernierCalcul.map(SeuilsSegmentation::getDateCalcul).orElse(null))
+                .dureeCalculMs(dernierCalcul.map(SeuilsSegmentation::getDureeCalculMs).orElse(null))
+                .nombreClients(repartition.nombreClients)
+                .clientsParSegment(clientsParSegment)
+                .chiffreAffairesParSegment(chiffreAffairesParSegment)
+                .clientsParClasse(clientsParClasse)
+                .chiffreAffairesParClasse(chiffreAffairesParClasse)
+                .seuilClasseA(dernierCalcul.map(s -> seuilMontant(s.getSeuilClasseA())).orElse(null))
+                .seuilClasseB(dernierCalcul.map(s -> seuilMontant(s.getSeuilClasseB())).orElse(null))
+                .build();
+    }
+
+    @Override
+    public SegmentClientResponse getSegmentClient(UUID idClient) {
+        int generation = agregatsRepository.generationLue(TypeAgregat.SEGMENTATION_CLIENTS);
+        SegmentClient segment = segmentClientRepository.findById(SegmentClientKey.pour(generation, idClient))
+                .orElseThrow(() -> new ResourceNotFoundException("Segment client", "idClient", idClient));
+
+        return SegmentClientResponse.builder()
+                .idClient(segment.getKey().getIdClient())
+                .nomClient(segment.getNomClient())
+                .nombreFactures(segment.getNombreFactures())
+                .montantTotal(segment.getMontantTotal())
+                .montantEncaisse(segment.getMontantEncaisse())
+                .premierAchat(segment.getPremierAchat())
+                .dernierAchat(segment.getDernierAchat())
+                .scoreRecence(segment.getScoreRecence())
+                .scoreFrequence(segment.getScoreFrequence())
+                .scoreMontant(segment.getScoreMontant())
+                .scoreRfm(segment.getScoreRecence() != null
+                        ? "" + segment.getScoreRecence() + segment.getScoreFrequence() + segment.getScoreMontant()
+                        : null)
+                .segment(segment.getSegment())
+                .libelleSegment(segment.getSegment() != null ? segment.getSegment().getLibelle() : null)
+                .classeAbc(segment.getClasseAbc())
+                .updatedAt(segment.getUpdatedAt())
+                .build();
+    }
+
+    // Méthodes privées utilitaires
+
+    private void appliquerDeltas(int generation, Facture avant, Facture apres) {
+        Map<UUID, Delta> deltas = new HashMap<>();
+        if (SegmentationAgregateur.estComptee(avant)) {
+            deltas.computeIfAbsent(avant.getIdClient(), k -> new Delta()).ajouter(avant, -1);
+        }
+        if (SegmentationAgregateur.estComptee(apres)) {
+            deltas.computeIfAbsent(apres.getIdClient(), k -> new Delta()).ajouter(apres, 1);
+        }
+
+        deltas.forEach((idClient, delta) -> {
+            if (!delta.isNul()) {
+                appliquerDelta(SegmentClientKey.pour(generation, idClient), delta);
+            }
+        });
+    }
+
+    private void appliquerDelta(SegmentClientKey cle, Delta delta) {
+        SegmentationAgregateur.Seuils seuilsCourants = getSeuils();
+        agregatsRepository.modifier(SegmentClient.class, cle, existant -> {
+            SegmentClient segment = existant != null ? existant : SegmentClient.builder()
+                    .key(cle)
+                    .nombreFactures(0L)
+                    .build();
+
+            long nombreFactures = segment.getNombreFactures() + delta.nombre;
+            if (nombreFactures == 0) {
+                return null;
+            }
+
+            segment.setNombreFactures(nombreFactures);
+            if (delta.nomClient != null) {
+                segment.setNomClient(delta.nomClient);
+            }
+            segment.setMontantTotal(NumberUtil.fromCentimes(
+                    NumberUtil.toCentimes(segment.getMontantTotal()) + delta.montantCentimes));
+            segment.setMontantEncaisse(NumberUtil.fromCentimes(
+                    NumberUtil.toCentimes(segment.getMontantEncaisse()) + delta.encaisseCentimes));
+            // Une date retirée ne recule pas le dernier achat : le recalcul quotidien la corrige
+            if (delta.dateFacturation != null) {
+                etendreAchats(segment, delta.dateFacturation, delta.dateFacturation);
+            }
+
+            noterSiPossible(segment, seuilsCourants, LocalDateTime.now());
+            return segment;
+        });
+    }
+
+    private static void etendreAchats(SegmentClient segment, LocalDate premierAchat, LocalDate dernierAchat) {
+        if (segment.getPremierAchat() == null || premierAchat.isBefore(segment.getPremierAchat())) {
+            segment.setPremierAchat(premierAchat);
+        }
+        if (segment.getDernierAchat() == null || dernierAchat.isAfter(segment.getDernierAchat())) {
+            segment.setDernierAchat(dernierAchat);
+        }
+    }
+
+    private static void noterSiPossible(SegmentClient segment, SegmentationAgregateur.Seuils seuils,
+                                        LocalDateTime maintenant) {
+        if (seuils != null && segment.getDernierAchat() != null && segment.getNombreFactures() > 0) {
+            noter(segment, seuils, maintenant);
+        } else {
+            segment.setUpdatedAt(maintenant);
+        }
+    }
+
+    private static void noter(SegmentClient segment, SegmentationAgregateur.Seuils seuils, LocalDateTime maintenant) {
+        long montant = NumberUtil.toCentimes(segment.getMontantTotal());
+        int scoreRecence = seuils.scoreRecence(segment.getDernierAchat().toEpochDay());
+        int scoreFrequence = seuils.scoreFrequence(segment.getNombreFactures());
+
+        segment.setScoreRecence(scoreRecence);
+        segment.setScoreFrequence(scoreFrequence);
+        segment.setScoreMontant(seuils.scoreMontant(montant));
+        segment.setSegment(SegmentRfm.pour(scoreRecence, scoreFrequence));
+        segment.setClasseAbc(seuils.classe(montant));
+        segment.setUpdatedAt(maintenant);
+    }
+
+    private SegmentationAgregateur.Seuils getSeuils() {
+        SegmentationAgregateur.Seuils courants = seuils;
+        if (courants == null) {
+            courants = seuilsSegmentationRepository.findById(SeuilsSegmentation.CLE_UNIQUE)
+                    .map(s -> new SegmentationAgregateur.Seuils(
+                            versTableau(s.getBornesRecence()),
+                            versTableau(s.getBornesFrequence()),
+                            versTableau(s.getBornesMontant()),
+                            s.getSeuilClasseA(),
+                            s.getSeuilClasseB()))
+                    .orElse(null);
+            seuils = courants;
+        }
+        return courants;
+    }
+
+    private static BigDecimal seuilMontant(Long centimes) {
+        return centimes == null || centimes == Long.MAX_VALUE ? null : NumberUtil.fromCentimes(centimes);
+    }
+
+    private static List<Long> versListe(long[] valeurs) {
+        return Arrays.stream(valeurs).boxed().toList();
+    }
+
+    private static long[] versTableau(List<Long> valeurs) {
+        return valeurs.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static final class Segmentation {
+        private final SegmentationAgregateur.Seuils seuils;
+        private final int nombreClients;
+
+        private Segmentation(SegmentationAgregateur.Seuils seuils, int nombreClients) {
+            this.seuils = seuils;
+            this.nombreClients = nombreClients;
+        }
+    }
+
+    private static final class Delta {
+        private long nombre;
+        private long montantCentimes;
+        private long encaisseCentimes;
+        private String nomClient;
+        private LocalDate dateFacturation;
+
+        private void ajouter(Facture facture, int signe) {
+            long montant = NumberUtil.toCentimes(facture.getMontantTotal());
+            nombre += signe;
+            montantCentimes += signe * montant;
+            encaisseCentimes += signe * (montant - NumberUtil.toCentimes(facture.getMontantRestant()));
+            if (signe > 0) {
+                nomClient = facture.getNomClient();
+                dateFacturation = facture.getDateFacturation();
+            }
+        }
+
+        private boolean isNul() {
+            return nombre == 0 && montantCentimes == 0 && encaisseCentimes == 0 && dateFacturation == null;
+        }
+    }
+
+    /**
+     * Répartition partielle des instantanés par segment et par classe
+     */
+    private static final class Repartition {
+        private final long[] clientsParSegment = new long[SegmentRfm.values().length];
+        private final long[] montantsParSegment = new long[SegmentRfm.values().length];
+        private final long[] clientsParClasse = new long[ClasseAbc.values().length];
+        private final long[] montantsParClasse = new long[ClasseAbc.values().length];
+        private long nombreClients;
+
+        private void accumuler(SegmentClient segment) {
+            long montant = NumberUtil.toCentimes(segment.getMontantTotal());
+            nombreClients++;
+            if (segment.getSegment() != null) {
+                clientsParSegment[segment.getSegment().ordinal()]++;
+                montantsParSegment[segment.getSegment().ordinal()] += montant;
+            }
+            if (segment.getClasseAbc() != null) {
+                clientsParClasse[segment.getClasseAbc().ordinal()]++;
+                montantsParClasse[segment.getClasseAbc().ordinal()] += montant;
+            }
+        }
+
+        private Repartition fusionner(Repartition autre) {
+            for (int i = 0; i < clientsParSegment.length; i++) {
+                clientsParSegment[i] += autre.clientsParSegment[i];
+                montantsParSegment[i] += autre.montantsParSegment[i];
+            }
+            for (int i = 0; i < clientsParClasse.length; i++) {
+                clientsParClasse[i] += autre.clientsParClasse[i];
+                montantsParClasse[i] += autre.montantsParClasse[i];
+            }
+            nombreClients += autre.nombreClients;
+            return this;
+        }
+    }
+}
@@ -1,23 +1,34 @@
 package com.yooyob.erp.service.impl;
 
 import com.yooyob.erp.dto.response.StatistiqueResponse;
+import com.yooyob.erp.model.enums.DistributionMesuree;
 import com.yooyob.erp.model.enums.StatutFacture;
 import com.yooyob.erp.repository.custom.CustomFactureRepository;
+import com.yooyob.erp.repository.custom.StatistiquesGlobalesAgregateur;
 import com.yooyob.erp.service.StatistiqueService;
+import com.yooyob.erp.service.BalanceAgeeService;
 import com.yooyob.erp.service.ClientService;
+import com.yooyob.erp.service.ClientsActifsService;
+import com.yooyob.erp.service.DistributionsService;
 import com.yooyob.erp.service.FactureService;
-import com.yooyob.erp.service.PaiementService;
+import com.yooyob.erp.service.IndexJournalierService;
+import com.yooyob.erp.service.PerformanceRecouvrementService;
 import com.yooyob.erp.util.CacheUtil;
+import com.yooyob.erp.util.CumulMontant;
 import com.yooyob.erp.util.DateUtil;
+import com.yooyob.erp.util.DependancesStatistique;
 import com.yooyob.erp.util.NumberUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -30,30 +41,59 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     private final CustomFactureRepository customFactureRepository;
     private final ClientService clientService;
     private final FactureService factureService;
-    private final PaiementService paiementService;
+    private final BalanceAgeeService balanceAgeeService;
+    private final ClientsActifsService clientsActifsService;
+    private final IndexJournalierService indexJournalierService;
+    private final DistributionsService distributionsService;
+    private final PerformanceRecouvrementService performanceRecouvrementService;
+
+    @Value("${app.clients-actifs.fenetre-mois:12}")
+    private int fenetreClientsActifsMois;
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'stats_globales'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'stats_globales'", sync = true)
     public StatistiqueResponse getStatistiquesGlobales() {
         log.info("Génération des statistiques globales");
 
+        // Un seul parcours des factures alimente tous les indicateurs
+        StatistiquesGlobalesAgregateur agregateur = customFactureRepository.calculerStatistiquesGlobales(LocalDate.now());
+
+        List<StatistiqueResponse.ChiffreAffairesMensuel> evolution = new ArrayList<>();
+        for (int mois = 1; mois <= 12; mois++) {
+            evolution.add(StatistiqueResponse.ChiffreAffairesMensuel.builder()
+                    .mois(String.format("%d-%02d", agregateur.getAnnee(), mois))
+                    .montant(agregateur.getChiffreAffairesEncaisseParMois()[mois - 1])
+                    .nombreFactures((int) agregateur.getNombreFacturesParMois()[mois - 1])
+                    .build());
+        }
+
+        List<StatistiqueResponse.TopClient> topClients = agregateur.getTopClients(10).stream()
+                .map(cumul -> StatistiqueResponse.TopClient.builder()
+                        .nomClient(cumul.getNomClient() != null ? cumul.getNomClient() : "Client inconnu")
+                        .montantTotal(cumul.getChiffreAffaires())
+                        .nombreFactures(cumul.getNombreFactures())
+                        .build())
+                .collect(Collectors.toList());
+
         return StatistiqueResponse.builder()
-                .chiffreAffairesTotal(getChiffreAffairesTotal())
-                .chiffreAffairesMois(getChiffreAffairesMoisCourant())
-                .chiffreAffairesAnnee(getChiffreAffairesAnneeCourante())
-                .nombreFactures(getNombreFacturesTotal().intValue())
+                .chiffreAffairesTotal(agregateur.getChiffreAffairesTotal())
+                .chiffreAffairesMois(agregateur.getChiffreAffairesMois())
+                .chiffreAffairesAnnee(agregateur.getChiffreAffairesAnnee())
+                .nombreFactures((int) agregateur.getNombreFactures())
                 .nombreClients(getNombreClientsTotal().intValue())
-                .montantImpaye(getMontantTotalImpaye())
-                .montantEnRetard(getMontantTotalEnRetard())
-                .evolutionMensuelle(getEvolutionMensuelle(LocalDate.now().getYear()))
-                .topClients(getTopClients(10))
-                .repartitionParDevise(getRepartitionParDevise())
+                .montantImpaye(agregateur.getMontantImpaye())
+                .montantEnRetard(agregateur.getMontantEnRetard())
+                .evolutionMensuelle(evolution)
+                .topClients(topClients)
+                .repartitionParDevise(agregateur.getChiffreAffairesParDevise())
                 .derniereMiseAJour(LocalDate.now())
+                .lignesAnalysees(agregateur.getLignesAnalysees())
+                .dureeCalculMs(agregateur.getDureeCalculMs())
                 .build();
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'stats_periode_' + #startDate + '_' + #endDate")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'stats_periode_' + #startDate + '_' + #endDate", sync = true)
     public StatistiqueResponse getStatistiquesByPeriode(LocalDate startDate, LocalDate endDate) {
         log.info("Génération des statistiques pour la période {} - {}", startDate, endDate);
 
@@ -61,7 +101,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
             throw new IllegalArgumentException("Les dates de début et de fin sont requises");
         }
 
-        Map<String, Object> statsData = customFactureRepository.getFactureStatisticsByPeriod(startDate, endDate);
+        Map<String, Object> statsData = statistiquesPeriode(startDate, endDate);
 
         BigDecimal chiffreAffaires = (BigDecimal) statsData.getOrDefault("montantTotal", BigDecimal.ZERO);
         Long nombreFactures = (Long) statsData.getOrDefault("nombreFactures", 0L);
@@ -77,7 +117,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'ca_total'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'ca_total'", sync = true)
     public BigDecimal getChiffreAffairesTotal() {
         log.debug("Calcul du chiffre d'affaires total");
 
@@ -92,16 +132,17 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'ca_mois_courant'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'ca_mois_courant'", sync = true)
     public BigDecimal getChiffreAffairesMoisCourant() {
         log.debug("Calcul du chiffre d'affaires du mois courant");
+        DependancesStatistique.declarer(DependancesStatistique.periode(YearMonth.now(), YearMonth.now()));
 
         LocalDate now = LocalDate.now();
         LocalDate startOfMonth = DateUtil.getFirstDayOfMonth(now);
         LocalDate endOfMonth = DateUtil.getLastDayOfMonth(now);
 
         try {
-            Map<String, Object> stats = customFactureRepository.getFactureStatisticsByPeriod(startOfMonth, endOfMonth);
+            Map<String, Object> stats = statistiquesPeriode(startOfMonth, endOfMonth);
             BigDecimal montant = (BigDecimal) stats.get("montantTotal");
             return montant != null ? montant : BigDecimal.ZERO;
         } catch (Exception e) {
@@ -111,16 +152,17 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'ca_annee_courante'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'ca_annee_courante'", sync = true)
     public BigDecimal getChiffreAffairesAnneeCourante() {
         log.debug("Calcul du chiffre d'affaires de l'année courante");
+        DependancesStatistique.declarer(DependancesStatistique.periode(Year.now().atMonth(1), Year.now().atMonth(12)));
 
         LocalDate now = LocalDate.now();
         LocalDate startOfYear = DateUtil.getFirstDayOfYear(now);
         LocalDate endOfYear = DateUtil.getLastDayOfYear(now);
 
         try {
-            Map<String, Object> stats = customFactureRepository.getFactureStatisticsByPeriod(startOfYear, endOfYear);
+            Map<String, Object> stats = statistiquesPeriode(startOfYear, endOfYear);
             BigDecimal montant = (BigDecimal) stats.get("montantTotal");
             return montant != null ? montant : BigDecimal.ZERO;
         } catch (Exception e) {
@@ -130,9 +172,10 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'ca_by_mois_' + #annee")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'ca_by_mois_' + #annee", sync = true)
     public Map<String, BigDecimal> getChiffreAffairesByMois(int annee) {
         log.debug("Calcul du chiffre d'affaires par mois pour l'année {}", annee);
+        DependancesStatistique.declarer(DependancesStatistique.periode(YearMonth.of(annee, 1), YearMonth.of(annee, 12)));
 
         try {
             return customFactureRepository.getChiffreAffairesByMonth(annee);
@@ -143,9 +186,10 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'ca_by_trimestre_' + #annee")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'ca_by_trimestre_' + #annee", sync = true)
     public Map<String, BigDecimal> getChiffreAffairesByTrimestre(int annee) {
         log.debug("Calcul du chiffre d'affaires par trimestre pour l'année {}", annee);
+        DependancesStatistique.declarer(DependancesStatistique.periode(YearMonth.of(annee, 1), YearMonth.of(annee, 12)));
 
         try {
             return customFactureRepository.getChiffreAffairesByQuarter(annee);
@@ -156,30 +200,24 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'evolution_mensuelle_' + #annee")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'evolution_mensuelle_' + #annee", sync = true)
     public List<StatistiqueResponse.ChiffreAffairesMensuel> getEvolutionMensuelle(int annee) {
         log.debug("Génération de l'évolution mensuelle pour l'année {}", annee);
+        DependancesStatistique.declarer(DependancesStatistique.periode(YearMonth.of(annee, 1), YearMonth.of(annee, 12)));
 
         try {
             Map<String, BigDecimal> caByMois = getChiffreAffairesByMois(annee);
+            Map<String, Long> nombreFacturesByMois = customFactureRepository.getNombreFacturesByMonth(annee);
 
             List<StatistiqueResponse.ChiffreAffairesMensuel> evolution = new ArrayList<>();
 
             for (int mois = 1; mois <= 12; mois++) {
                 String cle = String.format("%d-%02d", annee, mois);
-                BigDecimal montant = caByMois.getOrDefault(cle, BigDecimal.ZERO);
-
-                // Calculer le nombre de factures pour ce mois
-                LocalDate startDate = LocalDate.of(annee, mois, 1);
-                LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
-
-                Map<String, Object> statsData = customFactureRepository.getFactureStatisticsByPeriod(startDate, endDate);
-                Long nombreFactures = (Long) statsData.getOrDefault("nombreFactures", 0L);
 
                 evolution.add(StatistiqueResponse.ChiffreAffairesMensuel.builder()
                         .mois(cle)
-                        .montant(montant)
-                        .nombreFactures(nombreFactures.intValue())
+                        .montant(caByMois.getOrDefault(cle, BigDecimal.ZERO))
+                        .nombreFactures(nombreFacturesByMois.getOrDefault(cle, 0L).intValue())
                         .build());
             }
 
@@ -200,7 +238,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
                 endOfMonth = endDate;
             }
 
-            Map<String, Object> statsData = customFactureRepository.getFactureStatisticsByPeriod(current, endOfMonth);
+            Map<String, Object> statsData = statistiquesPeriode(current, endOfMonth);
             BigDecimal montant = (BigDecimal) statsData.getOrDefault("montantTotal", BigDecimal.ZERO);
             Long nombreFactures = (Long) statsData.getOrDefault("nombreFactures", 0L);
 
@@ -216,8 +254,19 @@ public class StatistiqueServiceImpl implements StatistiqueService {
         return evolution;
     }
 
+    /**
+     * Statistiques d'une période bornée lues dans l'index journalier (sans lecture en base) dès qu'il est construit,
+     * sinon dans les rollups
+     */
+    private Map<String, Object> statistiquesPeriode(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && indexJournalierService.isPret()) {
+            return indexJournalierService.getStatistiquesPeriode(startDate, endDate);
+        }
+        return customFactureRepository.getFactureStatisticsByPeriod(startDate, endDate);
+    }
+
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'nombre_factures_total'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'nombre_factures_total'", sync = true)
     public Long getNombreFacturesTotal() {
         log.debug("Calcul du nombre total de factures");
 
@@ -233,7 +282,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'nombre_factures_by_statut'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'nombre_factures_by_statut'", sync = true)
     public Map<StatutFacture, Long> getNombreFacturesByStatut() {
         log.debug("Calcul du nombre de factures par statut");
 
@@ -246,7 +295,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'nombre_clients_total'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'nombre_clients_total'", sync = true)
     public Long getNombreClientsTotal() {
         log.debug("Calcul du nombre total de clients");
 
@@ -259,12 +308,15 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'nombre_clients_actifs'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'nombre_clients_actifs'", sync = true)
     public Long getNombreClientsActifs() {
         log.debug("Calcul du nombre de clients actifs");
 
         try {
-            return clientService.countActiveClients();
+            // Clients distincts facturés sur la fenêtre glissante configurée
+            LocalDate fin = LocalDate.now();
+            return clientsActifsService.compterClientsActifs(fin.minusMonths(fenetreClientsActifsMois).plusDays(1), fin)
+                    .getNombreClients();
         } catch (Exception e) {
             log.warn("Erreur lors du calcul du nombre de clients actifs: {}", e.getMessage());
             return 0L;
@@ -272,14 +324,14 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'montant_total_impaye'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'montant_total_impaye'", sync = true)
     public BigDecimal getMontantTotalImpaye() {
         log.debug("Calcul du montant total impayé");
 
         try {
-            return customFactureRepository.getMontantImpayeByClient()
-                    .values().stream()
-                    .reduce(BigDecimal.ZERO, NumberUtil::safeAdd);
+            CumulMontant total = new CumulMontant();
+            customFactureRepository.getMontantImpayeByClient().values().forEach(total::ajouter);
+            return total.getMontant();
         } catch (Exception e) {
             log.warn("Erreur lors du calcul du montant total impayé: {}", e.getMessage());
             return BigDecimal.ZERO;
@@ -287,16 +339,12 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'montant_total_en_retard'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'montant_total_en_retard'", sync = true)
     public BigDecimal getMontantTotalEnRetard() {
         log.debug("Calcul du montant total en retard");
 
         try {
-            return customFactureRepository.getOverdueFactures()
-                    .stream()
-                    .map(facture -> facture.getMontantRestant())
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, NumberUtil::safeAdd);
+            return balanceAgeeService.getMontantTotalEchu();
         } catch (Exception e) {
             log.warn("Erreur lors du calcul du montant total en retard: {}", e.getMessage());
             return BigDecimal.ZERO;
@@ -304,7 +352,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'top_clients_' + #limite")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'top_clients_' + #limite", sync = true)
     public List<StatistiqueResponse.TopClient> getTopClients(int limite) {
         log.debug("Génération du top {} clients", limite);
 
@@ -330,7 +378,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'repartition_par_devise'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'repartition_par_devise'", sync = true)
     public Map<String, BigDecimal> getRepartitionParDevise() {
         log.debug("Calcul de la répartition par devise");
 
@@ -348,9 +396,10 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'stats_client_' + #clientId")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'stats_client_' + #clientId", sync = true)
     public Map<String, Object> getStatistiquesClient(UUID clientId) {
         log.debug("Génération des statistiques pour le client {}", clientId);
+        DependancesStatistique.declarer(DependancesStatistique.client(clientId));
 
         Map<String, Object> stats = new HashMap<>();
 
@@ -373,7 +422,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'montant_moyen_factures'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'montant_moyen_factures'", sync = true)
     public BigDecimal getMontantMoyenFactures() {
         log.debug("Calcul du montant moyen des factures");
 
@@ -386,9 +435,10 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'montant_moyen_factures_' + #startDate + '_' + #endDate")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'montant_moyen_factures_' + #startDate + '_' + #endDate", sync = true)
     public BigDecimal getMontantMoyenFactures(LocalDate startDate, LocalDate endDate) {
         log.debug("Calcul du montant moyen des factures pour la période {} - {}", startDate, endDate);
+        DependancesStatistique.declarer(DependancesStatistique.periode(startDate, endDate));
 
         try {
             return customFactureRepository.getMontantMoyenFactures(startDate, endDate);
@@ -403,8 +453,8 @@ public class StatistiqueServiceImpl implements StatistiqueService {
         log.debug("Calcul du délai moyen de paiement");
 
         try {
-            // Implementation simplifiée - retourner 30 jours par défaut
-            return 30.0;
+            // Délai moyen pondéré par les montants encaissés, sur tout l'historique du suivi du recouvrement
+            return performanceRecouvrementService.calculer(null, null).getDelaiMoyenPondere().doubleValue();
         } catch (Exception e) {
             log.warn("Erreur lors du calcul du délai moyen de paiement: {}", e.getMessage());
             return 0.0;
@@ -412,7 +462,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'taux_recouvrement'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'taux_recouvrement'", sync = true)
     public BigDecimal getTauxRecouvrement() {
         log.debug("Calcul du taux de recouvrement");
 
@@ -435,22 +485,14 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'taux_recouvrement_' + #startDate + '_' + #endDate")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'taux_recouvrement_' + #startDate + '_' + #endDate", sync = true)
     public BigDecimal getTauxRecouvrement(LocalDate startDate, LocalDate endDate) {
         log.debug("Calcul du taux de recouvrement pour la période {} - {}", startDate, endDate);
+        DependancesStatistique.declarer(DependancesStatistique.periode(startDate, endDate));
 
         try {
-            Map<String, Object> stats = customFactureRepository.getFactureStatisticsByPeriod(startDate, endDate);
-            BigDecimal totalFacture = (BigDecimal) stats.getOrDefault("montantTotal", BigDecimal.ZERO);
-
-            if (NumberUtil.isZero(totalFacture)) {
-                return BigDecimal.ZERO;
-            }
-
-            BigDecimal totalPaye = paiementService.getTotalPaiementsByPeriode(startDate, endDate);
-            return NumberUtil.safeDivide(totalPaye, totalFacture)
-                    .multiply(BigDecimal.valueOf(100))
-                    .setScale(2, RoundingMode.HALF_UP);
+            // Facturé et encaissé de la période lus sur les mouvements agrégés du suivi du recouvrement
+            return performanceRecouvrementService.calculer(startDate, endDate).getTauxRecouvrement();
         } catch (Exception e) {
             log.warn("Erreur lors du calcul du taux de recouvrement pour la période: {}", e.getMessage());
             return BigDecimal.ZERO;
@@ -488,11 +530,9 @@ public class StatistiqueServiceImpl implements StatistiqueService {
         Map<String, Long> repartition = new HashMap<>();
 
         try {
-            repartition.put("0-100", 0L);
-            repartition.put("100-500", 0L);
-            repartition.put("500-1000", 0L);
-            repartition.put("1000-5000", 0L);
-            repartition.put("5000+", 0L);
+            // Histogramme estimé sur l'esquisse toutes périodes des montants, sans parcours des factures
+            repartition.putAll(distributionsService.getDistribution(DistributionMesuree.MONTANT_FACTURE, null, null,
+                    null, null, List.of(0.0, 100.0, 500.0, 1000.0, 5000.0)).getHistogramme());
 
         } catch (Exception e) {
             log.warn("Erreur lors du calcul de la répartition par tranche: {}", e.getMessage());
@@ -539,9 +579,10 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'tendances_12_mois'")
+    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'tendances_12_mois'", sync = true)
     public Map<String, Object> getTendancesDernier12Mois() {
         log.debug("Calcul des tendances sur les 12 derniers mois");
+        DependancesStatistique.declarer(DependancesStatistique.periode(YearMonth.now().minusMonths(12), YearMonth.now()));
 
         Map<String, Object> tendances = new HashMap<>();
 
@@ -549,7 +590,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
             LocalDate maintenant = LocalDate.now();
             LocalDate il12Mois = maintenant.minusMonths(12);
 
-            Map<String, Object> stats = customFactureRepository.getFactureStatisticsByPeriod(il12Mois, maintenant);
+            Map<String, Object> stats = statistiquesPeriode(il12Mois, maintenant);
             tendances.put("chiffreAffaires12Mois", stats.get("montantTotal"));
 
             List<StatistiqueResponse.ChiffreAffairesMensuel> evolution = new ArrayList<>();
@@ -557,7 +598,7 @@ public class StatistiqueServiceImpl implements StatistiqueService {
                 LocalDate debutMois = maintenant.minusMonths(i).withDayOfMonth(1);
                 LocalDate finMois = debutMois.withDayOfMonth(debutMois.lengthOfMonth());
 
-                Map<String, Object> statsMois = customFactureRepository.getFactureStatisticsByPeriod(debutMois, finMois);
+                Map<String, Object> statsMois = statistiquesPeriode(debutMois, finMois);
 
                 evolution.add(StatistiqueResponse.ChiffreAffairesMensuel.builder()
                         .mois(debutMois.format(DateTimeFormatter.ofPattern("yyyy-MM")))
@@ -576,14 +617,13 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     }
 
     @Override
-    @Cacheable(value = CacheUtil.STATISTIQUE_CACHE, key = "'rapport_performance_' + #startDate + '_' + #endDate")
     public Map<String, Object> genererRapportPerformance(LocalDate startDate, LocalDate endDate) {
         log.info("Génération du rapport de performance du {} au {}", startDate, endDate);
 
         Map<String, Object> rapport = new HashMap<>();
 
         try {
-            Map<String, Object> statsBase = customFactureRepository.getFactureStatisticsByPeriod(startDate, endDate);
+            Map<String, Object> statsBase = statistiquesPeriode(startDate, endDate);
             rapport.putAll(statsBase);
 
             rapport.put("periode", Map.of(
@@ -614,14 +654,14 @@ public class StatistiqueServiceImpl implements StatistiqueService {
         Map<String, Object> comparaison = new HashMap<>();
 
         try {
-            Map<String, Object> stats1 = customFactureRepository.getFactureStatisticsByPeriod(startDate1, endDate1);
+            Map<String, Object> stats1 = statistiquesPeriode(startDate1, endDate1);
             comparaison.put("periode1", Map.of(
                     "debut", startDate1,
                     "fin", endDate1,
                     "stats", stats1
             ));
 
-            Map<String, Object> stats2 = customFactureRepository.getFactureStatisticsByPeriod(startDate2, endDate2);
+            Map<String, Object> stats2 = statistiquesPeriode(startDate2, endDate2);
             comparaison.put("periode2", Map.of(
                     "debut", startDate2,
                     "fin", endDate2,
@@ -0,0 +1,116 @@
+package com.yooyob.erp.util;
+
+import java.util.Arrays;
+
+/**
+ * Arbre de Fenwick (arbre indexé binaire) sur des entiers longs : mise à jour d'une position et somme
+ * d'un préfixe ou d'un intervalle en O(log n). Les positions vont de 1 à la capacité, qui peut croître
+ * par la droite sans reconstruction complète. Non synchronisé : l'appelant sérialise les accès.
+ */
+public class ArbreFenwick {
+
+    private long[] arbre;
+
+    public ArbreFenwick(int capacite) {
+        arbre = new long[capacite + 1];
+    }
+
+    /**
+     * Construit l'arbre en O(n) à partir des valeurs de chaque position (valeurs[0] est ignorée)
+     */
+    public static ArbreFenwick depuis(long[] valeurs) {
+        ArbreFenwick resultat = new ArbreFenwick(valeurs.length - 1);
+        long[] arbre = resultat.arbre;
+        System.arraycopy(valeurs, 1, arbre, 1, valeurs.length - 1);
+        for (int i = 1; i < arbre.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < arbre.length) {
+                arbre[parent] += arbre[i];
+            }
+        }
+        return resultat;
+    }
+
+    public int getCapacite() {
+        return arbre.length - 1;
+    }
+
+    public void ajouter(int position, long delta) {
+        if (position < 1) {
+            throw new IndexOutOfBoundsException("Position hors de l'arbre: " + position);
+        }
+        if (position > getCapacite()) {
+            agrandir(position);
+        }
+        for (int i = position; i < arbre.length; i += i & -i) {
+            arbre[i] += delta;
+        }
+    }
+
+    /**
+     * Somme des positions 1 à {@code position} incluse (les positions au-delà de la capacité valent zéro)
+     */
+    public long somme(int position) {
+        long somme = 0;
+        for (int i = Math.min(position, getCapacite()); i > 0; i -= i & -i) {
+            somme += arbre[i];
+        }
+        return somme;
+    }
+
+    /**
+     * Somme des positions {@code debut} à {@code fin} incluses
+     */
+    public long somme(int debut, int fin) {
+        return debut > fin ? 0 : somme(fin) - somme(debut - 1);
+    }
+
+    /**
+     * Ajoute position par position les valeurs d'un autre arbre. Chaque nœud couvre le même intervalle quelle
+     * que soit la capacité : les nœuds communs s'additionnent, ceux au-delà de la capacité de l'autre arbre
+     * reprennent la part de leur intervalle qu'il couvre
+     */
+    public void fusionner(ArbreFenwick autre) {
+        int capaciteAutre = autre.getCapacite();
+        if (capaciteAutre > getCapacite()) {
+            agrandir(capaciteAutre);
+        }
+        for (int i = 1; i <= capaciteAutre; i++) {
+            arbre[i] += autre.arbre[i];
+        }
+        for (int i = capaciteAutre + 1; i < arbre.length; i++) {
+            int debutIntervalle = i - (i & -i);
+            if (debutIntervalle < capaciteAutre) {
+                arbre[i] += sommeDans(autre.arbre, capaciteAutre) - sommeDans(autre.arbre, debutIntervalle);
+            }
+        }
+    }
+
+    /**
+     * Étend la capacité au moins jusqu'à {@code position} en doublant : les nœuds existants restent valides,
+     * seuls les nouveaux nœuds dont l'intervalle recouvre l'ancienne capacité reprennent une somme de préfixe
+     */
+    private void agrandir(int position) {
+        int ancienneCapacite = getCapacite();
+        int capacite = Math.max(ancienneCapacite, 1);
+        while (capacite < position) {
+            capacite = Math.multiplyExact(capacite, 2);
+        }
+        long[] ancien = arbre;
+        arbre = Arrays.copyOf(ancien, capacite + 1);
+        for (int i = ancienneCapacite + 1; i <= capacite; i++) {
+            int debutIntervalle = i - (i & -i);
+            if (debutIntervalle < ancienneCapacite) {
+                arbre[i] = sommeDans(ancien, ancienneCapacite) - sommeDans(ancien, debutIntervalle);
+            }
+        }
+    }
+
+    private static long sommeDans(long[] arbre, int position) {
+        long somme = 0;
+        for (int i = position; i > 0; i -= i & -i) {
+            somme += arbre[i];
+        }
+        return somme;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.UUID;
 
@@ -24,6 +25,10 @@ public class CacheUtil {
     public static final String DEVISE_CACHE = "devises";
     public static final String TAXE_CACHE = "taxes";
     public static final String STATISTIQUE_CACHE = "statistiques";
+    public static final String WIDGET_CACHE = "widgets";
+
+    // Durée de vie des entrées des caches sans configuration propre
+    public static final Duration DUREE_VIE_DEFAUT = Duration.ofHours(1);
 
     /**
      * Met en cache une valeur
@@ -192,8 +197,6 @@ public class CacheUtil {
      */
     public void evictFacture(UUID factureId) {
         evict(FACTURE_CACHE, factureId);
-        // Évince aussi les statistiques qui pourraient être affectées
-        clearStatistiques();
     }
 
     /**
@@ -224,6 +227,13 @@ public class CacheUtil {
         clear(STATISTIQUE_CACHE);
     }
 
+    /**
+     * Vide le cache des résultats de widgets
+     */
+    public void clearWidgets() {
+        clear(WIDGET_CACHE);
+    }
+
     /**
      * Invalide les caches liés à un client (factures, paiements, etc.)
      */
@@ -244,7 +254,8 @@ public class CacheUtil {
         if (clientId != null) {
             evictClient(clientId);
         }
-        clearStatistiques();
+        // Les statistiques ne sont plus vidées ici : seules celles qui dépendent de la facture sont périmées,
+        // sur l'événement FactureEvent (voir InvalidationStatistiquesService)
         log.debug("Invalidation des caches liés à la facture: {}", factureId);
     }
 
@@ -0,0 +1,64 @@
+package com.yooyob.erp.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Accumulateur de montants en centimes entiers : les additions se font sur un long
+ * avec contrôle de dépassement, la conversion en BigDecimal n'a lieu qu'à la lecture.
+ */
+public class CumulMontant {
+
+    private long centimes;
+    private long nombre;
+
+    /**
+     * Ajoute un montant (null compte comme zéro mais reste dénombré)
+     */
+    public CumulMontant ajouter(BigDecimal montant) {
+        return ajouterCentimes(NumberUtil.toCentimes(montant));
+    }
+
+    /**
+     * Ajoute un montant déjà exprimé en centimes
+     */
+    public CumulMontant ajouterCentimes(long montantCentimes) {
+        centimes = Math.addExact(centimes, montantCentimes);
+        nombre++;
+        return this;
+    }
+
+    /**
+     * Intègre un autre cumul (fusion de résultats partiels)
+     */
+    public CumulMontant fusionner(CumulMontant autre) {
+        centimes = Math.addExact(centimes, autre.centimes);
+        nombre += autre.nombre;
+        return this;
+    }
+
+    public long getCentimes() {
+        return centimes;
+    }
+
+    public long getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Total à l'échelle monétaire par défaut
+     */
+    public BigDecimal getMontant() {
+        return NumberUtil.fromCentimes(centimes);
+    }
+
+    /**
+     * Moyenne des montants ajoutés, zéro si aucun
+     */
+    public BigDecimal getMoyenne() {
+        if (nombre == 0) {
+            return BigDecimal.ZERO;
+        }
+        return getMontant().divide(BigDecimal.valueOf(nombre), NumberUtil.DEFAULT_SCALE, RoundingMode.HALF_UP);
+    }
+}
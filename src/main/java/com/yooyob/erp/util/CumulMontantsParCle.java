@@ -0,0 +1,100 @@
+package com.yooyob.erp.util;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Regroupement de montants par clé : chaque clé reçoit un indice dans des tableaux
+ * de longs, les sommes restent en centimes jusqu'à la conversion finale.
+ */
+public class CumulMontantsParCle<K> {
+
+    private static final int CAPACITE_INITIALE = 16;
+
+    private final Map<K, Integer> indices = new HashMap<>();
+    private Object[] cles = new Object[CAPACITE_INITIALE];
+    private long[] centimes = new long[CAPACITE_INITIALE];
+    private long[] nombres = new long[CAPACITE_INITIALE];
+
+    /**
+     * Ajoute un montant à la clé donnée
+     */
+    public void ajouter(K cle, BigDecimal montant) {
+        ajouterCentimes(cle, NumberUtil.toCentimes(montant), 1);
+    }
+
+    /**
+     * Ajoute un montant en centimes et un nombre d'éléments à la clé donnée
+     */
+    public void ajouterCentimes(K cle, long montantCentimes, long nombre) {
+        int index = indice(cle);
+        centimes[index] = Math.addExact(centimes[index], montantCentimes);
+        nombres[index] += nombre;
+    }
+
+    /**
+     * Intègre les cumuls d'un autre regroupement
+     */
+    @SuppressWarnings("unchecked")
+    public void fusionner(CumulMontantsParCle<K> autre) {
+        for (int i = 0; i < autre.indices.size(); i++) {
+            ajouterCentimes((K) autre.cles[i], autre.centimes[i], autre.nombres[i]);
+        }
+    }
+
+    public int taille() {
+        return indices.size();
+    }
+
+    /**
+     * Montant cumulé d'une clé, zéro si elle est absente
+     */
+    public BigDecimal getMontant(K cle) {
+        Integer index = indices.get(cle);
+        return index == null ? BigDecimal.ZERO : NumberUtil.fromCentimes(centimes[index]);
+    }
+
+    /**
+     * Montants convertis, dans l'ordre de première apparition des clés
+     */
+    @SuppressWarnings("unchecked")
+    public Map<K, BigDecimal> versMap() {
+        Map<K, BigDecimal> resultat = new LinkedHashMap<>();
+        for (int i = 0; i < indices.size(); i++) {
+            resultat.put((K) cles[i], NumberUtil.fromCentimes(centimes[i]));
+        }
+        return resultat;
+    }
+
+    /**
+     * Nombres d'éléments par clé, dans l'ordre de première apparition
+     */
+    @SuppressWarnings("unchecked")
+    public Map<K, Long> versMapNombres() {
+        Map<K, Long> resultat = new LinkedHashMap<>();
+        for (int i = 0; i < indices.size(); i++) {
+            resultat.put((K) cles[i], nombres[i]);
+        }
+        return resultat;
+    }
+
+    private int indice(K cle) {
+        Integer index = indices.get(cle);
+        if (index != null) {
+            return index;
+        }
+        int nouvelIndex = indices.size();
+        if (nouvelIndex == cles.length) {
+            int capacite = cles.length * 2;
+            cles = Arrays.copyOf(cles, capacite);
+            centimes = Arrays.copyOf(centimes, capacite);
+            nombres = Arrays.copyOf(nombres, capacite);
+        }
+        cles[nouvelIndex] = cle;
+        indices.put(cle, nouvelIndex);
+        return nouvelIndex;
+    }
+}
@@ -0,0 +1,111 @@
+package com.yooyob.erp.util;
+
+import com.yooyob.erp.dto.response.PageCurseurResponse;
+import com.datastax.oss.driver.api.core.servererrors.InvalidQueryException;
+import com.datastax.oss.driver.api.core.servererrors.ProtocolError;
+import com.yooyob.erp.exception.ValidationException;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.cassandra.core.query.CassandraPageRequest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodage des curseurs de pagination opaques autour de l'état de pagination Cassandra
+ */
+@UtilityClass
+public class CurseurUtil {
+
+    public static final int TAILLE_PAR_DEFAUT = 20;
+    public static final int TAILLE_MAX = 1000;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Construit la requête de page à partir du curseur reçu (null pour la première page)
+     */
+    public static CassandraPageRequest decoder(String curseur, int taille) {
+        if (taille < 1 || taille > TAILLE_MAX) {
+            throw new ValidationException("La taille de page doit être comprise entre 1 et " + TAILLE_MAX);
+        }
+
+        if (curseur == null || curseur.isBlank()) {
+            return CassandraPageRequest.first(taille);
+        }
+
+        byte[] etat;
+        try {
+            etat = DECODER.decode(curseur);
+        } catch (IllegalArgumentException e) {
+            throw curseurInvalide();
+        }
+        if (etat.length == 0) {
+            throw curseurInvalide();
+        }
+        return CassandraPageRequest.of(PageRequest.of(0, taille), ByteBuffer.wrap(etat));
+    }
+
+    /**
+     * Exécute la lecture d'une tranche. Un curseur bien formé en Base64 mais dont Cassandra refuse l'état de
+     * pagination (forgé, tronqué ou émis pour une autre requête) n'est détecté qu'à l'exécution : l'erreur du
+     * driver est alors rejetée comme curseur invalide au lieu de remonter en erreur serveur.
+     */
+    public static <E> Slice<E> lire(CassandraPageRequest requete, Function<CassandraPageRequest, Slice<E>> lecture) {
+        try {
+            return lecture.apply(requete);
+        } catch (RuntimeException e) {
+            if (requete.getPagingState() != null && isEtatPaginationRefuse(e)) {
+                throw curseurInvalide();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Curseur de la page suivante, null si la tranche est la dernière
+     */
+    public static String encoder(Slice<?> slice) {
+        if (!slice.hasNext() || !(slice.getPageable() instanceof CassandraPageRequest pageRequest)
+                || pageRequest.getPagingState() == null) {
+            return null;
+        }
+
+        ByteBuffer etat = pageRequest.getPagingState().duplicate();
+        byte[] octets = new byte[etat.remaining()];
+        etat.get(octets);
+        return ENCODER.encodeToString(octets);
+    }
+
+    private static boolean isEtatPaginationRefuse(Throwable erreur) {
+        for (Throwable cause = erreur; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProtocolError || cause instanceof InvalidQueryException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ValidationException curseurInvalide() {
+        return new ValidationException("Curseur de pagination invalide", "CURSEUR_INVALIDE");
+    }
+
+    /**
+     * Convertit une tranche Cassandra en réponse paginée par curseur
+     */
+    public static <E, R> PageCurseurResponse<R> versReponse(Slice<E> slice, Function<List<E>, List<R>> mapper) {
+        String curseurSuivant = encoder(slice);
+        List<R> contenu = mapper.apply(slice.getContent());
+
+        return PageCurseurResponse.<R>builder()
+                .contenu(contenu)
+                .taille(contenu.size())
+                .pageSuivante(curseurSuivant != null)
+                .curseurSuivant(curseurSuivant)
+                .build();
+    }
+}
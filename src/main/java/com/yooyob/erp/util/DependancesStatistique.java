@@ -0,0 +1,98 @@
+package com.yooyob.erp.util;
+
+import com.yooyob.erp.model.enums.TypeRapport;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Données dont dépend une statistique en cache : une plage de mois de facturation, des clients et des devises.
+ * Une dimension nulle signifie « toutes les valeurs ». Une écriture de facture ne concerne la statistique
+ * que si elle tombe dans chacune des trois dimensions.
+ * Le calcul d'une statistique déclare ses dépendances ; le cache les relève et les inscrit dans l'index
+ * inverse qui désigne, à chaque écriture, les seules entrées à périmer.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DependancesStatistique {
+
+    public static final DependancesStatistique TOUT = new DependancesStatistique(null, null, null, null);
+    public static final String PREFIXE_RAPPORT = "rapport_";
+
+    private static final ThreadLocal<DependancesStatistique> DECLAREES = new ThreadLocal<>();
+
+    private final YearMonth moisDebut;
+    private final YearMonth moisFin;
+    private final Set<UUID> clients;
+    private final Set<String> devises;
+
+    public static DependancesStatistique periode(YearMonth moisDebut, YearMonth moisFin) {
+        return new DependancesStatistique(moisDebut, moisFin, null, null);
+    }
+
+    /**
+     * Mois couverts par une période de dates, bornes nulles comprises (toute date)
+     */
+    public static DependancesStatistique periode(LocalDate dateDebut, LocalDate dateFin) {
+        return periode(dateDebut != null ? YearMonth.from(dateDebut) : null,
+                dateFin != null ? YearMonth.from(dateFin) : null);
+    }
+
+    public static DependancesStatistique client(UUID idClient) {
+        return new DependancesStatistique(null, null, Set.of(idClient), null);
+    }
+
+    /**
+     * Vrai si une écriture datée du mois donné, pour ce client et cette devise, peut changer la statistique.
+     * Une coordonnée inconnue (null) est supposée concerner la statistique.
+     */
+    public boolean concerne(YearMonth mois, UUID idClient, String devise) {
+        boolean dansMois = mois == null
+                || (moisDebut == null || !mois.isBefore(moisDebut)) && (moisFin == null || !mois.isAfter(moisFin));
+        boolean dansClients = clients == null || idClient == null || clients.contains(idClient);
+        boolean dansDevises = devises == null || devise == null || devises.contains(devise);
+        return dansMois && dansClients && dansDevises;
+    }
+
+    /**
+     * Dépendances d'un rapport : les mois jusqu'à la fin de période s'il y est borné, tout l'historique sinon
+     */
+    public static DependancesStatistique rapport(TypeRapport type, LocalDate dateFin) {
+        return type.isBorneParFin() && dateFin != null ? periode(null, YearMonth.from(dateFin)) : TOUT;
+    }
+
+    /**
+     * Déclare les dépendances de la statistique calculée sur le fil courant, relevées par le cache qui l'enregistre
+     */
+    public static void declarer(DependancesStatistique dependances) {
+        DECLAREES.set(dependances);
+    }
+
+    /**
+     * Exécute le calcul d'une statistique et transmet les dépendances qu'il a déclarées (toutes s'il n'en a
+     * déclaré aucune). Les déclarations d'un calcul englobant sont préservées.
+     */
+    public static <T> T calculer(Callable<T> calcul, Consumer<DependancesStatistique> releve) throws Exception {
+        DependancesStatistique englobantes = DECLAREES.get();
+        DECLAREES.remove();
+        try {
+            T valeur = calcul.call();
+            DependancesStatistique declarees = DECLAREES.get();
+            releve.accept(declarees != null ? declarees : TOUT);
+            return valeur;
+        } finally {
+            if (englobantes != null) {
+                DECLAREES.set(englobantes);
+            } else {
+                DECLAREES.remove();
+            }
+        }
+    }
+}
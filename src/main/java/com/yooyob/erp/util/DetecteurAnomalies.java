@@ -0,0 +1,89 @@
+package com.yooyob.erp.util;
+
+/**
+ * Détection en ligne des valeurs anormales d'une série journalière : niveau lissé
+ * exponentiellement, écart saisonnier par jour de la semaine et variance mobile des résidus.
+ * L'état tient en quelques doubles par série et chaque observation est traitée en O(1) ;
+ * un résidu anormal est écrêté avant la mise à jour pour ne pas fausser les observations suivantes.
+ */
+public class DetecteurAnomalies {
+
+    public static final int SAISONNALITE = 7;
+
+    private final double alpha;
+    private final double gamma;
+    private final int echauffement;
+
+    private double moyenne;
+    private double variance;
+    private final double[] saisons;
+    private int nombreObservations;
+
+    public DetecteurAnomalies(double alpha, double gamma, int echauffement) {
+        this(alpha, gamma, echauffement, 0, 0, new double[SAISONNALITE], 0);
+    }
+
+    public DetecteurAnomalies(double alpha, double gamma, int echauffement, double moyenne, double variance,
+                              double[] saisons, int nombreObservations) {
+        if (saisons.length != SAISONNALITE) {
+            throw new IllegalArgumentException("Un écart saisonnier par jour de la semaine est attendu");
+        }
+        this.alpha = alpha;
+        this.gamma = gamma;
+        this.echauffement = echauffement;
+        this.moyenne = moyenne;
+        this.variance = variance;
+        this.saisons = saisons.clone();
+        this.nombreObservations = nombreObservations;
+    }
+
+    /**
+     * Valeur attendue pour un jour de la semaine (0 = lundi) avant intégration de l'observation
+     */
+    public double attendu(int jourSemaine) {
+        return moyenne + saisons[jourSemaine];
+    }
+
+    /**
+     * Intègre l'observation du jour et retourne son score z par rapport à la valeur attendue,
+     * ou NaN tant que la série n'a pas assez d'historique pour juger
+     */
+    public double observer(int jourSemaine, double valeur, double seuilZ) {
+        if (nombreObservations == 0) {
+            moyenne = valeur;
+            nombreObservations++;
+            return Double.NaN;
+        }
+
+        double ecartType = Math.sqrt(variance);
+        double residu = valeur - attendu(jourSemaine);
+        double z = nombreObservations >= echauffement && ecartType > 0 ? residu / ecartType : Double.NaN;
+
+        if (Math.abs(z) > seuilZ) {
+            residu = Math.copySign(seuilZ * ecartType, residu);
+        }
+        double valeurRetenue = attendu(jourSemaine) + residu;
+
+        moyenne += alpha * (valeurRetenue - saisons[jourSemaine] - moyenne);
+        saisons[jourSemaine] += gamma * (valeurRetenue - moyenne - saisons[jourSemaine]);
+        variance = (1 - alpha) * (variance + alpha * residu * residu);
+        nombreObservations++;
+        return z;
+    }
+
+    public double getMoyenne() {
+        return moyenne;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+
+    public double[] getSaisons() {
+        return saisons.clone();
+    }
+
+    public int getNombreObservations() {
+        return nombreObservations;
+    }
+}
@@ -0,0 +1,130 @@
+package com.yooyob.erp.util;
+
+import java.util.Arrays;
+
+/**
+ * Lissage exponentiel de Holt-Winters additif sur une série mensuelle (saisonnalité de 12 mois).
+ * L'état (niveau, tendance, saisons) est mis à jour en O(1) par observation ; l'erreur de la
+ * prévision à un pas est cumulée avant chaque mise à jour pour mesurer la précision en continu.
+ */
+public class HoltWinters {
+
+    public static final int SAISONNALITE = 12;
+
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+
+    private double niveau;
+    private double tendance;
+    private final double[] saisons;
+    private int nombreObservations;
+
+    private double sommeErreursAbsolues;
+    private double sommeValeursAbsolues;
+    private int nombreErreurs;
+
+    public HoltWinters(double alpha, double beta, double gamma) {
+        this(alpha, beta, gamma, 0, 0, new double[SAISONNALITE], 0, 0, 0, 0);
+    }
+
+    public HoltWinters(double alpha, double beta, double gamma, double niveau, double tendance, double[] saisons,
+                       int nombreObservations, double sommeErreursAbsolues, double sommeValeursAbsolues,
+                       int nombreErreurs) {
+        if (saisons.length != SAISONNALITE) {
+            throw new IllegalArgumentException("Une saison par mois est attendue");
+        }
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.niveau = niveau;
+        this.tendance = tendance;
+        this.saisons = saisons.clone();
+        this.nombreObservations = nombreObservations;
+        this.sommeErreursAbsolues = sommeErreursAbsolues;
+        this.sommeValeursAbsolues = sommeValeursAbsolues;
+        this.nombreErreurs = nombreErreurs;
+    }
+
+    /**
+     * Intègre l'observation d'un mois (1 à 12)
+     */
+    public void integrer(int mois, double valeur) {
+        int saison = mois - 1;
+        // Première saison : niveau initial = moyenne, saisons initiales = écarts à cette moyenne
+        if (nombreObservations < SAISONNALITE) {
+            niveau = (niveau * nombreObservations + valeur) / (nombreObservations + 1);
+            saisons[saison] = valeur;
+            nombreObservations++;
+            if (nombreObservations == SAISONNALITE) {
+                for (int i = 0; i < SAISONNALITE; i++) {
+                    saisons[i] -= niveau;
+                }
+            }
+            return;
+        }
+
+        sommeErreursAbsolues += Math.abs(valeur - (niveau + tendance + saisons[saison]));
+        sommeValeursAbsolues += Math.abs(valeur);
+        nombreErreurs++;
+
+        double niveauPrecedent = niveau;
+        niveau = alpha * (valeur - saisons[saison]) + (1 - alpha) * (niveau + tendance);
+        tendance = beta * (niveau - niveauPrecedent) + (1 - beta) * tendance;
+        saisons[saison] = gamma * (valeur - niveau) + (1 - gamma) * saisons[saison];
+        nombreObservations++;
+    }
+
+    /**
+     * Prévision pour le mois (1 à 12) situé à {@code horizon} pas après la dernière observation, jamais négative
+     */
+    public double prevoir(int horizon, int mois) {
+        if (nombreObservations < SAISONNALITE) {
+            // Saisonnalité pas encore estimée : prévision au niveau moyen
+            return Math.max(0, niveau);
+        }
+        return Math.max(0, niveau + horizon * tendance + saisons[mois - 1]);
+    }
+
+    /**
+     * Erreur absolue moyenne des prévisions à un pas
+     */
+    public double getErreurAbsolueMoyenne() {
+        return nombreErreurs == 0 ? 0 : sommeErreursAbsolues / nombreErreurs;
+    }
+
+    /**
+     * Erreur absolue rapportée au volume observé (WAPE)
+     */
+    public double getErreurRelative() {
+        return sommeValeursAbsolues == 0 ? 0 : sommeErreursAbsolues / sommeValeursAbsolues;
+    }
+
+    public double getNiveau() {
+        return niveau;
+    }
+
+    public double getTendance() {
+        return tendance;
+    }
+
+    public double[] getSaisons() {
+        return Arrays.copyOf(saisons, SAISONNALITE);
+    }
+
+    public int getNombreObservations() {
+        return nombreObservations;
+    }
+
+    public double getSommeErreursAbsolues() {
+        return sommeErreursAbsolues;
+    }
+
+    public double getSommeValeursAbsolues() {
+        return sommeValeursAbsolues;
+    }
+
+    public int getNombreErreurs() {
+        return nombreErreurs;
+    }
+}
@@ -117,6 +117,32 @@ public class NumberUtil {
         return v1.subtract(v2);
     }
 
+    /**
+     * Convertit un montant en centimes entiers (échelle par défaut), null valant zéro
+     */
+    public static long toCentimes(BigDecimal value) {
+        if (value == null) {
+            return 0L;
+        }
+        // Chemin sans allocation pour les montants usuels : sous 15 chiffres, le double retrouve exactement les centimes
+        if (value.precision() <= 15) {
+            if (value.scale() == DEFAULT_SCALE) {
+                return Math.round(value.doubleValue() * 100);
+            }
+            if (value.scale() == 0) {
+                return value.longValue() * 100;
+            }
+        }
+        return value.setScale(DEFAULT_SCALE, DEFAULT_ROUNDING_MODE).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Reconstruit un montant à l'échelle par défaut à partir de centimes entiers
+     */
+    public static BigDecimal fromCentimes(long centimes) {
+        return BigDecimal.valueOf(centimes, DEFAULT_SCALE);
+    }
+
     /**
      * Multiplication sécurisée de BigDecimal
      */
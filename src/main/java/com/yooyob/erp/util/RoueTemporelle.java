@@ -0,0 +1,110 @@
+package com.yooyob.erp.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Roue temporelle hachée : les éléments sont rangés dans la case de leur échéance (modulo la taille
+ * de la roue) avec le nombre de tours restant avant expiration. Planifier et annuler coûtent O(1),
+ * chaque tic ne visite que la case courante, quel que soit le nombre d'éléments planifiés.
+ * Non synchronisée : l'appelant sérialise les accès.
+ */
+public class RoueTemporelle<E> {
+
+    private final Noeud<E>[] cases;
+    private final Map<E, Noeud<E>> noeuds = new HashMap<>();
+    private int curseur;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RoueTemporelle(int nombreCases) {
+        if (nombreCases < 1) {
+            throw new IllegalArgumentException("La roue doit compter au moins une case");
+        }
+        this.cases = (Noeud<E>[]) new Noeud[nombreCases];
+    }
+
+    /**
+     * Planifie l'élément pour expirer au {@code delaiTics}-ième prochain tic, en remplaçant une planification existante
+     */
+    public void planifier(E element, long delaiTics) {
+        annuler(element);
+        long delai = Math.max(1, delaiTics);
+        Noeud<E> noeud = new Noeud<>(element, (delai - 1) / cases.length,
+                (int) ((curseur + delai) % cases.length));
+        noeud.suivant = cases[noeud.indexCase];
+        if (noeud.suivant != null) {
+            noeud.suivant.precedent = noeud;
+        }
+        cases[noeud.indexCase] = noeud;
+        noeuds.put(element, noeud);
+    }
+
+    public boolean annuler(E element) {
+        Noeud<E> noeud = noeuds.remove(element);
+        if (noeud == null) {
+            return false;
+        }
+        detacher(noeud);
+        return true;
+    }
+
+    /**
+     * Avance d'un tic et retire de la roue les éléments arrivés à échéance
+     */
+    public List<E> avancer() {
+        curseur = (curseur + 1) % cases.length;
+        List<E> echus = new ArrayList<>();
+        Noeud<E> noeud = cases[curseur];
+        while (noeud != null) {
+            Noeud<E> suivant = noeud.suivant;
+            if (noeud.tours == 0) {
+                detacher(noeud);
+                noeuds.remove(noeud.element);
+                echus.add(noeud.element);
+            } else {
+                noeud.tours--;
+            }
+            noeud = suivant;
+        }
+        return echus;
+    }
+
+    public void vider() {
+        Arrays.fill(cases, null);
+        noeuds.clear();
+    }
+
+    public int getNombreElements() {
+        return noeuds.size();
+    }
+
+    private void detacher(Noeud<E> noeud) {
+        if (noeud.precedent != null) {
+            noeud.precedent.suivant = noeud.suivant;
+        } else {
+            cases[noeud.indexCase] = noeud.suivant;
+        }
+        if (noeud.suivant != null) {
+            noeud.suivant.precedent = noeud.precedent;
+        }
+        noeud.precedent = null;
+        noeud.suivant = null;
+    }
+
+    private static final class Noeud<E> {
+        private final E element;
+        private final int indexCase;
+        private long tours;
+        private Noeud<E> precedent;
+        private Noeud<E> suivant;
+
+        private Noeud(E element, long tours, int indexCase) {
+            this.element = element;
+            this.tours = tours;
+            this.indexCase = indexCase;
+        }
+    }
+}
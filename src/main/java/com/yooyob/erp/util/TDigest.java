@@ -0,0 +1,300 @@
+package com.yooyob.erp.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Esquisse t-digest (variante à fusion) résumant une distribution de valeurs par des centroïdes
+ * pondérés. La taille des centroïdes est bornée par la fonction d'échelle k1 : fine aux extrémités,
+ * elle donne des quantiles précis en queue (p99) avec au plus ~2 × compression centroïdes.
+ * Deux esquisses se fusionnent sans perte supplémentaire notable, ce qui permet de combiner des périodes.
+ */
+public class TDigest {
+
+    public static final double COMPRESSION_DEFAUT = 100;
+
+    private final double compression;
+
+    private double[] moyennes;
+    private double[] poids;
+    private int nombreCentroides;
+
+    // Valeurs ajoutées en attente de fusion dans les centroïdes
+    private final double[] tampon;
+    private int tailleTampon;
+
+    private double poidsTotal;
+    private double somme;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(COMPRESSION_DEFAUT);
+    }
+
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression t-digest trop faible: " + compression);
+        }
+        this.compression = compression;
+        int capacite = (int) Math.ceil(2 * compression) + 10;
+        this.moyennes = new double[capacite];
+        this.poids = new double[capacite];
+        this.tampon = new double[(int) Math.ceil(5 * compression)];
+    }
+
+    /**
+     * Reconstruit une esquisse à partir de sa forme sérialisée
+     */
+    public static TDigest depuisOctets(byte[] octets) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(octets);
+            TDigest digest = new TDigest(buffer.getDouble());
+            digest.poidsTotal = buffer.getDouble();
+            digest.somme = buffer.getDouble();
+            digest.min = buffer.getDouble();
+            digest.max = buffer.getDouble();
+            int nombre = buffer.getInt();
+            digest.agrandir(nombre);
+            for (int i = 0; i < nombre; i++) {
+                digest.moyennes[i] = buffer.getDouble();
+                digest.poids[i] = buffer.getDouble();
+            }
+            digest.nombreCentroides = nombre;
+            return digest;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Esquisse t-digest invalide", e);
+        }
+    }
+
+    public byte[] versOctets() {
+        compresser();
+        ByteBuffer buffer = ByteBuffer.allocate(5 * Double.BYTES + Integer.BYTES + nombreCentroides * 2 * Double.BYTES);
+        buffer.putDouble(compression)
+                .putDouble(poidsTotal)
+                .putDouble(somme)
+                .putDouble(min)
+                .putDouble(max)
+                .putInt(nombreCentroides);
+        for (int i = 0; i < nombreCentroides; i++) {
+            buffer.putDouble(moyennes[i]).putDouble(poids[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Ajoute une observation ; les valeurs non finies sont ignorées
+     */
+    public void ajouter(double valeur) {
+        if (!Double.isFinite(valeur)) {
+            return;
+        }
+        if (tailleTampon == tampon.length) {
+            compresser();
+        }
+        tampon[tailleTampon++] = valeur;
+        poidsTotal++;
+        somme += valeur;
+        min = Math.min(min, valeur);
+        max = Math.max(max, valeur);
+    }
+
+    /**
+     * Intègre une autre esquisse (union des deux échantillons)
+     */
+    public TDigest fusionner(TDigest autre) {
+        autre.compresser();
+        if (autre.poidsTotal == 0) {
+            return this;
+        }
+        compresser();
+        double[] toutesMoyennes = Arrays.copyOf(moyennes, nombreCentroides + autre.nombreCentroides);
+        double[] tousPoids = Arrays.copyOf(poids, nombreCentroides + autre.nombreCentroides);
+        System.arraycopy(autre.moyennes, 0, toutesMoyennes, nombreCentroides, autre.nombreCentroides);
+        System.arraycopy(autre.poids, 0, tousPoids, nombreCentroides, autre.nombreCentroides);
+
+        poidsTotal += autre.poidsTotal;
+        somme += autre.somme;
+        min = Math.min(min, autre.min);
+        max = Math.max(max, autre.max);
+        regrouper(toutesMoyennes, tousPoids, toutesMoyennes.length);
+        return this;
+    }
+
+    public long getNombre() {
+        return Math.round(poidsTotal);
+    }
+
+    public double getSomme() {
+        return somme;
+    }
+
+    public double getMoyenne() {
+        return poidsTotal > 0 ? somme / poidsTotal : Double.NaN;
+    }
+
+    public double getMin() {
+        return poidsTotal > 0 ? min : Double.NaN;
+    }
+
+    public double getMax() {
+        return poidsTotal > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * Valeur estimée du quantile q (entre 0 et 1), par interpolation entre centres de centroïdes
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile hors de [0, 1]: " + q);
+        }
+        compresser();
+        if (nombreCentroides == 0) {
+            return Double.NaN;
+        }
+        if (nombreCentroides == 1) {
+            return moyennes[0];
+        }
+
+        double rang = q * poidsTotal;
+        if (rang < poids[0] / 2) {
+            // Queue gauche : entre le minimum et le centre du premier centroïde
+            return min + (moyennes[0] - min) * rang / (poids[0] / 2);
+        }
+
+        double cumul = poids[0] / 2;
+        for (int i = 0; i < nombreCentroides - 1; i++) {
+            double ecart = (poids[i] + poids[i + 1]) / 2;
+            if (cumul + ecart > rang) {
+                return moyennes[i] + (moyennes[i + 1] - moyennes[i]) * (rang - cumul) / ecart;
+            }
+            cumul += ecart;
+        }
+
+        // Queue droite : entre le centre du dernier centroïde et le maximum
+        int dernier = nombreCentroides - 1;
+        double demiPoids = poids[dernier] / 2;
+        return Math.min(max, moyennes[dernier] + (max - moyennes[dernier]) * (rang - cumul) / demiPoids);
+    }
+
+    /**
+     * Part estimée des observations strictement inférieures à la valeur donnée
+     */
+    public double cdf(double valeur) {
+        compresser();
+        if (nombreCentroides == 0) {
+            return Double.NaN;
+        }
+        if (valeur < min) {
+            return 0;
+        }
+        if (valeur >= max) {
+            return 1;
+        }
+        if (nombreCentroides == 1) {
+            return (valeur - min) / (max - min);
+        }
+
+        if (valeur < moyennes[0]) {
+            return poids[0] / 2 * (valeur - min) / (moyennes[0] - min) / poidsTotal;
+        }
+
+        double cumul = poids[0] / 2;
+        for (int i = 0; i < nombreCentroides - 1; i++) {
+            double ecart = (poids[i] + poids[i + 1]) / 2;
+            if (valeur < moyennes[i + 1]) {
+                double largeur = moyennes[i + 1] - moyennes[i];
+                double part = largeur > 0 ? (valeur - moyennes[i]) / largeur : 0.5;
+                return (cumul + ecart * part) / poidsTotal;
+            }
+            cumul += ecart;
+        }
+
+        int dernier = nombreCentroides - 1;
+        double demiPoids = poids[dernier] / 2;
+        return (cumul + demiPoids * (valeur - moyennes[dernier]) / (max - moyennes[dernier])) / poidsTotal;
+    }
+
+    /**
+     * Nombre estimé d'observations dans [borneInf, borneSup[
+     */
+    public long compterEntre(double borneInf, double borneSup) {
+        if (poidsTotal == 0 || borneSup <= borneInf) {
+            return 0;
+        }
+        return Math.round(poidsTotal * (cdf(borneSup) - cdf(borneInf)));
+    }
+
+    // Méthodes privées utilitaires
+
+    private void compresser() {
+        if (tailleTampon == 0) {
+            return;
+        }
+        double[] toutesMoyennes = Arrays.copyOf(moyennes, nombreCentroides + tailleTampon);
+        double[] tousPoids = Arrays.copyOf(poids, nombreCentroides + tailleTampon);
+        for (int i = 0; i < tailleTampon; i++) {
+            toutesMoyennes[nombreCentroides + i] = tampon[i];
+            tousPoids[nombreCentroides + i] = 1;
+        }
+        tailleTampon = 0;
+        regrouper(toutesMoyennes, tousPoids, toutesMoyennes.length);
+    }
+
+    /**
+     * Trie les centroïdes candidats et fusionne les voisins tant que leur étendue en k reste sous 1
+     */
+    private void regrouper(double[] candidatsMoyennes, double[] candidatsPoids, int nombre) {
+        Integer[] ordre = new Integer[nombre];
+        for (int i = 0; i < nombre; i++) {
+            ordre[i] = i;
+        }
+        Arrays.sort(ordre, (a, b) -> Double.compare(candidatsMoyennes[a], candidatsMoyennes[b]));
+
+        agrandir(nombre);
+        int sortie = 0;
+        double poidsAvant = 0;
+        double moyenneCourante = candidatsMoyennes[ordre[0]];
+        double poidsCourant = candidatsPoids[ordre[0]];
+        double limite = poidsTotal * inverseEchelle(echelle(0) + 1);
+
+        for (int i = 1; i < nombre; i++) {
+            double moyenne = candidatsMoyennes[ordre[i]];
+            double p = candidatsPoids[ordre[i]];
+            if (poidsAvant + poidsCourant + p <= limite) {
+                poidsCourant += p;
+                moyenneCourante += (moyenne - moyenneCourante) * p / poidsCourant;
+            } else {
+                moyennes[sortie] = moyenneCourante;
+                poids[sortie] = poidsCourant;
+                sortie++;
+                poidsAvant += poidsCourant;
+                limite = poidsTotal * inverseEchelle(echelle(poidsAvant / poidsTotal) + 1);
+                moyenneCourante = moyenne;
+                poidsCourant = p;
+            }
+        }
+        moyennes[sortie] = moyenneCourante;
+        poids[sortie] = poidsCourant;
+        nombreCentroides = sortie + 1;
+    }
+
+    // Fonction d'échelle k1 : k(q) = δ / 2π · asin(2q - 1)
+    private double echelle(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, Math.max(0, q)) - 1);
+    }
+
+    private double inverseEchelle(double k) {
+        if (k >= compression / 4) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    private void agrandir(int capacite) {
+        if (moyennes.length < capacite) {
+            moyennes = Arrays.copyOf(moyennes, capacite);
+            poids = Arrays.copyOf(poids, capacite);
+        }
+    }
+}
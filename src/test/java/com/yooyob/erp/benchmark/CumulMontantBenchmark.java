@@ -0,0 +1,99 @@
+package com.yooyob.erp.benchmark;
+
+import com.yooyob.erp.util.CumulMontant;
+import com.yooyob.erp.util.CumulMontantsParCle;
+import com.yooyob.erp.util.NumberUtil;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compare le cumul BigDecimal historique au noyau en centimes entiers :
+ * débit et octets alloués par le thread courant, sur un total simple et un regroupement par clé.
+ * Lancement : exécuter la méthode main depuis l'IDE ou via le classpath de test.
+ */
+public class CumulMontantBenchmark {
+
+    private static final int NOMBRE_MONTANTS = 1_000_000;
+    private static final int NOMBRE_CLES = 500;
+    private static final int ITERATIONS_CHAUFFE = 5;
+    private static final int ITERATIONS_MESURE = 10;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        BigDecimal[] montants = new BigDecimal[NOMBRE_MONTANTS];
+        String[] cles = new String[NOMBRE_MONTANTS];
+        for (int i = 0; i < NOMBRE_MONTANTS; i++) {
+            montants[i] = BigDecimal.valueOf(random.nextInt(10_000_000), NumberUtil.DEFAULT_SCALE);
+            cles[i] = "CLIENT-" + random.nextInt(NOMBRE_CLES);
+        }
+
+        BigDecimal attendu = totalBigDecimal(montants);
+        if (attendu.compareTo(totalCentimes(montants)) != 0) {
+            throw new IllegalStateException("Les deux méthodes de cumul divergent");
+        }
+
+        mesurer("Total BigDecimal.reduce", () -> totalBigDecimal(montants));
+        mesurer("Total CumulMontant", () -> totalCentimes(montants));
+        mesurer("Regroupement Map.merge", () -> regroupementBigDecimal(montants, cles));
+        mesurer("Regroupement CumulMontantsParCle", () -> regroupementCentimes(montants, cles));
+    }
+
+    private static BigDecimal totalBigDecimal(BigDecimal[] montants) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal montant : montants) {
+            total = total.add(montant);
+        }
+        return total;
+    }
+
+    private static BigDecimal totalCentimes(BigDecimal[] montants) {
+        CumulMontant cumul = new CumulMontant();
+        for (BigDecimal montant : montants) {
+            cumul.ajouter(montant);
+        }
+        return cumul.getMontant();
+    }
+
+    private static Map<String, BigDecimal> regroupementBigDecimal(BigDecimal[] montants, String[] cles) {
+        Map<String, BigDecimal> resultat = new HashMap<>();
+        for (int i = 0; i < montants.length; i++) {
+            resultat.merge(cles[i], montants[i], BigDecimal::add);
+        }
+        return resultat;
+    }
+
+    private static Map<String, BigDecimal> regroupementCentimes(BigDecimal[] montants, String[] cles) {
+        CumulMontantsParCle<String> cumul = new CumulMontantsParCle<>();
+        for (int i = 0; i < montants.length; i++) {
+            cumul.ajouter(cles[i], montants[i]);
+        }
+        return cumul.versMap();
+    }
+
+    private static void mesurer(String libelle, java.util.function.Supplier<Object> calcul) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        Object puits = null;
+        for (int i = 0; i < ITERATIONS_CHAUFFE; i++) {
+            puits = calcul.get();
+        }
+
+        long allocationDebut = threads.getThreadAllocatedBytes(threadId);
+        long debut = System.nanoTime();
+        for (int i = 0; i < ITERATIONS_MESURE; i++) {
+            puits = calcul.get();
+        }
+        long dureeNanos = System.nanoTime() - debut;
+        long octets = threads.getThreadAllocatedBytes(threadId) - allocationDebut;
+
+        double millions = (double) NOMBRE_MONTANTS * ITERATIONS_MESURE / dureeNanos * 1_000;
+        System.out.printf("%-35s %8.1f M montants/s  %10.1f octets/montant  (%s)%n",
+                libelle, millions, (double) octets / ((long) NOMBRE_MONTANTS * ITERATIONS_MESURE),
+                puits.hashCode());
+    }
+}
@@ -0,0 +1,193 @@
+package com.yooyob.erp.config;
+
+import com.yooyob.erp.dto.response.StatistiqueResponse;
+import com.yooyob.erp.util.DependancesStatistique;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheRevalidationTest {
+
+    private final Map<Object, DependancesStatistique> inscriptions = new ConcurrentHashMap<>();
+
+    @Test
+    void unSeulCalculParClePourLesAppelsConcurrents() throws Exception {
+        CacheRevalidation cache = cache(Duration.ofMinutes(5));
+        AtomicInteger calculs = new AtomicInteger();
+        CountDownLatch demarre = new CountDownLatch(1);
+        CountDownLatch libere = new CountDownLatch(1);
+
+        ExecutorService appelants = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> resultats = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resultats.add(appelants.submit(() -> cache.get("stats_globales", () -> {
+                    calculs.incrementAndGet();
+                    demarre.countDown();
+                    assertTrue(libere.await(5, TimeUnit.SECONDS));
+                    return "calculee";
+                })));
+            }
+            assertTrue(demarre.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            libere.countDown();
+
+            for (Future<String> resultat : resultats) {
+                assertEquals("calculee", resultat.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            appelants.shutdownNow();
+        }
+        assertEquals(1, calculs.get());
+        assertEquals("calculee", cache.get("stats_globales").get());
+    }
+
+    @Test
+    void servitLaValeurPerimeePendantLeRecalculEnArrierePlan() throws Exception {
+        CacheRevalidation cache = cache(Duration.ofMinutes(5));
+        cache.put("ca_total", "ancienne");
+        cache.clear();
+        AtomicInteger calculs = new AtomicInteger();
+        CountDownLatch libere = new CountDownLatch(1);
+
+        Object servie = cache.get("ca_total", () -> {
+            calculs.incrementAndGet();
+            assertTrue(libere.await(5, TimeUnit.SECONDS));
+            return "nouvelle";
+        });
+        // Un second appel pendant le recalcul ne le relance pas
+        Object servieEncore = cache.get("ca_total", () -> {
+            calculs.incrementAndGet();
+            return "doublon";
+        });
+
+        assertEquals("ancienne", servie);
+        assertEquals("ancienne", servieEncore);
+        assertNull(cache.getFrais("ca_total"));
+
+        libere.countDown();
+        long limite = System.currentTimeMillis() + 5000;
+        while (cache.getFrais("ca_total") == null && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals("nouvelle", cache.getFrais("ca_total").get());
+        assertEquals(1, calculs.get());
+    }
+
+    @Test
+    void neRemetPasEnCacheUnCalculInvalideEnCours() {
+        CacheRevalidation cache = cache(Duration.ofMinutes(5));
+
+        Object valeur = cache.get("ca_mois_courant", () -> {
+            cache.clear();
+            return "perimee";
+        });
+
+        assertEquals("perimee", valeur);
+        assertNull(cache.get("ca_mois_courant"));
+    }
+
+    @Test
+    void putSiInchangeeRefuseUnCalculCommenceAvantLInvalidation() {
+        CacheRevalidation cache = cache(Duration.ofMinutes(5));
+        DependancesStatistique dependances = DependancesStatistique.periode(YearMonth.of(2024, 1), YearMonth.of(2024, 1));
+
+        long debut = System.currentTimeMillis();
+        cache.clear();
+        assertFalse(cache.putSiInchangee("rapport_FINANCIER", "perime", debut, dependances));
+        assertNull(cache.get("rapport_FINANCIER"));
+
+        long apresInvalidation = System.currentTimeMillis() + 1;
+        assertTrue(cache.putSiInchangee("rapport_FINANCIER", "frais", apresInvalidation, dependances));
+        assertEquals("frais", cache.getFrais("rapport_FINANCIER").get());
+        assertSame(dependances, inscriptions.get("rapport_FINANCIER"));
+    }
+
+    @Test
+    void putSiInchangeeRefuseUnCalculDontLaCleAEtePerimee() {
+        CacheRevalidation cache = cache(Duration.ofMinutes(5));
+        cache.putSiInchangee("stats_client", "v1", System.currentTimeMillis() - 10, DependancesStatistique.TOUT);
+
+        long debut = System.currentTimeMillis();
+        assertTrue(cache.perimer("stats_client"));
+        assertFalse(cache.putSiInchangee("stats_client", "v2", debut, DependancesStatistique.TOUT));
+        assertEquals("v1", cache.get("stats_client").get());
+        assertNull(cache.getFrais("stats_client"));
+    }
+
+    @Test
+    void inscritLesDependancesDeclareesParLeCalcul() {
+        CacheRevalidation cache = cache(Duration.ofMinutes(5));
+        DependancesStatistique annee = DependancesStatistique.periode(YearMonth.of(2024, 1), YearMonth.of(2024, 12));
+
+        cache.get("ca_by_mois_2024", () -> {
+            DependancesStatistique.declarer(annee);
+            return "par mois";
+        });
+        cache.get("ca_total", () -> "total");
+
+        assertSame(annee, inscriptions.get("ca_by_mois_2024"));
+        assertSame(DependancesStatistique.TOUT, inscriptions.get("ca_total"));
+    }
+
+    @Test
+    void neMetPasEnCacheUneValeurDontLInscriptionEchoue() {
+        CacheRevalidation cache = new CacheRevalidation(new ConcurrentMapCache("statistiques"), Duration.ofMinutes(5),
+                (cle, dependances) -> {
+                    throw new IllegalStateException("index indisponible");
+                }, new SimpleMeterRegistry());
+
+        assertEquals("calculee", cache.get("ca_total", () -> "calculee"));
+        assertNull(cache.get("ca_total"));
+    }
+
+    @Test
+    void lesStatistiquesEnCacheSontSerialisables() throws Exception {
+        ConcurrentMapCache delegue = new ConcurrentMapCache("statistiques");
+        CacheRevalidation cache = new CacheRevalidation(delegue, Duration.ofMinutes(5), inscriptions::put,
+                new SimpleMeterRegistry());
+        StatistiqueResponse statistiques = StatistiqueResponse.builder()
+                .chiffreAffairesTotal(new BigDecimal("1250.00"))
+                .evolutionMensuelle(List.of(new StatistiqueResponse.ChiffreAffairesMensuel("2024-01", BigDecimal.TEN, 3)))
+                .topClients(List.of(new StatistiqueResponse.TopClient("Alpha", BigDecimal.TEN, 3)))
+                .build();
+        cache.put("stats_globales", statistiques);
+
+        ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        try (ObjectOutputStream sortie = new ObjectOutputStream(octets)) {
+            sortie.writeObject(delegue.getNativeCache().get("stats_globales"));
+        }
+        Object relue;
+        try (ObjectInputStream entree = new ObjectInputStream(new ByteArrayInputStream(octets.toByteArray()))) {
+            relue = entree.readObject();
+        }
+        delegue.put("stats_globales", relue);
+
+        assertEquals(statistiques, cache.get("stats_globales").get());
+    }
+
+    private CacheRevalidation cache(Duration peremptionMax) {
+        return new CacheRevalidation(new ConcurrentMapCache("statistiques"), peremptionMax, inscriptions::put,
+                new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,50 @@
+package com.yooyob.erp.repository.custom;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BandesMontantTest {
+
+    @Test
+    void lesTranchesSuiventLaSerieUnDeuxCinq() {
+        assertEquals(BandesMontant.BANDE_NEGATIVE, BandesMontant.bande(new BigDecimal("-15.00")));
+        assertEquals(1, BandesMontant.bande(BigDecimal.ZERO));
+        assertEquals(1, BandesMontant.bande(new BigDecimal("0.99")));
+        assertEquals(2, BandesMontant.bande(new BigDecimal("1.00")));
+        assertEquals(2, BandesMontant.bande(new BigDecimal("1.99")));
+        assertEquals(3, BandesMontant.bande(new BigDecimal("2")));
+        assertEquals(4, BandesMontant.bande(new BigDecimal("5.00")));
+        assertEquals(5, BandesMontant.bande(new BigDecimal("10")));
+        assertEquals(5, BandesMontant.bande(new BigDecimal("1E+1")));
+        assertEquals(7, BandesMontant.bande(new BigDecimal("99.99")));
+        assertEquals(8, BandesMontant.bande(new BigDecimal("100.000")));
+        assertEquals(BandesMontant.BANDE_MAX, BandesMontant.bande(new BigDecimal("9E+15")));
+    }
+
+    @Test
+    void lesTranchesCroissentAvecLeMontant() {
+        Random random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal a = BigDecimal.valueOf(random.nextLong(-1_000, 10_000_000_000L), 2);
+            BigDecimal b = BigDecimal.valueOf(random.nextLong(-1_000, 10_000_000_000L), 2);
+            BigDecimal min = a.min(b);
+            BigDecimal max = a.max(b);
+            assertTrue(BandesMontant.bande(min) <= BandesMontant.bande(max), min + " et " + max);
+        }
+    }
+
+    @Test
+    void unIntervalleNeLitQueLesTranchesQuIlChevauche() {
+        assertEquals(List.of(4, 5, 6), BandesMontant.bandes(new BigDecimal("7.50"), new BigDecimal("49.99")));
+        assertEquals(List.of(5), BandesMontant.bandes(new BigDecimal("10"), new BigDecimal("19.99")));
+        assertEquals(BandesMontant.BANDE_MAX + 1, BandesMontant.bandes(null, null).size());
+        assertEquals(BandesMontant.BANDE_NEGATIVE, BandesMontant.bandes(null, BigDecimal.ONE).get(0));
+        assertEquals(BandesMontant.BANDE_MAX, BandesMontant.bandes(new BigDecimal("500"), null).getLast());
+        assertTrue(BandesMontant.bandes(new BigDecimal("100"), new BigDecimal("10")).isEmpty());
+    }
+}
@@ -0,0 +1,176 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.enums.StatutFacture;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColonnesFacturesTest {
+
+    private static final LocalDate JOUR = LocalDate.of(2024, 3, 15);
+    private static final int TOUS_LES_JOURS_DEBUT = Integer.MIN_VALUE + 1;
+    private static final int TOUS_LES_JOURS_FIN = Integer.MAX_VALUE;
+
+    @Test
+    void leCompactageRetireLesLignesSupprimeesEtGardeLesAutresAccessibles() {
+        ColonnesFactures colonnes = new ColonnesFactures();
+        UUID client = UUID.randomUUID();
+        List<UUID> ids = enregistrer(colonnes, 10, client, "100.00");
+
+        colonnes.supprimer(ids.get(2));
+        colonnes.supprimer(ids.get(7));
+        assertEquals(10, colonnes.getNombreLignes());
+        assertEquals(2, colonnes.getNombreSupprimees());
+
+        colonnes.compacter();
+
+        assertEquals(8, colonnes.getNombreLignes());
+        assertEquals(0, colonnes.getNombreSupprimees());
+        assertEquals(8, resume(colonnes).nombre(StatutFacture.ENVOYE));
+        assertEquals(80_000, resume(colonnes).montant(StatutFacture.ENVOYE));
+
+        // Les lignes décalées restent retrouvables : une mise à jour remplace sans dupliquer
+        colonnes.enregistrer(facture(ids.get(9), client, "250.00", StatutFacture.PAYE));
+        assertEquals(8, colonnes.getNombreLignes());
+        assertEquals(7, resume(colonnes).nombre(StatutFacture.ENVOYE));
+        assertEquals(25_000, resume(colonnes).montant(StatutFacture.PAYE));
+    }
+
+    @Test
+    void uneFactureSupprimeePuisReenregistreeNEstPlusCompteeCommeSupprimee() {
+        ColonnesFactures colonnes = new ColonnesFactures();
+        UUID client = UUID.randomUUID();
+        UUID id = enregistrer(colonnes, 1, client, "10.00").get(0);
+
+        colonnes.supprimer(id);
+        colonnes.supprimer(id);
+        assertEquals(1, colonnes.getNombreSupprimees());
+
+        colonnes.enregistrer(facture(id, client, "10.00", StatutFacture.ENVOYE));
+        assertEquals(0, colonnes.getNombreSupprimees());
+        colonnes.compacter();
+        assertEquals(1, colonnes.getNombreLignes());
+    }
+
+    @Test
+    void lesSuppressionsMassivesDeclenchentLeCompactage() {
+        ColonnesFactures colonnes = new ColonnesFactures();
+        List<UUID> ids = enregistrer(colonnes, 3000, UUID.randomUUID(), "1.00");
+
+        for (int i = 0; i < 1023; i++) {
+            colonnes.supprimer(ids.get(i));
+        }
+        assertEquals(3000, colonnes.getNombreLignes());
+
+        colonnes.supprimer(ids.get(1023));
+
+        assertEquals(1976, colonnes.getNombreLignes());
+        assertEquals(0, colonnes.getNombreSupprimees());
+        assertEquals(1976, resume(colonnes).nombre(StatutFacture.ENVOYE));
+    }
+
+    @Test
+    void laTableDAdressageEstReconstruiteQuandLesColonnesGrandissent() {
+        ColonnesFactures colonnes = new ColonnesFactures();
+        int nombre = 20_000;
+        List<UUID> clients = new ArrayList<>();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            UUID client = UUID.randomUUID();
+            UUID id = UUID.randomUUID();
+            clients.add(client);
+            ids.add(id);
+            colonnes.enregistrer(facture(id, client, "1.00", StatutFacture.ENVOYE));
+        }
+
+        // Réenregistrer chaque facture après les agrandissements ne doit créer aucune ligne
+        for (int i = 0; i < nombre; i++) {
+            colonnes.enregistrer(facture(ids.get(i), clients.get(i), "2.00", StatutFacture.PAYE));
+        }
+
+        assertEquals(nombre, colonnes.getNombreLignes());
+        assertEquals(nombre, colonnes.getNombreClients());
+        assertEquals(nombre, resume(colonnes).nombre(StatutFacture.PAYE));
+        assertEquals(0, resume(colonnes).nombre(StatutFacture.ENVOYE));
+        for (int i = 0; i < nombre; i += 997) {
+            int index = colonnes.chercherClient(clients.get(i));
+            assertEquals(clients.get(i), colonnes.getIdClient(index));
+        }
+        assertEquals(-1, colonnes.chercherClient(UUID.randomUUID()));
+    }
+
+    @Test
+    void meilleursRendLesKPlusGrandesValeursPositivesParOrdreDecroissant() {
+        long[] valeurs = {5, 0, 42, -3, 17, 8, 42, 1};
+
+        int[] classement = ColonnesFactures.meilleurs(valeurs, 3);
+
+        assertEquals(3, classement.length);
+        assertEquals(42, valeurs[classement[0]]);
+        assertEquals(42, valeurs[classement[1]]);
+        assertEquals(17, valeurs[classement[2]]);
+    }
+
+    @Test
+    void meilleursIgnoreLesValeursNullesOuNegativesEtLesKHorsBornes() {
+        long[] valeurs = {0, -1, 3, 0, 9};
+
+        assertArrayEquals(new int[]{4, 2}, ColonnesFactures.meilleurs(valeurs, 10));
+        assertArrayEquals(new int[0], ColonnesFactures.meilleurs(valeurs, 0));
+        assertArrayEquals(new int[0], ColonnesFactures.meilleurs(valeurs, -2));
+        assertArrayEquals(new int[0], ColonnesFactures.meilleurs(new long[0], 5));
+    }
+
+    @Test
+    void meilleursCorrespondAuTriCompletSurDesValeursAleatoires() {
+        Random aleatoire = new Random(7);
+        long[] valeurs = new long[5000];
+        for (int i = 0; i < valeurs.length; i++) {
+            valeurs[i] = aleatoire.nextInt(2000) - 200;
+        }
+
+        int[] classement = ColonnesFactures.meilleurs(valeurs, 25);
+
+        long[] attendues = Arrays.stream(valeurs).filter(v -> v > 0)
+                .boxed().sorted(Comparator.reverseOrder())
+                .limit(25).mapToLong(Long::longValue).toArray();
+        long[] obtenues = Arrays.stream(classement).mapToLong(i -> valeurs[i]).toArray();
+        assertArrayEquals(attendues, obtenues);
+    }
+
+    private static ColonnesFactures.Resume resume(ColonnesFactures colonnes) {
+        return colonnes.resumer(TOUS_LES_JOURS_DEBUT, TOUS_LES_JOURS_FIN, -1);
+    }
+
+    private static List<UUID> enregistrer(ColonnesFactures colonnes, int nombre, UUID client, String montant) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            colonnes.enregistrer(facture(id, client, montant, StatutFacture.ENVOYE));
+        }
+        return ids;
+    }
+
+    private static Facture facture(UUID id, UUID client, String montant, StatutFacture etat) {
+        return Facture.builder()
+                .idFacture(id)
+                .idClient(client)
+                .nomClient("Client")
+                .etat(etat)
+                .dateFacturation(JOUR)
+                .montantTotal(new BigDecimal(montant))
+                .montantRestant(new BigDecimal(montant))
+                .build();
+    }
+}
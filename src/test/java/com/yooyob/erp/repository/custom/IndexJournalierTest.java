@@ -0,0 +1,93 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.model.entity.Paiement;
+import com.yooyob.erp.model.enums.StatutFacture;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexJournalierTest {
+
+    private static final LocalDate ORIGINE = LocalDate.of(2020, 1, 1);
+
+    @Test
+    void laFusionDIndexPartielsEquivautAUnIndexUnique() {
+        IndexJournalier unique = new IndexJournalier(ORIGINE);
+        IndexJournalier[] partiels = {new IndexJournalier(ORIGINE), new IndexJournalier(ORIGINE), new IndexJournalier(ORIGINE)};
+
+        for (int i = 0; i < 300; i++) {
+            LocalDate jour = ORIGINE.plusDays(i * 7L);
+            StatutFacture statut = StatutFacture.values()[i % StatutFacture.values().length];
+            Facture facture = facture(UUID.randomUUID(), jour, statut, (i + 1) + ".50");
+            Paiement paiement = paiement(UUID.randomUUID(), jour.plusDays(3), i + ".25");
+            unique.enregistrer(facture);
+            unique.enregistrer(paiement);
+            partiels[i % 3].enregistrer(facture);
+            partiels[(i + 1) % 3].enregistrer(paiement);
+        }
+
+        IndexJournalier fusion = partiels[0];
+        fusion.fusionner(partiels[1]);
+        fusion.fusionner(partiels[2]);
+
+        assertEquals(unique.getNombreFactures(), fusion.getNombreFactures());
+        assertEquals(unique.getNombrePaiements(), fusion.getNombrePaiements());
+        for (int debut = 0; debut < 2_200; debut += 173) {
+            LocalDate dateDebut = ORIGINE.plusDays(debut);
+            LocalDate dateFin = dateDebut.plusDays(400);
+            assertEquals(unique.sommer(dateDebut, dateFin), fusion.sommer(dateDebut, dateFin));
+        }
+        assertEquals(unique.sommer(null, null), fusion.sommer(null, null));
+    }
+
+    @Test
+    void uneFactureFusionneeReprendLaContributionDeLAutreIndex() {
+        UUID idFacture = UUID.randomUUID();
+        IndexJournalier index = new IndexJournalier(ORIGINE);
+        IndexJournalier autre = new IndexJournalier(ORIGINE);
+        index.enregistrer(facture(idFacture, ORIGINE.plusDays(10), StatutFacture.ENVOYE, "100.00"));
+        autre.enregistrer(facture(idFacture, ORIGINE.plusDays(10), StatutFacture.PAYE, "100.00"));
+
+        index.fusionner(autre);
+
+        IndexJournalier.Sommes sommes = index.sommer(null, null);
+        assertEquals(1, index.getNombreFactures());
+        assertEquals(1, sommes.nombre());
+        assertEquals(1, sommes.getNombres()[StatutFacture.PAYE.ordinal()]);
+        assertEquals(10_000, sommes.montant());
+
+        // La contribution fusionnée se retire comme une contribution enregistrée
+        index.supprimer(idFacture);
+        assertEquals(0, index.sommer(null, null).nombre());
+        assertEquals(0, index.sommer(null, null).montant());
+    }
+
+    @Test
+    void laFusionRefuseDesOriginesDifferentes() {
+        IndexJournalier index = new IndexJournalier(ORIGINE);
+
+        assertThrows(IllegalArgumentException.class, () -> index.fusionner(new IndexJournalier(ORIGINE.plusDays(1))));
+    }
+
+    private static Facture facture(UUID id, LocalDate jour, StatutFacture statut, String montant) {
+        return Facture.builder()
+                .idFacture(id)
+                .dateFacturation(jour)
+                .etat(statut)
+                .montantTotal(new BigDecimal(montant))
+                .build();
+    }
+
+    private static Paiement paiement(UUID id, LocalDate jour, String montant) {
+        return Paiement.builder()
+                .idPaiement(id)
+                .date(jour)
+                .montant(new BigDecimal(montant))
+                .build();
+    }
+}
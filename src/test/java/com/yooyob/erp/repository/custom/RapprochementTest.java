@@ -0,0 +1,113 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.model.entity.Facture;
+import com.yooyob.erp.repository.custom.AgregatsRepository.Changement;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RapprochementTest {
+
+    private static final LocalDateTime SEUIL = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    void ignoreLesModificationsDejaLuesParLeParcours() {
+        UUID ancienne = UUID.randomUUID();
+        UUID recente = UUID.randomUUID();
+        Rapprochement<Facture> rapprochement = rapprochement(List.of(ancienne),
+                Map.of(recente, SEUIL.plusSeconds(10)));
+
+        Map<UUID, List<Changement<Facture>>> retenus = rapprochement.retenir(List.of(
+                changement(facture(ancienne, SEUIL.minusSeconds(30)), facture(ancienne, SEUIL.minusSeconds(5))),
+                changement(facture(recente, SEUIL.plusSeconds(5)), facture(recente, SEUIL.plusSeconds(10)))));
+
+        assertTrue(retenus.isEmpty());
+    }
+
+    @Test
+    void retientLesModificationsPosterieuresALaVersionLue() {
+        UUID recente = UUID.randomUUID();
+        Rapprochement<Facture> rapprochement = rapprochement(List.of(), Map.of(recente, SEUIL.plusSeconds(10)));
+        Changement<Facture> lue = changement(null, facture(recente, SEUIL.plusSeconds(10)));
+        Changement<Facture> suivante = changement(facture(recente, SEUIL.plusSeconds(10)),
+                facture(recente, SEUIL.plusSeconds(20)));
+
+        Map<UUID, List<Changement<Facture>>> retenus = rapprochement.retenir(List.of(lue, suivante));
+
+        assertEquals(List.of(suivante), retenus.get(recente));
+    }
+
+    @Test
+    void retientLesModificationsDUneLigneAncienneDepuisLeSeuil() {
+        UUID ancienne = UUID.randomUUID();
+        Rapprochement<Facture> rapprochement = rapprochement(List.of(ancienne), Map.of());
+        Changement<Facture> modification = changement(facture(ancienne, SEUIL.minusDays(3)),
+                facture(ancienne, SEUIL.plusSeconds(1)));
+
+        assertEquals(List.of(modification), rapprochement.retenir(List.of(modification)).get(ancienne));
+    }
+
+    @Test
+    void uneModificationRetenueEntraineLesSuivantes() {
+        UUID recente = UUID.randomUUID();
+        Rapprochement<Facture> rapprochement = rapprochement(List.of(), Map.of(recente, SEUIL.plusSeconds(10)));
+        Changement<Facture> posterieure = changement(facture(recente, SEUIL.plusSeconds(10)),
+                facture(recente, SEUIL.plusSeconds(20)));
+        // Horloge d'un autre nœud en retard : la version est antérieure mais part d'un état non lu
+        Changement<Facture> enRetard = changement(facture(recente, SEUIL.plusSeconds(20)),
+                facture(recente, SEUIL.plusSeconds(15)));
+
+        assertEquals(List.of(posterieure, enRetard),
+                rapprochement.retenir(List.of(posterieure, enRetard)).get(recente));
+    }
+
+    @Test
+    void retientToujoursLesSuppressionsDesLignesLues() {
+        UUID ancienne = UUID.randomUUID();
+        Rapprochement<Facture> rapprochement = rapprochement(List.of(ancienne), Map.of());
+        Changement<Facture> suppression = changement(facture(ancienne, SEUIL.minusDays(1)), null);
+
+        assertEquals(List.of(suppression), rapprochement.retenir(List.of(suppression)).get(ancienne));
+    }
+
+    @Test
+    void reprendLeDernierEtatDUneLigneNonLue() {
+        UUID creee = UUID.randomUUID();
+        UUID supprimee = UUID.randomUUID();
+        Rapprochement<Facture> rapprochement = rapprochement(List.of(), Map.of());
+        Facture derniere = facture(creee, SEUIL.plusSeconds(20));
+
+        Map<UUID, List<Changement<Facture>>> retenus = rapprochement.retenir(List.of(
+                changement(null, facture(creee, SEUIL.plusSeconds(10))),
+                changement(facture(creee, SEUIL.plusSeconds(10)), derniere),
+                changement(null, facture(supprimee, SEUIL.plusSeconds(10))),
+                changement(facture(supprimee, SEUIL.plusSeconds(10)), null)));
+
+        assertEquals(1, retenus.size());
+        List<Changement<Facture>> creation = retenus.get(creee);
+        assertEquals(1, creation.size());
+        assertNull(creation.get(0).getAvant());
+        assertSame(derniere, creation.get(0).getApres());
+    }
+
+    private static Rapprochement<Facture> rapprochement(List<UUID> lues, Map<UUID, LocalDateTime> recentes) {
+        long[] empreintes = LongStream.concat(lues.stream().mapToLong(Rapprochement::empreinte),
+                recentes.keySet().stream().mapToLong(Rapprochement::empreinte)).sorted().toArray();
+        return new Rapprochement<>(SourceAgregat.FACTURES, empreintes, new HashMap<>(recentes), SEUIL);
+    }
+
+    private static Changement<Facture> changement(Facture avant, Facture apres) {
+        return new Changement<>(UUID.randomUUID(), avant, apres);
+    }
+
+    private static Facture facture(UUID id, LocalDateTime version) {
+        return Facture.builder().idFacture(id).updatedAt(version).build();
+    }
+}
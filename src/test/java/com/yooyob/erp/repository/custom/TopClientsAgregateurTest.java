@@ -0,0 +1,71 @@
+package com.yooyob.erp.repository.custom;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopClientsAgregateurTest {
+
+    @Test
+    void classeLesClientsParChiffreDAffairesDecroissant() {
+        UUID alpha = UUID.randomUUID();
+        UUID beta = UUID.randomUUID();
+        UUID gamma = UUID.randomUUID();
+        TopClientsAgregateur agregateur = new TopClientsAgregateur();
+        agregateur.accumuler(alpha, "Alpha", new BigDecimal("100.50"), LocalDate.of(2024, 1, 10));
+        agregateur.accumuler(beta, "Beta", new BigDecimal("300.00"), LocalDate.of(2024, 2, 1));
+        agregateur.accumuler(gamma, "Gamma", new BigDecimal("50.25"), null);
+        agregateur.accumuler(alpha, "Alpha", new BigDecimal("250.00"), LocalDate.of(2024, 3, 5));
+
+        List<TopClientsAgregateur.ClientClasse> top = agregateur.top(2);
+
+        assertEquals(2, top.size());
+        assertEquals(alpha, top.get(0).getIdClient());
+        assertEquals(new BigDecimal("350.50"), top.get(0).getChiffreAffaires());
+        assertEquals(2, top.get(0).getNombreFactures());
+        assertEquals(LocalDate.of(2024, 3, 5), top.get(0).getDernierAchat());
+        assertEquals(beta, top.get(1).getIdClient());
+        assertNull(agregateur.top(3).get(2).getDernierAchat());
+    }
+
+    @Test
+    void fusionDesPartielsEquivautAuParcoursComplet() {
+        Random random = new Random(5);
+        UUID[] clients = new UUID[600];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = new UUID(0, i);
+        }
+
+        TopClientsAgregateur complet = new TopClientsAgregateur();
+        TopClientsAgregateur premier = new TopClientsAgregateur();
+        TopClientsAgregateur second = new TopClientsAgregateur();
+        for (int i = 0; i < 20_000; i++) {
+            UUID client = clients[random.nextInt(clients.length)];
+            BigDecimal montant = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            LocalDate date = LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365));
+            complet.accumuler(client, "Client " + client, montant, date);
+            (i % 2 == 0 ? premier : second).accumuler(client, "Client " + client, montant, date);
+        }
+
+        assertEquals(complet.top(20), premier.fusionner(second).top(20));
+        assertEquals(clients.length, complet.getNombreClients());
+    }
+
+    @Test
+    void topBorneParLeNombreDeClients() {
+        TopClientsAgregateur agregateur = new TopClientsAgregateur();
+
+        assertTrue(agregateur.top(5).isEmpty());
+
+        agregateur.accumuler(UUID.randomUUID(), "Seul", BigDecimal.TEN, null);
+
+        assertEquals(1, agregateur.top(5).size());
+        assertTrue(agregateur.top(0).isEmpty());
+    }
+}
@@ -0,0 +1,94 @@
+package com.yooyob.erp.repository.custom;
+
+import com.yooyob.erp.exception.BusinessException;
+import com.yooyob.erp.model.entity.GenerationAgregat;
+import com.yooyob.erp.model.entity.NoeudAgregats;
+import com.yooyob.erp.model.enums.TypeAgregat;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransitionsGenerationTest {
+
+    private static final TypeAgregat AGREGAT = TypeAgregat.ROLLUPS_FACTURES;
+    private static final LocalDateTime MAINTENANT = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    void ouvrePuisBasculeSurUneNouvelleGeneration() {
+        GenerationAgregat etat = TransitionsGeneration.ouvrir(null, AGREGAT, MAINTENANT, 120);
+
+        assertEquals(0, etat.getGenerationActive());
+        assertEquals(1, etat.getGenerationConstruction());
+
+        int ancienne = TransitionsGeneration.basculer(etat, AGREGAT, 1);
+
+        assertEquals(0, ancienne);
+        assertEquals(1, etat.getGenerationActive());
+        assertNull(etat.getGenerationConstruction());
+        assertEquals(Set.of(0), etat.getGenerationsObsoletes());
+    }
+
+    @Test
+    void refuseUneSecondeConstructionPendantLeBail() {
+        GenerationAgregat etat = TransitionsGeneration.ouvrir(null, AGREGAT, MAINTENANT, 120);
+
+        BusinessException erreur = assertThrows(BusinessException.class,
+                () -> TransitionsGeneration.ouvrir(etat, AGREGAT, MAINTENANT.plusMinutes(30), 120));
+        assertEquals("RECONSTRUCTION_EN_COURS", erreur.getErrorCode());
+    }
+
+    @Test
+    void reprendUneConstructionAuBailExpireSansReutiliserSonNumero() {
+        GenerationAgregat etat = TransitionsGeneration.ouvrir(null, AGREGAT, MAINTENANT, 120);
+        TransitionsGeneration.ouvrir(etat, AGREGAT, MAINTENANT.plusMinutes(121), 120);
+
+        assertEquals(2, etat.getGenerationConstruction());
+        assertEquals(Set.of(1), etat.getGenerationsObsoletes());
+
+        BusinessException erreur = assertThrows(BusinessException.class,
+                () -> TransitionsGeneration.basculer(etat, AGREGAT, 1));
+        assertEquals("RECONSTRUCTION_REPRISE", erreur.getErrorCode());
+        assertEquals(0, etat.getGenerationActive());
+    }
+
+    @Test
+    void abandonRendLaGenerationObsoleteSaufSiElleAEteReprise() {
+        GenerationAgregat etat = TransitionsGeneration.ouvrir(null, AGREGAT, MAINTENANT, 120);
+        TransitionsGeneration.ouvrir(etat, AGREGAT, MAINTENANT.plusMinutes(121), 120);
+
+        TransitionsGeneration.abandonner(etat, 1);
+        assertEquals(2, etat.getGenerationConstruction());
+
+        TransitionsGeneration.abandonner(etat, 2);
+        assertNull(etat.getGenerationConstruction());
+        assertEquals(Set.of(1, 2), etat.getGenerationsObsoletes());
+
+        TransitionsGeneration.purgees(etat, List.of(1));
+        assertEquals(Set.of(2), etat.getGenerationsObsoletes());
+    }
+
+    @Test
+    void acquitteeQuandTousLesNoeudsOntChargeLaRevision() {
+        UUID local = UUID.randomUUID();
+        UUID autre = UUID.randomUUID();
+
+        assertTrue(TransitionsGeneration.acquittee(List.of(noeud(local, 5L), noeud(autre, 6L)), local, AGREGAT, 5));
+        assertFalse(TransitionsGeneration.acquittee(List.of(noeud(local, 5L), noeud(autre, 4L)), local, AGREGAT, 5));
+        assertFalse(TransitionsGeneration.acquittee(List.of(noeud(local, 5L), noeud(autre, null)), local, AGREGAT, 5));
+        // Tant que le nœud local n'a pas signalé sa présence, la liste des nœuds peut être incomplète
+        assertFalse(TransitionsGeneration.acquittee(List.of(noeud(autre, 5L)), local, AGREGAT, 5));
+    }
+
+    private static NoeudAgregats noeud(UUID id, Long revision) {
+        return NoeudAgregats.builder()
+                .noeud(id)
+                .revisions(revision != null ? Map.of(AGREGAT.name(), revision) : Map.of())
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.yooyob.erp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArbreFenwickTest {
+
+    @Test
+    void sommesDIntervalleCorrectesApresAgrandissement() {
+        Random random = new Random(3);
+        long[] valeurs = new long[200];
+        ArbreFenwick arbre = new ArbreFenwick(5);
+
+        // Les positions croissent au-delà de la capacité initiale, qui n'est pas une puissance de deux
+        for (int i = 0; i < 2_000; i++) {
+            int position = 1 + random.nextInt(Math.min(valeurs.length - 1, 6 + i / 10));
+            long delta = random.nextInt(2_001) - 1_000;
+            arbre.ajouter(position, delta);
+            valeurs[position] += delta;
+        }
+
+        assertTrue(arbre.getCapacite() >= 199);
+        verifierSommes(arbre, valeurs);
+    }
+
+    @Test
+    void agrandissementConserveLesSommesExistantes() {
+        ArbreFenwick arbre = new ArbreFenwick(3);
+        arbre.ajouter(1, 10);
+        arbre.ajouter(2, 20);
+        arbre.ajouter(3, 30);
+
+        arbre.ajouter(37, 5);
+
+        assertEquals(48, arbre.getCapacite());
+        assertEquals(60, arbre.somme(3));
+        assertEquals(50, arbre.somme(2, 36));
+        assertEquals(65, arbre.somme(1, 48));
+        assertEquals(5, arbre.somme(4, 40));
+    }
+
+    @Test
+    void constructionDepuisValeursEquivautAuxAjouts() {
+        long[] valeurs = {0, 4, -2, 7, 0, 3, 9, -5, 1};
+        ArbreFenwick arbre = ArbreFenwick.depuis(valeurs);
+
+        verifierSommes(arbre, valeurs);
+    }
+
+    @Test
+    void fusionEquivautAuxAjoutsQuelleQueSoitLaCapacite() {
+        Random random = new Random(11);
+        long[] valeurs = new long[150];
+        ArbreFenwick petit = new ArbreFenwick(5);
+        ArbreFenwick grand = new ArbreFenwick(100);
+        ArbreFenwick moyen = new ArbreFenwick(37);
+
+        // Seul le petit arbre est agrandi au fil des ajouts, au-delà de la capacité du grand
+        ArbreFenwick[] arbres = {petit, grand, moyen};
+        int[] bornes = {valeurs.length - 1, 100, 37};
+        for (int i = 0; i < 500; i++) {
+            int position = 1 + random.nextInt(bornes[i % 3]);
+            long delta = random.nextInt(2_001) - 1_000;
+            arbres[i % 3].ajouter(position, delta);
+            valeurs[position] += delta;
+        }
+
+        // Un arbre plus petit puis plus grand que la cible, dont les capacités ne sont pas des puissances de deux
+        grand.fusionner(moyen);
+        grand.fusionner(petit);
+
+        verifierSommes(grand, valeurs);
+    }
+
+    @Test
+    void positionsHorsArbre() {
+        ArbreFenwick arbre = new ArbreFenwick(4);
+        arbre.ajouter(2, 8);
+
+        assertEquals(8, arbre.somme(1_000));
+        assertEquals(0, arbre.somme(3, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> arbre.ajouter(0, 1));
+    }
+
+    private static void verifierSommes(ArbreFenwick arbre, long[] valeurs) {
+        for (int debut = 1; debut < valeurs.length; debut++) {
+            long attendu = 0;
+            for (int fin = debut; fin < valeurs.length; fin++) {
+                attendu += valeurs[fin];
+                assertEquals(attendu, arbre.somme(debut, fin), "Somme de " + debut + " à " + fin);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.yooyob.erp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CumulMontantTest {
+
+    @Test
+    void totalIdentiqueAuCumulBigDecimal() {
+        Random random = new Random(17);
+        CumulMontant cumul = new CumulMontant();
+        BigDecimal attendu = BigDecimal.ZERO;
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal montant = BigDecimal.valueOf(random.nextLong(-1_000_000_000L, 1_000_000_000L), 2);
+            cumul.ajouter(montant);
+            attendu = attendu.add(montant);
+        }
+
+        assertEquals(attendu.setScale(NumberUtil.DEFAULT_SCALE), cumul.getMontant());
+        assertEquals(100_000, cumul.getNombre());
+    }
+
+    @Test
+    void arrondiALEchelleMonetaire() {
+        CumulMontant cumul = new CumulMontant()
+                .ajouter(new BigDecimal("10.005"))
+                .ajouter(new BigDecimal("3"))
+                .ajouter(null);
+
+        assertEquals(new BigDecimal("13.01"), cumul.getMontant());
+        assertEquals(3, cumul.getNombre());
+        assertEquals(new BigDecimal("4.34"), cumul.getMoyenne());
+    }
+
+    @Test
+    void fusionAdditionneTotauxEtNombres() {
+        CumulMontant premier = new CumulMontant().ajouter(new BigDecimal("1.10")).ajouter(new BigDecimal("2.20"));
+        CumulMontant second = new CumulMontant().ajouterCentimes(70);
+
+        premier.fusionner(second);
+
+        assertEquals(400, premier.getCentimes());
+        assertEquals(3, premier.getNombre());
+    }
+
+    @Test
+    void moyenneNulleSansMontant() {
+        assertEquals(BigDecimal.ZERO, new CumulMontant().getMoyenne());
+    }
+
+    @Test
+    void depassementSignaleAuLieuDeBoucler() {
+        CumulMontant cumul = new CumulMontant().ajouterCentimes(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> cumul.ajouterCentimes(1));
+        assertThrows(ArithmeticException.class, () -> new CumulMontant().ajouterCentimes(1).fusionner(cumul));
+    }
+}
@@ -0,0 +1,80 @@
+package com.yooyob.erp.util;
+
+import com.datastax.oss.driver.api.core.servererrors.ProtocolError;
+import com.yooyob.erp.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.cassandra.core.query.CassandraPageRequest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurseurUtilTest {
+
+    @Test
+    void curseurEncodeSeRelitAvecLeMemeEtatDePagination() {
+        byte[] etat = {0, 1, 2, (byte) 0xFE, (byte) 0xFF, 42};
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a"),
+                CassandraPageRequest.of(PageRequest.of(0, 10), ByteBuffer.wrap(etat)), true);
+
+        String curseur = CurseurUtil.encoder(slice);
+        CassandraPageRequest requete = CurseurUtil.decoder(curseur, 10);
+
+        assertEquals(ByteBuffer.wrap(etat), requete.getPagingState());
+        assertEquals(10, requete.getPageSize());
+    }
+
+    @Test
+    void premierePageSansCurseur() {
+        assertNull(CurseurUtil.decoder(null, 20).getPagingState());
+        assertNull(CurseurUtil.decoder("  ", 20).getPagingState());
+    }
+
+    @Test
+    void derniereTrancheSansCurseurSuivant() {
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a"),
+                CassandraPageRequest.of(PageRequest.of(0, 10), ByteBuffer.wrap(new byte[]{1})), false);
+
+        assertNull(CurseurUtil.encoder(slice));
+        assertFalse(CurseurUtil.versReponse(slice, contenu -> contenu).getPageSuivante());
+    }
+
+    @Test
+    void rejetteUnCurseurMalForme() {
+        assertCurseurInvalide(() -> CurseurUtil.decoder("pas du base64 !", 20));
+        assertCurseurInvalide(() -> CurseurUtil.decoder("=", 20));
+        assertThrows(ValidationException.class, () -> CurseurUtil.decoder(null, 0));
+        assertThrows(ValidationException.class, () -> CurseurUtil.decoder(null, CurseurUtil.TAILLE_MAX + 1));
+    }
+
+    @Test
+    void rejetteUnEtatDePaginationRefuseParCassandra() {
+        CassandraPageRequest requete = CurseurUtil.decoder("Zm9yZ8Op", 20);
+
+        assertCurseurInvalide(() -> CurseurUtil.lire(requete, r -> {
+            throw new RuntimeException(new ProtocolError(null, "Invalid value for the paging state"));
+        }));
+    }
+
+    @Test
+    void laisseRemonterLesAutresErreurs() {
+        CassandraPageRequest premiere = CurseurUtil.decoder(null, 20);
+        CassandraPageRequest suivante = CurseurUtil.decoder("Zm9yZ8Op", 20);
+        IllegalStateException panne = new IllegalStateException("Noeud indisponible");
+
+        assertSame(panne, assertThrows(IllegalStateException.class, () -> CurseurUtil.lire(suivante, r -> {
+            throw panne;
+        })));
+        assertThrows(ProtocolError.class, () -> CurseurUtil.lire(premiere, r -> {
+            throw new ProtocolError(null, "Erreur de protocole");
+        }));
+    }
+
+    private static void assertCurseurInvalide(org.junit.jupiter.api.function.Executable appel) {
+        ValidationException erreur = assertThrows(ValidationException.class, appel);
+        assertEquals("CURSEUR_INVALIDE", erreur.getErrorCode());
+    }
+}
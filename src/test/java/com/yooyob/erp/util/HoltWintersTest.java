@@ -0,0 +1,72 @@
+package com.yooyob.erp.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoltWintersTest {
+
+    private static final double[] SAISONS = {-30, -20, -10, 0, 10, 20, 30, 20, 10, 0, -10, -20};
+
+    @Test
+    void prevoitUneSerieSaisonniereAvecTendance() {
+        // La tendance part de zéro : il faut plusieurs saisons pour qu'elle rejoigne la pente de la série
+        int nombreObservations = 20 * HoltWinters.SAISONNALITE;
+        HoltWinters modele = new HoltWinters(0.3, 0.1, 0.2);
+        for (int t = 0; t < nombreObservations; t++) {
+            modele.integrer(t % 12 + 1, serie(t));
+        }
+
+        for (int horizon = 1; horizon <= 12; horizon++) {
+            int t = nombreObservations + horizon - 1;
+            assertEquals(serie(t), modele.prevoir(horizon, t % 12 + 1), 2,
+                    "Prévision à " + horizon + " mois");
+        }
+        assertEquals(2, modele.getTendance(), 0.1);
+        assertTrue(modele.getErreurRelative() < 0.01, "WAPE " + modele.getErreurRelative());
+    }
+
+    @Test
+    void premiereSaisonPrevueAuNiveauMoyen() {
+        HoltWinters modele = new HoltWinters(0.3, 0.1, 0.2);
+        modele.integrer(1, 100);
+        modele.integrer(2, 200);
+
+        assertEquals(150, modele.prevoir(1, 3), 1e-9);
+        assertEquals(0, modele.getNombreErreurs());
+    }
+
+    @Test
+    void previsionJamaisNegative() {
+        HoltWinters modele = new HoltWinters(0.5, 0.5, 0.2);
+        // Effondrement de l'activité après une première année stable : niveau et tendance passent sous zéro
+        for (int t = 0; t < 18; t++) {
+            modele.integrer(t % 12 + 1, t < 12 ? 1_000 : 0);
+        }
+
+        assertTrue(modele.getTendance() < 0);
+        assertEquals(0, modele.prevoir(1, 7));
+        assertEquals(0, modele.prevoir(12, 6));
+    }
+
+    @Test
+    void etatRestaureProduitLesMemesPrevisions() {
+        HoltWinters modele = new HoltWinters(0.3, 0.1, 0.2);
+        for (int t = 0; t < 30; t++) {
+            modele.integrer(t % 12 + 1, serie(t));
+        }
+
+        HoltWinters restaure = new HoltWinters(0.3, 0.1, 0.2, modele.getNiveau(), modele.getTendance(),
+                modele.getSaisons(), modele.getNombreObservations(), modele.getSommeErreursAbsolues(),
+                modele.getSommeValeursAbsolues(), modele.getNombreErreurs());
+        modele.integrer(7, serie(30));
+        restaure.integrer(7, serie(30));
+
+        assertEquals(modele.prevoir(1, 8), restaure.prevoir(1, 8), 1e-9);
+        assertEquals(modele.getErreurRelative(), restaure.getErreurRelative(), 1e-12);
+    }
+
+    private static double serie(int t) {
+        return 1_000 + 2 * t + SAISONS[t % 12];
+    }
+}
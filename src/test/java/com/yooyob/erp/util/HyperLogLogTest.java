@@ -0,0 +1,69 @@
+package com.yooyob.erp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    // Trois écarts types : une estimation hors de cette borne signale une régression, pas le hasard
+    private static final double TOLERANCE = 3 * HyperLogLog.ERREUR_RELATIVE;
+
+    @Test
+    void estimeMilleIdentifiantsDansLaBorneDErreur() {
+        verifierEstimation(1_000);
+    }
+
+    @Test
+    void estimeUnMillionDIdentifiantsDansLaBorneDErreur() {
+        verifierEstimation(1_000_000);
+    }
+
+    @Test
+    void ignoreLesDoublons() {
+        HyperLogLog esquisse = new HyperLogLog();
+        UUID id = UUID.randomUUID();
+
+        assertTrue(esquisse.ajouter(id));
+        assertFalse(esquisse.ajouter(id));
+        assertEquals(1, esquisse.estimer());
+    }
+
+    @Test
+    void fusionEstimeLUnionDesEnsembles() {
+        Random random = new Random(7);
+        HyperLogLog premiere = new HyperLogLog();
+        HyperLogLog seconde = new HyperLogLog();
+        HyperLogLog totale = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            (i % 2 == 0 ? premiere : seconde).ajouter(id);
+            totale.ajouter(id);
+        }
+
+        assertEquals(totale, premiere.fusionner(seconde));
+    }
+
+    @Test
+    void serialisationConserveLesRegistres() {
+        HyperLogLog esquisse = new HyperLogLog();
+        esquisse.ajouter(UUID.randomUUID());
+
+        assertEquals(esquisse, HyperLogLog.depuisOctets(esquisse.versOctets()));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.depuisOctets(new byte[10]));
+    }
+
+    private static void verifierEstimation(int nombre) {
+        Random random = new Random(nombre);
+        HyperLogLog esquisse = new HyperLogLog();
+        for (int i = 0; i < nombre; i++) {
+            esquisse.ajouter(new UUID(random.nextLong(), random.nextLong()));
+        }
+
+        double erreur = Math.abs(esquisse.estimer() - nombre) / (double) nombre;
+        assertTrue(erreur <= TOLERANCE, "Erreur relative " + erreur + " pour " + nombre + " identifiants");
+    }
+}
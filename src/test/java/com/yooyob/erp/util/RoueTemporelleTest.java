@@ -0,0 +1,76 @@
+package com.yooyob.erp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoueTemporelleTest {
+
+    private static final int NOMBRE_CASES = 8;
+
+    @Test
+    void expireAuTicPrevuQuelQueSoitLeDelai() {
+        RoueTemporelle<String> roue = new RoueTemporelle<>(NOMBRE_CASES);
+        // Le curseur n'est pas à zéro : les échéances doivent rester relatives au tic courant
+        roue.avancer();
+        roue.avancer();
+        roue.avancer();
+
+        Map<String, Long> delais = Map.of(
+                "inferieur", 5L,
+                "egal", (long) NOMBRE_CASES,
+                "superieur", 13L,
+                "plusieursTours", 3L * NOMBRE_CASES + 1);
+        delais.forEach(roue::planifier);
+
+        Map<String, Long> expirations = avancerJusquAuVide(roue, 100);
+
+        assertEquals(delais, expirations);
+    }
+
+    @Test
+    void delaiNulExpireAuProchainTic() {
+        RoueTemporelle<String> roue = new RoueTemporelle<>(NOMBRE_CASES);
+        roue.planifier("immediat", 0);
+
+        assertEquals(List.of("immediat"), roue.avancer());
+        assertEquals(0, roue.getNombreElements());
+    }
+
+    @Test
+    void replanifierRemplaceLEcheanceEtAnnulerRetire() {
+        RoueTemporelle<String> roue = new RoueTemporelle<>(NOMBRE_CASES);
+        roue.planifier("replanifie", 2);
+        roue.planifier("annule", 2);
+        roue.planifier("replanifie", 11);
+
+        assertTrue(roue.annuler("annule"));
+        assertFalse(roue.annuler("annule"));
+        assertEquals(Map.of("replanifie", 11L), avancerJusquAuVide(roue, 100));
+    }
+
+    @Test
+    void roueAUneCase() {
+        RoueTemporelle<String> roue = new RoueTemporelle<>(1);
+        roue.planifier("a", 1);
+        roue.planifier("b", 4);
+
+        assertEquals(Map.of("a", 1L, "b", 4L), avancerJusquAuVide(roue, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RoueTemporelle<String>(0));
+    }
+
+    private static Map<String, Long> avancerJusquAuVide(RoueTemporelle<String> roue, int ticsMax) {
+        Map<String, Long> expirations = new HashMap<>();
+        for (long tic = 1; tic <= ticsMax && roue.getNombreElements() > 0; tic++) {
+            for (String element : roue.avancer()) {
+                assertNull(expirations.put(element, tic), element + " a expiré deux fois");
+            }
+        }
+        assertEquals(0, roue.getNombreElements());
+        return expirations;
+    }
+}
@@ -0,0 +1,75 @@
+package com.yooyob.erp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TDigestTest {
+
+    private static final int NOMBRE_VALEURS = 100_000;
+
+    @Test
+    void quantilesProchesDesQuantilesExacts() {
+        double[] valeurs = montantsLogNormaux(new Random(11), NOMBRE_VALEURS);
+        TDigest digest = new TDigest();
+        for (double valeur : valeurs) {
+            digest.ajouter(valeur);
+        }
+        Arrays.sort(valeurs);
+
+        // Tolérance exprimée en rang : plus fine en queue, là où la fonction d'échelle resserre les centroïdes
+        verifierQuantile(digest, valeurs, 0.50, 0.005);
+        verifierQuantile(digest, valeurs, 0.99, 0.001);
+        assertEquals(NOMBRE_VALEURS, digest.getNombre());
+        assertEquals(valeurs[0], digest.getMin());
+        assertEquals(valeurs[NOMBRE_VALEURS - 1], digest.getMax());
+    }
+
+    @Test
+    void fusionEquivautAuDigestDeLUnion() {
+        Random random = new Random(13);
+        double[] valeurs = montantsLogNormaux(random, NOMBRE_VALEURS);
+        TDigest premier = new TDigest();
+        TDigest second = new TDigest();
+        for (int i = 0; i < valeurs.length; i++) {
+            (i < valeurs.length / 3 ? premier : second).ajouter(valeurs[i]);
+        }
+
+        TDigest fusion = TDigest.depuisOctets(premier.fusionner(second).versOctets());
+        Arrays.sort(valeurs);
+
+        verifierQuantile(fusion, valeurs, 0.50, 0.005);
+        verifierQuantile(fusion, valeurs, 0.99, 0.002);
+        assertEquals(NOMBRE_VALEURS, fusion.getNombre());
+    }
+
+    @Test
+    void digestVideOuInvalide() {
+        TDigest digest = new TDigest();
+
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+        assertEquals(0, digest.compterEntre(0, 100));
+        assertThrows(IllegalArgumentException.class, () -> digest.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> TDigest.depuisOctets(new byte[3]));
+    }
+
+    private static void verifierQuantile(TDigest digest, double[] triees, double q, double toleranceRang) {
+        double estime = digest.quantile(q);
+        double borneInf = triees[(int) ((q - toleranceRang) * triees.length)];
+        double borneSup = triees[(int) Math.min(triees.length - 1, (q + toleranceRang) * triees.length)];
+
+        assertTrue(estime >= borneInf && estime <= borneSup,
+                "Quantile " + q + " estimé à " + estime + " hors de [" + borneInf + ", " + borneSup + "]");
+    }
+
+    private static double[] montantsLogNormaux(Random random, int nombre) {
+        double[] valeurs = new double[nombre];
+        for (int i = 0; i < nombre; i++) {
+            valeurs[i] = Math.exp(7 + 1.2 * random.nextGaussian());
+        }
+        return valeurs;
+    }
+}